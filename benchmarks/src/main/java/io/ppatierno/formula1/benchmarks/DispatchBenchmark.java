@@ -0,0 +1,140 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1.benchmarks;
+
+import io.ppatierno.formula1.DispatchRouteBuilder;
+import io.ppatierno.formula1.PacketFixtures;
+import io.ppatierno.formula1.ReceivedPacket;
+import org.apache.camel.AsyncCallback;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.AsyncProcessorSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the DispatchRouteBuilder multicast and disruptor modes, with raw packets, events and drivers stages
+ * completing asynchronously after the brokerLatencyUs, as the Kafka producers do on the broker acknowledgement,
+ * or no-op ones with brokerLatencyUs = 0.
+ * It measures the sustained packets per second and the latency for a packet to go through all the stages.
+ * The latency benchmark runs in sample time mode so percentiles (p0.99) are reported.
+ */
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DispatchBenchmark {
+
+    private static final String FROM_URI = "direct:udp";
+    private static final int STAGES = 3;
+    // about the number of packets sent by the game in a frame
+    private static final int BURST = 8;
+
+    @Param({ DispatchRouteBuilder.MULTICAST_MODE, DispatchRouteBuilder.DISRUPTOR_MODE })
+    private String mode;
+
+    @Param({ "blocking" })
+    private String waitStrategy;
+
+    // about the round trip time to a broker in the same network
+    @Param({ "0", "1000" })
+    private long brokerLatencyUs;
+
+    private CamelContext camelContext;
+    // single thread completing the stages, as the Kafka producer I/O thread
+    private ScheduledExecutorService broker;
+    private ProducerTemplate producerTemplate;
+    private ReceivedPacket packet;
+    private final AtomicLong processed = new AtomicLong();
+    private long sent;
+
+    @Setup
+    public void setup() throws Exception {
+        this.packet = new ReceivedPacket(PacketFixtures.eventPacket(1), "benchmark");
+        this.broker = Executors.newSingleThreadScheduledExecutor();
+        this.camelContext = new DefaultCamelContext();
+        this.camelContext.addRoutes(new DispatchRouteBuilder(FROM_URI, this.mode, 4096, this.waitStrategy));
+        this.camelContext.addRoutes(new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("direct:raw-packets").process(new BrokerStage());
+                from("direct:events").process(new BrokerStage());
+                from("direct:drivers").process(new BrokerStage());
+            }
+        });
+        this.camelContext.start();
+        this.producerTemplate = this.camelContext.createProducerTemplate();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        this.producerTemplate.stop();
+        this.camelContext.stop();
+        this.broker.shutdownNow();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(BURST)
+    public void throughput() {
+        for (int i = 0; i < BURST; i++) {
+            this.producerTemplate.sendBody(FROM_URI, this.packet);
+        }
+        this.awaitProcessed(BURST);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void latency() {
+        this.producerTemplate.sendBody(FROM_URI, this.packet);
+        this.awaitProcessed(1);
+    }
+
+    private void awaitProcessed(int packets) {
+        this.sent += packets;
+        long expected = this.sent * STAGES;
+        while (this.processed.get() < expected) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private class BrokerStage extends AsyncProcessorSupport {
+
+        @Override
+        public boolean process(Exchange exchange, AsyncCallback callback) {
+            if (brokerLatencyUs == 0) {
+                processed.incrementAndGet();
+                callback.done(true);
+                return true;
+            }
+            broker.schedule(() -> {
+                processed.incrementAndGet();
+                callback.done(false);
+            }, brokerLatencyUs, TimeUnit.MICROSECONDS);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1.benchmarks;
+
+import io.ppatierno.formula1.Driver;
+import io.ppatierno.formula1.DriverDeserializer;
+import io.ppatierno.formula1.DriverFixtures;
+import io.ppatierno.formula1.DriverSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the DriverDeserializer throughput, eager and lazy, getting the driver names as the consumers do
+ * (i.e. InfluxDB points and Streams apps keyed by hashtag). Run with "-prof gc" to get the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DriverDeserializerBenchmark {
+
+    private static final String TOPIC = "f1-telemetry-drivers";
+
+    @Param({ "false", "true" })
+    private boolean lazy;
+
+    private byte[] bytes;
+    private DriverDeserializer deserializer;
+
+    @Setup
+    public void setup() {
+        this.bytes = new DriverSerializer().serialize(TOPIC, DriverFixtures.driver());
+        this.deserializer = new DriverDeserializer();
+        this.deserializer.configure(Collections.singletonMap(DriverDeserializer.LAZY_CONFIG, String.valueOf(this.lazy)), false);
+    }
+
+    @Benchmark
+    public void deserialize(Blackhole blackhole) {
+        Driver driver = this.deserializer.deserialize(TOPIC, this.bytes);
+        blackhole.consume(driver.getHashtag());
+        blackhole.consume(driver.getShortName());
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1.benchmarks;
+
+import io.ppatierno.formula1.Driver;
+import io.ppatierno.formula1.DriverFixtures;
+import io.ppatierno.formula1.DriverSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the DriverSerializer allocating a new buffer for each Driver against the one reusing a per-thread
+ * scratch buffer. Run with "-prof gc" to get the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DriverSerializerBenchmark {
+
+    private static final String TOPIC = "f1-telemetry-drivers";
+
+    private Driver driver;
+    private DriverSerializer allocatingSerializer;
+    private DriverSerializer reusingSerializer;
+
+    @Setup
+    public void setup() {
+        this.driver = DriverFixtures.driver();
+        this.allocatingSerializer = new DriverSerializer();
+        this.allocatingSerializer.configure(Collections.emptyMap(), false);
+        this.reusingSerializer = new DriverSerializer();
+        this.reusingSerializer.configure(Collections.singletonMap(DriverSerializer.REUSE_BUFFER_CONFIG, "true"), false);
+    }
+
+    @Benchmark
+    public byte[] allocatingBuffer() {
+        return this.allocatingSerializer.serialize(TOPIC, this.driver);
+    }
+
+    @Benchmark
+    public byte[] reusingBuffer() {
+        return this.reusingSerializer.serialize(TOPIC, this.driver);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1.benchmarks;
+
+import io.ppatierno.formula1.DriverFixtures;
+import io.ppatierno.formula1.Event;
+import io.ppatierno.formula1.EventDeserializer;
+import io.ppatierno.formula1.EventSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the EventSerializer and EventDeserializer on an event related to a driver,
+ * as throughput and as sampled latency. Run with "-prof gc" to get the allocation rate.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EventSerdeBenchmark {
+
+    private static final String TOPIC = "f1-telemetry-events";
+
+    private Event event;
+    private byte[] bytes;
+    private EventSerializer serializer;
+    private EventDeserializer deserializer;
+
+    @Setup
+    public void setup() {
+        this.event = DriverFixtures.event();
+        this.serializer = new EventSerializer();
+        this.deserializer = new EventDeserializer();
+        this.bytes = this.serializer.serialize(TOPIC, this.event);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return this.serializer.serialize(TOPIC, this.event);
+    }
+
+    @Benchmark
+    public Event deserialize() {
+        return this.deserializer.deserialize(TOPIC, this.bytes);
+    }
+}
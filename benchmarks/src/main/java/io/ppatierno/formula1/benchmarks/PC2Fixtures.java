@@ -0,0 +1,43 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1.benchmarks;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.ppatierno.formula1.pc2.PacketTypes;
+
+/**
+ * Provides raw datagrams as sent by Project CARS 2 (UDP protocol v2)
+ */
+public class PC2Fixtures {
+
+    private static final int CAR_PHYSICS_SIZE = 556;
+    private static final int PACKET_TYPE_OFFSET = 10;
+    private static final int PACKET_VERSION_OFFSET = 11;
+
+    // payload of the game state packet captured in the pc2-decoder test resources (pc2_v2_1.pcap)
+    private static final byte[] GAME_STATE = {
+            (byte) 0xa9, 0x16, 0x00, 0x00, (byte) 0xda, 0x00, 0x00, 0x00,
+            0x01, 0x01, 0x04, 0x02, 0x00, 0x00, 0x01, 0x00,
+            0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00
+    };
+
+    /**
+     * @return the datagram of a captured game state packet
+     */
+    public static ByteBuf gameStateDatagram() {
+        return Unpooled.wrappedBuffer(GAME_STATE.clone());
+    }
+
+    /**
+     * @return the datagram of a car physics packet (version 3), with all zeros in the body
+     */
+    public static ByteBuf carPhysicsDatagram() {
+        byte[] bytes = new byte[CAR_PHYSICS_SIZE];
+        bytes[PACKET_TYPE_OFFSET] = (byte) PacketTypes.CarPhysics.ordinal();
+        bytes[PACKET_VERSION_OFFSET] = 3;
+        return Unpooled.wrappedBuffer(bytes);
+    }
+}
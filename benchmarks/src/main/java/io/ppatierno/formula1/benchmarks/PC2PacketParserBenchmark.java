@@ -0,0 +1,53 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1.benchmarks;
+
+import io.netty.buffer.ByteBuf;
+import io.ppatierno.formula1.pc2.BasePacket;
+import io.ppatierno.formula1.pc2.PC2PacketParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the PC2PacketParser on a captured game state packet and on a car physics packet,
+ * the one sent at the highest rate, as throughput and as sampled latency. Run with "-prof gc" to get the allocation rate.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PC2PacketParserBenchmark {
+
+    @Param({ "GameState", "CarPhysics" })
+    private String packetType;
+
+    private PC2PacketParser parser;
+    private ByteBuf datagram;
+
+    @Setup
+    public void setup() {
+        this.parser = new PC2PacketParser();
+        this.datagram = "CarPhysics".equals(this.packetType) ? PC2Fixtures.carPhysicsDatagram() : PC2Fixtures.gameStateDatagram();
+    }
+
+    @Benchmark
+    public BasePacket parse() {
+        // the parser doesn't move the reader index, it reads from a duplicate
+        return this.parser.parse(this.datagram);
+    }
+}
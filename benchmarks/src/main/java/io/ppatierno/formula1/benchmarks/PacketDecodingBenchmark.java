@@ -0,0 +1,77 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1.benchmarks;
+
+import io.netty.buffer.ByteBuf;
+import io.ppatierno.formula1.FrameAssembler;
+import io.ppatierno.formula1.PacketEventDecoder;
+import io.ppatierno.formula1.PacketFixtures;
+import io.ppatierno.formula1.PacketPool;
+import io.ppatierno.formula1.ReceivedPacket;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the PacketEventDecoder decoding new Packet instances for every datagram against the one filling
+ * the instances recycled from a PacketPool, on the packets sent by the game for every frame.
+ * Run with the GC profiler (-prof gc) to get the allocation rate (gc.alloc.rate.norm is the bytes allocated per packet).
+ */
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class PacketDecodingBenchmark {
+
+    private static final String FRAME_PACKETS = "MOTION,LAP_DATA,CAR_TELEMETRY,CAR_STATUS";
+    private static final int FRAME_SIZE = 4;
+
+    @Param({ "false", "true" })
+    private boolean pooled;
+
+    private PacketEventDecoder decoder;
+    private ByteBuf[] datagrams;
+    private InetSocketAddress sender;
+
+    @Setup
+    public void setup() {
+        this.decoder = this.pooled ?
+                new PacketEventDecoder(new PacketPool(FrameAssembler.parsePacketIds(FRAME_PACKETS), 16)) : new PacketEventDecoder();
+        this.datagrams = new ByteBuf[] {
+                PacketFixtures.motionDatagram(1),
+                PacketFixtures.lapDataDatagram(1),
+                PacketFixtures.carTelemetryDatagram(1),
+                PacketFixtures.carStatusDatagram(1)
+        };
+        this.sender = new InetSocketAddress("127.0.0.1", 20777);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAME_SIZE)
+    public void decodeFrame(Blackhole blackhole) {
+        for (ByteBuf datagram : this.datagrams) {
+            datagram.readerIndex(0);
+            ReceivedPacket receivedPacket = this.decoder.decode(datagram, this.sender);
+            blackhole.consume(receivedPacket.getPacket());
+            // no-op when not pooled, as the packets would be just left to the GC
+            receivedPacket.release();
+        }
+    }
+}
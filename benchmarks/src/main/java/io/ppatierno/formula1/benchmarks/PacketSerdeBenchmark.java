@@ -0,0 +1,80 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1.benchmarks;
+
+import io.ppatierno.formula1.PacketDecoder;
+import io.ppatierno.formula1.PacketDeserializer;
+import io.ppatierno.formula1.PacketFixtures;
+import io.ppatierno.formula1.PacketSerializer;
+import io.ppatierno.formula1.packets.Packet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the PacketSerializer and PacketDeserializer, used for the raw packets topic, on each of the packets
+ * sent by the game for every frame, as throughput and as sampled latency. Run with "-prof gc" to get the allocation rate.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PacketSerdeBenchmark {
+
+    private static final String TOPIC = "f1-telemetry-packets";
+
+    @Param({ "MOTION", "LAP_DATA", "CAR_TELEMETRY", "CAR_STATUS" })
+    private String packetId;
+
+    private Packet packet;
+    private byte[] bytes;
+    private PacketSerializer serializer;
+    private PacketDeserializer deserializer;
+
+    @Setup
+    public void setup() {
+        switch (this.packetId) {
+            case "MOTION":
+                this.packet = new PacketDecoder().decode(PacketFixtures.motionDatagram(1));
+                break;
+            case "LAP_DATA":
+                this.packet = new PacketDecoder().decode(PacketFixtures.lapDataDatagram(1));
+                break;
+            case "CAR_TELEMETRY":
+                this.packet = new PacketDecoder().decode(PacketFixtures.carTelemetryDatagram(1));
+                break;
+            case "CAR_STATUS":
+                this.packet = new PacketDecoder().decode(PacketFixtures.carStatusDatagram(1));
+                break;
+            default:
+                throw new IllegalArgumentException("Packet " + this.packetId + " not supported");
+        }
+        this.serializer = new PacketSerializer();
+        this.deserializer = new PacketDeserializer();
+        this.bytes = this.serializer.serialize(TOPIC, this.packet);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return this.serializer.serialize(TOPIC, this.packet);
+    }
+
+    @Benchmark
+    public Packet deserialize() {
+        return this.deserializer.deserialize(TOPIC, this.bytes);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1.benchmarks;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.ppatierno.formula1.PacketFixtures;
+import io.ppatierno.formula1.ProducerProfile;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the producer profiles sending raw packets (as the raw packets passthrough does) to a local Kafka cluster,
+ * reporting the sustained records per second. When the producer buffer is full the send blocks, so the rate
+ * is bound to what the cluster acknowledges.
+ * The cluster is the one at the KAFKA_BOOTSTRAP_SERVERS environment variable (default localhost:9092)
+ * and the topic the one at the BENCHMARK_TOPIC environment variable (default f1-telemetry-benchmark).
+ */
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class ProducerProfileBenchmark {
+
+    @Param({ ProducerProfile.LATENCY, ProducerProfile.THROUGHPUT })
+    private String profile;
+
+    private KafkaProducer<byte[], byte[]> producer;
+    private String topic;
+    private byte[][] packets;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Map<String, Object> config = new HashMap<>(ProducerProfile.of(this.profile).toProducerConfig());
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, System.getenv("KAFKA_BOOTSTRAP_SERVERS") == null ? "localhost:9092" : System.getenv("KAFKA_BOOTSTRAP_SERVERS"));
+        config.put(ProducerConfig.CLIENT_ID_CONFIG, "producer-profile-benchmark");
+        this.producer = new KafkaProducer<>(config, new ByteArraySerializer(), new ByteArraySerializer());
+        this.topic = System.getenv("BENCHMARK_TOPIC") == null ? "f1-telemetry-benchmark" : System.getenv("BENCHMARK_TOPIC");
+        // the packets sent for every frame
+        ByteBuf[] datagrams = {
+                PacketFixtures.motionDatagram(1),
+                PacketFixtures.lapDataDatagram(1),
+                PacketFixtures.carTelemetryDatagram(1),
+                PacketFixtures.carStatusDatagram(1)
+        };
+        this.packets = new byte[datagrams.length][];
+        for (int i = 0; i < datagrams.length; i++) {
+            this.packets[i] = ByteBufUtil.getBytes(datagrams[i]);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void flush() {
+        // not measured, just avoids the records buffered in an iteration slowing down the next one
+        this.producer.flush();
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.producer.close();
+    }
+
+    @Benchmark
+    public void send() {
+        this.producer.send(new ProducerRecord<>(this.topic, this.packets[this.next]));
+        this.next = (this.next + 1) % this.packets.length;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1.benchmarks;
+
+import io.ppatierno.formula1.Driver;
+import io.ppatierno.formula1.PacketDecoder;
+import io.ppatierno.formula1.PacketFixtures;
+import io.ppatierno.formula1.Session;
+import io.ppatierno.formula1.SessionColumns;
+import io.ppatierno.formula1.packets.Packet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading a metric across all the cars from the Driver objects of a Session against reading it
+ * from the SessionColumns, with the average speed and the gaps to the leader as analytics.
+ */
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class SessionColumnsBenchmark {
+
+    private List<Driver> drivers;
+    private Session session;
+    private float averageSpeed;
+    private final float[] gaps = new float[SessionColumns.MAX_CARS];
+
+    @Setup
+    public void setup() {
+        PacketDecoder decoder = new PacketDecoder();
+        List<Packet> frame = Arrays.asList(
+                decoder.decode(PacketFixtures.participantsDatagram(PacketFixtures.SESSION_UID, 1)),
+                decoder.decode(PacketFixtures.motionDatagram(1)),
+                decoder.decode(PacketFixtures.lapDataDatagram(1)),
+                decoder.decode(PacketFixtures.carTelemetryDatagram(1)),
+                decoder.decode(PacketFixtures.carStatusDatagram(1))
+        );
+        this.session = new Session(true);
+        this.drivers = this.session.updateFrame(frame);
+    }
+
+    @Benchmark
+    public float averageSpeedDrivers() {
+        long sum = 0;
+        for (Driver driver : this.drivers) {
+            sum += driver.getCarTelemetryData().getSpeed();
+        }
+        return (float) sum / this.drivers.size();
+    }
+
+    @Benchmark
+    public float averageSpeedColumns() {
+        // the columns can be read only within the reader, as the session updates them in place
+        this.session.readColumns(columns -> this.averageSpeed = columns.averageSpeed());
+        return this.averageSpeed;
+    }
+
+    @Benchmark
+    public float[] gapsToLeaderDrivers() {
+        float leader = Float.NEGATIVE_INFINITY;
+        for (Driver driver : this.drivers) {
+            leader = Math.max(leader, driver.getLapData().getTotalDistance());
+        }
+        for (int i = 0; i < this.drivers.size(); i++) {
+            this.gaps[i] = leader - this.drivers.get(i).getLapData().getTotalDistance();
+        }
+        return this.gaps;
+    }
+
+    @Benchmark
+    public float[] gapsToLeaderColumns() {
+        this.session.readColumns(columns -> columns.gapsToLeader(this.gaps));
+        return this.gaps;
+    }
+}
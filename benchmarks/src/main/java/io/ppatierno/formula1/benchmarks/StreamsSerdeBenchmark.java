@@ -0,0 +1,84 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1.benchmarks;
+
+import io.ppatierno.formula1.BestOverallSector;
+import io.ppatierno.formula1.BestOverallSectorDeserializer;
+import io.ppatierno.formula1.BestOverallSectorSerializer;
+import io.ppatierno.formula1.DriverFixtures;
+import io.ppatierno.formula1.SpeedCountAndSum;
+import io.ppatierno.formula1.SpeedCountAndSumDeserializer;
+import io.ppatierno.formula1.SpeedCountAndSumSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the serdes of the Kafka Streams applications state and output: the SpeedCountAndSum aggregate
+ * of the average speed application and the BestOverallSector of the laps one, as throughput and as sampled latency.
+ * Run with "-prof gc" to get the allocation rate.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class StreamsSerdeBenchmark {
+
+    private static final String TOPIC = "f1-telemetry-streams";
+
+    private SpeedCountAndSum speedCountAndSum;
+    private byte[] speedCountAndSumBytes;
+    private SpeedCountAndSumSerializer speedCountAndSumSerializer;
+    private SpeedCountAndSumDeserializer speedCountAndSumDeserializer;
+
+    private BestOverallSector bestOverallSector;
+    private byte[] bestOverallSectorBytes;
+    private BestOverallSectorSerializer bestOverallSectorSerializer;
+    private BestOverallSectorDeserializer bestOverallSectorDeserializer;
+
+    @Setup
+    public void setup() {
+        this.speedCountAndSum = new SpeedCountAndSum(600, 180000);
+        this.speedCountAndSumSerializer = new SpeedCountAndSumSerializer();
+        this.speedCountAndSumDeserializer = new SpeedCountAndSumDeserializer();
+        this.speedCountAndSumBytes = this.speedCountAndSumSerializer.serialize(TOPIC, this.speedCountAndSum);
+
+        this.bestOverallSector = new BestOverallSector((short) 1, DriverFixtures.driver().getHashtag(), 28345, (short) 12);
+        this.bestOverallSectorSerializer = new BestOverallSectorSerializer();
+        this.bestOverallSectorDeserializer = new BestOverallSectorDeserializer();
+        this.bestOverallSectorBytes = this.bestOverallSectorSerializer.serialize(TOPIC, this.bestOverallSector);
+    }
+
+    @Benchmark
+    public byte[] serializeSpeedCountAndSum() {
+        return this.speedCountAndSumSerializer.serialize(TOPIC, this.speedCountAndSum);
+    }
+
+    @Benchmark
+    public SpeedCountAndSum deserializeSpeedCountAndSum() {
+        return this.speedCountAndSumDeserializer.deserialize(TOPIC, this.speedCountAndSumBytes);
+    }
+
+    @Benchmark
+    public byte[] serializeBestOverallSector() {
+        return this.bestOverallSectorSerializer.serialize(TOPIC, this.bestOverallSector);
+    }
+
+    @Benchmark
+    public BestOverallSector deserializeBestOverallSector() {
+        return this.bestOverallSectorDeserializer.deserialize(TOPIC, this.bestOverallSectorBytes);
+    }
+}
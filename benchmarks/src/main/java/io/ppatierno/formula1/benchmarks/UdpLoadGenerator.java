@@ -0,0 +1,90 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1.benchmarks;
+
+import io.netty.buffer.ByteBuf;
+import io.ppatierno.formula1.PacketFixtures;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Simulates more rigs sending the F1 2020 packets to the udp-kafka application, for testing the ingestion locally.
+ * Each rig has its own socket (so its own source port) and game session, sending the motion, lap data, car telemetry
+ * and car status packets for every frame at the configured rate and the participants packet every second.
+ *
+ * Usage: UdpLoadGenerator [host] [port] [rigs] [rate (frames per second)] [duration (seconds)]
+ */
+public class UdpLoadGenerator {
+
+    private static final int PARTICIPANTS_INTERVAL = 60;
+
+    public static void main(String[] args) throws Exception {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 20777;
+        int rigs = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int rate = args.length > 3 ? Integer.parseInt(args[3]) : 60;
+        int duration = args.length > 4 ? Integer.parseInt(args[4]) : 30;
+
+        InetSocketAddress target = new InetSocketAddress(host, port);
+        AtomicLong sent = new AtomicLong();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(duration);
+        System.out.printf("Sending to %s from %d rigs at %d Hz for %d seconds%n", target, rigs, rate, duration);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < rigs; i++) {
+            long sessionUid = PacketFixtures.SESSION_UID + i;
+            Thread thread = new Thread(() -> rig(target, sessionUid, rate, deadline, sent), "rig-" + i);
+            thread.start();
+            threads.add(thread);
+        }
+
+        long last = 0;
+        while (System.nanoTime() < deadline) {
+            Thread.sleep(1000);
+            long total = sent.get();
+            System.out.printf("%d packets/s%n", total - last);
+            last = total;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        System.out.printf("Sent %d packets%n", sent.get());
+    }
+
+    private static void rig(InetSocketAddress target, long sessionUid, int rate, long deadline, AtomicLong sent) {
+        long period = TimeUnit.SECONDS.toNanos(1) / rate;
+        try (DatagramChannel channel = DatagramChannel.open()) {
+            channel.connect(target);
+            long next = System.nanoTime();
+            for (int frameId = 0; next < deadline; frameId++) {
+                if (frameId % PARTICIPANTS_INTERVAL == 0) {
+                    send(channel, PacketFixtures.participantsDatagram(sessionUid, frameId), sent);
+                }
+                send(channel, PacketFixtures.motionDatagram(sessionUid, frameId), sent);
+                send(channel, PacketFixtures.lapDataDatagram(sessionUid, frameId), sent);
+                send(channel, PacketFixtures.carTelemetryDatagram(sessionUid, frameId), sent);
+                send(channel, PacketFixtures.carStatusDatagram(sessionUid, frameId), sent);
+                next += period;
+                LockSupport.parkNanos(next - System.nanoTime());
+            }
+        } catch (IOException e) {
+            System.err.printf("Rig %x failed: %s%n", sessionUid, e);
+        }
+    }
+
+    private static void send(DatagramChannel channel, ByteBuf datagram, AtomicLong sent) throws IOException {
+        ByteBuffer buffer = datagram.nioBuffer();
+        channel.write(buffer);
+        sent.incrementAndGet();
+    }
+}
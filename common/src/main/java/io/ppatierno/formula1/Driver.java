@@ -30,11 +30,30 @@ public class Driver {
 
     public Driver(ParticipantData participantData) {
         this.participantData = participantData;
-        String driverId = participantData.getDriverId().name();
-        // build an hashtag as #<first_char_firstname><first_char_lastname><race_number>
-        this.hashtag = "#" + driverId.charAt(0) + driverId.charAt(driverId.indexOf("_") + 1) + participantData.getRaceNumber();
-        // build a short name using first 3 chars of lastname
-        this.shortName = driverId.substring(driverId.indexOf("_") + 1, driverId.indexOf("_") + 4);
+        this.buildNames(participantData);
+    }
+
+    /**
+     * Copy constructor, sharing the data sections with the provided Driver
+     *
+     * @param driver Driver to copy
+     */
+    public Driver(Driver driver) {
+        this.participantData = driver.getParticipantData();
+        this.carMotionData = driver.getCarMotionData();
+        this.lapData = driver.getLapData();
+        this.carSetupData = driver.getCarSetupData();
+        this.carTelemetryData = driver.getCarTelemetryData();
+        this.carStatusData = driver.getCarStatusData();
+        this.finalClassificationData = driver.getFinalClassificationData();
+        this.buildNames(this.participantData);
+    }
+
+    /**
+     * Constructor for subclasses providing the participant data later through {@link #getParticipantData()},
+     * hashtag and short name are built on first access
+     */
+    protected Driver() {
     }
 
     public ParticipantData getParticipantData() {
@@ -94,29 +113,42 @@ public class Driver {
     }
 
     public String getHashtag() {
+        if (this.hashtag == null) {
+            this.buildNames(this.getParticipantData());
+        }
         return hashtag;
     }
 
     public String getShortName() {
+        if (this.shortName == null) {
+            this.buildNames(this.getParticipantData());
+        }
         return shortName;
     }
 
     public boolean hasValidTelemetry() {
-        return this.carMotionData != null && this.lapData != null &&
-                this.carSetupData != null && this.carTelemetryData != null && this.carStatusData != null;
+        return this.getCarMotionData() != null && this.getLapData() != null &&
+                this.getCarSetupData() != null && this.getCarTelemetryData() != null && this.getCarStatusData() != null;
+    }
+
+    private void buildNames(ParticipantData participantData) {
+        if (participantData != null) {
+            this.hashtag = DriverNames.hashtag(participantData);
+            this.shortName = DriverNames.shortName(participantData);
+        }
     }
 
     @Override
     public String toString() {
-        return "Driver[participantData=" + this.participantData +
-                ",carMotionData=" + this.carMotionData +
-                ",lapData=" + this.lapData +
-                ",carSetupData=" + this.carSetupData +
-                ",catTelemetryData=" + this.carTelemetryData +
-                ",carStatusData=" + this.carStatusData +
-                ",finalClassificationData=" + this.finalClassificationData +
-                ",hashtag=" + this.hashtag +
-                ",shortName=" + this.shortName +
+        return "Driver[participantData=" + this.getParticipantData() +
+                ",carMotionData=" + this.getCarMotionData() +
+                ",lapData=" + this.getLapData() +
+                ",carSetupData=" + this.getCarSetupData() +
+                ",catTelemetryData=" + this.getCarTelemetryData() +
+                ",carStatusData=" + this.getCarStatusData() +
+                ",finalClassificationData=" + this.getFinalClassificationData() +
+                ",hashtag=" + this.getHashtag() +
+                ",shortName=" + this.getShortName() +
                 "]";
     }
 }
@@ -0,0 +1,77 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Rebuilds the full Driver of each key from the keyframes and deltas produced by the {@link DriverDeltaEncoder}.
+ * The udp-kafka application encodes them by session and driver, so the key to use is
+ * "&lt;session id header&gt;/&lt;record key&gt;", as built by {@link DriverDeltaEncoder#key(String, String)}.
+ * Records have to be provided in the same order they were produced for the key, as Kafka guarantees within a partition.
+ * It's thread safe.
+ */
+public class DriverDeltaDecoder {
+
+    // latest full Driver serialized bytes for each key, never changed once stored
+    private final Map<String, byte[]> states = new HashMap<>();
+
+    /**
+     * Decode a keyframe or a delta into the full Driver
+     *
+     * @param key record key the Driver was sent with
+     * @param bytes raw bytes of the keyframe or the delta
+     * @return the full Driver, null if a delta was received without a previous keyframe (i.e. started in the middle)
+     */
+    public synchronized Driver decode(String key, byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        byte[] current;
+        switch (bytes[0]) {
+            case DriverDeltaEncoder.KEYFRAME:
+                current = new byte[bytes.length - 1];
+                System.arraycopy(bytes, 1, current, 0, current.length);
+                break;
+            case DriverDeltaEncoder.DELTA:
+                byte[] previous = this.states.get(key);
+                if (previous == null) {
+                    return null;
+                }
+                current = apply(previous, bytes);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown driver delta record type " + bytes[0]);
+        }
+        this.states.put(key, current);
+        return new LazyDriver(current);
+    }
+
+    /**
+     * Forget the latest Driver decoded for the key, i.e. on partitions revoked
+     *
+     * @param key record key the Driver was sent with
+     */
+    public synchronized void reset(String key) {
+        this.states.remove(key);
+    }
+
+    private static byte[] apply(byte[] previous, byte[] delta) {
+        byte[] current = previous.clone();
+        int sections = DriverWireFormat.sections(previous);
+        int changed = delta[1] & 0xFF;
+        int index = 2;
+        for (int section = 1; section <= DriverWireFormat.ALL_SECTIONS; section <<= 1) {
+            if ((changed & section) != 0) {
+                int offset = DriverWireFormat.HEADER_SIZE + DriverWireFormat.offset(sections, section);
+                for (int i = 0; i < DriverWireFormat.sectionSize(section); i++) {
+                    current[offset + i] ^= delta[index++];
+                }
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Encodes the Driver updates of each key (i.e. the session and driver id) as a keyframe every N frames and deltas in between.
+ *
+ * Keyframe: | KEYFRAME (1 byte) | Driver serialized as described by {@link DriverWireFormat} |
+ * Delta:    | DELTA (1 byte) | changed sections bitmap (1 byte) | changed sections XORed with the previous ones |
+ *
+ * Unchanged sections (i.e. participant and car setup data) are not sent at all in a delta, while the changed ones
+ * are mostly zeros after the XOR so they are well compressed by the producer.
+ * A keyframe is sent also when the set of non-null sections of the Driver changes.
+ * It's thread safe.
+ */
+public class DriverDeltaEncoder {
+
+    public static final byte KEYFRAME = 1;
+    public static final byte DELTA = 2;
+
+    private final int keyframeInterval;
+    private final DriverSerializer serializer = new DriverSerializer();
+    private final Map<String, State> states = new HashMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param keyframeInterval number of frames between two keyframes for the same key
+     */
+    public DriverDeltaEncoder(int keyframeInterval) {
+        if (keyframeInterval <= 0) {
+            throw new IllegalArgumentException("The keyframe interval has to be greater than 0");
+        }
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    /**
+     * Encode the Driver as a keyframe or as a delta against the previous one encoded for the same key
+     *
+     * @param key record key the Driver is sent with
+     * @param driver Driver instance to encode
+     * @return the raw bytes of the keyframe or the delta
+     */
+    public synchronized byte[] encode(String key, Driver driver) {
+        byte[] current = this.serializer.serialize(driver, DriverWireFormat.ALL_SECTIONS);
+        State state = this.states.get(key);
+        if (state == null || state.frames >= this.keyframeInterval ||
+                DriverWireFormat.sections(current) != DriverWireFormat.sections(state.previous)) {
+            this.states.put(key, new State(current));
+            return keyframe(current);
+        }
+        byte[] delta = delta(state.previous, current);
+        state.previous = current;
+        state.frames++;
+        return delta;
+    }
+
+    /**
+     * Get the key of a driver within a session, as the udp-kafka application encodes them
+     *
+     * @param sessionId session id
+     * @param driverKey record key the Driver is sent with
+     * @return the key to encode the Driver with
+     */
+    public static String key(String sessionId, String driverKey) {
+        return sessionId + "/" + driverKey;
+    }
+
+    /**
+     * Forget the previous Driver encoded for the key, so that the next one is sent as keyframe
+     *
+     * @param key record key the Driver is sent with
+     */
+    public synchronized void reset(String key) {
+        this.states.remove(key);
+    }
+
+    /**
+     * Forget the previous Drivers encoded for all the keys of a session (as built by {@link #key(String, String)}),
+     * i.e. when the session ends or drivers join or leave it, so that the next ones are sent as keyframes
+     *
+     * @param sessionId session id
+     */
+    public synchronized void resetSession(String sessionId) {
+        String prefix = key(sessionId, "");
+        this.states.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    /**
+     * @return the number of keys with a previous Driver encoded
+     */
+    public synchronized int size() {
+        return this.states.size();
+    }
+
+    private static byte[] keyframe(byte[] current) {
+        byte[] keyframe = new byte[1 + current.length];
+        keyframe[0] = KEYFRAME;
+        System.arraycopy(current, 0, keyframe, 1, current.length);
+        return keyframe;
+    }
+
+    private static byte[] delta(byte[] previous, byte[] current) {
+        // same sections in both, so same layout
+        int sections = DriverWireFormat.sections(current);
+        int changed = 0;
+        int size = 2;
+        for (int section = 1; section <= DriverWireFormat.ALL_SECTIONS; section <<= 1) {
+            if ((sections & section) != 0 && !sameSection(previous, current, sections, section)) {
+                changed |= section;
+                size += DriverWireFormat.sectionSize(section);
+            }
+        }
+        byte[] delta = new byte[size];
+        delta[0] = DELTA;
+        delta[1] = (byte) changed;
+        int index = 2;
+        for (int section = 1; section <= DriverWireFormat.ALL_SECTIONS; section <<= 1) {
+            if ((changed & section) != 0) {
+                int offset = DriverWireFormat.HEADER_SIZE + DriverWireFormat.offset(sections, section);
+                for (int i = 0; i < DriverWireFormat.sectionSize(section); i++) {
+                    delta[index++] = (byte) (previous[offset + i] ^ current[offset + i]);
+                }
+            }
+        }
+        return delta;
+    }
+
+    private static boolean sameSection(byte[] previous, byte[] current, int sections, int section) {
+        int offset = DriverWireFormat.HEADER_SIZE + DriverWireFormat.offset(sections, section);
+        int end = offset + DriverWireFormat.sectionSize(section);
+        return Arrays.equals(previous, offset, end, current, offset, end);
+    }
+
+    private static class State {
+        private byte[] previous;
+        // frames encoded since the last keyframe, the keyframe included
+        private int frames = 1;
+
+        State(byte[] previous) {
+            this.previous = previous;
+        }
+    }
+}
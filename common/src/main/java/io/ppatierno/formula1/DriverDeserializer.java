@@ -19,9 +19,19 @@ import org.apache.kafka.common.serialization.Deserializer;
 import java.util.Map;
 
 public class DriverDeserializer implements Deserializer<Driver> {
+
+    /**
+     * Enable returning a {@link LazyDriver} view over the raw bytes, decoding each data section only on first access,
+     * instead of decoding all of them eagerly. Default is true.
+     */
+    public static final String LAZY_CONFIG = "f1.driver.deserializer.lazy";
+
+    private boolean lazy = true;
+
     @Override
     public void configure(Map<String, ?> configs, boolean isKey) {
-
+        Object lazy = configs.get(LAZY_CONFIG);
+        this.lazy = lazy == null || Boolean.parseBoolean(lazy.toString());
     }
 
     @Override
@@ -31,24 +41,32 @@ public class DriverDeserializer implements Deserializer<Driver> {
 
     @Override
     public Driver deserialize(String topic, Headers headers, byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        if (this.lazy) {
+            return new LazyDriver(bytes);
+        }
+        int sections = DriverWireFormat.sections(bytes);
         ByteBuf bb = Unpooled.wrappedBuffer(bytes);
-        Driver driver = new Driver(new ParticipantData().fill(bb));
-        if (bb.isReadable()) {
+        bb.skipBytes(DriverWireFormat.headerSize(bytes));
+        Driver driver = new Driver((sections & DriverWireFormat.PARTICIPANT_DATA) != 0 ? new ParticipantData().fill(bb) : null);
+        if ((sections & DriverWireFormat.CAR_MOTION_DATA) != 0) {
             driver.setCarMotionData(new CarMotionData().fill(bb));
         }
-        if (bb.isReadable()) {
+        if ((sections & DriverWireFormat.LAP_DATA) != 0) {
             driver.setLapData(new LapData().fill(bb));
         }
-        if (bb.isReadable()) {
+        if ((sections & DriverWireFormat.CAR_SETUP_DATA) != 0) {
             driver.setCarSetupData(new CarSetupData().fill(bb));
         }
-        if (bb.isReadable()) {
+        if ((sections & DriverWireFormat.CAR_TELEMETRY_DATA) != 0) {
             driver.setCarTelemetryData(new CarTelemetryData().fill(bb));
         }
-        if (bb.isReadable()) {
+        if ((sections & DriverWireFormat.CAR_STATUS_DATA) != 0) {
             driver.setCarStatusData(new CarStatusData().fill(bb));
         }
-        if (bb.isReadable()) {
+        if ((sections & DriverWireFormat.FINAL_CLASSIFICATION_DATA) != 0) {
             driver.setFinalClassificationData(new FinalClassificationData().fill(bb));
         }
         return driver;
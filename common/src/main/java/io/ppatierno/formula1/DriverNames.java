@@ -0,0 +1,88 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import io.ppatierno.formula1.data.ParticipantData;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Shared lookup table of the driver names (hashtag and short name) by driver id and race number,
+ * so that building a {@link Driver} or an {@link Event} (i.e. for every deserialized record) doesn't allocate any string.
+ * The short names are built once for all the drivers, the hashtags on the first lookup of each driver and race number;
+ * all of them are interned, so the same name is always the same instance.
+ * The rows of the hashtags are built with the class and their entries are set atomically, so any thread reading them
+ * gets either a fully built name or none.
+ */
+public final class DriverNames {
+
+    // race numbers are a single byte in the packets
+    private static final int RACE_NUMBERS = 256;
+
+    private static final io.ppatierno.formula1.enums.Driver[] DRIVERS = io.ppatierno.formula1.enums.Driver.values();
+    private static final String[] SHORT_NAMES = new String[DRIVERS.length];
+    private static final String[] INITIALS = new String[DRIVERS.length];
+    // rows by driver id ordinal and then by race number, filled on first lookup
+    @SuppressWarnings("unchecked")
+    private static final AtomicReferenceArray<String>[] HASHTAGS = new AtomicReferenceArray[DRIVERS.length];
+
+    static {
+        for (io.ppatierno.formula1.enums.Driver driverId : DRIVERS) {
+            String name = driverId.name();
+            int lastName = name.indexOf("_") + 1;
+            // an hashtag as #<first_char_firstname><first_char_lastname><race_number>
+            INITIALS[driverId.ordinal()] = ("#" + name.charAt(0) + name.charAt(lastName)).intern();
+            // a short name using first 3 chars of lastname
+            SHORT_NAMES[driverId.ordinal()] = name.substring(lastName, Math.min(lastName + 3, name.length())).intern();
+            HASHTAGS[driverId.ordinal()] = new AtomicReferenceArray<>(RACE_NUMBERS);
+        }
+    }
+
+    private DriverNames() {
+    }
+
+    /**
+     * @param participantData participant data with the driver id and race number
+     * @return the hashtag, as #<first_char_firstname><first_char_lastname><race_number>
+     */
+    public static String hashtag(ParticipantData participantData) {
+        return hashtag(participantData.getDriverId(), participantData.getRaceNumber());
+    }
+
+    /**
+     * @param driverId driver id
+     * @param raceNumber race number
+     * @return the hashtag, as #<first_char_firstname><first_char_lastname><race_number>
+     */
+    public static String hashtag(io.ppatierno.formula1.enums.Driver driverId, int raceNumber) {
+        if (raceNumber < 0 || raceNumber >= RACE_NUMBERS) {
+            return (INITIALS[driverId.ordinal()] + raceNumber).intern();
+        }
+        AtomicReferenceArray<String> hashtags = HASHTAGS[driverId.ordinal()];
+        String hashtag = hashtags.get(raceNumber);
+        if (hashtag == null) {
+            // racing threads would just set the same interned name
+            hashtag = (INITIALS[driverId.ordinal()] + raceNumber).intern();
+            hashtags.set(raceNumber, hashtag);
+        }
+        return hashtag;
+    }
+
+    /**
+     * @param participantData participant data with the driver id
+     * @return the short name, as the first 3 chars of the lastname
+     */
+    public static String shortName(ParticipantData participantData) {
+        return shortName(participantData.getDriverId());
+    }
+
+    /**
+     * @param driverId driver id
+     * @return the short name, as the first 3 chars of the lastname
+     */
+    public static String shortName(io.ppatierno.formula1.enums.Driver driverId) {
+        return SHORT_NAMES[driverId.ordinal()];
+    }
+}
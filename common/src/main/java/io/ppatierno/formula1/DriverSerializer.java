@@ -6,22 +6,29 @@ package io.ppatierno.formula1;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
-import io.ppatierno.formula1.data.CarMotionData;
-import io.ppatierno.formula1.data.CarSetupData;
-import io.ppatierno.formula1.data.CarStatusData;
-import io.ppatierno.formula1.data.CarTelemetryData;
-import io.ppatierno.formula1.data.FinalClassificationData;
-import io.ppatierno.formula1.data.LapData;
-import io.ppatierno.formula1.data.ParticipantData;
 import org.apache.kafka.common.header.Headers;
 import org.apache.kafka.common.serialization.Serializer;
 
 import java.util.Map;
 
 public class DriverSerializer implements Serializer<Driver> {
+
+    /**
+     * Enable writing the serialized Driver into a per-thread scratch buffer reused across calls, instead of
+     * allocating a new one every time. The returned byte array is overwritten by the next call on the same thread,
+     * so it has to be enabled only when the caller copies it right away (i.e. the KafkaProducer appending it to a batch
+     * within the send) and never when the bytes are retained (i.e. the Kafka Streams record cache).
+     */
+    public static final String REUSE_BUFFER_CONFIG = "f1.driver.serializer.reuse.buffer";
+
+    private static final ThreadLocal<ByteBuf> SCRATCH_BUFFER = new ThreadLocal<>();
+
+    private boolean reuseBuffer;
+
     @Override
     public void configure(Map<String, ?> configs, boolean isKey) {
-
+        Object reuseBuffer = configs.get(REUSE_BUFFER_CONFIG);
+        this.reuseBuffer = reuseBuffer != null && Boolean.parseBoolean(reuseBuffer.toString());
     }
 
     @Override
@@ -31,27 +38,59 @@ public class DriverSerializer implements Serializer<Driver> {
 
     @Override
     public byte[] serialize(String topic, Headers headers, Driver driver) {
-        ByteBuf bb = Unpooled.buffer(this.rawBytesSize(driver));
-        driver.getParticipantData().fillBuffer(bb);
-        if (bb.isWritable()) {
+        return this.serialize(driver, DriverWireFormat.ALL_SECTIONS);
+    }
+
+    /**
+     * Serialize only some of the data sections of a Driver, i.e. for partial updates carrying just what changed.
+     * A data section requested but null in the Driver is not serialized.
+     *
+     * @param driver Driver instance to serialize
+     * @param sections bitmap of the data sections to serialize, as defined in {@link DriverWireFormat}
+     * @return the raw bytes with the versioned header followed by the serialized data sections
+     */
+    public byte[] serialize(Driver driver, int sections) {
+        if (driver == null) {
+            return null;
+        }
+        int present = DriverWireFormat.sections(driver) & sections;
+        int size = DriverWireFormat.size(present);
+        ByteBuf bb = this.reuseBuffer ? scratchBuffer(size) : Unpooled.buffer(size);
+        this.serialize(driver, present, bb);
+        return bb.array();
+    }
+
+    /**
+     * Serialize some of the data sections of a Driver into the provided buffer, i.e. for writing more drivers in the same record
+     *
+     * @param driver Driver instance to serialize
+     * @param sections bitmap of the data sections to serialize, they all have to be non-null in the Driver
+     * @param bb buffer to write the versioned header followed by the serialized data sections into
+     */
+    public void serialize(Driver driver, int sections, ByteBuf bb) {
+        bb.writeByte(DriverWireFormat.VERSION);
+        bb.writeByte(sections);
+        if ((sections & DriverWireFormat.PARTICIPANT_DATA) != 0) {
+            driver.getParticipantData().fillBuffer(bb);
+        }
+        if ((sections & DriverWireFormat.CAR_MOTION_DATA) != 0) {
             driver.getCarMotionData().fillBuffer(bb);
         }
-        if (bb.isWritable()) {
+        if ((sections & DriverWireFormat.LAP_DATA) != 0) {
             driver.getLapData().fillBuffer(bb);
         }
-        if (bb.isWritable()) {
+        if ((sections & DriverWireFormat.CAR_SETUP_DATA) != 0) {
             driver.getCarSetupData().fillBuffer(bb);
         }
-        if (bb.isWritable()) {
+        if ((sections & DriverWireFormat.CAR_TELEMETRY_DATA) != 0) {
             driver.getCarTelemetryData().fillBuffer(bb);
         }
-        if (bb.isWritable()) {
+        if ((sections & DriverWireFormat.CAR_STATUS_DATA) != 0) {
             driver.getCarStatusData().fillBuffer(bb);
         }
-        if (bb.isWritable()) {
+        if ((sections & DriverWireFormat.FINAL_CLASSIFICATION_DATA) != 0) {
             driver.getFinalClassificationData().fillBuffer(bb);
         }
-        return bb.array();
     }
 
     @Override
@@ -60,20 +99,28 @@ public class DriverSerializer implements Serializer<Driver> {
     }
 
     /**
-     * Get the raw size in bytes of a Driver with the related non-null serialized field
+     * Get the scratch buffer for the current thread, allocating a new one only when the requested size changes
+     * (i.e. a Driver with a different set of non-null fields)
+     *
+     * @param size size in bytes of the buffer
+     * @return the cleared scratch buffer backed by an array of exactly the requested size
+     */
+    private static ByteBuf scratchBuffer(int size) {
+        ByteBuf bb = SCRATCH_BUFFER.get();
+        if (bb == null || bb.capacity() != size) {
+            bb = Unpooled.wrappedBuffer(new byte[size]);
+            SCRATCH_BUFFER.set(bb);
+        }
+        return bb.clear();
+    }
+
+    /**
+     * Get the raw size in bytes of a Driver with the related non-null serialized field, header included
      *
      * @param driver Driver instance to determinate the size in bytes
      * @return the raw size in bytes of the Driver instance
      */
     public int rawBytesSize(Driver driver) {
-        int size = 0;
-        size += driver.getParticipantData() != null ? ParticipantData.SIZE : 0;
-        size += driver.getCarMotionData() != null ? CarMotionData.SIZE : 0;
-        size += driver.getLapData() != null ? LapData.SIZE : 0;
-        size += driver.getCarSetupData() != null ? CarSetupData.SIZE : 0;
-        size += driver.getCarTelemetryData() != null ? CarTelemetryData.SIZE : 0;
-        size += driver.getCarStatusData() != null ? CarStatusData.SIZE : 0;
-        size += driver.getFinalClassificationData() != null ? FinalClassificationData.SIZE : 0;
-        return size;
+        return DriverWireFormat.size(DriverWireFormat.sections(driver));
     }
 }
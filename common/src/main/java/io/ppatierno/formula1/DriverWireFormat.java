@@ -0,0 +1,151 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import io.ppatierno.formula1.data.CarMotionData;
+import io.ppatierno.formula1.data.CarSetupData;
+import io.ppatierno.formula1.data.CarStatusData;
+import io.ppatierno.formula1.data.CarTelemetryData;
+import io.ppatierno.formula1.data.FinalClassificationData;
+import io.ppatierno.formula1.data.LapData;
+import io.ppatierno.formula1.data.ParticipantData;
+
+/**
+ * Describes how a Driver is serialized: an header with the format version and a bitmap of the data sections
+ * which follow it, always in the same order, so that the offset of each section is known without decoding the others.
+ *
+ * +---------+----------+------------------+-----+------------------+
+ * | version | sections | first section    | ... | last section     |
+ * | 1 byte  | 1 byte   | section size     |     | section size     |
+ * +---------+----------+------------------+-----+------------------+
+ *
+ * Records written before the versioning (no header, sections one after the other until the first missing one)
+ * are still supported when reading.
+ */
+public final class DriverWireFormat {
+
+    public static final byte VERSION = 2;
+    public static final int HEADER_SIZE = 2;
+
+    // data sections bits in the header bitmap, they are serialized in this order
+    public static final int PARTICIPANT_DATA = 1;
+    public static final int CAR_MOTION_DATA = 1 << 1;
+    public static final int LAP_DATA = 1 << 2;
+    public static final int CAR_SETUP_DATA = 1 << 3;
+    public static final int CAR_TELEMETRY_DATA = 1 << 4;
+    public static final int CAR_STATUS_DATA = 1 << 5;
+    public static final int FINAL_CLASSIFICATION_DATA = 1 << 6;
+    public static final int ALL_SECTIONS = (1 << 7) - 1;
+
+    private static final int[] SECTION_SIZES = {
+            ParticipantData.SIZE,
+            CarMotionData.SIZE,
+            LapData.SIZE,
+            CarSetupData.SIZE,
+            CarTelemetryData.SIZE,
+            CarStatusData.SIZE,
+            FinalClassificationData.SIZE
+    };
+
+    // for each bitmap of serialized sections, the offset of every section right after the header and the overall size
+    private static final int[][] OFFSETS = new int[ALL_SECTIONS + 1][SECTION_SIZES.length];
+    private static final int[] SIZES = new int[ALL_SECTIONS + 1];
+
+    static {
+        for (int sections = 0; sections <= ALL_SECTIONS; sections++) {
+            int offset = 0;
+            for (int i = 0; i < SECTION_SIZES.length; i++) {
+                OFFSETS[sections][i] = offset;
+                if ((sections & (1 << i)) != 0) {
+                    offset += SECTION_SIZES[i];
+                }
+            }
+            SIZES[sections] = offset;
+        }
+    }
+
+    private DriverWireFormat() {
+    }
+
+    /**
+     * Get the bitmap of the non-null data sections of a Driver
+     *
+     * @param driver Driver instance
+     * @return bitmap of the non-null data sections
+     */
+    public static int sections(Driver driver) {
+        int sections = 0;
+        sections |= driver.getParticipantData() != null ? PARTICIPANT_DATA : 0;
+        sections |= driver.getCarMotionData() != null ? CAR_MOTION_DATA : 0;
+        sections |= driver.getLapData() != null ? LAP_DATA : 0;
+        sections |= driver.getCarSetupData() != null ? CAR_SETUP_DATA : 0;
+        sections |= driver.getCarTelemetryData() != null ? CAR_TELEMETRY_DATA : 0;
+        sections |= driver.getCarStatusData() != null ? CAR_STATUS_DATA : 0;
+        sections |= driver.getFinalClassificationData() != null ? FINAL_CLASSIFICATION_DATA : 0;
+        return sections;
+    }
+
+    /**
+     * Get the bitmap of the data sections serialized in the raw bytes of a Driver
+     *
+     * @param bytes raw bytes of a serialized Driver, with or without the versioned header
+     * @return bitmap of the serialized data sections
+     */
+    public static int sections(byte[] bytes) {
+        if (isVersioned(bytes)) {
+            return bytes[1] & 0xFF;
+        }
+        // no header, sections are there until the first one not fitting the bytes
+        int sections = 0;
+        int offset = 0;
+        for (int i = 0; i < SECTION_SIZES.length && offset + SECTION_SIZES[i] <= bytes.length; i++) {
+            sections |= 1 << i;
+            offset += SECTION_SIZES[i];
+        }
+        return sections;
+    }
+
+    /**
+     * @param bytes raw bytes of a serialized Driver
+     * @return the size of the header in the raw bytes of a Driver, 0 if it was written before the versioning
+     */
+    public static int headerSize(byte[] bytes) {
+        return isVersioned(bytes) ? HEADER_SIZE : 0;
+    }
+
+    /**
+     * @param sections bitmap of the serialized data sections
+     * @return the size in bytes of a Driver serialized with the provided data sections, header included
+     */
+    public static int size(int sections) {
+        return HEADER_SIZE + SIZES[sections];
+    }
+
+    /**
+     * @param section data section bit
+     * @return the size in bytes of the data section
+     */
+    public static int sectionSize(int section) {
+        return SECTION_SIZES[Integer.numberOfTrailingZeros(section)];
+    }
+
+    /**
+     * @param sections bitmap of the serialized data sections
+     * @param section data section bit
+     * @return the offset of the data section, starting right after the header
+     */
+    public static int offset(int sections, int section) {
+        return OFFSETS[sections][Integer.numberOfTrailingZeros(section)];
+    }
+
+    private static boolean isVersioned(byte[] bytes) {
+        // the first byte of records without header is the participant "AI controlled" flag so it's never the version
+        if (bytes.length < HEADER_SIZE || bytes[0] != VERSION) {
+            return false;
+        }
+        int sections = bytes[1] & 0xFF;
+        return sections <= ALL_SECTIONS && bytes.length == size(sections);
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import java.util.List;
+
+/**
+ * All the drivers updated within the same frame (same frameIdentifier), sent as a single record
+ */
+public class DriversFrame {
+
+    private final long frameIdentifier;
+    private final List<Driver> drivers;
+
+    /**
+     * Constructor
+     *
+     * @param frameIdentifier frame identifier from the packets header
+     * @param drivers drivers, in the order of the cars in the packets
+     */
+    public DriversFrame(long frameIdentifier, List<Driver> drivers) {
+        this.frameIdentifier = frameIdentifier;
+        this.drivers = drivers;
+    }
+
+    public long getFrameIdentifier() {
+        return frameIdentifier;
+    }
+
+    public List<Driver> getDrivers() {
+        return drivers;
+    }
+
+    @Override
+    public String toString() {
+        return "DriversFrame[frameIdentifier=" + this.frameIdentifier +
+                ",drivers=" + this.drivers +
+                "]";
+    }
+}
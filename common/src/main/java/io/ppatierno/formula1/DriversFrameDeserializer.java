@@ -0,0 +1,52 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deserializes a DriversFrame as described by {@link DriversFrameWireFormat}, with each driver
+ * as a {@link LazyDriver} view over the record bytes, so only the data sections actually read are decoded
+ */
+public class DriversFrameDeserializer implements Deserializer<DriversFrame> {
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+
+    }
+
+    @Override
+    public DriversFrame deserialize(String topic, byte[] bytes) {
+        return deserialize(topic, null, bytes);
+    }
+
+    @Override
+    public DriversFrame deserialize(String topic, Headers headers, byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        if (!DriversFrameWireFormat.isFrame(bytes)) {
+            throw new SerializationException("Not a DriversFrame record on topic " + topic +
+                    " (" + bytes.length + " bytes, version " + (bytes.length > 0 ? bytes[0] : "none") + ")");
+        }
+        int count = DriversFrameWireFormat.drivers(bytes);
+        List<Driver> drivers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            drivers.add(new LazyDriver(bytes, DriversFrameWireFormat.offset(bytes, i)));
+        }
+        return new DriversFrame(DriversFrameWireFormat.frameIdentifier(bytes), drivers);
+    }
+
+    @Override
+    public void close() {
+
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serializes a DriversFrame as described by {@link DriversFrameWireFormat}
+ */
+public class DriversFrameSerializer implements Serializer<DriversFrame> {
+
+    private final DriverSerializer driverSerializer = new DriverSerializer();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+
+    }
+
+    @Override
+    public byte[] serialize(String topic, DriversFrame driversFrame) {
+        return serialize(topic, null, driversFrame);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, DriversFrame driversFrame) {
+        if (driversFrame == null) {
+            return null;
+        }
+        List<Driver> drivers = driversFrame.getDrivers();
+        int[] sections = new int[drivers.size()];
+        int size = DriversFrameWireFormat.indexSize(drivers.size());
+        for (int i = 0; i < drivers.size(); i++) {
+            sections[i] = DriverWireFormat.sections(drivers.get(i));
+            size += DriverWireFormat.size(sections[i]);
+        }
+        ByteBuf bb = Unpooled.buffer(size);
+        bb.writeByte(DriversFrameWireFormat.VERSION);
+        bb.writeInt((int) driversFrame.getFrameIdentifier());
+        bb.writeByte(drivers.size());
+        int offset = DriversFrameWireFormat.indexSize(drivers.size());
+        for (int i = 0; i < drivers.size(); i++) {
+            bb.writeInt(offset);
+            offset += DriverWireFormat.size(sections[i]);
+        }
+        for (int i = 0; i < drivers.size(); i++) {
+            this.driverSerializer.serialize(drivers.get(i), sections[i], bb);
+        }
+        return bb.array();
+    }
+
+    @Override
+    public void close() {
+
+    }
+}
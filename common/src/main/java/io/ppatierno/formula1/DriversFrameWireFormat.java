@@ -0,0 +1,84 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+/**
+ * Describes how a DriversFrame is serialized: an header with the frame identifier and the number of drivers,
+ * an index with the offset of each driver and then the drivers, each one serialized as described by {@link DriverWireFormat}.
+ * Thanks to the index a single driver can be read without decoding (or even looking at) the others.
+ *
+ * +---------+-----------------+---------+-----------------+-----+-----------------+-----+-----------------+
+ * | version | frameIdentifier | drivers | driver 0 offset | ... | driver N offset | ... | driver N        |
+ * | 1 byte  | 4 bytes         | 1 byte  | 4 bytes         |     | 4 bytes         |     | DriverWireFormat|
+ * +---------+-----------------+---------+-----------------+-----+-----------------+-----+-----------------+
+ *
+ * Integers are big endian and the offsets start from the beginning of the record.
+ */
+public final class DriversFrameWireFormat {
+
+    // different from the DriverWireFormat version, so a frame record is never mistaken for a single driver one
+    public static final byte VERSION = 3;
+    public static final int HEADER_SIZE = 6;
+    public static final int INDEX_ENTRY_SIZE = 4;
+
+    private static final int FRAME_IDENTIFIER_OFFSET = 1;
+    private static final int DRIVERS_OFFSET = 5;
+
+    private DriversFrameWireFormat() {
+    }
+
+    /**
+     * @param bytes raw bytes of a serialized DriversFrame
+     * @return if the raw bytes are a serialized DriversFrame
+     */
+    public static boolean isFrame(byte[] bytes) {
+        return bytes.length >= HEADER_SIZE && bytes[0] == VERSION;
+    }
+
+    /**
+     * @param bytes raw bytes of a serialized DriversFrame
+     * @return the frame identifier
+     */
+    public static long frameIdentifier(byte[] bytes) {
+        return ((bytes[FRAME_IDENTIFIER_OFFSET] & 0xFFL) << 24) | ((bytes[FRAME_IDENTIFIER_OFFSET + 1] & 0xFFL) << 16) |
+                ((bytes[FRAME_IDENTIFIER_OFFSET + 2] & 0xFFL) << 8) | (bytes[FRAME_IDENTIFIER_OFFSET + 3] & 0xFFL);
+    }
+
+    /**
+     * @param bytes raw bytes of a serialized DriversFrame
+     * @return the number of drivers in the frame
+     */
+    public static int drivers(byte[] bytes) {
+        return bytes[DRIVERS_OFFSET] & 0xFF;
+    }
+
+    /**
+     * @param bytes raw bytes of a serialized DriversFrame
+     * @param index index of the driver in the frame
+     * @return the offset of the serialized driver
+     */
+    public static int offset(byte[] bytes, int index) {
+        int entry = HEADER_SIZE + index * INDEX_ENTRY_SIZE;
+        return ((bytes[entry] & 0xFF) << 24) | ((bytes[entry + 1] & 0xFF) << 16) |
+                ((bytes[entry + 2] & 0xFF) << 8) | (bytes[entry + 3] & 0xFF);
+    }
+
+    /**
+     * @param bytes raw bytes of a serialized DriversFrame
+     * @param index index of the driver in the frame
+     * @return the size in bytes of the serialized driver
+     */
+    public static int length(byte[] bytes, int index) {
+        return DriverWireFormat.size(bytes[offset(bytes, index) + 1] & 0xFF);
+    }
+
+    /**
+     * @param drivers number of drivers in the frame
+     * @return the size of the header and the index
+     */
+    public static int indexSize(int drivers) {
+        return HEADER_SIZE + drivers * INDEX_ENTRY_SIZE;
+    }
+}
@@ -21,11 +21,8 @@ public class Event {
     public Event(ParticipantData participantData, PacketEventData eventData) {
         this.participantData = participantData;
         if (participantData != null) {
-            String driverId = participantData.getDriverId().name();
-            // build an hashtag as #<first_char_firstname><first_char_lastname><race_number>
-            this.hashtag = "#" + driverId.charAt(0) + driverId.charAt(driverId.indexOf("_") + 1) + participantData.getRaceNumber();
-            // build a short name using first 3 chars of lastname
-            this.shortName = driverId.substring(driverId.indexOf("_") + 1, driverId.indexOf("_") + 4);
+            this.hashtag = DriverNames.hashtag(participantData);
+            this.shortName = DriverNames.shortName(participantData);
         }
         this.eventData = eventData;
     }
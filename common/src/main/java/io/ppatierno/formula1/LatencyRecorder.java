@@ -0,0 +1,53 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import io.micrometer.core.instrument.DistributionSummary;
+
+/**
+ * Records the latency (milliseconds) from the UDP packets being received, as provided by the
+ * {@link TelemetryHeaders#RECEIVED_AT} header, to a stage of the pipeline (i.e. writing to InfluxDB)
+ * into the distribution summary provided by {@link TelemetryMetrics#latency(String)}.
+ */
+public class LatencyRecorder {
+
+    private final String stage;
+    private final DistributionSummary summary;
+
+    /**
+     * Constructor
+     *
+     * @param stage name of the stage the latency is measured at
+     * @param summary distribution summary the latencies are recorded into
+     */
+    LatencyRecorder(String stage, DistributionSummary summary) {
+        this.stage = stage;
+        this.summary = summary;
+    }
+
+    /**
+     * Record the latency from the provided received time to now
+     *
+     * @param receivedAt received time in epoch milliseconds, ignored if negative (i.e. no header)
+     */
+    public void record(long receivedAt) {
+        if (receivedAt < 0) {
+            return;
+        }
+        // clocks on different hosts could be a bit out of sync
+        this.summary.record(Math.max(0, System.currentTimeMillis() - receivedAt));
+    }
+
+    public String getStage() {
+        return stage;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyRecorder[stage=" + this.stage +
+                ",count=" + this.summary.count() +
+                "]";
+    }
+}
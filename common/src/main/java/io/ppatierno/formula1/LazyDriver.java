@@ -0,0 +1,212 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.ppatierno.formula1.data.CarMotionData;
+import io.ppatierno.formula1.data.CarSetupData;
+import io.ppatierno.formula1.data.CarStatusData;
+import io.ppatierno.formula1.data.CarTelemetryData;
+import io.ppatierno.formula1.data.FinalClassificationData;
+import io.ppatierno.formula1.data.LapData;
+import io.ppatierno.formula1.data.ParticipantData;
+
+/**
+ * Represents a single driver as a view over its serialized bytes.
+ * Each data section is decoded, at the offset described by the header bitmap, only when the corresponding getter
+ * is called for the first time.
+ * It's not thread safe.
+ */
+public class LazyDriver extends Driver {
+
+    private final byte[] bytes;
+    // sections serialized in the bytes and where they start
+    private final int sections;
+    private final int headerSize;
+    // sections already decoded from the bytes or set explicitly
+    private int decoded;
+
+    public LazyDriver(byte[] bytes) {
+        this.bytes = bytes;
+        this.sections = DriverWireFormat.sections(bytes);
+        this.headerSize = DriverWireFormat.headerSize(bytes);
+    }
+
+    /**
+     * Constructor for a Driver serialized, with the versioned header, within bigger raw bytes (i.e. a drivers frame)
+     *
+     * @param bytes raw bytes containing the serialized Driver
+     * @param offset offset of the serialized Driver header in the raw bytes
+     */
+    public LazyDriver(byte[] bytes, int offset) {
+        this.bytes = bytes;
+        this.sections = bytes[offset + 1] & 0xFF;
+        this.headerSize = offset + DriverWireFormat.HEADER_SIZE;
+    }
+
+    @Override
+    public ParticipantData getParticipantData() {
+        if ((this.decoded & DriverWireFormat.PARTICIPANT_DATA) == 0) {
+            this.decoded |= DriverWireFormat.PARTICIPANT_DATA;
+            if (this.isSerialized(DriverWireFormat.PARTICIPANT_DATA)) {
+                super.setParticipantData(new ParticipantData().fill(this.section(DriverWireFormat.PARTICIPANT_DATA)));
+            }
+        }
+        return super.getParticipantData();
+    }
+
+    @Override
+    public void setParticipantData(ParticipantData participantData) {
+        this.decoded |= DriverWireFormat.PARTICIPANT_DATA;
+        super.setParticipantData(participantData);
+    }
+
+    @Override
+    public CarMotionData getCarMotionData() {
+        if ((this.decoded & DriverWireFormat.CAR_MOTION_DATA) == 0) {
+            this.decoded |= DriverWireFormat.CAR_MOTION_DATA;
+            if (this.isSerialized(DriverWireFormat.CAR_MOTION_DATA)) {
+                super.setCarMotionData(new CarMotionData().fill(this.section(DriverWireFormat.CAR_MOTION_DATA)));
+            }
+        }
+        return super.getCarMotionData();
+    }
+
+    @Override
+    public void setCarMotionData(CarMotionData carMotionData) {
+        this.decoded |= DriverWireFormat.CAR_MOTION_DATA;
+        super.setCarMotionData(carMotionData);
+    }
+
+    @Override
+    public LapData getLapData() {
+        if ((this.decoded & DriverWireFormat.LAP_DATA) == 0) {
+            this.decoded |= DriverWireFormat.LAP_DATA;
+            if (this.isSerialized(DriverWireFormat.LAP_DATA)) {
+                super.setLapData(new LapData().fill(this.section(DriverWireFormat.LAP_DATA)));
+            }
+        }
+        return super.getLapData();
+    }
+
+    @Override
+    public void setLapData(LapData lapData) {
+        this.decoded |= DriverWireFormat.LAP_DATA;
+        super.setLapData(lapData);
+    }
+
+    @Override
+    public CarSetupData getCarSetupData() {
+        if ((this.decoded & DriverWireFormat.CAR_SETUP_DATA) == 0) {
+            this.decoded |= DriverWireFormat.CAR_SETUP_DATA;
+            if (this.isSerialized(DriverWireFormat.CAR_SETUP_DATA)) {
+                super.setCarSetupData(new CarSetupData().fill(this.section(DriverWireFormat.CAR_SETUP_DATA)));
+            }
+        }
+        return super.getCarSetupData();
+    }
+
+    @Override
+    public void setCarSetupData(CarSetupData carSetupData) {
+        this.decoded |= DriverWireFormat.CAR_SETUP_DATA;
+        super.setCarSetupData(carSetupData);
+    }
+
+    @Override
+    public CarTelemetryData getCarTelemetryData() {
+        if ((this.decoded & DriverWireFormat.CAR_TELEMETRY_DATA) == 0) {
+            this.decoded |= DriverWireFormat.CAR_TELEMETRY_DATA;
+            if (this.isSerialized(DriverWireFormat.CAR_TELEMETRY_DATA)) {
+                super.setCarTelemetryData(new CarTelemetryData().fill(this.section(DriverWireFormat.CAR_TELEMETRY_DATA)));
+            }
+        }
+        return super.getCarTelemetryData();
+    }
+
+    @Override
+    public void setCarTelemetryData(CarTelemetryData carTelemetryData) {
+        this.decoded |= DriverWireFormat.CAR_TELEMETRY_DATA;
+        super.setCarTelemetryData(carTelemetryData);
+    }
+
+    @Override
+    public CarStatusData getCarStatusData() {
+        if ((this.decoded & DriverWireFormat.CAR_STATUS_DATA) == 0) {
+            this.decoded |= DriverWireFormat.CAR_STATUS_DATA;
+            if (this.isSerialized(DriverWireFormat.CAR_STATUS_DATA)) {
+                super.setCarStatusData(new CarStatusData().fill(this.section(DriverWireFormat.CAR_STATUS_DATA)));
+            }
+        }
+        return super.getCarStatusData();
+    }
+
+    @Override
+    public void setCarStatusData(CarStatusData carStatusData) {
+        this.decoded |= DriverWireFormat.CAR_STATUS_DATA;
+        super.setCarStatusData(carStatusData);
+    }
+
+    @Override
+    public FinalClassificationData getFinalClassificationData() {
+        if ((this.decoded & DriverWireFormat.FINAL_CLASSIFICATION_DATA) == 0) {
+            this.decoded |= DriverWireFormat.FINAL_CLASSIFICATION_DATA;
+            if (this.isSerialized(DriverWireFormat.FINAL_CLASSIFICATION_DATA)) {
+                super.setFinalClassificationData(new FinalClassificationData().fill(this.section(DriverWireFormat.FINAL_CLASSIFICATION_DATA)));
+            }
+        }
+        return super.getFinalClassificationData();
+    }
+
+    @Override
+    public void setFinalClassificationData(FinalClassificationData finalClassificationData) {
+        this.decoded |= DriverWireFormat.FINAL_CLASSIFICATION_DATA;
+        super.setFinalClassificationData(finalClassificationData);
+    }
+
+    @Override
+    public boolean hasValidTelemetry() {
+        // checking the serialized sections bitmap avoids decoding sections just for knowing if they are there
+        return this.isAvailable(DriverWireFormat.CAR_MOTION_DATA) &&
+                this.isAvailable(DriverWireFormat.LAP_DATA) &&
+                this.isAvailable(DriverWireFormat.CAR_SETUP_DATA) &&
+                this.isAvailable(DriverWireFormat.CAR_TELEMETRY_DATA) &&
+                this.isAvailable(DriverWireFormat.CAR_STATUS_DATA);
+    }
+
+    private boolean isAvailable(int section) {
+        if ((this.decoded & section) == 0) {
+            return this.isSerialized(section);
+        }
+        // already decoded or set explicitly, so just check the current value
+        return this.isSet(section);
+    }
+
+    private boolean isSet(int section) {
+        switch (section) {
+            case DriverWireFormat.CAR_MOTION_DATA:
+                return super.getCarMotionData() != null;
+            case DriverWireFormat.LAP_DATA:
+                return super.getLapData() != null;
+            case DriverWireFormat.CAR_SETUP_DATA:
+                return super.getCarSetupData() != null;
+            case DriverWireFormat.CAR_TELEMETRY_DATA:
+                return super.getCarTelemetryData() != null;
+            case DriverWireFormat.CAR_STATUS_DATA:
+                return super.getCarStatusData() != null;
+            default:
+                return false;
+        }
+    }
+
+    private boolean isSerialized(int section) {
+        return (this.sections & section) != 0;
+    }
+
+    private ByteBuf section(int section) {
+        int offset = this.headerSize + DriverWireFormat.offset(this.sections, section);
+        return Unpooled.wrappedBuffer(this.bytes, offset, DriverWireFormat.sectionSize(section));
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.binder.jvm.ClassLoaderMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmGcMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmMemoryMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmThreadMetrics;
+import io.micrometer.core.instrument.binder.system.ProcessorMetrics;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * HTTP server exposing the metrics on the "/metrics" endpoint, in the Prometheus text format.
+ * The meters (i.e. the {@link TelemetryMetrics} ones) registered on its Micrometer registry are exposed,
+ * together with the JVM (memory, GC, threads) and CPU metrics.
+ */
+public class MetricsServer {
+
+    public static final String PATH = "/metrics";
+
+    private final int port;
+    private final PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    private final JvmGcMetrics jvmGcMetrics = new JvmGcMetrics();
+    private HttpServer server;
+
+    /**
+     * Constructor
+     *
+     * @param port port to listen on
+     */
+    public MetricsServer(int port) {
+        this.port = port;
+        new ClassLoaderMetrics().bindTo(this.registry);
+        new JvmMemoryMetrics().bindTo(this.registry);
+        new JvmThreadMetrics().bindTo(this.registry);
+        new ProcessorMetrics().bindTo(this.registry);
+        this.jvmGcMetrics.bindTo(this.registry);
+    }
+
+    /**
+     * @return the registry whose meters are exposed
+     */
+    public PrometheusMeterRegistry getRegistry() {
+        return this.registry;
+    }
+
+    public void start() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(this.port), 0);
+        this.server.createContext(PATH, exchange -> {
+            byte[] body = this.scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        this.server.start();
+    }
+
+    public void stop() {
+        if (this.server != null) {
+            this.server.stop(0);
+        }
+        this.jvmGcMetrics.close();
+    }
+
+    /**
+     * @return the metrics in the Prometheus text format
+     */
+    public String scrape() {
+        return this.registry.scrape();
+    }
+}
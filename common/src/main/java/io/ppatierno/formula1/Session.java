@@ -7,6 +7,7 @@ package io.ppatierno.formula1;
 import io.ppatierno.formula1.data.FastestLap;
 import io.ppatierno.formula1.data.ParticipantData;
 import io.ppatierno.formula1.data.SpeedTrap;
+import io.ppatierno.formula1.packets.Packet;
 import io.ppatierno.formula1.packets.PacketCarSetupData;
 import io.ppatierno.formula1.packets.PacketCarStatusData;
 import io.ppatierno.formula1.packets.PacketCarTelemetryData;
@@ -18,20 +19,115 @@ import io.ppatierno.formula1.packets.PacketSessionData;
 import io.ppatierno.formula1.packets.PacketEventData;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
- * Represent a session (i.e. free practice, qualifying, race and so on) with all the drivers related data
+ * Represent a session (i.e. free practice, qualifying, race and so on) with all the drivers related data.
+ * Updates are applied on a copy of the drivers which is then published as a new immutable snapshot (copy-on-write),
+ * so readers on other threads always get a consistent list of drivers, updated by whole frames, without locking.
+ * Optionally, the drivers data are stored in {@link SessionColumns} as well, updated in place, for analytics across all the cars.
  */
 public class Session {
 
-    private PacketSessionData sessionData;
-    private List<Driver> drivers;
-    private Event fastestLap;
-    private Event speedTrap;
+    private static final int[] EMPTY_VEHICLE_INDEXES = indexOf(Collections.emptyList(), 0);
+
+    private volatile PacketSessionData sessionData;
+    // immutable snapshot, replaced on every update
+    private volatile List<Driver> drivers = Collections.emptyList();
+    // vehicle index of each driver (by driver id ordinal, -1 if not in the session), rebuilt when the participants change
+    private volatile int[] vehicleIndexes = EMPTY_VEHICLE_INDEXES;
+    // guarded by the updates synchronization
+    private int numActiveCars;
+    // incremented every time drivers join or leave the session
+    private volatile int participantsVersion;
+    private volatile Event fastestLap;
+    private volatile Event speedTrap;
+    // null if the columnar store is not enabled
+    private final SessionColumns columns;
 
     public Session() {
+        this(false);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param columnar if the drivers data are stored in {@link SessionColumns} as well
+     */
+    public Session(boolean columnar) {
+        this.columns = columnar ? new SessionColumns() : null;
+    }
 
+    /**
+     * Apply all the packets within the same frame (same frameId) and publish the updated drivers as one snapshot
+     *
+     * @param packets packets within the same frame
+     * @return the updated drivers snapshot
+     */
+    public synchronized List<Driver> updateFrame(List<Packet> packets) {
+        List<Driver> drivers = this.drivers;
+        List<Driver> copy = null;
+        int[] vehicleIndexes = null;
+        for (Packet packet : packets) {
+            switch (packet.getHeader().getPacketId()) {
+                case SESSION:
+                    this.sessionData = (PacketSessionData) packet;
+                    break;
+                case PARTICIPANTS:
+                    PacketParticipantsData packetParticipantsData = (PacketParticipantsData) packet;
+                    if (drivers.isEmpty()) {
+                        copy = newDrivers(packetParticipantsData);
+                        drivers = copy;
+                    } else {
+                        if (copy == null) {
+                            copy = copyOf(drivers);
+                            drivers = copy;
+                        }
+                        // drivers joining or leaving during the session, the others just get the updated participant data
+                        if (!updateParticipants(copy, packetParticipantsData) &&
+                                packetParticipantsData.getNumActiveCars() == this.numActiveCars) {
+                            break;
+                        }
+                    }
+                    this.numActiveCars = packetParticipantsData.getNumActiveCars();
+                    vehicleIndexes = indexOf(copy, this.numActiveCars);
+                    if (this.columns != null) {
+                        this.columns.updateDrivers(packetParticipantsData);
+                    }
+                    break;
+                case MOTION:
+                case LAP_DATA:
+                case CAR_SETUPS:
+                case CAR_TELEMETRY:
+                case CAR_STATUS:
+                case FINAL_CLASSIFICATION:
+                    if (!drivers.isEmpty()) {
+                        if (copy == null) {
+                            copy = copyOf(drivers);
+                            drivers = copy;
+                        }
+                        update(copy, packet);
+                        if (this.columns != null) {
+                            updateColumns(this.columns, packet);
+                        }
+                    }
+                    break;
+                default:
+                    // events and lobby info don't carry drivers data
+                    break;
+            }
+        }
+        if (copy != null) {
+            this.drivers = Collections.unmodifiableList(copy);
+        }
+        if (vehicleIndexes != null) {
+            this.vehicleIndexes = vehicleIndexes;
+            this.participantsVersion++;
+        }
+        return this.drivers;
     }
 
     public void updateSession(PacketSessionData packetSessionData) {
@@ -39,73 +135,42 @@ public class Session {
     }
 
     public void updateDrivers(PacketParticipantsData packetParticipantsData) {
-        if (this.drivers == null) {
-            this.drivers = new ArrayList<>(packetParticipantsData.getNumActiveCars());
-            for (ParticipantData pd : packetParticipantsData.getParticipants()) {
-                Driver driver = new Driver(pd);
-                this.drivers.add(driver);
-            }
-        }
-        // TODO: what happens when it's not the first PacketPartecipantsData? should we updated the drivers?
+        this.updateFrame(Collections.singletonList(packetParticipantsData));
     }
 
     public void updateMotion(PacketMotionData packetMotionData) {
-        if (this.drivers != null && !this.drivers.isEmpty()) {
-            for (int i = 0; i < this.drivers.size(); i++) {
-                this.drivers.get(i).setCarMotionData(packetMotionData.getCarMotionData().get(i));
-            }
-        }
+        this.updateFrame(Collections.singletonList(packetMotionData));
     }
 
     public void updateLapData(PacketLapData packetLapData) {
-        if (this.drivers != null && !this.drivers.isEmpty()) {
-            for (int i = 0; i < this.drivers.size(); i++) {
-                this.drivers.get(i).setLapData(packetLapData.getLapData().get(i));
-            }
-        }
+        this.updateFrame(Collections.singletonList(packetLapData));
     }
 
     public void updateCarSetup(PacketCarSetupData packetCarSetupData) {
-        if (this.drivers != null && !this.drivers.isEmpty()) {
-            for (int i = 0; i < this.drivers.size(); i++) {
-                this.drivers.get(i).setCarSetupData(packetCarSetupData.getCarSetupData().get(i));
-            }
-        }
+        this.updateFrame(Collections.singletonList(packetCarSetupData));
     }
 
     public void updateCarTelemetry(PacketCarTelemetryData packetCarTelemetryData) {
-        if (this.drivers != null && !this.drivers.isEmpty()) {
-            for (int i = 0; i < this.drivers.size(); i++) {
-                this.drivers.get(i).setCarTelemetryData(packetCarTelemetryData.getCarTelemetryData().get(i));
-            }
-        }
+        this.updateFrame(Collections.singletonList(packetCarTelemetryData));
     }
 
     public void updateCarStatus(PacketCarStatusData packetCarStatusData) {
-        if (this.drivers != null && !this.drivers.isEmpty()) {
-            for (int i = 0; i < this.drivers.size(); i++) {
-                this.drivers.get(i).setCarStatusData(packetCarStatusData.getCarStatusData().get(i));
-            }
-        }
+        this.updateFrame(Collections.singletonList(packetCarStatusData));
     }
 
     public void updateFinalClassification(PacketFinalClassificationData packetFinalClassificationData) {
-        if (this.drivers != null && !this.drivers.isEmpty()) {
-            for (int i = 0; i < this.drivers.size(); i++) {
-                this.drivers.get(i).setFinalClassificationData(packetFinalClassificationData.getFinalClassificationData().get(i));
-            }
-        }
+        this.updateFrame(Collections.singletonList(packetFinalClassificationData));
     }
 
     public void updateEventData(PacketEventData packetEventData) {
         switch (packetEventData.getEventCode()) {
             case FASTEST_LAP:
                 FastestLap fastestLap = packetEventData.getEventDataDetails().getFastestLap();
-                this.fastestLap = new Event(this.drivers.get(fastestLap.getVehicleIdx()).getParticipantData(), packetEventData);
+                this.fastestLap = new Event(this.getParticipantData(fastestLap.getVehicleIdx()), packetEventData);
                 break;
             case SPEED_TRAP_TRIGGERED:
                 SpeedTrap speedTrap = packetEventData.getEventDataDetails().getSpeedTrap();
-                this.speedTrap = new Event(this.drivers.get(speedTrap.getVehicleIdx()).getParticipantData(), packetEventData);
+                this.speedTrap = new Event(this.getParticipantData(speedTrap.getVehicleIdx()), packetEventData);
                 break;
             default:
                 // just ignore other events (resolves warning about missing cases)
@@ -113,12 +178,60 @@ public class Session {
         }
     }
 
+    /**
+     * @return the current drivers snapshot, empty until the participants are received
+     */
     public List<Driver> getDrivers() {
         return drivers;
     }
 
+    /**
+     * @return a version of the participants, changing every time drivers join or leave the session
+     */
+    public int getParticipantsVersion() {
+        return participantsVersion;
+    }
+
+    /**
+     * Get a driver by its id, in constant time through the vehicle index
+     *
+     * @param driverId driver id
+     * @return the driver or null if there is no such driver in the session
+     */
     public Driver getDriver(io.ppatierno.formula1.enums.Driver driverId) {
-        return this.drivers.stream().filter(d -> d.getParticipantData().getDriverId() == driverId).findFirst().get();
+        List<Driver> drivers = this.drivers;
+        int vehicleIdx = this.vehicleIndexes[driverId.ordinal()];
+        if (vehicleIdx < 0 || vehicleIdx >= drivers.size()) {
+            return null;
+        }
+        Driver driver = drivers.get(vehicleIdx);
+        // the drivers and the index are published one after the other, so they could come from different participants
+        return driver.getParticipantData().getDriverId() == driverId ? driver : null;
+    }
+
+    /**
+     * Get the participant data of the driver at the provided index (as used by the packets)
+     *
+     * @param vehicleIdx index of the driver
+     * @return the participant data or null if there is no such driver (i.e. participants not received yet)
+     */
+    public ParticipantData getParticipantData(int vehicleIdx) {
+        List<Driver> drivers = this.drivers;
+        return vehicleIdx >= 0 && vehicleIdx < drivers.size() ? drivers.get(vehicleIdx).getParticipantData() : null;
+    }
+
+    /**
+     * Read the columnar store, consistent with whole frames as no update can happen in the meantime
+     *
+     * @param reader reader of the columns, which must not keep them after returning
+     * @return if the columnar store is enabled and the reader was called
+     */
+    public synchronized boolean readColumns(Consumer<SessionColumns> reader) {
+        if (this.columns == null) {
+            return false;
+        }
+        reader.accept(this.columns);
+        return true;
     }
 
     public Event getFastestLap() {
@@ -129,6 +242,115 @@ public class Session {
         return speedTrap;
     }
 
+    private static List<Driver> newDrivers(PacketParticipantsData packetParticipantsData) {
+        List<Driver> drivers = new ArrayList<>(packetParticipantsData.getNumActiveCars());
+        for (ParticipantData pd : packetParticipantsData.getParticipants()) {
+            drivers.add(new Driver(pd));
+        }
+        return drivers;
+    }
+
+    /**
+     * Update the drivers with the participants, replacing the ones which changed at the same vehicle index
+     *
+     * @param drivers drivers to update
+     * @param packetParticipantsData participants
+     * @return if any driver joined or left the session
+     */
+    private static boolean updateParticipants(List<Driver> drivers, PacketParticipantsData packetParticipantsData) {
+        List<ParticipantData> participants = packetParticipantsData.getParticipants();
+        boolean changed = false;
+        for (int i = 0; i < participants.size(); i++) {
+            ParticipantData pd = participants.get(i);
+            if (i >= drivers.size()) {
+                drivers.add(new Driver(pd));
+                changed = true;
+            } else if (isSameDriver(drivers.get(i).getParticipantData(), pd)) {
+                // i.e. AI taking control of the car of a driver who left an online session
+                drivers.get(i).setParticipantData(pd);
+            } else {
+                // another driver in the car, none of the previous data belongs to it
+                drivers.set(i, new Driver(pd));
+                changed = true;
+            }
+        }
+        while (drivers.size() > participants.size()) {
+            drivers.remove(drivers.size() - 1);
+            changed = true;
+        }
+        return changed;
+    }
+
+    private static boolean isSameDriver(ParticipantData current, ParticipantData pd) {
+        return current.getDriverId() == pd.getDriverId() && current.getRaceNumber() == pd.getRaceNumber();
+    }
+
+    private static int[] indexOf(List<Driver> drivers, int numActiveCars) {
+        int[] vehicleIndexes = new int[io.ppatierno.formula1.enums.Driver.values().length];
+        Arrays.fill(vehicleIndexes, -1);
+        for (int i = Math.min(numActiveCars, drivers.size()) - 1; i >= 0; i--) {
+            // first vehicle index for the same driver id (i.e. human players)
+            vehicleIndexes[drivers.get(i).getParticipantData().getDriverId().ordinal()] = i;
+        }
+        return vehicleIndexes;
+    }
+
+    private static List<Driver> copyOf(List<Driver> drivers) {
+        List<Driver> copy = new ArrayList<>(drivers.size());
+        for (Driver driver : drivers) {
+            copy.add(new Driver(driver));
+        }
+        return copy;
+    }
+
+    private static void update(List<Driver> drivers, Packet packet) {
+        for (int i = 0; i < drivers.size(); i++) {
+            Driver driver = drivers.get(i);
+            switch (packet.getHeader().getPacketId()) {
+                case MOTION:
+                    driver.setCarMotionData(((PacketMotionData) packet).getCarMotionData().get(i));
+                    break;
+                case LAP_DATA:
+                    driver.setLapData(((PacketLapData) packet).getLapData().get(i));
+                    break;
+                case CAR_SETUPS:
+                    driver.setCarSetupData(((PacketCarSetupData) packet).getCarSetupData().get(i));
+                    break;
+                case CAR_TELEMETRY:
+                    driver.setCarTelemetryData(((PacketCarTelemetryData) packet).getCarTelemetryData().get(i));
+                    break;
+                case CAR_STATUS:
+                    driver.setCarStatusData(((PacketCarStatusData) packet).getCarStatusData().get(i));
+                    break;
+                case FINAL_CLASSIFICATION:
+                    driver.setFinalClassificationData(((PacketFinalClassificationData) packet).getFinalClassificationData().get(i));
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private static void updateColumns(SessionColumns columns, Packet packet) {
+        switch (packet.getHeader().getPacketId()) {
+            case MOTION:
+                columns.updateMotion((PacketMotionData) packet);
+                break;
+            case LAP_DATA:
+                columns.updateLapData((PacketLapData) packet);
+                break;
+            case CAR_TELEMETRY:
+                columns.updateCarTelemetry((PacketCarTelemetryData) packet);
+                break;
+            case CAR_STATUS:
+                columns.updateCarStatus((PacketCarStatusData) packet);
+                break;
+            default:
+                // no columns for the other packets data
+                break;
+        }
+    }
+
     @Override
     public String toString() {
         return "Session[sessionData=" + this.sessionData +
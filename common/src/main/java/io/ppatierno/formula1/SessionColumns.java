@@ -0,0 +1,235 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import io.ppatierno.formula1.data.CarMotionData;
+import io.ppatierno.formula1.data.CarStatusData;
+import io.ppatierno.formula1.data.CarTelemetryData;
+import io.ppatierno.formula1.data.LapData;
+import io.ppatierno.formula1.packets.PacketCarStatusData;
+import io.ppatierno.formula1.packets.PacketCarTelemetryData;
+import io.ppatierno.formula1.packets.PacketLapData;
+import io.ppatierno.formula1.packets.PacketMotionData;
+import io.ppatierno.formula1.packets.PacketParticipantsData;
+
+import java.util.List;
+
+/**
+ * Columnar store of the drivers data within a session: one primitive array per field, indexed by the vehicle index
+ * (as used by the packets), updated in place by the update methods.
+ * Reading one field across all the cars is then a loop over a contiguous array instead of chasing the
+ * data objects of each {@link Driver} across the heap, so analytics (i.e. gaps, positions, average speed) run as
+ * tight, cache friendly loops the JIT can vectorize. The values are copied out of the packets, so no packet is retained.
+ * It's not thread safe: the updates and the reads have to happen on the same thread or be synchronized by the caller.
+ */
+public class SessionColumns {
+
+    public static final int MAX_CARS = 22;
+
+    private int numCars;
+
+    // motion
+    private final float[] worldPosX = new float[MAX_CARS];
+    private final float[] worldPosY = new float[MAX_CARS];
+    private final float[] worldPosZ = new float[MAX_CARS];
+    private final float[] gForceLateral = new float[MAX_CARS];
+    private final float[] gForceLongitudinal = new float[MAX_CARS];
+
+    // lap data
+    private final float[] lapDistance = new float[MAX_CARS];
+    private final float[] totalDistance = new float[MAX_CARS];
+    private final float[] currentLapTime = new float[MAX_CARS];
+    private final float[] lastLapTime = new float[MAX_CARS];
+    private final int[] carPosition = new int[MAX_CARS];
+    private final int[] currentLapNum = new int[MAX_CARS];
+
+    // car telemetry
+    private final int[] speed = new int[MAX_CARS];
+    private final int[] engineRPM = new int[MAX_CARS];
+    private final int[] gear = new int[MAX_CARS];
+    private final float[] throttle = new float[MAX_CARS];
+    private final float[] brake = new float[MAX_CARS];
+
+    // car status
+    private final float[] fuelInTank = new float[MAX_CARS];
+
+    public void updateDrivers(PacketParticipantsData packetParticipantsData) {
+        // the packets always carry all the cars, only the active ones are valid
+        this.numCars = Math.min(packetParticipantsData.getNumActiveCars(), MAX_CARS);
+    }
+
+    public void updateMotion(PacketMotionData packetMotionData) {
+        List<CarMotionData> carMotionData = packetMotionData.getCarMotionData();
+        for (int i = 0; i < this.numCars; i++) {
+            CarMotionData data = carMotionData.get(i);
+            this.worldPosX[i] = data.getWorldPositionX();
+            this.worldPosY[i] = data.getWorldPositionY();
+            this.worldPosZ[i] = data.getWorldPositionZ();
+            this.gForceLateral[i] = data.getgForceLateral();
+            this.gForceLongitudinal[i] = data.getgForceLongitudinal();
+        }
+    }
+
+    public void updateLapData(PacketLapData packetLapData) {
+        List<LapData> lapData = packetLapData.getLapData();
+        for (int i = 0; i < this.numCars; i++) {
+            LapData data = lapData.get(i);
+            this.lapDistance[i] = data.getLapDistance();
+            this.totalDistance[i] = data.getTotalDistance();
+            this.currentLapTime[i] = data.getCurrentLapTime();
+            this.lastLapTime[i] = data.getLastLapTime();
+            this.carPosition[i] = data.getCarPosition();
+            this.currentLapNum[i] = data.getCurrentLapNum();
+        }
+    }
+
+    public void updateCarTelemetry(PacketCarTelemetryData packetCarTelemetryData) {
+        List<CarTelemetryData> carTelemetryData = packetCarTelemetryData.getCarTelemetryData();
+        for (int i = 0; i < this.numCars; i++) {
+            CarTelemetryData data = carTelemetryData.get(i);
+            this.speed[i] = data.getSpeed();
+            this.engineRPM[i] = data.getEngineRPM();
+            this.gear[i] = data.getGear();
+            this.throttle[i] = data.getThrottle();
+            this.brake[i] = data.getBrake();
+        }
+    }
+
+    public void updateCarStatus(PacketCarStatusData packetCarStatusData) {
+        List<CarStatusData> carStatusData = packetCarStatusData.getCarStatusData();
+        for (int i = 0; i < this.numCars; i++) {
+            this.fuelInTank[i] = carStatusData.get(i).getFuelInTank();
+        }
+    }
+
+    /**
+     * @return the average speed (km/h) of the cars, 0 until the participants are received
+     */
+    public float averageSpeed() {
+        if (this.numCars == 0) {
+            return 0;
+        }
+        long sum = 0;
+        for (int i = 0; i < this.numCars; i++) {
+            sum += this.speed[i];
+        }
+        return (float) sum / this.numCars;
+    }
+
+    /**
+     * Compute the distance (meters) of each car from the leader, the one with the highest total distance
+     *
+     * @param gaps array filled with the gap of each car, by vehicle index, of at least {@link #getNumCars()} length
+     */
+    public void gapsToLeader(float[] gaps) {
+        float leader = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < this.numCars; i++) {
+            leader = Math.max(leader, this.totalDistance[i]);
+        }
+        for (int i = 0; i < this.numCars; i++) {
+            gaps[i] = leader - this.totalDistance[i];
+        }
+    }
+
+    /**
+     * Get the cars in race order
+     *
+     * @param order array filled with the vehicle index of the car in each position (first one at 0),
+     *              of at least {@link #getNumCars()} length
+     */
+    public void positions(int[] order) {
+        for (int i = 0; i < this.numCars; i++) {
+            int position = this.carPosition[i];
+            // no position until the first lap data is received
+            if (position > 0 && position <= this.numCars) {
+                order[position - 1] = i;
+            }
+        }
+    }
+
+    /**
+     * @return the number of cars, the columns are valid up to this index (excluded)
+     */
+    public int getNumCars() {
+        return numCars;
+    }
+
+    // the getters return the columns themselves, to loop on them without copying, they must not be modified
+
+    public float[] getWorldPosX() {
+        return worldPosX;
+    }
+
+    public float[] getWorldPosY() {
+        return worldPosY;
+    }
+
+    public float[] getWorldPosZ() {
+        return worldPosZ;
+    }
+
+    public float[] getgForceLateral() {
+        return gForceLateral;
+    }
+
+    public float[] getgForceLongitudinal() {
+        return gForceLongitudinal;
+    }
+
+    public float[] getLapDistance() {
+        return lapDistance;
+    }
+
+    public float[] getTotalDistance() {
+        return totalDistance;
+    }
+
+    public float[] getCurrentLapTime() {
+        return currentLapTime;
+    }
+
+    public float[] getLastLapTime() {
+        return lastLapTime;
+    }
+
+    public int[] getCarPosition() {
+        return carPosition;
+    }
+
+    public int[] getCurrentLapNum() {
+        return currentLapNum;
+    }
+
+    public int[] getSpeed() {
+        return speed;
+    }
+
+    public int[] getEngineRPM() {
+        return engineRPM;
+    }
+
+    public int[] getGear() {
+        return gear;
+    }
+
+    public float[] getThrottle() {
+        return throttle;
+    }
+
+    public float[] getBrake() {
+        return brake;
+    }
+
+    public float[] getFuelInTank() {
+        return fuelInTank;
+    }
+
+    @Override
+    public String toString() {
+        return "SessionColumns[numCars=" + this.numCars +
+                ",averageSpeed=" + this.averageSpeed() +
+                "]";
+    }
+}
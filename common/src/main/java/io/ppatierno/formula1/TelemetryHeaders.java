@@ -0,0 +1,75 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Names of the Kafka record headers added to the telemetry messages
+ */
+public final class TelemetryHeaders {
+
+    /**
+     * Game session the message belongs to, as "sessionUID@host:port" with the sessionUID (from the packet header)
+     * in hex and the address of the rig sending the packets
+     */
+    public static final String SESSION_ID = "f1.session.id";
+
+    /**
+     * Type of the packet, as PacketId name, on the raw packets sent as they are received
+     */
+    public static final String PACKET_ID = "f1.packet.id";
+
+    /**
+     * Frame identifier from the packet header, as long, on the raw packets sent as they are received
+     */
+    public static final String FRAME_ID = "f1.frame.id";
+
+    /**
+     * Wall clock time (epoch milliseconds) when the UDP packet was received, the first one of the frame for the drivers,
+     * as long (8 bytes big endian); it's carried through the Kafka Streams applications, for measuring the latency
+     * at each stage downstream
+     */
+    public static final String RECEIVED_AT = "f1.received.at";
+
+    private TelemetryHeaders() {
+    }
+
+    /**
+     * @param value raw value of the {@link #RECEIVED_AT} header
+     * @return the received time in epoch milliseconds, -1 if there is no such header
+     */
+    public static long receivedAt(byte[] value) {
+        if (value == null || value.length != Long.BYTES) {
+            return -1;
+        }
+        return ByteBuffer.wrap(value).getLong();
+    }
+
+    /**
+     * @param headers Kafka record headers
+     * @return the received time in epoch milliseconds, -1 if there is no such header
+     */
+    public static long receivedAt(Headers headers) {
+        Header header = headers.lastHeader(RECEIVED_AT);
+        return header != null ? receivedAt(header.value()) : -1;
+    }
+
+    /**
+     * Set the {@link #RECEIVED_AT} header, replacing the current one
+     *
+     * @param headers Kafka record headers
+     * @param receivedAt received time in epoch milliseconds, the header is just removed if negative
+     */
+    public static void setReceivedAt(Headers headers, long receivedAt) {
+        headers.remove(RECEIVED_AT);
+        if (receivedAt >= 0) {
+            headers.add(RECEIVED_AT, ByteBuffer.allocate(Long.BYTES).putLong(receivedAt).array());
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.ppatierno.formula1.enums.PacketId;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Meters of the pipeline stages, shared by all the applications so that they are named the same way
+ * wherever they are registered (i.e. on the {@link MetricsServer} registry, exposed as Prometheus metrics).
+ * The meters are registered on the first call, so each application only gets the ones of the stages it runs,
+ * and the callers on the hot path are expected to keep them instead of looking them up for every message.
+ */
+public class TelemetryMetrics {
+
+    public static final String FRAME_COMPLETED = "completed";
+    public static final String FRAME_INCOMPLETE = "incomplete";
+    public static final String FRAME_TIMED_OUT = "timed_out";
+
+    private static final PacketId[] PACKET_IDS = PacketId.values();
+    private static final double[] PERCENTILES = { 0.5, 0.9, 0.99 };
+    private static final double[] LATENCY_PERCENTILES = { 0.5, 0.9, 0.99, 0.999 };
+    // significant digits of the latency percentiles, the default one is too coarse for milliseconds
+    private static final int LATENCY_PERCENTILE_PRECISION = 2;
+    // Kafka consumers (even the Camel and Kafka Streams ones) register their fetch metrics as MBeans
+    private static final String CONSUMER_FETCH_MBEANS = "kafka.consumer:type=consumer-fetch-manager-metrics,client-id=*";
+    private static final String RECORDS_LAG_MAX = "records-lag-max";
+
+    private final MeterRegistry registry;
+
+    /**
+     * Constructor
+     *
+     * @param registry registry where the meters are registered
+     */
+    public TelemetryMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * @return metrics whose meters are not registered anywhere, for using the pipeline stages without exposing them
+     */
+    public static TelemetryMetrics noop() {
+        // a composite registry without any registry in it provides no-op meters
+        return new TelemetryMetrics(new CompositeMeterRegistry());
+    }
+
+    /**
+     * @return the counters of the received packets, indexed by PacketId ordinal
+     */
+    public Counter[] packetsReceived() {
+        Counter[] counters = new Counter[PACKET_IDS.length];
+        for (PacketId packetId : PACKET_IDS) {
+            counters[packetId.ordinal()] = Counter.builder("f1.packets.received")
+                    .description("Packets received from the game")
+                    .tag("packet_id", packetId.name())
+                    .register(this.registry);
+        }
+        return counters;
+    }
+
+    /**
+     * @return the counter of the datagrams which failed to be decoded
+     */
+    public Counter decodeErrors() {
+        return Counter.builder("f1.packets.decode.errors")
+                .description("Datagrams which failed to be decoded as packets")
+                .register(this.registry);
+    }
+
+    /**
+     * @param result how the frame was provided, {@link #FRAME_COMPLETED}, {@link #FRAME_INCOMPLETE} or {@link #FRAME_TIMED_OUT}
+     * @return the counter of the assembled frames
+     */
+    public Counter frames(String result) {
+        return Counter.builder("f1.frames")
+                .description("Frames assembled from the packets, by how they were provided")
+                .tag("result", result)
+                .register(this.registry);
+    }
+
+    /**
+     * @param topic topic the records are sent to
+     * @return the timer of the Kafka sends, until acknowledged
+     */
+    public Timer kafkaSend(String topic) {
+        return Timer.builder("f1.kafka.send")
+                .description("Latency of the records sent to Kafka, until acknowledged")
+                .tag("topic", topic)
+                .publishPercentiles(PERCENTILES)
+                .register(this.registry);
+    }
+
+    /**
+     * @param route route writing the points (one per measurement)
+     * @return the timer of the InfluxDB writes
+     */
+    public Timer influxDBWrite(String route) {
+        return Timer.builder("f1.influxdb.write")
+                .description("Latency of the points written to InfluxDB")
+                .tag("route", route)
+                .publishPercentiles(PERCENTILES)
+                .register(this.registry);
+    }
+
+    /**
+     * The percentiles are computed over a time window decaying on its own, not on the scrapes,
+     * so more Prometheus servers scraping the same application all get the same values.
+     *
+     * @param stage name of the stage the latency is measured at
+     * @return the recorder of the latency from the UDP packets being received to the stage
+     */
+    public LatencyRecorder latency(String stage) {
+        DistributionSummary summary = DistributionSummary.builder("f1.latency")
+                .description("Latency from the UDP packets being received to the stage")
+                .baseUnit("ms")
+                .tag("stage", stage)
+                .publishPercentiles(LATENCY_PERCENTILES)
+                .percentilePrecision(LATENCY_PERCENTILE_PRECISION)
+                .register(this.registry);
+        return new LatencyRecorder(stage, summary);
+    }
+
+    /**
+     * @param address event bus address
+     * @return the counter of the messages published on the event bus
+     */
+    public Counter eventBusPublished(String address) {
+        return Counter.builder("f1.eventbus.published")
+                .description("Messages published on the event bus")
+                .tag("address", address)
+                .register(this.registry);
+    }
+
+    /**
+     * Register the gauge of the maximum lag (in number of records) across all the Kafka consumers in the application
+     */
+    public void bindConsumerLag() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        Gauge.builder("f1.kafka.consumer.records.lag.max", server, TelemetryMetrics::recordsLagMax)
+                .description("Maximum lag in number of records across all the Kafka consumers")
+                .register(this.registry);
+    }
+
+    private static double recordsLagMax(MBeanServer server) {
+        double max = Double.NaN;
+        try {
+            // queried on every scrape, consumers (i.e. Kafka Streams threads) come and go
+            for (ObjectName name : server.queryNames(new ObjectName(CONSUMER_FETCH_MBEANS), null)) {
+                Object lag = server.getAttribute(name, RECORDS_LAG_MAX);
+                // NaN when the consumer didn't fetch anything in the metric window yet
+                if (lag instanceof Double && !((Double) lag).isNaN()) {
+                    max = Double.isNaN(max) ? (Double) lag : Math.max(max, (Double) lag);
+                }
+            }
+        } catch (Exception e) {
+            return Double.NaN;
+        }
+        return max;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+/**
+ * Statistics of the telemetry (speed, engine RPM, throttle and brake) of a driver over a time window
+ */
+public class TelemetryStats {
+
+    // window start and end, then the statistics of the 4 metrics
+    public static final int SIZE = 8 + 8 + 4 * Stats.SIZE;
+
+    private final long windowStart;
+    private final long windowEnd;
+    private final Stats speed;
+    private final Stats engineRPM;
+    private final Stats throttle;
+    private final Stats brake;
+
+    public TelemetryStats(long windowStart, long windowEnd, Stats speed, Stats engineRPM, Stats throttle, Stats brake) {
+        this.windowStart = windowStart;
+        this.windowEnd = windowEnd;
+        this.speed = speed;
+        this.engineRPM = engineRPM;
+        this.throttle = throttle;
+        this.brake = brake;
+    }
+
+    public long getWindowStart() {
+        return windowStart;
+    }
+
+    public long getWindowEnd() {
+        return windowEnd;
+    }
+
+    public Stats getSpeed() {
+        return speed;
+    }
+
+    public Stats getEngineRPM() {
+        return engineRPM;
+    }
+
+    public Stats getThrottle() {
+        return throttle;
+    }
+
+    public Stats getBrake() {
+        return brake;
+    }
+
+    @Override
+    public String toString() {
+        return "TelemetryStats[" +
+                "windowStart=" + this.windowStart +
+                ", windowEnd=" + this.windowEnd +
+                ", speed=" + this.speed +
+                ", engineRPM=" + this.engineRPM +
+                ", throttle=" + this.throttle +
+                ", brake=" + this.brake +
+                "]";
+    }
+
+    /**
+     * Statistics of a single metric
+     */
+    public static class Stats {
+
+        // count and then 7 doubles
+        public static final int SIZE = 8 + 7 * 8;
+
+        private final long count;
+        private final double min;
+        private final double max;
+        private final double mean;
+        private final double stddev;
+        private final double p50;
+        private final double p95;
+        private final double p99;
+
+        public Stats(long count, double min, double max, double mean, double stddev, double p50, double p95, double p99) {
+            this.count = count;
+            this.min = min;
+            this.max = max;
+            this.mean = mean;
+            this.stddev = stddev;
+            this.p50 = p50;
+            this.p95 = p95;
+            this.p99 = p99;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMin() {
+            return min;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public double getStddev() {
+            return stddev;
+        }
+
+        public double getP50() {
+            return p50;
+        }
+
+        public double getP95() {
+            return p95;
+        }
+
+        public double getP99() {
+            return p99;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats[" +
+                    "count=" + this.count +
+                    ", min=" + this.min +
+                    ", max=" + this.max +
+                    ", mean=" + this.mean +
+                    ", stddev=" + this.stddev +
+                    ", p50=" + this.p50 +
+                    ", p95=" + this.p95 +
+                    ", p99=" + this.p99 +
+                    "]";
+        }
+    }
+}
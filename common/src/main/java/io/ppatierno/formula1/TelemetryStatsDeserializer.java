@@ -0,0 +1,49 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+public class TelemetryStatsDeserializer implements Deserializer<TelemetryStats> {
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+
+    }
+
+    @Override
+    public TelemetryStats deserialize(String topic, byte[] bytes) {
+        return deserialize(topic, null, bytes);
+    }
+
+    @Override
+    public TelemetryStats deserialize(String topic, Headers headers, byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long windowStart = buffer.getLong();
+        long windowEnd = buffer.getLong();
+        TelemetryStats.Stats speed = this.deserialize(buffer);
+        TelemetryStats.Stats engineRPM = this.deserialize(buffer);
+        TelemetryStats.Stats throttle = this.deserialize(buffer);
+        TelemetryStats.Stats brake = this.deserialize(buffer);
+        return new TelemetryStats(windowStart, windowEnd, speed, engineRPM, throttle, brake);
+    }
+
+    private TelemetryStats.Stats deserialize(ByteBuffer buffer) {
+        return new TelemetryStats.Stats(buffer.getLong(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble(),
+                buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+    }
+
+    @Override
+    public void close() {
+
+    }
+}
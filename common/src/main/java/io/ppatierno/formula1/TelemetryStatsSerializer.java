@@ -0,0 +1,55 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+public class TelemetryStatsSerializer implements Serializer<TelemetryStats> {
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+
+    }
+
+    @Override
+    public byte[] serialize(String topic, TelemetryStats telemetryStats) {
+        return serialize(topic, null, telemetryStats);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, TelemetryStats telemetryStats) {
+        if (telemetryStats == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(TelemetryStats.SIZE);
+        buffer.putLong(telemetryStats.getWindowStart());
+        buffer.putLong(telemetryStats.getWindowEnd());
+        this.serialize(buffer, telemetryStats.getSpeed());
+        this.serialize(buffer, telemetryStats.getEngineRPM());
+        this.serialize(buffer, telemetryStats.getThrottle());
+        this.serialize(buffer, telemetryStats.getBrake());
+        return buffer.array();
+    }
+
+    private void serialize(ByteBuffer buffer, TelemetryStats.Stats stats) {
+        buffer.putLong(stats.getCount());
+        buffer.putDouble(stats.getMin());
+        buffer.putDouble(stats.getMax());
+        buffer.putDouble(stats.getMean());
+        buffer.putDouble(stats.getStddev());
+        buffer.putDouble(stats.getP50());
+        buffer.putDouble(stats.getP95());
+        buffer.putDouble(stats.getP99());
+    }
+
+    @Override
+    public void close() {
+
+    }
+}
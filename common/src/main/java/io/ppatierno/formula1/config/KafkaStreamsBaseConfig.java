@@ -11,24 +11,30 @@ public class KafkaStreamsBaseConfig extends KafkaBaseConfig {
 
     public static final String F1_STREAMS_INPUT_TOPIC_ENV = "F1_STREAMS_INPUT_TOPIC";
     public static final String F1_STREAMS_OUTPUT_TOPIC_ENV = "F1_STREAMS_OUTPUT_TOPIC";
+    public static final String METRICS_PORT_ENV = "METRICS_PORT";
 
     private static final String DEFAULT_F1_STREAMS_INPUT_TOPIC = "f1-telemetry-input-topic";
     private static final String DEFAULT_F1_STREAMS_OUTPUT_TOPIC = "f1-telemetry-output-topic";
+    // port of the "/metrics" endpoint
+    protected static final int DEFAULT_METRICS_PORT = 9404;
 
     protected final String f1StreamsInputTopic;
     protected final String f1StreamsOutputTopic;
+    protected final int metricsPort;
 
-    protected KafkaStreamsBaseConfig(String kafkaBootstrapServers, String f1StreamsInputTopic, String f1StreamsOutputTopic) {
+    protected KafkaStreamsBaseConfig(String kafkaBootstrapServers, String f1StreamsInputTopic, String f1StreamsOutputTopic, int metricsPort) {
         super(kafkaBootstrapServers, null, null);
         this.f1StreamsInputTopic = f1StreamsInputTopic;
         this.f1StreamsOutputTopic = f1StreamsOutputTopic;
+        this.metricsPort = metricsPort;
     }
 
     public static KafkaStreamsBaseConfig fromEnv() {
         String kafkaBootstrapServers = System.getenv(KAFKA_BOOTSTRAP_SERVERS_ENV) == null ? DEFAULT_KAFKA_BOOTSTRAP_SERVERS : System.getenv(KAFKA_BOOTSTRAP_SERVERS_ENV);
         String f1StreamsInputTopic = System.getenv(F1_STREAMS_INPUT_TOPIC_ENV) == null ? DEFAULT_F1_STREAMS_INPUT_TOPIC : System.getenv(F1_STREAMS_INPUT_TOPIC_ENV);
         String f1StreamsOutputTopic = System.getenv(F1_STREAMS_OUTPUT_TOPIC_ENV) == null ? DEFAULT_F1_STREAMS_OUTPUT_TOPIC : System.getenv(F1_STREAMS_OUTPUT_TOPIC_ENV);
-        return new KafkaStreamsBaseConfig(kafkaBootstrapServers, f1StreamsInputTopic, f1StreamsOutputTopic);
+        int metricsPort = System.getenv(METRICS_PORT_ENV) == null ? DEFAULT_METRICS_PORT : Integer.parseInt(System.getenv(METRICS_PORT_ENV));
+        return new KafkaStreamsBaseConfig(kafkaBootstrapServers, f1StreamsInputTopic, f1StreamsOutputTopic, metricsPort);
     }
 
     public String getF1StreamsInputTopic() {
@@ -38,4 +44,8 @@ public class KafkaStreamsBaseConfig extends KafkaBaseConfig {
     public String getF1StreamsOutputTopic() {
         return f1StreamsOutputTopic;
     }
+
+    public int getMetricsPort() {
+        return metricsPort;
+    }
 }
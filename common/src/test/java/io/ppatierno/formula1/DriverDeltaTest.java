@@ -0,0 +1,111 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DriverDeltaTest {
+
+    private static final String KEY = DriverDeltaEncoder.key("session", "HAMILTON");
+
+    private final DriverSerializer serializer = new DriverSerializer();
+
+    @Test
+    public void testKeyframeThenDeltas() {
+        DriverDeltaEncoder encoder = new DriverDeltaEncoder(10);
+        DriverDeltaDecoder decoder = new DriverDeltaDecoder();
+
+        Driver first = DriverFixtures.driver(7, 300, 11500, 1.0f, 0.0f);
+        byte[] keyframe = encoder.encode(KEY, first);
+        assertEquals(DriverDeltaEncoder.KEYFRAME, keyframe[0]);
+        this.assertDecoded(first, decoder.decode(KEY, keyframe));
+
+        Driver second = DriverFixtures.driver(7, 305, 11600, 1.0f, 0.0f);
+        byte[] delta = encoder.encode(KEY, second);
+        assertEquals(DriverDeltaEncoder.DELTA, delta[0]);
+        // only the telemetry changed
+        assertEquals(DriverWireFormat.CAR_TELEMETRY_DATA, delta[1] & 0xFF);
+        assertEquals(2 + DriverWireFormat.sectionSize(DriverWireFormat.CAR_TELEMETRY_DATA), delta.length);
+        this.assertDecoded(second, decoder.decode(KEY, delta));
+
+        // nothing changed
+        byte[] empty = encoder.encode(KEY, second);
+        assertEquals(DriverDeltaEncoder.DELTA, empty[0]);
+        assertEquals(2, empty.length);
+        this.assertDecoded(second, decoder.decode(KEY, empty));
+    }
+
+    @Test
+    public void testKeyframeInterval() {
+        DriverDeltaEncoder encoder = new DriverDeltaEncoder(3);
+        byte[] types = new byte[7];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = encoder.encode(KEY, DriverFixtures.driver(7, 200 + i, 11000, 1.0f, 0.0f))[0];
+        }
+        byte k = DriverDeltaEncoder.KEYFRAME;
+        byte d = DriverDeltaEncoder.DELTA;
+        assertArrayEquals(new byte[] { k, d, d, k, d, d, k }, types);
+    }
+
+    @Test
+    public void testKeyframeOnSectionsChange() {
+        DriverDeltaEncoder encoder = new DriverDeltaEncoder(10);
+        encoder.encode(KEY, DriverFixtures.driver());
+
+        Driver driver = DriverFixtures.driver();
+        driver.setCarSetupData(null);
+        assertEquals(DriverDeltaEncoder.KEYFRAME, encoder.encode(KEY, driver)[0]);
+    }
+
+    @Test
+    public void testDecoderJoiningLate() {
+        DriverDeltaEncoder encoder = new DriverDeltaEncoder(3);
+        DriverDeltaDecoder decoder = new DriverDeltaDecoder();
+
+        encoder.encode(KEY, DriverFixtures.driver(7, 200, 11000, 1.0f, 0.0f));
+        // started in the middle, deltas can't be decoded without the previous keyframe
+        assertNull(decoder.decode(KEY, encoder.encode(KEY, DriverFixtures.driver(7, 201, 11000, 1.0f, 0.0f))));
+        assertNull(decoder.decode(KEY, encoder.encode(KEY, DriverFixtures.driver(7, 202, 11000, 1.0f, 0.0f))));
+
+        // recovered from the next keyframe on
+        Driver keyframe = DriverFixtures.driver(7, 203, 11000, 1.0f, 0.0f);
+        this.assertDecoded(keyframe, decoder.decode(KEY, encoder.encode(KEY, keyframe)));
+        Driver delta = DriverFixtures.driver(7, 204, 11100, 0.8f, 0.2f);
+        this.assertDecoded(delta, decoder.decode(KEY, encoder.encode(KEY, delta)));
+    }
+
+    @Test
+    public void testResetSession() {
+        DriverDeltaEncoder encoder = new DriverDeltaEncoder(10);
+        String other = DriverDeltaEncoder.key("other", "HAMILTON");
+        encoder.encode(KEY, DriverFixtures.driver());
+        encoder.encode(DriverDeltaEncoder.key("session", "BOTTAS"), DriverFixtures.driver(9, 300, 11500, 1.0f, 0.0f));
+        encoder.encode(other, DriverFixtures.driver());
+        assertEquals(3, encoder.size());
+
+        encoder.resetSession("session");
+
+        assertEquals(1, encoder.size());
+        assertEquals(DriverDeltaEncoder.KEYFRAME, encoder.encode(KEY, DriverFixtures.driver())[0]);
+        assertEquals(DriverDeltaEncoder.DELTA, encoder.encode(other, DriverFixtures.driver())[0]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownRecordType() {
+        new DriverDeltaDecoder().decode(KEY, new byte[] { 0 });
+    }
+
+    private void assertDecoded(Driver expected, Driver decoded) {
+        assertNotNull(decoded);
+        assertTrue(decoded.hasValidTelemetry());
+        assertArrayEquals(this.serializer.serialize("topic", expected), this.serializer.serialize("topic", decoded));
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.ppatierno.formula1.data.CarMotionData;
+import io.ppatierno.formula1.data.CarSetupData;
+import io.ppatierno.formula1.data.CarStatusData;
+import io.ppatierno.formula1.data.CarTelemetryData;
+import io.ppatierno.formula1.data.LapData;
+import io.ppatierno.formula1.data.ParticipantData;
+import io.ppatierno.formula1.packets.PacketEventData;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Provides Driver instances built from raw bytes laid out as per the F1 2020 UDP specification, for the tests
+ */
+public class DriverFixtures {
+
+    // F1 2020 ids used for the enum fields which have no valid zero value
+    public static final int[] DRIVER_IDS = { 0, 1, 2, 6, 7, 9, 10, 11, 12, 13, 14, 15, 17, 19, 20, 21, 22, 23, 24, 25, 26, 27 };
+    private static final int NATIONALITY = 10;
+    private static final int ACTUAL_TYRE_COMPOUND = 18;
+    private static final int VISUAL_TYRE_COMPOUND = 17;
+
+    /**
+     * @return a Driver with participant, motion, lap, setup, telemetry and status data
+     */
+    public static Driver driver() {
+        return driver(7, 300, 11500, 1.0f, 0.0f);
+    }
+
+    /**
+     * @param driverId F1 2020 driver id
+     * @param speed speed in km/h
+     * @param engineRPM engine RPM
+     * @param throttle throttle, from 0 to 1
+     * @param brake brake, from 0 to 1
+     * @return a Driver with participant, motion, lap, setup, telemetry and status data
+     */
+    public static Driver driver(int driverId, int speed, int engineRPM, float throttle, float brake) {
+        Driver driver = new Driver(participant(driverId));
+        driver.setCarMotionData(new CarMotionData().fill(Unpooled.wrappedBuffer(new byte[CarMotionData.SIZE])));
+        driver.setLapData(lapData(0, 0, 0));
+        driver.setCarSetupData(new CarSetupData().fill(Unpooled.wrappedBuffer(new byte[CarSetupData.SIZE])));
+        driver.setCarTelemetryData(carTelemetryData(speed, engineRPM, throttle, brake));
+        driver.setCarStatusData(carStatusData());
+        return driver;
+    }
+
+    /**
+     * @param driverId F1 2020 driver id
+     * @param bestOverallSector1TimeInMS best overall time in sector 1, 0 if none
+     * @param bestOverallSector2TimeInMS best overall time in sector 2, 0 if none
+     * @param bestOverallSector3TimeInMS best overall time in sector 3, 0 if none
+     * @return a Driver with valid telemetry and the provided best overall sector times
+     */
+    public static Driver driverWithBestSectors(int driverId, int bestOverallSector1TimeInMS, int bestOverallSector2TimeInMS, int bestOverallSector3TimeInMS) {
+        Driver driver = driver(driverId, 300, 11500, 1.0f, 0.0f);
+        driver.setLapData(lapData(bestOverallSector1TimeInMS, bestOverallSector2TimeInMS, bestOverallSector3TimeInMS));
+        return driver;
+    }
+
+    /**
+     * @return an Event ("session started") related to the driver of {@link #driver()}
+     */
+    public static Event event() {
+        return new Event(participant(7), (PacketEventData) PacketFixtures.eventPacket(1));
+    }
+
+    /**
+     * @param driverId F1 2020 driver id
+     * @return the participant data of the driver
+     */
+    public static ParticipantData participant(int driverId) {
+        byte[] bytes = new byte[ParticipantData.SIZE];
+        bytes[0] = 1; // aiControlled
+        bytes[1] = (byte) driverId;
+        bytes[2] = 0; // teamId
+        bytes[3] = 44; // raceNumber
+        bytes[4] = (byte) NATIONALITY;
+        byte[] name = ("DRIVER" + driverId).getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(name, 0, bytes, 5, name.length);
+        return new ParticipantData().fill(Unpooled.wrappedBuffer(bytes));
+    }
+
+    /**
+     * @param bestOverallSector1TimeInMS best overall time in sector 1, 0 if none
+     * @param bestOverallSector2TimeInMS best overall time in sector 2, 0 if none
+     * @param bestOverallSector3TimeInMS best overall time in sector 3, 0 if none
+     * @return the lap data, with the best overall sector times set at lap 1
+     */
+    public static LapData lapData(int bestOverallSector1TimeInMS, int bestOverallSector2TimeInMS, int bestOverallSector3TimeInMS) {
+        ByteBuf bb = Unpooled.wrappedBuffer(new byte[LapData.SIZE]);
+        bb.setFloatLE(0, 90.0f); // lastLapTime
+        bb.setShortLE(23, bestOverallSector1TimeInMS);
+        bb.setByte(25, 1);
+        bb.setShortLE(26, bestOverallSector2TimeInMS);
+        bb.setByte(28, 1);
+        bb.setShortLE(29, bestOverallSector3TimeInMS);
+        bb.setByte(31, 1);
+        return new LapData().fill(bb);
+    }
+
+    /**
+     * @param speed speed in km/h
+     * @param engineRPM engine RPM
+     * @param throttle throttle, from 0 to 1
+     * @param brake brake, from 0 to 1
+     * @return the car telemetry data
+     */
+    public static CarTelemetryData carTelemetryData(int speed, int engineRPM, float throttle, float brake) {
+        ByteBuf bb = Unpooled.wrappedBuffer(new byte[CarTelemetryData.SIZE]);
+        bb.setShortLE(0, speed);
+        bb.setFloatLE(2, throttle);
+        bb.setFloatLE(10, brake);
+        bb.setShortLE(16, engineRPM);
+        return new CarTelemetryData().fill(bb);
+    }
+
+    private static CarStatusData carStatusData() {
+        byte[] bytes = new byte[CarStatusData.SIZE];
+        bytes[29] = (byte) ACTUAL_TYRE_COMPOUND;
+        bytes[30] = (byte) VISUAL_TYRE_COMPOUND;
+        return new CarStatusData().fill(Unpooled.wrappedBuffer(bytes));
+    }
+}
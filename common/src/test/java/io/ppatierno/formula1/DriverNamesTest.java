@@ -0,0 +1,67 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class DriverNamesTest {
+
+    private static final io.ppatierno.formula1.enums.Driver[] DRIVERS = io.ppatierno.formula1.enums.Driver.values();
+
+    @Test
+    public void testNames() {
+        for (io.ppatierno.formula1.enums.Driver driverId : DRIVERS) {
+            String name = driverId.name();
+            int lastName = name.indexOf("_") + 1;
+            assertEquals("#" + name.charAt(0) + name.charAt(lastName) + 44, DriverNames.hashtag(driverId, 44));
+            assertEquals(name.substring(lastName, Math.min(lastName + 3, name.length())), DriverNames.shortName(driverId));
+        }
+    }
+
+    @Test
+    public void testSameInstance() {
+        io.ppatierno.formula1.enums.Driver driverId = DRIVERS[0];
+        assertSame(DriverNames.hashtag(driverId, 7), DriverNames.hashtag(driverId, 7));
+        // out of the table, still interned
+        assertSame(DriverNames.hashtag(driverId, 300), DriverNames.hashtag(driverId, 300));
+        assertSame(DriverNames.hashtag(DriverFixtures.participant(7)), DriverNames.hashtag(DriverFixtures.participant(7)));
+    }
+
+    @Test
+    public void testConcurrentLookups() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String[]>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    String[] hashtags = new String[DRIVERS.length * 100];
+                    for (int i = 0; i < hashtags.length; i++) {
+                        hashtags[i] = DriverNames.hashtag(DRIVERS[i % DRIVERS.length], 100 + i / DRIVERS.length);
+                    }
+                    return hashtags;
+                }));
+            }
+            String[] expected = results.get(0).get();
+            for (Future<String[]> result : results) {
+                String[] hashtags = result.get();
+                for (int i = 0; i < hashtags.length; i++) {
+                    assertSame(expected[i], hashtags[i]);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
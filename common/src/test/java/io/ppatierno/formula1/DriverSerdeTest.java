@@ -0,0 +1,225 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import io.ppatierno.formula1.data.CarTelemetryData;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DriverSerdeTest {
+
+    // the sections of the fixtures, without the final classification
+    private static final int RACE_SECTIONS = DriverWireFormat.ALL_SECTIONS & ~DriverWireFormat.FINAL_CLASSIFICATION_DATA;
+
+    private final DriverSerializer serializer = new DriverSerializer();
+
+    @Test
+    public void testRoundTripEager() {
+        Driver driver = DriverFixtures.driver(7, 312, 11800, 0.75f, 0.25f);
+        byte[] bytes = this.serializer.serialize("topic", driver);
+
+        Driver deserialized = this.deserializer(false).deserialize("topic", bytes);
+
+        assertEquals(Driver.class, deserialized.getClass());
+        this.assertSameDriver(driver, deserialized);
+        assertArrayEquals(bytes, this.serializer.serialize("topic", deserialized));
+    }
+
+    @Test
+    public void testRoundTripLazy() {
+        Driver driver = DriverFixtures.driver(7, 312, 11800, 0.75f, 0.25f);
+        byte[] bytes = this.serializer.serialize("topic", driver);
+
+        Driver deserialized = this.deserializer(true).deserialize("topic", bytes);
+
+        assertTrue(deserialized instanceof LazyDriver);
+        this.assertSameDriver(driver, deserialized);
+        assertArrayEquals(bytes, this.serializer.serialize("topic", deserialized));
+    }
+
+    @Test
+    public void testNullSectionsNotSerialized() {
+        Driver driver = DriverFixtures.driver();
+        byte[] bytes = this.serializer.serialize("topic", driver);
+
+        assertEquals(DriverWireFormat.VERSION, bytes[0]);
+        assertEquals(RACE_SECTIONS, bytes[1] & 0xFF);
+        assertEquals(DriverWireFormat.size(RACE_SECTIONS), bytes.length);
+        assertNull(this.deserializer(false).deserialize("topic", bytes).getFinalClassificationData());
+        assertNull(this.deserializer(true).deserialize("topic", bytes).getFinalClassificationData());
+    }
+
+    @Test
+    public void testSectionsSubset() {
+        Driver driver = DriverFixtures.driver(7, 280, 10500, 1.0f, 0.0f);
+        int sections = DriverWireFormat.PARTICIPANT_DATA | DriverWireFormat.CAR_TELEMETRY_DATA | DriverWireFormat.CAR_STATUS_DATA;
+        byte[] bytes = this.serializer.serialize(driver, sections);
+
+        assertEquals(DriverWireFormat.size(sections), bytes.length);
+        assertEquals(sections, DriverWireFormat.sections(bytes));
+        assertEquals(DriverWireFormat.HEADER_SIZE, DriverWireFormat.headerSize(bytes));
+
+        for (boolean lazy : Arrays.asList(false, true)) {
+            Driver deserialized = this.deserializer(lazy).deserialize("topic", bytes);
+            assertEquals(driver.getParticipantData().getDriverId(), deserialized.getParticipantData().getDriverId());
+            assertNull(deserialized.getCarMotionData());
+            assertNull(deserialized.getLapData());
+            assertNull(deserialized.getCarSetupData());
+            assertEquals(280, deserialized.getCarTelemetryData().getSpeed());
+            assertEquals(10500, deserialized.getCarTelemetryData().getEngineRPM());
+            assertNotNull(deserialized.getCarStatusData());
+            assertFalse(deserialized.hasValidTelemetry());
+        }
+    }
+
+    @Test
+    public void testEverySingleSection() {
+        Driver driver = DriverFixtures.driver();
+        for (int section = 1; section < DriverWireFormat.FINAL_CLASSIFICATION_DATA; section <<= 1) {
+            byte[] bytes = this.serializer.serialize(driver, section);
+            assertEquals(DriverWireFormat.size(section), bytes.length);
+            assertEquals(section, DriverWireFormat.sections(bytes));
+            // the only section is right after the header
+            assertEquals(0, DriverWireFormat.offset(section, section));
+            assertArrayEquals(bytes, this.serializer.serialize(this.deserializer(true).deserialize("topic", bytes), section));
+        }
+    }
+
+    @Test
+    public void testLegacyRecord() {
+        Driver driver = DriverFixtures.driver(7, 305, 11200, 0.5f, 0.5f);
+        byte[] bytes = this.serializer.serialize("topic", driver);
+        // records written before the versioning have just the sections, one after the other
+        byte[] legacy = Arrays.copyOfRange(bytes, DriverWireFormat.HEADER_SIZE, bytes.length);
+
+        assertEquals(0, DriverWireFormat.headerSize(legacy));
+        assertEquals(RACE_SECTIONS, DriverWireFormat.sections(legacy));
+
+        for (boolean lazy : Arrays.asList(false, true)) {
+            Driver deserialized = this.deserializer(lazy).deserialize("topic", legacy);
+            this.assertSameDriver(driver, deserialized);
+            assertTrue(deserialized.hasValidTelemetry());
+            // re-serialized with the header
+            assertArrayEquals(bytes, this.serializer.serialize("topic", deserialized));
+        }
+    }
+
+    @Test
+    public void testLegacyRecordTruncated() {
+        Driver driver = DriverFixtures.driver();
+        byte[] bytes = this.serializer.serialize("topic", driver);
+        // legacy record with the participant and the motion data only, plus a partial lap data
+        int length = DriverWireFormat.sectionSize(DriverWireFormat.PARTICIPANT_DATA) + DriverWireFormat.sectionSize(DriverWireFormat.CAR_MOTION_DATA) + 1;
+        byte[] legacy = Arrays.copyOfRange(bytes, DriverWireFormat.HEADER_SIZE, DriverWireFormat.HEADER_SIZE + length);
+
+        assertEquals(DriverWireFormat.PARTICIPANT_DATA | DriverWireFormat.CAR_MOTION_DATA, DriverWireFormat.sections(legacy));
+        Driver deserialized = this.deserializer(true).deserialize("topic", legacy);
+        assertNotNull(deserialized.getCarMotionData());
+        assertNull(deserialized.getLapData());
+    }
+
+    @Test
+    public void testVersionedLengthCheck() {
+        Driver driver = DriverFixtures.driver();
+        byte[] bytes = this.serializer.serialize(driver, DriverWireFormat.PARTICIPANT_DATA);
+
+        // a version byte and a bitmap with a length not matching the sections is not a versioned header
+        byte[] longer = Arrays.copyOf(bytes, bytes.length + 1);
+        assertEquals(0, DriverWireFormat.headerSize(longer));
+        byte[] shorter = Arrays.copyOf(bytes, bytes.length - 1);
+        assertEquals(0, DriverWireFormat.headerSize(shorter));
+        // as well as a bitmap with unknown sections
+        byte[] unknown = bytes.clone();
+        unknown[1] = (byte) 0x80;
+        assertEquals(0, DriverWireFormat.headerSize(unknown));
+        // too short for an header
+        assertEquals(0, DriverWireFormat.headerSize(new byte[] { DriverWireFormat.VERSION }));
+        assertEquals(DriverWireFormat.HEADER_SIZE, DriverWireFormat.headerSize(bytes));
+    }
+
+    @Test
+    public void testLazyDriverDecodesOnce() {
+        byte[] bytes = this.serializer.serialize("topic", DriverFixtures.driver());
+        LazyDriver lazyDriver = new LazyDriver(bytes);
+
+        CarTelemetryData carTelemetryData = lazyDriver.getCarTelemetryData();
+        assertSame(carTelemetryData, lazyDriver.getCarTelemetryData());
+        assertTrue(lazyDriver.hasValidTelemetry());
+    }
+
+    @Test
+    public void testLazyDriverSetOverridesBytes() {
+        byte[] bytes = this.serializer.serialize("topic", DriverFixtures.driver());
+        LazyDriver lazyDriver = new LazyDriver(bytes);
+
+        lazyDriver.setCarTelemetryData(null);
+        assertNull(lazyDriver.getCarTelemetryData());
+        assertFalse(lazyDriver.hasValidTelemetry());
+
+        CarTelemetryData carTelemetryData = DriverFixtures.carTelemetryData(100, 8000, 0.1f, 0.9f);
+        lazyDriver.setCarTelemetryData(carTelemetryData);
+        assertSame(carTelemetryData, lazyDriver.getCarTelemetryData());
+        assertTrue(lazyDriver.hasValidTelemetry());
+    }
+
+    @Test
+    public void testLazyDriverAtOffset() {
+        Driver driver = DriverFixtures.driver(13, 290, 11100, 0.9f, 0.0f);
+        byte[] bytes = this.serializer.serialize("topic", driver);
+        // the driver within bigger raw bytes, as in a drivers frame
+        byte[] frame = new byte[5 + bytes.length + 3];
+        System.arraycopy(bytes, 0, frame, 5, bytes.length);
+
+        this.assertSameDriver(driver, new LazyDriver(frame, 5));
+    }
+
+    @Test
+    public void testReuseBuffer() {
+        DriverSerializer reusing = new DriverSerializer();
+        reusing.configure(Collections.singletonMap(DriverSerializer.REUSE_BUFFER_CONFIG, "true"), false);
+
+        byte[] first = reusing.serialize("topic", DriverFixtures.driver(7, 300, 11500, 1.0f, 0.0f));
+        byte[] expected = this.serializer.serialize("topic", DriverFixtures.driver(9, 200, 9000, 0.5f, 0.5f));
+        byte[] second = reusing.serialize("topic", DriverFixtures.driver(9, 200, 9000, 0.5f, 0.5f));
+
+        // same size, so the same scratch buffer overwritten
+        assertSame(first, second);
+        assertArrayEquals(expected, second);
+    }
+
+    @Test
+    public void testNull() {
+        assertNull(this.serializer.serialize("topic", null));
+        assertNull(this.deserializer(true).deserialize("topic", null));
+        assertNull(this.deserializer(false).deserialize("topic", null));
+    }
+
+    private DriverDeserializer deserializer(boolean lazy) {
+        DriverDeserializer deserializer = new DriverDeserializer();
+        deserializer.configure(Collections.singletonMap(DriverDeserializer.LAZY_CONFIG, String.valueOf(lazy)), false);
+        return deserializer;
+    }
+
+    private void assertSameDriver(Driver expected, Driver actual) {
+        assertEquals(expected.getParticipantData().getDriverId(), actual.getParticipantData().getDriverId());
+        assertEquals(expected.getHashtag(), actual.getHashtag());
+        assertEquals(expected.getCarTelemetryData().getSpeed(), actual.getCarTelemetryData().getSpeed());
+        assertEquals(expected.getCarTelemetryData().getEngineRPM(), actual.getCarTelemetryData().getEngineRPM());
+        assertEquals(expected.getCarTelemetryData().getThrottle(), actual.getCarTelemetryData().getThrottle(), 0);
+        assertEquals(expected.getCarTelemetryData().getBrake(), actual.getCarTelemetryData().getBrake(), 0);
+        assertEquals(expected.getLapData().getLastLapTime(), actual.getLapData().getLastLapTime(), 0);
+        assertEquals(expected.getCarStatusData().getVisualTyreCompound(), actual.getCarStatusData().getVisualTyreCompound());
+    }
+}
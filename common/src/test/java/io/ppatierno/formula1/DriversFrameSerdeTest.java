@@ -0,0 +1,119 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DriversFrameSerdeTest {
+
+    private final DriversFrameSerializer serializer = new DriversFrameSerializer();
+    private final DriversFrameDeserializer deserializer = new DriversFrameDeserializer();
+    private final DriverSerializer driverSerializer = new DriverSerializer();
+
+    @Test
+    public void testRoundTrip() {
+        DriversFrame frame = new DriversFrame(1234, this.drivers());
+        byte[] bytes = this.serializer.serialize("topic", frame);
+
+        assertTrue(DriversFrameWireFormat.isFrame(bytes));
+        assertEquals(1234, DriversFrameWireFormat.frameIdentifier(bytes));
+        assertEquals(frame.getDrivers().size(), DriversFrameWireFormat.drivers(bytes));
+
+        DriversFrame deserialized = this.deserializer.deserialize("topic", bytes);
+
+        assertEquals(frame.getFrameIdentifier(), deserialized.getFrameIdentifier());
+        assertEquals(frame.getDrivers().size(), deserialized.getDrivers().size());
+        for (int i = 0; i < frame.getDrivers().size(); i++) {
+            assertTrue(deserialized.getDrivers().get(i) instanceof LazyDriver);
+            this.assertSameDriver(frame.getDrivers().get(i), deserialized.getDrivers().get(i));
+        }
+        // re-serialized as the same bytes
+        assertArrayEquals(bytes, this.serializer.serialize("topic", deserialized));
+    }
+
+    @Test
+    public void testEmptyFrame() {
+        DriversFrame frame = new DriversFrame(7, Collections.emptyList());
+        byte[] bytes = this.serializer.serialize("topic", frame);
+
+        assertEquals(DriversFrameWireFormat.HEADER_SIZE, bytes.length);
+        assertEquals(0, DriversFrameWireFormat.drivers(bytes));
+
+        DriversFrame deserialized = this.deserializer.deserialize("topic", bytes);
+
+        assertEquals(7, deserialized.getFrameIdentifier());
+        assertTrue(deserialized.getDrivers().isEmpty());
+    }
+
+    @Test
+    public void testDriverOffsetAndLength() {
+        List<Driver> drivers = this.drivers();
+        byte[] bytes = this.serializer.serialize("topic", new DriversFrame(1234, drivers));
+
+        int offset = DriversFrameWireFormat.indexSize(drivers.size());
+        for (int i = 0; i < drivers.size(); i++) {
+            byte[] driver = this.driverSerializer.serialize("topic", drivers.get(i));
+            assertEquals(offset, DriversFrameWireFormat.offset(bytes, i));
+            assertEquals(driver.length, DriversFrameWireFormat.length(bytes, i));
+            // each driver in the frame is the same as a single driver record
+            assertArrayEquals(driver, Arrays.copyOfRange(bytes, offset, offset + driver.length));
+            offset += driver.length;
+        }
+        assertEquals(bytes.length, offset);
+    }
+
+    @Test(expected = SerializationException.class)
+    public void testDriverRecordRejected() {
+        byte[] bytes = this.driverSerializer.serialize("topic", DriverFixtures.driver());
+
+        assertEquals(DriverWireFormat.VERSION, bytes[0]);
+        this.deserializer.deserialize("topic", bytes);
+    }
+
+    @Test(expected = SerializationException.class)
+    public void testShortRecordRejected() {
+        byte[] bytes = this.serializer.serialize("topic", new DriversFrame(1234, this.drivers()));
+
+        this.deserializer.deserialize("topic", Arrays.copyOf(bytes, DriversFrameWireFormat.HEADER_SIZE - 1));
+    }
+
+    @Test(expected = SerializationException.class)
+    public void testEmptyRecordRejected() {
+        this.deserializer.deserialize("topic", new byte[0]);
+    }
+
+    @Test
+    public void testNull() {
+        assertNull(this.serializer.serialize("topic", null));
+        assertNull(this.deserializer.deserialize("topic", null));
+    }
+
+    private List<Driver> drivers() {
+        List<Driver> drivers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            drivers.add(DriverFixtures.driver(DriverFixtures.DRIVER_IDS[i], 300 + i, 11000 + i, 1.0f, 0.0f));
+        }
+        return drivers;
+    }
+
+    private void assertSameDriver(Driver expected, Driver actual) {
+        assertEquals(expected.getParticipantData().getDriverId(), actual.getParticipantData().getDriverId());
+        assertEquals(expected.getHashtag(), actual.getHashtag());
+        assertEquals(expected.getCarTelemetryData().getSpeed(), actual.getCarTelemetryData().getSpeed());
+        assertEquals(expected.getCarTelemetryData().getEngineRPM(), actual.getCarTelemetryData().getEngineRPM());
+        assertEquals(expected.getLapData().getLastLapTime(), actual.getLapData().getLastLapTime(), 0);
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsServerTest {
+
+    @Test
+    public void testLatency() {
+        MetricsServer metricsServer = new MetricsServer(0);
+        LatencyRecorder latencyRecorder = new TelemetryMetrics(metricsServer.getRegistry()).latency("test-stage");
+        for (int i = 0; i < 10; i++) {
+            latencyRecorder.record(System.currentTimeMillis());
+        }
+        // no header
+        latencyRecorder.record(-1);
+
+        String first = latencyLines(metricsServer.scrape());
+
+        assertTrue(first.contains("f1_latency_ms_count{stage=\"test-stage\",} 10.0"));
+        assertTrue(first.contains("f1_latency_ms{stage=\"test-stage\",quantile=\"0.999\",}"));
+        // scraping doesn't consume the recorded latencies
+        assertEquals(first, latencyLines(metricsServer.scrape()));
+    }
+
+    private static String latencyLines(String scrape) {
+        // the JVM metrics change between the scrapes
+        return Arrays.stream(scrape.split("\n"))
+                .filter(line -> line.startsWith("f1_latency_ms"))
+                .collect(Collectors.joining("\n"));
+    }
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.ppatierno.formula1.data.CarMotionData;
+import io.ppatierno.formula1.data.CarStatusData;
+import io.ppatierno.formula1.data.CarTelemetryData;
+import io.ppatierno.formula1.data.LapData;
+import io.ppatierno.formula1.data.ParticipantData;
+import io.ppatierno.formula1.enums.PacketId;
+import io.ppatierno.formula1.packets.Packet;
+import io.ppatierno.formula1.packets.PacketCarStatusData;
+import io.ppatierno.formula1.packets.PacketCarTelemetryData;
+import io.ppatierno.formula1.packets.PacketEventData;
+import io.ppatierno.formula1.packets.PacketLapData;
+import io.ppatierno.formula1.packets.PacketMotionData;
+import io.ppatierno.formula1.packets.PacketParticipantsData;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Provides raw datagrams and Packet instances laid out as per the F1 2020 UDP specification
+ */
+public class PacketFixtures {
+
+    public static final int NUM_CARS = 22;
+    public static final long SESSION_UID = 0x0123456789ABCDEFL;
+
+    private static final int PACKET_FORMAT = 2020;
+    private static final int HEADER_SIZE = 24;
+    // fields after the cars data in the packets
+    private static final int MOTION_PLAYER_DATA_SIZE = 120;
+    private static final int TELEMETRY_PLAYER_DATA_SIZE = 7;
+
+    // F1 2020 ids used for the enum fields which have no valid zero value
+    private static final int NATIONALITY = 10;
+    private static final int ACTUAL_TYRE_COMPOUND = 18;
+    private static final int VISUAL_TYRE_COMPOUND = 17;
+
+    /**
+     * @param frameId frame identifier in the header
+     * @return the datagram of a "session started" event packet
+     */
+    public static ByteBuf eventDatagram(int frameId) {
+        ByteBuf bb = datagram(PacketId.EVENT, PacketEventData.SIZE, frameId);
+        bb.setBytes(HEADER_SIZE, "SSTA".getBytes(StandardCharsets.US_ASCII));
+        return bb;
+    }
+
+    /**
+     * @param frameId frame identifier in the header
+     * @param numCars number of cars (and drivers) in the session
+     * @param driverIds F1 2020 driver id of each car
+     * @return the datagram of a participants packet
+     */
+    public static ByteBuf participantsDatagram(int frameId, int numCars, int[] driverIds) {
+        return participantsDatagram(SESSION_UID, frameId, numCars, driverIds);
+    }
+
+    /**
+     * @param sessionUid session UID in the header
+     * @param frameId frame identifier in the header
+     * @return the datagram of a participants packet with all the cars
+     */
+    public static ByteBuf participantsDatagram(long sessionUid, int frameId) {
+        return participantsDatagram(sessionUid, frameId, NUM_CARS, DriverFixtures.DRIVER_IDS);
+    }
+
+    /**
+     * @param sessionUid session UID in the header
+     * @param frameId frame identifier in the header
+     * @param numCars number of cars (and drivers) in the session
+     * @param driverIds F1 2020 driver id of each car
+     * @return the datagram of a participants packet
+     */
+    public static ByteBuf participantsDatagram(long sessionUid, int frameId, int numCars, int[] driverIds) {
+        ByteBuf bb = datagram(PacketId.PARTICIPANTS, HEADER_SIZE + 1 + NUM_CARS * ParticipantData.SIZE, sessionUid, frameId);
+        bb.setByte(HEADER_SIZE, numCars);
+        for (int i = 0; i < NUM_CARS; i++) {
+            int offset = HEADER_SIZE + 1 + i * ParticipantData.SIZE;
+            bb.setByte(offset, 1); // aiControlled
+            bb.setByte(offset + 1, driverIds[i]);
+            bb.setByte(offset + 2, i / 2); // teamId
+            bb.setByte(offset + 3, i + 1); // raceNumber
+            bb.setByte(offset + 4, NATIONALITY);
+            bb.setBytes(offset + 5, ("DRIVER" + i).getBytes(StandardCharsets.UTF_8));
+        }
+        return bb;
+    }
+
+    /**
+     * @param frameId frame identifier in the header
+     * @return the datagram of a motion packet with all the cars, with the world position X as {@link #worldPositionX(int, int)}
+     */
+    public static ByteBuf motionDatagram(int frameId) {
+        return motionDatagram(SESSION_UID, frameId);
+    }
+
+    /**
+     * @param sessionUid session UID in the header
+     * @param frameId frame identifier in the header
+     * @return the datagram of a motion packet with all the cars, with the world position X as {@link #worldPositionX(int, int)}
+     */
+    public static ByteBuf motionDatagram(long sessionUid, int frameId) {
+        ByteBuf bb = datagram(PacketId.MOTION, HEADER_SIZE + NUM_CARS * CarMotionData.SIZE + MOTION_PLAYER_DATA_SIZE, sessionUid, frameId);
+        for (int i = 0; i < NUM_CARS; i++) {
+            int offset = HEADER_SIZE + i * CarMotionData.SIZE;
+            bb.setFloatLE(offset, worldPositionX(frameId, i)); // worldPositionX
+        }
+        return bb;
+    }
+
+    /**
+     * @param frameId frame identifier in the header
+     * @return the datagram of a lap data packet with all the cars, with the last lap time depending on the frameId,
+     *         the total distance as {@link #totalDistance(int, int)} and the position as {@link #carPosition(int)}
+     */
+    public static ByteBuf lapDataDatagram(int frameId) {
+        return lapDataDatagram(SESSION_UID, frameId);
+    }
+
+    /**
+     * @param sessionUid session UID in the header
+     * @param frameId frame identifier in the header
+     * @return the datagram of a lap data packet with all the cars, with the last lap time depending on the frameId,
+     *         the total distance as {@link #totalDistance(int, int)} and the position as {@link #carPosition(int)}
+     */
+    public static ByteBuf lapDataDatagram(long sessionUid, int frameId) {
+        ByteBuf bb = datagram(PacketId.LAP_DATA, HEADER_SIZE + NUM_CARS * LapData.SIZE, sessionUid, frameId);
+        for (int i = 0; i < NUM_CARS; i++) {
+            int offset = HEADER_SIZE + i * LapData.SIZE;
+            bb.setFloatLE(offset, 90.0f + frameId); // lastLapTime
+            bb.setFloatLE(offset + 36, totalDistance(frameId, i)); // totalDistance
+            bb.setByte(offset + 44, carPosition(i)); // carPosition
+        }
+        return bb;
+    }
+
+    /**
+     * @param frameId frame identifier in the header
+     * @return the datagram of a car telemetry packet with all the cars, with the speed as {@link #speed(int, int)}
+     */
+    public static ByteBuf carTelemetryDatagram(int frameId) {
+        return carTelemetryDatagram(SESSION_UID, frameId);
+    }
+
+    /**
+     * @param sessionUid session UID in the header
+     * @param frameId frame identifier in the header
+     * @return the datagram of a car telemetry packet with all the cars, with the speed as {@link #speed(int, int)}
+     */
+    public static ByteBuf carTelemetryDatagram(long sessionUid, int frameId) {
+        ByteBuf bb = datagram(PacketId.CAR_TELEMETRY, HEADER_SIZE + NUM_CARS * CarTelemetryData.SIZE + TELEMETRY_PLAYER_DATA_SIZE, sessionUid, frameId);
+        for (int i = 0; i < NUM_CARS; i++) {
+            int offset = HEADER_SIZE + i * CarTelemetryData.SIZE;
+            bb.setShortLE(offset, speed(frameId, i)); // speed
+            bb.setFloatLE(offset + 2, 1.0f); // throttle
+            bb.setShortLE(offset + 16, 11000 + (frameId + i) % 1000); // engineRPM
+        }
+        return bb;
+    }
+
+    /**
+     * @param frameId frame identifier in the header
+     * @return the datagram of a car status packet with all the cars
+     */
+    public static ByteBuf carStatusDatagram(int frameId) {
+        return carStatusDatagram(SESSION_UID, frameId);
+    }
+
+    /**
+     * @param sessionUid session UID in the header
+     * @param frameId frame identifier in the header
+     * @return the datagram of a car status packet with all the cars
+     */
+    public static ByteBuf carStatusDatagram(long sessionUid, int frameId) {
+        ByteBuf bb = datagram(PacketId.CAR_STATUS, HEADER_SIZE + NUM_CARS * CarStatusData.SIZE, sessionUid, frameId);
+        for (int i = 0; i < NUM_CARS; i++) {
+            int offset = HEADER_SIZE + i * CarStatusData.SIZE;
+            bb.setByte(offset + 29, ACTUAL_TYRE_COMPOUND);
+            bb.setByte(offset + 30, VISUAL_TYRE_COMPOUND);
+        }
+        return bb;
+    }
+
+    /**
+     * @param frameId frame identifier in the header
+     * @return a "session started" event Packet
+     */
+    public static Packet eventPacket(int frameId) {
+        return new PacketEventData().fill(eventDatagram(frameId));
+    }
+
+    /**
+     * @param frameId frame identifier in the header
+     * @param numCars number of cars (and drivers) in the session
+     * @return a participants Packet
+     */
+    public static Packet participantsPacket(int frameId, int numCars) {
+        return participantsPacket(frameId, numCars, DriverFixtures.DRIVER_IDS);
+    }
+
+    /**
+     * @param frameId frame identifier in the header
+     * @param numCars number of cars (and drivers) in the session
+     * @param driverIds F1 2020 driver id of each car
+     * @return a participants Packet
+     */
+    public static Packet participantsPacket(int frameId, int numCars, int[] driverIds) {
+        return new PacketParticipantsData().fill(participantsDatagram(frameId, numCars, driverIds));
+    }
+
+    /**
+     * @param frameId frame identifier in the header
+     * @return a motion Packet
+     */
+    public static Packet motionPacket(int frameId) {
+        return new PacketMotionData().fill(motionDatagram(frameId));
+    }
+
+    /**
+     * @param frameId frame identifier in the header
+     * @return a lap data Packet
+     */
+    public static Packet lapDataPacket(int frameId) {
+        return new PacketLapData().fill(lapDataDatagram(frameId));
+    }
+
+    /**
+     * @param frameId frame identifier in the header
+     * @return a car telemetry Packet
+     */
+    public static Packet carTelemetryPacket(int frameId) {
+        return new PacketCarTelemetryData().fill(carTelemetryDatagram(frameId));
+    }
+
+    /**
+     * @param frameId frame identifier in the header
+     * @return a car status Packet
+     */
+    public static Packet carStatusPacket(int frameId) {
+        return new PacketCarStatusData().fill(carStatusDatagram(frameId));
+    }
+
+    /**
+     * @param frameId frame identifier in the header
+     * @param car car index
+     * @return the speed of the car in the car telemetry packet of the frame
+     */
+    public static int speed(int frameId, int car) {
+        return 250 + (frameId + car) % 70;
+    }
+
+    /**
+     * @param frameId frame identifier in the header
+     * @param car car index
+     * @return the world position X of the car in the motion packet of the frame
+     */
+    public static float worldPositionX(int frameId, int car) {
+        return frameId + car;
+    }
+
+    /**
+     * @param frameId frame identifier in the header
+     * @param car car index
+     * @return the total distance of the car in the lap data packet of the frame, the higher the index the farther the car
+     */
+    public static float totalDistance(int frameId, int car) {
+        return 1000.0f + frameId + 10 * car;
+    }
+
+    /**
+     * @param car car index
+     * @return the position of the car in the lap data packets, the last car is the leader
+     */
+    public static int carPosition(int car) {
+        return NUM_CARS - car;
+    }
+
+    /**
+     * Build a datagram with the header filled and all zeros in the body
+     *
+     * @param packetId packet type
+     * @param size size of the whole packet
+     * @param frameId frame identifier in the header
+     * @return the datagram
+     */
+    public static ByteBuf datagram(PacketId packetId, int size, int frameId) {
+        return datagram(packetId, size, SESSION_UID, frameId);
+    }
+
+    /**
+     * Build a datagram with the header filled and all zeros in the body
+     *
+     * @param packetId packet type
+     * @param size size of the whole packet
+     * @param sessionUid session UID in the header
+     * @param frameId frame identifier in the header
+     * @return the datagram
+     */
+    public static ByteBuf datagram(PacketId packetId, int size, long sessionUid, int frameId) {
+        ByteBuf bb = Unpooled.wrappedBuffer(new byte[size]);
+        bb.setShortLE(0, PACKET_FORMAT);
+        bb.setByte(2, 1); // gameMajorVersion
+        bb.setByte(3, 0); // gameMinorVersion
+        bb.setByte(4, 1); // packetVersion
+        bb.setByte(5, packetId.ordinal());
+        bb.setLongLE(6, sessionUid);
+        bb.setFloatLE(14, frameId / 60.0f); // sessionTime
+        bb.setIntLE(18, frameId);
+        bb.setByte(22, 0); // playerCarIndex
+        bb.setByte(23, 255); // secondaryPlayerCarIndex
+        return bb;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SessionColumnsTest {
+
+    private static final int NUM_CARS = PacketFixtures.NUM_CARS;
+
+    @Test
+    public void testColumns() {
+        Session session = new Session(true);
+        session.updateFrame(Arrays.asList(PacketFixtures.participantsPacket(1, NUM_CARS), PacketFixtures.motionPacket(1),
+                PacketFixtures.lapDataPacket(1), PacketFixtures.carTelemetryPacket(1), PacketFixtures.carStatusPacket(1)));
+
+        assertTrue(session.readColumns(columns -> {
+            assertEquals(NUM_CARS, columns.getNumCars());
+            for (int i = 0; i < NUM_CARS; i++) {
+                assertEquals(PacketFixtures.worldPositionX(1, i), columns.getWorldPosX()[i], 0);
+                assertEquals(91.0f, columns.getLastLapTime()[i], 0);
+                assertEquals(PacketFixtures.totalDistance(1, i), columns.getTotalDistance()[i], 0);
+                assertEquals(PacketFixtures.carPosition(i), columns.getCarPosition()[i]);
+                assertEquals(PacketFixtures.speed(1, i), columns.getSpeed()[i]);
+                assertEquals(1.0f, columns.getThrottle()[i], 0);
+            }
+        }));
+    }
+
+    @Test
+    public void testUpdatedInPlace() {
+        Session session = new Session(true);
+        session.updateFrame(Arrays.asList(PacketFixtures.participantsPacket(1, NUM_CARS), PacketFixtures.carTelemetryPacket(1)));
+        int[][] speed = new int[1][];
+        session.readColumns(columns -> speed[0] = columns.getSpeed());
+
+        session.updateFrame(Collections.singletonList(PacketFixtures.carTelemetryPacket(2)));
+
+        session.readColumns(columns -> {
+            // same column, with the values of the latest frame
+            assertSame(speed[0], columns.getSpeed());
+            for (int i = 0; i < NUM_CARS; i++) {
+                assertEquals(PacketFixtures.speed(2, i), columns.getSpeed()[i]);
+            }
+        });
+    }
+
+    @Test
+    public void testAverageSpeed() {
+        Session session = new Session(true);
+        session.updateFrame(Arrays.asList(PacketFixtures.participantsPacket(1, NUM_CARS), PacketFixtures.carTelemetryPacket(1)));
+
+        long sum = 0;
+        for (int i = 0; i < NUM_CARS; i++) {
+            sum += PacketFixtures.speed(1, i);
+        }
+        float expected = (float) sum / NUM_CARS;
+        session.readColumns(columns -> assertEquals(expected, columns.averageSpeed(), 0));
+    }
+
+    @Test
+    public void testAverageSpeedActiveCars() {
+        int numCars = 20;
+        Session session = new Session(true);
+        session.updateFrame(Arrays.asList(PacketFixtures.participantsPacket(1, numCars), PacketFixtures.carTelemetryPacket(1)));
+
+        // only the active cars are counted, even if the packets carry all of them
+        long sum = 0;
+        for (int i = 0; i < numCars; i++) {
+            sum += PacketFixtures.speed(1, i);
+        }
+        float expected = (float) sum / numCars;
+        session.readColumns(columns -> {
+            assertEquals(numCars, columns.getNumCars());
+            assertEquals(expected, columns.averageSpeed(), 0);
+        });
+    }
+
+    @Test
+    public void testGapsToLeader() {
+        Session session = new Session(true);
+        session.updateFrame(Arrays.asList(PacketFixtures.participantsPacket(1, NUM_CARS), PacketFixtures.lapDataPacket(1)));
+
+        float[] gaps = new float[SessionColumns.MAX_CARS];
+        session.readColumns(columns -> columns.gapsToLeader(gaps));
+
+        float leader = PacketFixtures.totalDistance(1, NUM_CARS - 1);
+        for (int i = 0; i < NUM_CARS; i++) {
+            assertEquals(leader - PacketFixtures.totalDistance(1, i), gaps[i], 0);
+        }
+        assertEquals(0, gaps[NUM_CARS - 1], 0);
+    }
+
+    @Test
+    public void testPositions() {
+        Session session = new Session(true);
+        session.updateFrame(Arrays.asList(PacketFixtures.participantsPacket(1, NUM_CARS), PacketFixtures.lapDataPacket(1)));
+
+        int[] order = new int[SessionColumns.MAX_CARS];
+        session.readColumns(columns -> columns.positions(order));
+
+        for (int i = 0; i < NUM_CARS; i++) {
+            assertEquals(i, order[PacketFixtures.carPosition(i) - 1]);
+        }
+        // the last car is the leader
+        assertEquals(NUM_CARS - 1, order[0]);
+    }
+
+    @Test
+    public void testEmpty() {
+        SessionColumns columns = new SessionColumns();
+
+        // no participants received yet
+        assertEquals(0, columns.getNumCars());
+        assertEquals(0, columns.averageSpeed(), 0);
+    }
+
+    @Test
+    public void testNotColumnar() {
+        Session session = new Session();
+        session.updateFrame(Arrays.asList(PacketFixtures.participantsPacket(1, NUM_CARS), PacketFixtures.carTelemetryPacket(1)));
+
+        assertFalse(session.readColumns(columns -> {
+            throw new AssertionError("not a columnar session");
+        }));
+    }
+}
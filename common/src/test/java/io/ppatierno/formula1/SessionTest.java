@@ -0,0 +1,144 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import io.ppatierno.formula1.packets.Packet;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class SessionTest {
+
+    private static final int NUM_CARS = PacketFixtures.NUM_CARS;
+
+    @Test
+    public void testSnapshotIsolation() {
+        Session session = new Session();
+        List<Driver> first = session.updateFrame(Arrays.asList(PacketFixtures.participantsPacket(1, NUM_CARS), PacketFixtures.carTelemetryPacket(1)));
+
+        List<Driver> second = session.updateFrame(Arrays.asList(PacketFixtures.lapDataPacket(2), PacketFixtures.carTelemetryPacket(2)));
+
+        assertSame(second, session.getDrivers());
+        assertEquals(NUM_CARS, first.size());
+        assertEquals(NUM_CARS, second.size());
+        for (int i = 0; i < NUM_CARS; i++) {
+            // the previous snapshot doesn't see the updates of the next frame
+            assertNotSame(first.get(i), second.get(i));
+            assertEquals(PacketFixtures.speed(1, i), first.get(i).getCarTelemetryData().getSpeed());
+            assertNull(first.get(i).getLapData());
+            assertEquals(PacketFixtures.speed(2, i), second.get(i).getCarTelemetryData().getSpeed());
+            assertEquals(92.0f, second.get(i).getLapData().getLastLapTime(), 0);
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSnapshotUnmodifiable() {
+        Session session = new Session();
+        session.updateFrame(Arrays.asList(PacketFixtures.participantsPacket(1, NUM_CARS)));
+
+        session.getDrivers().remove(0);
+    }
+
+    @Test
+    public void testNoDriversBeforeParticipants() {
+        Session session = new Session();
+        List<Driver> drivers = session.updateFrame(Arrays.asList(PacketFixtures.carTelemetryPacket(1)));
+
+        assertEquals(0, drivers.size());
+        assertNull(session.getParticipantData(0));
+        assertNull(session.getDriver(io.ppatierno.formula1.enums.Driver.values()[0]));
+    }
+
+    @Test
+    public void testGetDriver() {
+        Session session = new Session();
+        List<Driver> drivers = session.updateFrame(Arrays.asList(PacketFixtures.participantsPacket(1, NUM_CARS)));
+
+        for (int i = 0; i < NUM_CARS; i++) {
+            assertSame(drivers.get(i), session.getDriver(drivers.get(i).getParticipantData().getDriverId()));
+        }
+    }
+
+    @Test
+    public void testSameParticipants() {
+        Session session = new Session();
+        session.updateFrame(Arrays.asList(PacketFixtures.participantsPacket(1, NUM_CARS), PacketFixtures.carTelemetryPacket(1)));
+        int version = session.getParticipantsVersion();
+
+        List<Driver> drivers = session.updateFrame(Arrays.asList(PacketFixtures.participantsPacket(2, NUM_CARS)));
+
+        assertEquals(version, session.getParticipantsVersion());
+        // the drivers keep their data
+        assertEquals(PacketFixtures.speed(1, 0), drivers.get(0).getCarTelemetryData().getSpeed());
+    }
+
+    @Test
+    public void testDriversSwapped() {
+        Session session = new Session();
+        List<Driver> before = session.updateFrame(Arrays.asList(PacketFixtures.participantsPacket(1, NUM_CARS), PacketFixtures.carTelemetryPacket(1)));
+        io.ppatierno.formula1.enums.Driver driver3 = before.get(3).getParticipantData().getDriverId();
+        io.ppatierno.formula1.enums.Driver driver4 = before.get(4).getParticipantData().getDriverId();
+        int version = session.getParticipantsVersion();
+
+        // the drivers in the cars 3 and 4 changed seats
+        int[] driverIds = DriverFixtures.DRIVER_IDS.clone();
+        driverIds[3] = DriverFixtures.DRIVER_IDS[4];
+        driverIds[4] = DriverFixtures.DRIVER_IDS[3];
+        List<Driver> after = session.updateFrame(Arrays.asList(PacketFixtures.participantsPacket(2, NUM_CARS, driverIds)));
+
+        assertEquals(version + 1, session.getParticipantsVersion());
+        assertSame(after.get(4), session.getDriver(driver3));
+        assertSame(after.get(3), session.getDriver(driver4));
+        // none of the previous data belongs to the new drivers in the cars
+        assertNull(after.get(3).getCarTelemetryData());
+        assertNull(after.get(4).getCarTelemetryData());
+        assertEquals(PacketFixtures.speed(1, 5), after.get(5).getCarTelemetryData().getSpeed());
+        // the previous snapshot is untouched
+        assertEquals(driver3, before.get(3).getParticipantData().getDriverId());
+        assertEquals(PacketFixtures.speed(1, 3), before.get(3).getCarTelemetryData().getSpeed());
+    }
+
+    @Test
+    public void testDriversLeavingAndJoining() {
+        Session session = new Session();
+        List<Driver> all = session.updateFrame(Arrays.asList(PacketFixtures.participantsPacket(1, NUM_CARS)));
+        io.ppatierno.formula1.enums.Driver last = all.get(NUM_CARS - 1).getParticipantData().getDriverId();
+        int version = session.getParticipantsVersion();
+
+        // the last two drivers left
+        session.updateFrame(Arrays.asList(PacketFixtures.participantsPacket(2, NUM_CARS - 2)));
+
+        assertEquals(version + 1, session.getParticipantsVersion());
+        assertNull(session.getDriver(last));
+        assertSame(session.getDrivers().get(0), session.getDriver(all.get(0).getParticipantData().getDriverId()));
+
+        // and joined again
+        session.updateFrame(Arrays.asList(PacketFixtures.participantsPacket(3, NUM_CARS)));
+
+        assertEquals(version + 2, session.getParticipantsVersion());
+        assertSame(session.getDrivers().get(NUM_CARS - 1), session.getDriver(last));
+    }
+
+    @Test
+    public void testFrameAppliedAfterParticipants() {
+        Session session = new Session();
+        // the participants come first in the frame, so the other packets apply to the drivers joining
+        List<Packet> frame = Arrays.asList(PacketFixtures.participantsPacket(1, NUM_CARS), PacketFixtures.carStatusPacket(1));
+
+        List<Driver> drivers = session.updateFrame(frame);
+
+        assertEquals(NUM_CARS, drivers.size());
+        for (Driver driver : drivers) {
+            assertNotNull(driver.getCarStatusData());
+        }
+    }
+}
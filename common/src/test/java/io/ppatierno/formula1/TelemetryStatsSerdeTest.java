@@ -0,0 +1,54 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class TelemetryStatsSerdeTest {
+
+    private final TelemetryStatsSerializer serializer = new TelemetryStatsSerializer();
+    private final TelemetryStatsDeserializer deserializer = new TelemetryStatsDeserializer();
+
+    @Test
+    public void testRoundTrip() {
+        TelemetryStats stats = new TelemetryStats(10000, 20000,
+                new TelemetryStats.Stats(100, 120, 320, 265.5, 30.25, 270, 310, 318),
+                new TelemetryStats.Stats(100, 8000, 12500, 10800.75, 900.5, 11000, 12100, 12400),
+                new TelemetryStats.Stats(100, 0, 1, 0.85, 0.2, 1, 1, 1),
+                new TelemetryStats.Stats(100, 0, 0.9, 0.1, 0.25, 0, 0.8, 0.9));
+        byte[] bytes = this.serializer.serialize("topic", stats);
+
+        assertEquals(TelemetryStats.SIZE, bytes.length);
+
+        TelemetryStats deserialized = this.deserializer.deserialize("topic", bytes);
+
+        assertEquals(stats.getWindowStart(), deserialized.getWindowStart());
+        assertEquals(stats.getWindowEnd(), deserialized.getWindowEnd());
+        this.assertSameStats(stats.getSpeed(), deserialized.getSpeed());
+        this.assertSameStats(stats.getEngineRPM(), deserialized.getEngineRPM());
+        this.assertSameStats(stats.getThrottle(), deserialized.getThrottle());
+        this.assertSameStats(stats.getBrake(), deserialized.getBrake());
+    }
+
+    @Test
+    public void testNull() {
+        assertNull(this.serializer.serialize("topic", null));
+        assertNull(this.deserializer.deserialize("topic", null));
+    }
+
+    private void assertSameStats(TelemetryStats.Stats expected, TelemetryStats.Stats actual) {
+        assertEquals(expected.getCount(), actual.getCount());
+        assertEquals(expected.getMin(), actual.getMin(), 0);
+        assertEquals(expected.getMax(), actual.getMax(), 0);
+        assertEquals(expected.getMean(), actual.getMean(), 0);
+        assertEquals(expected.getStddev(), actual.getStddev(), 0);
+        assertEquals(expected.getP50(), actual.getP50(), 0);
+        assertEquals(expected.getP95(), actual.getP95(), 0);
+        assertEquals(expected.getP99(), actual.getP99(), 0);
+    }
+}
@@ -37,9 +37,14 @@ public class F1ConsumerApp {
 
         log.info("Config: {}", config);
 
+        MetricsServer metricsServer = new MetricsServer(config.getMetricsPort());
+        new TelemetryMetrics(metricsServer.getRegistry()).bindConsumerLag();
+        metricsServer.start();
+
         f1ConsumerApp.start();
         System.in.read();
         f1ConsumerApp.stop();
+        metricsServer.stop();
     }
 
     public void start() {
@@ -191,18 +196,18 @@ public class F1ConsumerApp {
             Properties props = new Properties();
             props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, config.getKafkaBootstrapServers());
             props.put(ConsumerConfig.GROUP_ID_CONFIG, config.getF1BestOverallSectorGroupId());
-            props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.ShortDeserializer");
+            props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.StringDeserializer");
             props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, "io.ppatierno.formula1.BestOverallSectorDeserializer");
 
-            KafkaConsumer<Short, BestOverallSector> consumer = null;
+            KafkaConsumer<String, BestOverallSector> consumer = null;
 
             try {
                 consumer = new KafkaConsumer<>(props);
                 consumer.subscribe(Collections.singleton(config.getF1BestOverallSectorTopic()));
 
                 while (consuming.get()) {
-                    ConsumerRecords<Short, BestOverallSector> records = consumer.poll(Duration.ofMillis(100));
-                    for (ConsumerRecord<Short, BestOverallSector> record : records) {
+                    ConsumerRecords<String, BestOverallSector> records = consumer.poll(Duration.ofMillis(100));
+                    for (ConsumerRecord<String, BestOverallSector> record : records) {
                         log.info("Best overall sector record topic = {}, partition = {}, key = {}, value = {}",
                                 record.topic(), record.partition(), record.key(), record.value());
                     }
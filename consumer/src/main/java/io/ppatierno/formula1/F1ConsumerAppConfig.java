@@ -16,6 +16,7 @@ public class F1ConsumerAppConfig extends KafkaBaseConfig {
     private static final String F1_EVENTS_TOPIC_ENV = "F1_EVENTS_TOPIC";
     private static final String F1_DRIVERS_AVG_SPEED_TOPIC_ENV = "F1_DRIVERS_AVG_SPEED_TOPIC";
     private static final String F1_BEST_OVERALL_SECTOR_TOPIC_ENV = "F1_BEST_OVERALL_SECTOR_TOPIC";
+    private static final String METRICS_PORT_ENV = "METRICS_PORT";
 
     private static final String DEFAULT_F1_DRIVERS_GROUP_ID = "f1-drivers-group";
     private static final String DEFAULT_F1_EVENTS_GROUP_ID = "f1-events-group";
@@ -25,6 +26,8 @@ public class F1ConsumerAppConfig extends KafkaBaseConfig {
     private static final String DEFAULT_F1_EVENTS_TOPIC = "f1-telemetry-events";
     private static final String DEFAULT_F1_DRIVERS_AVG_SPEED_TOPIC = "f1-telemetry-drivers-avg-speed";
     private static final String DEFAULT_F1_BEST_OVERALL_SECTOR_TOPIC = "f1-telemetry-best-overall-sector";
+    // port of the "/metrics" endpoint
+    private static final int DEFAULT_METRICS_PORT = 9404;
 
     private final String f1DriversGroupId;
     private final String f1EventsGroupId;
@@ -34,9 +37,10 @@ public class F1ConsumerAppConfig extends KafkaBaseConfig {
     private final String f1EventsTopic;
     private final String f1DriversAvgSpeedTopic;
     private final String f1BestOverallSectorTopic;
+    private final int metricsPort;
 
     private F1ConsumerAppConfig(String kafkaBootstrapServers, String f1DriversGroupId, String f1EventsGroupId, String f1DriversAvgSpeedGroupId, String f1BestOverallSectorGroupId,
-                                String f1DriversTopic, String f1EventsTopic, String f1DriversAvgSpeedTopic, String f1BestOverallSectorTopic) {
+                                String f1DriversTopic, String f1EventsTopic, String f1DriversAvgSpeedTopic, String f1BestOverallSectorTopic, int metricsPort) {
         super(kafkaBootstrapServers, null, null);
         this.f1DriversGroupId = f1DriversGroupId;
         this.f1EventsGroupId = f1EventsGroupId;
@@ -46,6 +50,7 @@ public class F1ConsumerAppConfig extends KafkaBaseConfig {
         this.f1EventsTopic = f1EventsTopic;
         this.f1DriversAvgSpeedTopic = f1DriversAvgSpeedTopic;
         this.f1BestOverallSectorTopic = f1BestOverallSectorTopic;
+        this.metricsPort = metricsPort;
     }
 
     public static F1ConsumerAppConfig fromEnv() {
@@ -58,7 +63,8 @@ public class F1ConsumerAppConfig extends KafkaBaseConfig {
         String f1EventsTopic = System.getenv(F1_EVENTS_TOPIC_ENV) == null ? DEFAULT_F1_EVENTS_TOPIC : System.getenv(F1_EVENTS_TOPIC_ENV);
         String f1DriversAvgSpeedTopic = System.getenv(F1_DRIVERS_AVG_SPEED_TOPIC_ENV) == null ? DEFAULT_F1_DRIVERS_AVG_SPEED_TOPIC : System.getenv(F1_DRIVERS_AVG_SPEED_TOPIC_ENV);
         String f1BestOverallSectorTopic = System.getenv(F1_BEST_OVERALL_SECTOR_TOPIC_ENV) == null ? DEFAULT_F1_BEST_OVERALL_SECTOR_TOPIC : System.getenv(F1_BEST_OVERALL_SECTOR_TOPIC_ENV);
-        return new F1ConsumerAppConfig(kafkaBootstrapServers, f1DriversGroupId, f1EventsGroupId, f1DriversAvgSpeedGroupId, f1BestOverallSectorGroupId, f1DriversTopic, f1EventsTopic, f1DriversAvgSpeedTopic, f1BestOverallSectorTopic);
+        int metricsPort = System.getenv(METRICS_PORT_ENV) == null ? DEFAULT_METRICS_PORT : Integer.parseInt(System.getenv(METRICS_PORT_ENV));
+        return new F1ConsumerAppConfig(kafkaBootstrapServers, f1DriversGroupId, f1EventsGroupId, f1DriversAvgSpeedGroupId, f1BestOverallSectorGroupId, f1DriversTopic, f1EventsTopic, f1DriversAvgSpeedTopic, f1BestOverallSectorTopic, metricsPort);
     }
 
     public String getF1DriversGroupId() {
@@ -93,6 +99,10 @@ public class F1ConsumerAppConfig extends KafkaBaseConfig {
         return f1BestOverallSectorTopic;
     }
 
+    public int getMetricsPort() {
+        return metricsPort;
+    }
+
     @Override
     public String toString() {
         return "F1ConsumerAppConfig[" +
@@ -105,6 +115,7 @@ public class F1ConsumerAppConfig extends KafkaBaseConfig {
                 ", f1EventsTopic=" + this.f1EventsTopic +
                 ", f1DriversAvgSpeedTopic=" + this.f1DriversAvgSpeedTopic +
                 ", f1BestOverallSectorTopic=" + this.f1BestOverallSectorTopic +
+                ", metricsPort=" + this.metricsPort +
                 "]";
     }
 }
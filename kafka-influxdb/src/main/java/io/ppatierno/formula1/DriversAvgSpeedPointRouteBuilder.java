@@ -18,9 +18,11 @@ import java.util.concurrent.TimeUnit;
 public class DriversAvgSpeedPointRouteBuilder extends RouteBuilder {
 
     private final F1KafkaInfluxDBAppConfig config;
+    private final LatencyRecorder latencyRecorder;
 
-    public DriversAvgSpeedPointRouteBuilder(F1KafkaInfluxDBAppConfig config) {
+    public DriversAvgSpeedPointRouteBuilder(F1KafkaInfluxDBAppConfig config, LatencyRecorder latencyRecorder) {
         this.config = config;
+        this.latencyRecorder = latencyRecorder;
     }
 
     @Override
@@ -41,6 +43,8 @@ public class DriversAvgSpeedPointRouteBuilder extends RouteBuilder {
             exchange.getIn().setBody(point);
         })
         .to("influxdb://connectionBean?databaseName=" + this.config.getInfluxDbDatabase() + "&retentionPolicy=autogen")
+        // from the UDP packets being received to the point written
+        .process(exchange -> this.latencyRecorder.record(TelemetryHeaders.receivedAt(exchange.getIn().getHeader(TelemetryHeaders.RECEIVED_AT, byte[].class))))
         .routeId("kafka-influxdb-drivers-avg-speed")
         .log(LoggingLevel.TRACE, "${body}");
     }
@@ -20,9 +20,11 @@ import java.util.concurrent.TimeUnit;
 public class DriversPointRouteBuilder extends RouteBuilder {
 
     private final F1KafkaInfluxDBAppConfig config;
+    private final LatencyRecorder latencyRecorder;
 
-    public DriversPointRouteBuilder(F1KafkaInfluxDBAppConfig config) {
+    public DriversPointRouteBuilder(F1KafkaInfluxDBAppConfig config, LatencyRecorder latencyRecorder) {
         this.config = config;
+        this.latencyRecorder = latencyRecorder;
     }
 
     @Override
@@ -121,6 +123,8 @@ public class DriversPointRouteBuilder extends RouteBuilder {
             exchange.getIn().setBody(batchPoints);
         })
         .to("influxdb://connectionBean?databaseName=" + this.config.getInfluxDbDatabase() + "&retentionPolicy=autogen&batch=true")
+        // from the UDP packets being received to the point written
+        .process(exchange -> this.latencyRecorder.record(TelemetryHeaders.receivedAt(exchange.getIn().getHeader(TelemetryHeaders.RECEIVED_AT, byte[].class))))
         .routeId("kafka-influxdb-drivers")
         .log(LoggingLevel.TRACE, "${body}")
         .log(LoggingLevel.DEBUG, "Driver[${body.tags}]");
@@ -16,9 +16,11 @@ import java.util.concurrent.TimeUnit;
 public class EventsPointRouteBuilder extends RouteBuilder {
 
     private final F1KafkaInfluxDBAppConfig config;
+    private final LatencyRecorder latencyRecorder;
 
-    public EventsPointRouteBuilder(F1KafkaInfluxDBAppConfig config) {
+    public EventsPointRouteBuilder(F1KafkaInfluxDBAppConfig config, LatencyRecorder latencyRecorder) {
         this.config = config;
+        this.latencyRecorder = latencyRecorder;
     }
 
     @Override
@@ -64,6 +66,8 @@ public class EventsPointRouteBuilder extends RouteBuilder {
             exchange.getIn().setBody(point);
         })
         .to("influxdb://connectionBean?databaseName=" + this.config.getInfluxDbDatabase() + "&retentionPolicy=autogen")
+        // from the UDP packets being received to the point written
+        .process(exchange -> this.latencyRecorder.record(TelemetryHeaders.receivedAt(exchange.getIn().getHeader(TelemetryHeaders.RECEIVED_AT, byte[].class))))
         .routeId("kafka-influxdb-events")
         .log(LoggingLevel.TRACE, "${body}")
         .log(LoggingLevel.DEBUG, "Event[${body.tags}]");
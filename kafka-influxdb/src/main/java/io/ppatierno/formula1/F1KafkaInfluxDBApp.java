@@ -26,12 +26,17 @@ public class F1KafkaInfluxDBApp {
         InfluxDB influxDB = InfluxDBFactory.connect(config.getInfluxDbUrl());
         influxDB.query(new Query("CREATE DATABASE " + config.getInfluxDbDatabase(), config.getInfluxDbDatabase()));
 
+        MetricsServer metricsServer = new MetricsServer(config.getMetricsPort());
+        TelemetryMetrics metrics = new TelemetryMetrics(metricsServer.getRegistry());
+        metrics.bindConsumerLag();
+
         CamelContext camelContext = new DefaultCamelContext();
         camelContext.getRegistry().bind("connectionBean", influxDB);
+        camelContext.getManagementStrategy().addEventNotifier(new InfluxDBWriteNotifier(metrics));
 
-        camelContext.addRoutes(new DriversPointRouteBuilder(config));
-        camelContext.addRoutes(new EventsPointRouteBuilder(config));
-        camelContext.addRoutes(new DriversAvgSpeedPointRouteBuilder(config));
+        camelContext.addRoutes(new DriversPointRouteBuilder(config, metrics.latency("influxdb-drivers")));
+        camelContext.addRoutes(new EventsPointRouteBuilder(config, metrics.latency("influxdb-events")));
+        camelContext.addRoutes(new DriversAvgSpeedPointRouteBuilder(config, metrics.latency("influxdb-drivers-avg-speed")));
 
         CountDownLatch latch = new CountDownLatch(1);
 
@@ -39,6 +44,7 @@ public class F1KafkaInfluxDBApp {
             @Override
             public void run() {
                 try {
+                    metricsServer.stop();
                     camelContext.close();
                 } catch (Exception e) {
                     log.error("Error closing CamelContext", e);
@@ -50,6 +56,7 @@ public class F1KafkaInfluxDBApp {
 
         try {
             camelContext.start();
+            metricsServer.start();
             latch.await();
         } catch (Throwable e) {
             log.error("Error starting CamelContext", e);
@@ -13,27 +13,32 @@ public class F1KafkaInfluxDBAppConfig extends KafkaBaseConfig {
     private static final String F1_DRIVERS_TOPIC_ENV = "F1_DRIVERS_TOPIC";
     private static final String F1_EVENTS_TOPIC_ENV = "F1_EVENTS_TOPIC";
     private static final String F1_DRIVERS_AVG_SPEED_TOPIC_ENV = "F1_DRIVERS_AVG_SPEED_TOPIC";
+    private static final String METRICS_PORT_ENV = "METRICS_PORT";
 
     private static final String DEFAULT_INFLUXDB_URL = "http://localhost:8086";
     private static final String DEFAULT_INFLUXDB_DB = "formula1";
     private static final String DEFAULT_F1_DRIVERS_TOPIC = "f1-telemetry-drivers";
     private static final String DEFAULT_F1_EVENTS_TOPIC = "f1-telemetry-events";
     private static final String DEFAULT_F1_DRIVERS_AVG_SPEED_TOPIC = "f1-telemetry-drivers-avg-speed";
+    // port of the "/metrics" endpoint
+    private static final int DEFAULT_METRICS_PORT = 9404;
 
     private final String influxDbUrl;
     private final String influxDbDatabase;
     private final String f1DriversTopic;
     private final String f1EventsTopic;
     private final String f1DriversAvgSpeedTopic;
+    private final int metricsPort;
 
     private F1KafkaInfluxDBAppConfig(String kafkaBootstrapServers, String influxDbUrl, String influxDbDatabase,
-                                     String f1DriversTopic, String f1EventsTopic, String f1DriversAvgSpeedTopic) {
+                                     String f1DriversTopic, String f1EventsTopic, String f1DriversAvgSpeedTopic, int metricsPort) {
         super(kafkaBootstrapServers, null, null);
         this.influxDbUrl = influxDbUrl;
         this.influxDbDatabase = influxDbDatabase;
         this.f1DriversTopic = f1DriversTopic;
         this.f1EventsTopic = f1EventsTopic;
         this.f1DriversAvgSpeedTopic = f1DriversAvgSpeedTopic;
+        this.metricsPort = metricsPort;
     }
 
     public static F1KafkaInfluxDBAppConfig fromEnv() {
@@ -43,7 +48,8 @@ public class F1KafkaInfluxDBAppConfig extends KafkaBaseConfig {
         String f1DriversTopic = System.getenv(F1_DRIVERS_TOPIC_ENV) == null ? DEFAULT_F1_DRIVERS_TOPIC : System.getenv(F1_DRIVERS_TOPIC_ENV);
         String f1EventsTopic = System.getenv(F1_EVENTS_TOPIC_ENV) == null ? DEFAULT_F1_EVENTS_TOPIC : System.getenv(F1_EVENTS_TOPIC_ENV);
         String f1DriversAvgSpeedTopic = System.getenv(F1_DRIVERS_AVG_SPEED_TOPIC_ENV) == null ? DEFAULT_F1_DRIVERS_AVG_SPEED_TOPIC : System.getenv(F1_DRIVERS_AVG_SPEED_TOPIC_ENV);
-        return new F1KafkaInfluxDBAppConfig(kafkaBootstrapServers, influxDbUrl, influxDbDatabase, f1DriversTopic, f1EventsTopic, f1DriversAvgSpeedTopic);
+        int metricsPort = System.getenv(METRICS_PORT_ENV) == null ? DEFAULT_METRICS_PORT : Integer.parseInt(System.getenv(METRICS_PORT_ENV));
+        return new F1KafkaInfluxDBAppConfig(kafkaBootstrapServers, influxDbUrl, influxDbDatabase, f1DriversTopic, f1EventsTopic, f1DriversAvgSpeedTopic, metricsPort);
     }
 
     public String getInfluxDbUrl() {
@@ -66,6 +72,10 @@ public class F1KafkaInfluxDBAppConfig extends KafkaBaseConfig {
         return f1DriversAvgSpeedTopic;
     }
 
+    public int getMetricsPort() {
+        return metricsPort;
+    }
+
     @Override
     public String toString() {
         return "F1KafkaInfluxDBAppConfig[" +
@@ -75,6 +85,7 @@ public class F1KafkaInfluxDBAppConfig extends KafkaBaseConfig {
                 ", f1DriversTopic=" + this.f1DriversTopic +
                 ", f1EventsTopic=" + this.f1EventsTopic +
                 ", f1DriversAvgSpeedTopic=" + this.f1DriversAvgSpeedTopic +
+                ", metricsPort=" + this.metricsPort +
                 "]";
     }
 }
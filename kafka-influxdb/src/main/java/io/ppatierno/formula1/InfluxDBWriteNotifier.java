@@ -0,0 +1,46 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import io.micrometer.core.instrument.Timer;
+import org.apache.camel.component.influxdb.InfluxDbEndpoint;
+import org.apache.camel.spi.CamelEvent;
+import org.apache.camel.support.EventNotifierSupport;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the time taken by every exchange sent to an InfluxDB endpoint, so writing the points,
+ * on the {@link TelemetryMetrics} timer of the route it comes from.
+ */
+public class InfluxDBWriteNotifier extends EventNotifierSupport {
+
+    private final TelemetryMetrics metrics;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param metrics metrics to record the InfluxDB writes on
+     */
+    public InfluxDBWriteNotifier(TelemetryMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public boolean isEnabled(CamelEvent event) {
+        return event instanceof CamelEvent.ExchangeSentEvent &&
+                ((CamelEvent.ExchangeSentEvent) event).getEndpoint() instanceof InfluxDbEndpoint;
+    }
+
+    @Override
+    public void notify(CamelEvent event) throws Exception {
+        CamelEvent.ExchangeSentEvent sent = (CamelEvent.ExchangeSentEvent) event;
+        String route = sent.getExchange().getFromRouteId();
+        this.timers.computeIfAbsent(route, this.metrics::influxDBWrite).record(sent.getTimeTaken(), TimeUnit.MILLISECONDS);
+    }
+}
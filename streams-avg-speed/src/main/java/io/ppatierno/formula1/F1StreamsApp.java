@@ -11,20 +11,12 @@ import org.apache.kafka.streams.StreamsBuilder;
 import org.apache.kafka.streams.StreamsConfig;
 import org.apache.kafka.streams.Topology;
 import org.apache.kafka.streams.KeyValue;
-import org.apache.kafka.streams.kstream.KStream;
-import org.apache.kafka.streams.kstream.KGroupedStream;
-import org.apache.kafka.streams.kstream.KTable;
-import org.apache.kafka.streams.kstream.TimeWindowedKStream;
-import org.apache.kafka.streams.kstream.Aggregator;
 import org.apache.kafka.streams.kstream.Consumed;
-import org.apache.kafka.streams.kstream.Grouped;
-import org.apache.kafka.streams.kstream.Initializer;
-import org.apache.kafka.streams.kstream.KeyValueMapper;
-import org.apache.kafka.streams.kstream.Materialized;
 import org.apache.kafka.streams.kstream.Produced;
-import org.apache.kafka.streams.kstream.TimeWindows;
-import org.apache.kafka.streams.kstream.ValueMapper;
-import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.kstream.Repartitioned;
+import org.apache.kafka.streams.state.StoreBuilder;
+import org.apache.kafka.streams.state.Stores;
+import org.apache.kafka.streams.state.WindowStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -50,49 +42,25 @@ public class F1StreamsApp {
         Serde<Driver> driverSerdes = Serdes.serdeFrom(new DriverSerializer(), new DriverDeserializer());
         Serde<SpeedCountAndSum> speedCountAndSumSerde = Serdes.serdeFrom(new SpeedCountAndSumSerializer(), new SpeedCountAndSumDeserializer());
 
-        KStream<String, Integer> speedStream =
+        Duration windowSize = Duration.ofMillis(config.getF1StreamsWindowSizeMs());
+        // windows are not updated anymore after the grace period
+        Duration retention = windowSize.plusMillis(config.getF1StreamsWindowGraceMs());
+        StoreBuilder<WindowStore<String, SpeedCountAndSum>> storeBuilder = Stores.windowStoreBuilder(
+                Stores.persistentWindowStore(SpeedAverageTransformer.STORE_NAME, retention, windowSize, false),
+                Serdes.String(),
+                speedCountAndSumSerde
+        );
+        streamsBuilder.addStateStore(storeBuilder);
+
         streamsBuilder
                 .stream(config.getF1StreamsInputTopic(), Consumed.with(Serdes.String(), driverSerdes))
                 .filter((driverid, driver) -> driver.hasValidTelemetry())
-                .map((driverid, driver) -> new KeyValue<>(driver.getHashtag(), driver.getCarTelemetryData().getSpeed()));
-
-        KGroupedStream<String, Integer> speedStreamGrouped =
-                speedStream.groupByKey(Grouped.with(Serdes.String(), Serdes.Integer()));
-
-        TimeWindowedKStream<String, Integer> speedStreamWindowed =
-                speedStreamGrouped.windowedBy(TimeWindows.of(Duration.ofMillis(5000)));
-
-        KTable<Windowed<String>, SpeedCountAndSum> speedCountAndSum =
-                speedStreamWindowed.aggregate(new Initializer<SpeedCountAndSum>() {
-                    @Override
-                    public SpeedCountAndSum apply() {
-                        return new SpeedCountAndSum(0, 0);
-                    }
-                }, new Aggregator<String, Integer, SpeedCountAndSum>() {
-                    @Override
-                    public SpeedCountAndSum apply(String key, Integer value, SpeedCountAndSum aggregate) {
-                        aggregate.setCount(aggregate.getCount() + 1);
-                        aggregate.setSum(aggregate.getSum() + value);
-                        return aggregate;
-                    }
-                }, Materialized.with(Serdes.String(), speedCountAndSumSerde));
-
-        KTable<Windowed<String>, Integer> speedAvarage =
-                speedCountAndSum.mapValues(new ValueMapper<SpeedCountAndSum, Integer>() {
-                    @Override
-                    public Integer apply(SpeedCountAndSum speedCountAndSum) {
-                        return speedCountAndSum.getSum() / speedCountAndSum.getCount();
-                    }
-                });
-
-        speedAvarage
-                .toStream()
-                .map(new KeyValueMapper<Windowed<String>, Integer, KeyValue<? extends String, ? extends Integer>>() {
-                    @Override
-                    public KeyValue<? extends String, ? extends Integer> apply(Windowed<String> stringWindowed, Integer integer) {
-                        return new KeyValue<>(stringWindowed.key(), integer);
-                    }
-                })
+                .map((driverid, driver) -> new KeyValue<>(driver.getHashtag(), driver.getCarTelemetryData().getSpeed()))
+                // all the speeds of a driver have to get to the same task, as grouping by key does
+                .repartition(Repartitioned.with(Serdes.String(), Serdes.Integer()).withName("speed"))
+                .transform(() -> new SpeedAverageTransformer(config.getF1StreamsWindowSizeMs(), config.getF1StreamsWindowGraceMs(),
+                                config.getF1StreamsEmit(), config.getF1StreamsEmitIntervalMs(), config.getF1StreamsPunctuationIntervalMs()),
+                        SpeedAverageTransformer.STORE_NAME)
                 .to(config.getF1StreamsOutputTopic(), Produced.with(Serdes.String(), Serdes.Integer()));
                 //.print(Printed.toSysOut());
 
@@ -101,11 +69,15 @@ public class F1StreamsApp {
 
         KafkaStreams kafkaStreams = new KafkaStreams(topology, props);
 
+        MetricsServer metricsServer = new MetricsServer(config.getMetricsPort());
+        new TelemetryMetrics(metricsServer.getRegistry()).bindConsumerLag();
+
         CountDownLatch latch = new CountDownLatch(1);
 
         Runtime.getRuntime().addShutdownHook(new Thread() {
             @Override
             public void run() {
+                metricsServer.stop();
                 kafkaStreams.close();
                 latch.countDown();
             }
@@ -113,6 +85,7 @@ public class F1StreamsApp {
 
         try {
             kafkaStreams.start();
+            metricsServer.start();
             latch.await();
         } catch (Throwable e) {
             System.exit(1);
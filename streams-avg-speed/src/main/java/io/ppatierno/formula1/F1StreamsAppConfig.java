@@ -8,18 +8,75 @@ import io.ppatierno.formula1.config.KafkaStreamsBaseConfig;
 
 public class F1StreamsAppConfig extends KafkaStreamsBaseConfig {
 
+    private static final String F1_STREAMS_PUNCTUATION_INTERVAL_MS_ENV = "F1_STREAMS_PUNCTUATION_INTERVAL_MS";
+    private static final String F1_STREAMS_WINDOW_SIZE_MS_ENV = "F1_STREAMS_WINDOW_SIZE_MS";
+    private static final String F1_STREAMS_WINDOW_GRACE_MS_ENV = "F1_STREAMS_WINDOW_GRACE_MS";
+    private static final String F1_STREAMS_EMIT_ENV = "F1_STREAMS_EMIT";
+    private static final String F1_STREAMS_EMIT_INTERVAL_MS_ENV = "F1_STREAMS_EMIT_INTERVAL_MS";
+
     private static final String DEFAULT_F1_STREAMS_INPUT_TOPIC = "f1-telemetry-drivers";
     private static final String DEFAULT_F1_STREAMS_OUTPUT_TOPIC = "f1-telemetry-drivers-avg-speed";
+    // interval for writing the in-memory aggregations to the window store
+    private static final long DEFAULT_F1_STREAMS_PUNCTUATION_INTERVAL_MS = 1000;
+    private static final long DEFAULT_F1_STREAMS_WINDOW_SIZE_MS = 5000;
+    // speeds later than the window end plus this are dropped
+    private static final long DEFAULT_F1_STREAMS_WINDOW_GRACE_MS = 1000;
+    // an updated average for every speed by default
+    private static final String DEFAULT_F1_STREAMS_EMIT = SpeedAverageTransformer.EMIT_EVERY_RECORD;
+    private static final long DEFAULT_F1_STREAMS_EMIT_INTERVAL_MS = 1000;
+
+    private final long f1StreamsPunctuationIntervalMs;
+    private final long f1StreamsWindowSizeMs;
+    private final long f1StreamsWindowGraceMs;
+    private final String f1StreamsEmit;
+    private final long f1StreamsEmitIntervalMs;
 
-    private F1StreamsAppConfig(String kafkaBootstrapServers, String f1StreamsInputTopic, String f1StreamsOutputTopic) {
-        super(kafkaBootstrapServers, f1StreamsInputTopic, f1StreamsOutputTopic);
+    private F1StreamsAppConfig(String kafkaBootstrapServers, String f1StreamsInputTopic, String f1StreamsOutputTopic, int metricsPort,
+                               long f1StreamsPunctuationIntervalMs,
+                               long f1StreamsWindowSizeMs, long f1StreamsWindowGraceMs,
+                               String f1StreamsEmit, long f1StreamsEmitIntervalMs) {
+        super(kafkaBootstrapServers, f1StreamsInputTopic, f1StreamsOutputTopic, metricsPort);
+        this.f1StreamsPunctuationIntervalMs = f1StreamsPunctuationIntervalMs;
+        this.f1StreamsWindowSizeMs = f1StreamsWindowSizeMs;
+        this.f1StreamsWindowGraceMs = f1StreamsWindowGraceMs;
+        this.f1StreamsEmit = f1StreamsEmit;
+        this.f1StreamsEmitIntervalMs = f1StreamsEmitIntervalMs;
     }
 
     public static F1StreamsAppConfig fromEnv() {
         String kafkaBootstrapServers = System.getenv(KAFKA_BOOTSTRAP_SERVERS_ENV) == null ? DEFAULT_KAFKA_BOOTSTRAP_SERVERS : System.getenv(KAFKA_BOOTSTRAP_SERVERS_ENV);
         String f1StreamsInputTopic = System.getenv(F1_STREAMS_INPUT_TOPIC_ENV) == null ? DEFAULT_F1_STREAMS_INPUT_TOPIC : System.getenv(F1_STREAMS_INPUT_TOPIC_ENV);
         String f1StreamsOutputTopic = System.getenv(F1_STREAMS_OUTPUT_TOPIC_ENV) == null ? DEFAULT_F1_STREAMS_OUTPUT_TOPIC : System.getenv(F1_STREAMS_OUTPUT_TOPIC_ENV);
-        return new F1StreamsAppConfig(kafkaBootstrapServers, f1StreamsInputTopic, f1StreamsOutputTopic);
+        int metricsPort = System.getenv(METRICS_PORT_ENV) == null ? DEFAULT_METRICS_PORT : Integer.parseInt(System.getenv(METRICS_PORT_ENV));
+        long f1StreamsPunctuationIntervalMs = System.getenv(F1_STREAMS_PUNCTUATION_INTERVAL_MS_ENV) == null ? DEFAULT_F1_STREAMS_PUNCTUATION_INTERVAL_MS : Long.parseLong(System.getenv(F1_STREAMS_PUNCTUATION_INTERVAL_MS_ENV));
+        long f1StreamsWindowSizeMs = System.getenv(F1_STREAMS_WINDOW_SIZE_MS_ENV) == null ? DEFAULT_F1_STREAMS_WINDOW_SIZE_MS : Long.parseLong(System.getenv(F1_STREAMS_WINDOW_SIZE_MS_ENV));
+        long f1StreamsWindowGraceMs = System.getenv(F1_STREAMS_WINDOW_GRACE_MS_ENV) == null ? DEFAULT_F1_STREAMS_WINDOW_GRACE_MS : Long.parseLong(System.getenv(F1_STREAMS_WINDOW_GRACE_MS_ENV));
+        String f1StreamsEmit = System.getenv(F1_STREAMS_EMIT_ENV) == null ? DEFAULT_F1_STREAMS_EMIT : System.getenv(F1_STREAMS_EMIT_ENV);
+        long f1StreamsEmitIntervalMs = System.getenv(F1_STREAMS_EMIT_INTERVAL_MS_ENV) == null ? DEFAULT_F1_STREAMS_EMIT_INTERVAL_MS : Long.parseLong(System.getenv(F1_STREAMS_EMIT_INTERVAL_MS_ENV));
+        return new F1StreamsAppConfig(kafkaBootstrapServers, f1StreamsInputTopic, f1StreamsOutputTopic, metricsPort,
+                f1StreamsPunctuationIntervalMs,
+                f1StreamsWindowSizeMs, f1StreamsWindowGraceMs,
+                f1StreamsEmit, f1StreamsEmitIntervalMs);
+    }
+
+    public long getF1StreamsPunctuationIntervalMs() {
+        return f1StreamsPunctuationIntervalMs;
+    }
+
+    public long getF1StreamsWindowSizeMs() {
+        return f1StreamsWindowSizeMs;
+    }
+
+    public long getF1StreamsWindowGraceMs() {
+        return f1StreamsWindowGraceMs;
+    }
+
+    public String getF1StreamsEmit() {
+        return f1StreamsEmit;
+    }
+
+    public long getF1StreamsEmitIntervalMs() {
+        return f1StreamsEmitIntervalMs;
     }
 
     @Override
@@ -28,6 +85,12 @@ public class F1StreamsAppConfig extends KafkaStreamsBaseConfig {
                 "kafkaBootstrapServers=" + this.kafkaBootstrapServers +
                 ", f1StreamsInputTopic=" + this.f1StreamsInputTopic +
                 ", f1StreamsOutputTopic=" + this.f1StreamsOutputTopic +
+                ", metricsPort=" + this.metricsPort +
+                ", f1StreamsPunctuationIntervalMs=" + this.f1StreamsPunctuationIntervalMs +
+                ", f1StreamsWindowSizeMs=" + this.f1StreamsWindowSizeMs +
+                ", f1StreamsWindowGraceMs=" + this.f1StreamsWindowGraceMs +
+                ", f1StreamsEmit=" + this.f1StreamsEmit +
+                ", f1StreamsEmitIntervalMs=" + this.f1StreamsEmitIntervalMs +
                 "]";
     }
 }
@@ -0,0 +1,306 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.kstream.Transformer;
+import org.apache.kafka.streams.processor.ProcessorContext;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.state.WindowStore;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes the average speed of each driver (as key) over tumbling windows.
+ * The count and sum of the current window of each driver are kept in memory as primitives and updated in place,
+ * so there is no store access (and serialization) per record: they are written to the window store,
+ * and so to its changelog, only on the punctuation interval (the changed ones) and when the window closes.
+ * The in-memory accumulator of a driver is loaded from the store on its first record (i.e. after a rebalance),
+ * and it's dropped on the punctuation interval once its window is closed and there is nothing left to forward for it.
+ * Speeds arriving after the window end plus the grace period (in stream time) are dropped.
+ * The updated average is forwarded depending on the emit strategy:
+ * <ul>
+ *     <li>{@link #EMIT_EVERY_RECORD}: for every speed, as the windowed aggregation of the DSL does without caching</li>
+ *     <li>{@link #EMIT_RATE_LIMITED}: at most once per emit interval (wall clock), only if changed</li>
+ *     <li>{@link #EMIT_WINDOW_CLOSE}: once per window, when it's closed (as suppressing until the window closes does)</li>
+ * </ul>
+ * The averages forwarded by the punctuations carry the {@link TelemetryHeaders#RECEIVED_AT} header of the latest speed
+ * in the window, as the ones forwarded for a speed carry its headers.
+ */
+public class SpeedAverageTransformer implements Transformer<String, Integer, KeyValue<String, Integer>> {
+
+    public static final String STORE_NAME = "speed-count-and-sum-store";
+
+    public static final String EMIT_EVERY_RECORD = "every-record";
+    public static final String EMIT_RATE_LIMITED = "rate-limited";
+    public static final String EMIT_WINDOW_CLOSE = "window-close";
+
+    // how often (stream time) the closed windows are looked for
+    private static final long CLOSE_CHECK_INTERVAL_MS = 1000;
+
+    private final long windowSizeMs;
+    private final long graceMs;
+    private final String emit;
+    private final long emitIntervalMs;
+    private final long punctuationIntervalMs;
+    private final Map<String, Accumulator> accumulators = new HashMap<>();
+    // previous windows of the drivers waiting for the grace period to be emitted, with the window close emit strategy
+    private final List<Closing> closing = new ArrayList<>();
+
+    private ProcessorContext context;
+    private WindowStore<String, SpeedCountAndSum> windowStore;
+    private long streamTime = -1;
+
+    /**
+     * Constructor
+     *
+     * @param windowSizeMs size of the tumbling windows
+     * @param graceMs time after the window end during which late speeds are still added to the window
+     * @param emit emit strategy, {@link #EMIT_EVERY_RECORD}, {@link #EMIT_RATE_LIMITED} or {@link #EMIT_WINDOW_CLOSE}
+     * @param emitIntervalMs interval (wall clock) for forwarding the changed averages, used with the rate limited emit strategy only
+     * @param punctuationIntervalMs interval (wall clock) for writing the changed accumulators to the store
+     */
+    public SpeedAverageTransformer(long windowSizeMs, long graceMs, String emit, long emitIntervalMs, long punctuationIntervalMs) {
+        if (!EMIT_EVERY_RECORD.equals(emit) && !EMIT_RATE_LIMITED.equals(emit) && !EMIT_WINDOW_CLOSE.equals(emit)) {
+            throw new IllegalArgumentException("Unknown emit strategy " + emit);
+        }
+        this.windowSizeMs = windowSizeMs;
+        this.graceMs = graceMs;
+        this.emit = emit;
+        this.emitIntervalMs = emitIntervalMs;
+        this.punctuationIntervalMs = punctuationIntervalMs;
+    }
+
+    @Override
+    public void init(ProcessorContext context) {
+        this.context = context;
+        this.windowStore = context.getStateStore(STORE_NAME);
+        this.context.schedule(Duration.ofMillis(this.punctuationIntervalMs), PunctuationType.WALL_CLOCK_TIME, timestamp -> this.flush());
+        switch (this.emit) {
+            case EMIT_RATE_LIMITED:
+                this.context.schedule(Duration.ofMillis(this.emitIntervalMs), PunctuationType.WALL_CLOCK_TIME, timestamp -> this.emitChanged());
+                break;
+            case EMIT_WINDOW_CLOSE:
+                this.context.schedule(Duration.ofMillis(CLOSE_CHECK_INTERVAL_MS), PunctuationType.STREAM_TIME, this::emitClosed);
+                break;
+        }
+    }
+
+    @Override
+    public KeyValue<String, Integer> transform(String key, Integer speed) {
+        long timestamp = this.context.timestamp();
+        // read before any forward of a previous window replaces it
+        long receivedAt = TelemetryHeaders.receivedAt(this.context.headers());
+        this.streamTime = Math.max(this.streamTime, timestamp);
+        long windowStart = timestamp - timestamp % this.windowSizeMs;
+        if (this.isClosed(windowStart, this.streamTime)) {
+            return null;
+        }
+
+        Accumulator accumulator = this.accumulators.get(key);
+        if (accumulator == null) {
+            accumulator = new Accumulator();
+            this.load(key, windowStart, accumulator);
+            this.accumulators.put(key, accumulator);
+        }
+
+        if (windowStart > accumulator.windowStart) {
+            this.roll(key, accumulator, windowStart);
+        } else if (windowStart < accumulator.windowStart) {
+            // late record for a previous window, rare enough to go through the store
+            SpeedCountAndSum speedCountAndSum = this.windowStore.fetch(key, windowStart);
+            if (speedCountAndSum == null) {
+                speedCountAndSum = new SpeedCountAndSum(0, 0);
+            }
+            speedCountAndSum.setCount(speedCountAndSum.getCount() + 1);
+            speedCountAndSum.setSum(speedCountAndSum.getSum() + speed);
+            this.windowStore.put(key, speedCountAndSum, windowStart);
+            this.closingReceivedAt(key, windowStart, receivedAt);
+            // emitted, with the other updates, when the window closes
+            return EMIT_WINDOW_CLOSE.equals(this.emit) ? null : KeyValue.pair(key, speedCountAndSum.getSum() / speedCountAndSum.getCount());
+        }
+
+        accumulator.count++;
+        accumulator.sum += speed;
+        if (receivedAt >= 0) {
+            accumulator.receivedAt = receivedAt;
+        }
+        accumulator.dirty = true;
+        // only the rate limited emit strategy holds the updates back, the other ones never clear it
+        accumulator.changed = EMIT_RATE_LIMITED.equals(this.emit);
+        return EMIT_EVERY_RECORD.equals(this.emit) ? KeyValue.pair(key, accumulator.sum / accumulator.count) : null;
+    }
+
+    private boolean isClosed(long windowStart, long streamTime) {
+        return windowStart + this.windowSizeMs + this.graceMs <= streamTime;
+    }
+
+    private void roll(String key, Accumulator accumulator, long windowStart) {
+        // the window is over, the aggregation so far goes to the store
+        this.store(key, accumulator);
+        if (accumulator.count > 0) {
+            if (EMIT_RATE_LIMITED.equals(this.emit) && accumulator.changed) {
+                // the last update of the window is not held back until the next emit interval
+                this.forward(key, accumulator.sum / accumulator.count, accumulator.receivedAt);
+            } else if (EMIT_WINDOW_CLOSE.equals(this.emit) && !accumulator.closed) {
+                this.closing.add(new Closing(key, accumulator.windowStart, accumulator.receivedAt));
+            }
+        }
+        accumulator.windowStart = windowStart;
+        accumulator.count = 0;
+        accumulator.sum = 0;
+        accumulator.receivedAt = -1;
+        accumulator.changed = false;
+        accumulator.closed = false;
+    }
+
+    private void load(String key, long windowStart, Accumulator accumulator) {
+        SpeedCountAndSum speedCountAndSum = this.windowStore.fetch(key, windowStart);
+        accumulator.windowStart = windowStart;
+        if (speedCountAndSum != null) {
+            accumulator.count = speedCountAndSum.getCount();
+            accumulator.sum = speedCountAndSum.getSum();
+        }
+    }
+
+    private void store(String key, Accumulator accumulator) {
+        if (accumulator.dirty) {
+            this.windowStore.put(key, new SpeedCountAndSum(accumulator.count, accumulator.sum), accumulator.windowStart);
+            accumulator.dirty = false;
+        }
+    }
+
+    private void flush() {
+        Iterator<Map.Entry<String, Accumulator>> iterator = this.accumulators.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Accumulator> entry = iterator.next();
+            Accumulator accumulator = entry.getValue();
+            this.store(entry.getKey(), accumulator);
+            if (this.isIdle(accumulator)) {
+                // i.e. the driver left the session, loaded again from the store if sending again
+                iterator.remove();
+            }
+        }
+    }
+
+    private boolean isIdle(Accumulator accumulator) {
+        // no more speeds can be added to its window, and its average was already forwarded
+        // (for every speed, on the emit interval or when the window closed, depending on the emit strategy)
+        if (!this.isClosed(accumulator.windowStart, this.streamTime)) {
+            return false;
+        }
+        switch (this.emit) {
+            case EMIT_RATE_LIMITED:
+                return !accumulator.changed;
+            case EMIT_WINDOW_CLOSE:
+                return accumulator.closed || accumulator.count == 0;
+            default:
+                return true;
+        }
+    }
+
+    private void emitChanged() {
+        for (Map.Entry<String, Accumulator> entry : this.accumulators.entrySet()) {
+            Accumulator accumulator = entry.getValue();
+            if (accumulator.changed) {
+                this.forward(entry.getKey(), accumulator.sum / accumulator.count, accumulator.receivedAt);
+                accumulator.changed = false;
+            }
+        }
+    }
+
+    private void emitClosed(long streamTime) {
+        // previous windows of the drivers, the late speeds within the grace period were added in the store
+        Iterator<Closing> iterator = this.closing.iterator();
+        while (iterator.hasNext()) {
+            Closing closing = iterator.next();
+            if (this.isClosed(closing.windowStart, streamTime)) {
+                SpeedCountAndSum speedCountAndSum = this.windowStore.fetch(closing.key, closing.windowStart);
+                if (speedCountAndSum != null) {
+                    this.forward(closing.key, speedCountAndSum.getSum() / speedCountAndSum.getCount(), closing.receivedAt);
+                }
+                iterator.remove();
+            }
+        }
+        // current windows of the drivers not sending anymore
+        for (Map.Entry<String, Accumulator> entry : this.accumulators.entrySet()) {
+            Accumulator accumulator = entry.getValue();
+            if (!accumulator.closed && accumulator.count > 0 && this.isClosed(accumulator.windowStart, streamTime)) {
+                this.store(entry.getKey(), accumulator);
+                this.forward(entry.getKey(), accumulator.sum / accumulator.count, accumulator.receivedAt);
+                accumulator.closed = true;
+            }
+        }
+    }
+
+    private void closingReceivedAt(String key, long windowStart, long receivedAt) {
+        if (receivedAt < 0) {
+            return;
+        }
+        // a late speed within the grace period, for a previous window waiting to be emitted
+        for (Closing closing : this.closing) {
+            if (closing.windowStart == windowStart && closing.key.equals(key)) {
+                closing.receivedAt = receivedAt;
+                return;
+            }
+        }
+    }
+
+    private void forward(String key, int average, long receivedAt) {
+        // the headers are the ones of the record being transformed, or empty ones in the punctuations
+        TelemetryHeaders.setReceivedAt(this.context.headers(), receivedAt);
+        this.context.forward(key, average);
+    }
+
+    /**
+     * @return the number of drivers whose accumulator is kept in memory
+     */
+    int getAccumulators() {
+        return this.accumulators.size();
+    }
+
+    @Override
+    public void close() {
+        // the store is flushed and closed after the processors
+        this.flush();
+    }
+
+    /**
+     * Count and sum of the speeds in the current window of a driver
+     */
+    private static class Accumulator {
+        private long windowStart;
+        private int count;
+        private int sum;
+        // of the latest speed, -1 if none
+        private long receivedAt = -1;
+        // not written to the store yet
+        private boolean dirty;
+        // not forwarded yet, with the rate limited emit strategy
+        private boolean changed;
+        // already forwarded as closed, with the window close emit strategy
+        private boolean closed;
+    }
+
+    /**
+     * Previous window of a driver, to be emitted when closed
+     */
+    private static class Closing {
+        private final String key;
+        private final long windowStart;
+        private long receivedAt;
+
+        Closing(String key, long windowStart, long receivedAt) {
+            this.key = key;
+            this.windowStart = windowStart;
+            this.receivedAt = receivedAt;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.state.Stores;
+import org.apache.kafka.streams.test.TestRecord;
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SpeedAverageTransformerTest {
+
+    private static final String INPUT_TOPIC = "speed";
+    private static final String OUTPUT_TOPIC = "avg-speed";
+    private static final String DRIVER = "#LH44";
+    private static final String OTHER_DRIVER = "#VB77";
+    private static final long WINDOW_SIZE_MS = 5000;
+    private static final long GRACE_MS = 1000;
+    private static final long INTERVAL_MS = 1000;
+
+    private TopologyTestDriver driver;
+    private SpeedAverageTransformer transformer;
+    private TestInputTopic<String, Integer> input;
+    private TestOutputTopic<String, Integer> output;
+
+    @After
+    public void tearDown() {
+        if (this.driver != null) {
+            this.driver.close();
+        }
+    }
+
+    @Test
+    public void testEmitEveryRecord() {
+        this.start(SpeedAverageTransformer.EMIT_EVERY_RECORD);
+
+        this.pipe(100, 0, 1);
+        this.pipe(200, 100, 2);
+        // next window
+        this.pipe(300, WINDOW_SIZE_MS, 3);
+
+        this.assertOutput(100, 1);
+        this.assertOutput(150, 2);
+        this.assertOutput(300, 3);
+        assertTrue(this.output.isEmpty());
+    }
+
+    @Test
+    public void testEmitRateLimited() {
+        this.start(SpeedAverageTransformer.EMIT_RATE_LIMITED);
+
+        this.pipe(100, 0, 1);
+        this.pipe(200, 100, 2);
+        assertTrue(this.output.isEmpty());
+
+        this.driver.advanceWallClockTime(Duration.ofMillis(INTERVAL_MS));
+        this.assertOutput(150, 2);
+
+        // not changed since the previous emit
+        this.driver.advanceWallClockTime(Duration.ofMillis(INTERVAL_MS));
+        assertTrue(this.output.isEmpty());
+
+        this.pipe(300, 200, 3);
+        // the last update of the window is forwarded when the next one starts
+        this.pipe(100, WINDOW_SIZE_MS, 4);
+        this.assertOutput(200, 3);
+        assertTrue(this.output.isEmpty());
+
+        this.driver.advanceWallClockTime(Duration.ofMillis(INTERVAL_MS));
+        this.assertOutput(100, 4);
+        assertTrue(this.output.isEmpty());
+    }
+
+    @Test
+    public void testEmitWindowClose() {
+        this.start(SpeedAverageTransformer.EMIT_WINDOW_CLOSE);
+
+        this.pipe(100, 0, 1);
+        this.pipe(200, 1000, 2);
+        this.pipe(300, WINDOW_SIZE_MS, 3);
+        // late, but within the grace period
+        this.pipe(150, 4000, 4);
+        assertTrue(this.output.isEmpty());
+
+        // the first window closes
+        this.pipe(300, WINDOW_SIZE_MS + GRACE_MS, 5);
+        this.assertOutput(150, 4);
+        assertTrue(this.output.isEmpty());
+
+        // too late, dropped
+        this.pipe(500, 4500, 6);
+        // the second window closes
+        this.pipe(100, 2 * WINDOW_SIZE_MS + GRACE_MS, 7);
+        this.assertOutput(300, 5);
+        assertTrue(this.output.isEmpty());
+    }
+
+    @Test
+    public void testIdleAccumulatorEvictedEveryRecord() {
+        this.start(SpeedAverageTransformer.EMIT_EVERY_RECORD);
+
+        this.pipe(DRIVER, 100, 0, 1);
+        this.pipe(OTHER_DRIVER, 200, 0, 2);
+        this.driver.advanceWallClockTime(Duration.ofMillis(INTERVAL_MS));
+        assertEquals(2, this.transformer.getAccumulators());
+
+        // only the other driver keeps sending, the window of the first one closes
+        this.pipe(OTHER_DRIVER, 300, WINDOW_SIZE_MS + GRACE_MS, 3);
+        this.driver.advanceWallClockTime(Duration.ofMillis(INTERVAL_MS));
+        assertEquals(1, this.transformer.getAccumulators());
+
+        // back in a later window, from a new accumulator
+        this.pipe(DRIVER, 150, WINDOW_SIZE_MS + GRACE_MS, 4);
+        this.assertOutput(DRIVER, 100, 1);
+        this.assertOutput(OTHER_DRIVER, 200, 2);
+        this.assertOutput(OTHER_DRIVER, 300, 3);
+        this.assertOutput(DRIVER, 150, 4);
+        assertTrue(this.output.isEmpty());
+    }
+
+    @Test
+    public void testIdleAccumulatorEvictedRateLimited() {
+        this.start(SpeedAverageTransformer.EMIT_RATE_LIMITED);
+
+        this.pipe(DRIVER, 100, 0, 1);
+        this.pipe(OTHER_DRIVER, 200, 0, 2);
+        this.driver.advanceWallClockTime(Duration.ofMillis(INTERVAL_MS));
+        assertEquals(2, this.output.readRecordsToList().size());
+        assertEquals(2, this.transformer.getAccumulators());
+
+        // the window of the first driver closes with a speed not forwarded yet
+        this.pipe(DRIVER, 120, 100, 3);
+        this.pipe(OTHER_DRIVER, 300, WINDOW_SIZE_MS + GRACE_MS, 4);
+        this.driver.advanceWallClockTime(Duration.ofMillis(INTERVAL_MS));
+        this.driver.advanceWallClockTime(Duration.ofMillis(INTERVAL_MS));
+
+        // its last average is forwarded, and then it's evicted
+        assertTrue(this.output.readRecordsToList().stream()
+                .anyMatch(record -> DRIVER.equals(record.key()) && record.value() == 110));
+        assertEquals(1, this.transformer.getAccumulators());
+    }
+
+    @Test
+    public void testIdleAccumulatorEvictedWindowClose() {
+        this.start(SpeedAverageTransformer.EMIT_WINDOW_CLOSE);
+
+        this.pipe(DRIVER, 100, 0, 1);
+        this.pipe(OTHER_DRIVER, 200, 0, 2);
+        // the window is not closed yet
+        this.driver.advanceWallClockTime(Duration.ofMillis(INTERVAL_MS));
+        assertEquals(2, this.transformer.getAccumulators());
+
+        // only the other driver keeps sending, the window of the first one closes
+        this.pipe(OTHER_DRIVER, 300, WINDOW_SIZE_MS + GRACE_MS, 3);
+        // the previous windows of the drivers still sending first
+        this.assertOutput(OTHER_DRIVER, 200, 2);
+        this.assertOutput(DRIVER, 100, 1);
+        this.driver.advanceWallClockTime(Duration.ofMillis(INTERVAL_MS));
+        assertEquals(1, this.transformer.getAccumulators());
+
+        // back in a later window, from a new accumulator
+        this.pipe(DRIVER, 150, WINDOW_SIZE_MS + GRACE_MS, 4);
+        this.pipe(OTHER_DRIVER, 300, 2 * WINDOW_SIZE_MS + GRACE_MS, 5);
+        this.assertOutput(OTHER_DRIVER, 300, 3);
+        this.assertOutput(DRIVER, 150, 4);
+        assertTrue(this.output.isEmpty());
+    }
+
+    private void start(String emit) {
+        StreamsBuilder streamsBuilder = new StreamsBuilder();
+        streamsBuilder.addStateStore(Stores.windowStoreBuilder(
+                Stores.inMemoryWindowStore(SpeedAverageTransformer.STORE_NAME, Duration.ofMillis(WINDOW_SIZE_MS + GRACE_MS), Duration.ofMillis(WINDOW_SIZE_MS), false),
+                Serdes.String(),
+                Serdes.serdeFrom(new SpeedCountAndSumSerializer(), new SpeedCountAndSumDeserializer())
+        ));
+        streamsBuilder
+                .stream(INPUT_TOPIC, Consumed.with(Serdes.String(), Serdes.Integer()))
+                .transform(() -> {
+                    this.transformer = new SpeedAverageTransformer(WINDOW_SIZE_MS, GRACE_MS, emit, INTERVAL_MS, INTERVAL_MS);
+                    return this.transformer;
+                }, SpeedAverageTransformer.STORE_NAME)
+                .to(OUTPUT_TOPIC, Produced.with(Serdes.String(), Serdes.Integer()));
+
+        Properties props = new Properties();
+        props.setProperty(StreamsConfig.APPLICATION_ID_CONFIG, "speed-average-transformer-test");
+        props.setProperty(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092");
+        this.driver = new TopologyTestDriver(streamsBuilder.build(), props, Instant.ofEpochMilli(0));
+        this.input = this.driver.createInputTopic(INPUT_TOPIC, Serdes.String().serializer(), Serdes.Integer().serializer());
+        this.output = this.driver.createOutputTopic(OUTPUT_TOPIC, Serdes.String().deserializer(), Serdes.Integer().deserializer());
+    }
+
+    private void pipe(int speed, long timestamp, long receivedAt) {
+        this.pipe(DRIVER, speed, timestamp, receivedAt);
+    }
+
+    private void pipe(String key, int speed, long timestamp, long receivedAt) {
+        RecordHeaders headers = new RecordHeaders();
+        TelemetryHeaders.setReceivedAt(headers, receivedAt);
+        this.input.pipeInput(new TestRecord<>(key, speed, headers, Instant.ofEpochMilli(timestamp)));
+    }
+
+    private void assertOutput(int average, long receivedAt) {
+        this.assertOutput(DRIVER, average, receivedAt);
+    }
+
+    private void assertOutput(String key, int average, long receivedAt) {
+        TestRecord<String, Integer> record = this.output.readRecord();
+        assertEquals(key, record.key());
+        assertEquals(Integer.valueOf(average), record.value());
+        assertEquals(receivedAt, TelemetryHeaders.receivedAt(record.headers()));
+    }
+}
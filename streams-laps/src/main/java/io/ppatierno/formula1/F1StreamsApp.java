@@ -5,6 +5,7 @@
 package io.ppatierno.formula1;
 
 import io.ppatierno.formula1.model.BestOverallSectorTransformer;
+import io.ppatierno.formula1.model.GlobalBestOverallSectorTransformer;
 import org.apache.kafka.common.serialization.Serde;
 import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.streams.KafkaStreams;
@@ -16,6 +17,8 @@ import org.apache.kafka.streams.kstream.KStream;
 import org.apache.kafka.streams.kstream.Predicate;
 import org.apache.kafka.streams.kstream.Printed;
 import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.kstream.Repartitioned;
+import org.apache.kafka.streams.state.KeyValueStore;
 import org.apache.kafka.streams.state.StoreBuilder;
 import org.apache.kafka.streams.state.Stores;
 import org.slf4j.Logger;
@@ -42,12 +45,20 @@ public class F1StreamsApp {
         Serde<Driver> driverSerdes = Serdes.serdeFrom(new DriverSerializer(), new DriverDeserializer());
         Serde<BestOverallSector> bestOverallSectorSerde = Serdes.serdeFrom(new BestOverallSectorSerializer(), new BestOverallSectorDeserializer());
 
-        StoreBuilder storeBuilder = Stores.keyValueStoreBuilder(
-                Stores.inMemoryKeyValueStore("best-overall-sector-store"),
-                Serdes.Short(),
-                Serdes.serdeFrom(new BestOverallSectorSerializer(), new BestOverallSectorDeserializer())
+        // local best sectors of the partitions assigned to the task
+        StoreBuilder<KeyValueStore<String, BestOverallSector>> localStoreBuilder = Stores.keyValueStoreBuilder(
+                Stores.inMemoryKeyValueStore(BestOverallSectorTransformer.STORE_NAME),
+                Serdes.String(),
+                bestOverallSectorSerde
         );
-        streamsBuilder.addStateStore(storeBuilder);
+        streamsBuilder.addStateStore(localStoreBuilder);
+        // global best sectors of the (session, sector) keys assigned to the task
+        StoreBuilder<KeyValueStore<String, BestOverallSector>> globalStoreBuilder = Stores.keyValueStoreBuilder(
+                Stores.inMemoryKeyValueStore(GlobalBestOverallSectorTransformer.STORE_NAME),
+                Serdes.String(),
+                bestOverallSectorSerde
+        );
+        streamsBuilder.addStateStore(globalStoreBuilder);
 
         KStream<String, Driver> driverStream =
                 streamsBuilder.stream(config.getF1StreamsInputTopic(), Consumed.with(Serdes.String(), driverSerdes));
@@ -59,8 +70,11 @@ public class F1StreamsApp {
                         return value.hasValidTelemetry();
                     }
                 })
-                .transform(BestOverallSectorTransformer::new, "best-overall-sector-store")
-                .to(config.getF1StreamsOutputTopic(), Produced.with(Serdes.Short(), bestOverallSectorSerde));
+                .transform(() -> new BestOverallSectorTransformer(config.getF1StreamsSessionTimeoutMs()), BestOverallSectorTransformer.STORE_NAME)
+                // the local bests of the same (session, sector) from all the partitions have to get to the same task
+                .repartition(Repartitioned.with(Serdes.String(), bestOverallSectorSerde).withName("local-best-overall-sector"))
+                .transform(GlobalBestOverallSectorTransformer::new, GlobalBestOverallSectorTransformer.STORE_NAME)
+                .to(config.getF1StreamsOutputTopic(), Produced.with(Serdes.String(), bestOverallSectorSerde));
                 //.print(Printed.toSysOut());
 
         Topology topology = streamsBuilder.build();
@@ -68,11 +82,15 @@ public class F1StreamsApp {
 
         KafkaStreams kafkaStreams = new KafkaStreams(topology, props);
 
+        MetricsServer metricsServer = new MetricsServer(config.getMetricsPort());
+        new TelemetryMetrics(metricsServer.getRegistry()).bindConsumerLag();
+
         CountDownLatch latch = new CountDownLatch(1);
 
         Runtime.getRuntime().addShutdownHook(new Thread() {
             @Override
             public void run() {
+                metricsServer.stop();
                 kafkaStreams.close();
                 latch.countDown();
             }
@@ -80,6 +98,7 @@ public class F1StreamsApp {
 
         try {
             kafkaStreams.start();
+            metricsServer.start();
             latch.await();
         } catch (Throwable e) {
             System.exit(1);
@@ -8,18 +8,33 @@ import io.ppatierno.formula1.config.KafkaStreamsBaseConfig;
 
 public class F1StreamsAppConfig extends KafkaStreamsBaseConfig {
 
+    private static final String F1_STREAMS_SESSION_TIMEOUT_MS_ENV = "F1_STREAMS_SESSION_TIMEOUT_MS";
+
     private static final String DEFAULT_F1_STREAMS_INPUT_TOPIC = "f1-telemetry-drivers";
     private static final String DEFAULT_F1_STREAMS_OUTPUT_TOPIC = "f1-telemetry-best-overall-sector";
+    // longer than a full distance race
+    private static final long DEFAULT_F1_STREAMS_SESSION_TIMEOUT_MS = 2 * 60 * 60 * 1000;
+
+    private final long f1StreamsSessionTimeoutMs;
 
-    private F1StreamsAppConfig(String kafkaBootstrapServers, String f1StreamsInputTopic, String f1StreamsOutputTopic) {
-        super(kafkaBootstrapServers, f1StreamsInputTopic, f1StreamsOutputTopic);
+    private F1StreamsAppConfig(String kafkaBootstrapServers, String f1StreamsInputTopic, String f1StreamsOutputTopic, int metricsPort,
+                               long f1StreamsSessionTimeoutMs) {
+        super(kafkaBootstrapServers, f1StreamsInputTopic, f1StreamsOutputTopic, metricsPort);
+        this.f1StreamsSessionTimeoutMs = f1StreamsSessionTimeoutMs;
     }
 
     public static F1StreamsAppConfig fromEnv() {
         String kafkaBootstrapServers = System.getenv(KAFKA_BOOTSTRAP_SERVERS_ENV) == null ? DEFAULT_KAFKA_BOOTSTRAP_SERVERS : System.getenv(KAFKA_BOOTSTRAP_SERVERS_ENV);
         String f1StreamsInputTopic = System.getenv(F1_STREAMS_INPUT_TOPIC_ENV) == null ? DEFAULT_F1_STREAMS_INPUT_TOPIC : System.getenv(F1_STREAMS_INPUT_TOPIC_ENV);
         String f1StreamsOutputTopic = System.getenv(F1_STREAMS_OUTPUT_TOPIC_ENV) == null ? DEFAULT_F1_STREAMS_OUTPUT_TOPIC : System.getenv(F1_STREAMS_OUTPUT_TOPIC_ENV);
-        return new F1StreamsAppConfig(kafkaBootstrapServers, f1StreamsInputTopic, f1StreamsOutputTopic);
+        int metricsPort = System.getenv(METRICS_PORT_ENV) == null ? DEFAULT_METRICS_PORT : Integer.parseInt(System.getenv(METRICS_PORT_ENV));
+        long f1StreamsSessionTimeoutMs = System.getenv(F1_STREAMS_SESSION_TIMEOUT_MS_ENV) == null ? DEFAULT_F1_STREAMS_SESSION_TIMEOUT_MS : Long.parseLong(System.getenv(F1_STREAMS_SESSION_TIMEOUT_MS_ENV));
+        return new F1StreamsAppConfig(kafkaBootstrapServers, f1StreamsInputTopic, f1StreamsOutputTopic, metricsPort,
+                f1StreamsSessionTimeoutMs);
+    }
+
+    public long getF1StreamsSessionTimeoutMs() {
+        return f1StreamsSessionTimeoutMs;
     }
 
     @Override
@@ -28,6 +43,8 @@ public class F1StreamsAppConfig extends KafkaStreamsBaseConfig {
                 "kafkaBootstrapServers=" + this.kafkaBootstrapServers +
                 ", f1StreamsInputTopic=" + this.f1StreamsInputTopic +
                 ", f1StreamsOutputTopic=" + this.f1StreamsOutputTopic +
+                ", metricsPort=" + this.metricsPort +
+                ", f1StreamsSessionTimeoutMs=" + this.f1StreamsSessionTimeoutMs +
                 "]";
     }
 }
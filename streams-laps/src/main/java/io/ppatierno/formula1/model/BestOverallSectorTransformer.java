@@ -6,50 +6,118 @@ package io.ppatierno.formula1.model;
 
 import io.ppatierno.formula1.BestOverallSector;
 import io.ppatierno.formula1.Driver;
+import io.ppatierno.formula1.TelemetryHeaders;
+import io.ppatierno.formula1.data.LapData;
+import org.apache.kafka.common.header.Header;
 import org.apache.kafka.streams.KeyValue;
 import org.apache.kafka.streams.kstream.Transformer;
 import org.apache.kafka.streams.processor.ProcessorContext;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.state.KeyValueIterator;
 import org.apache.kafka.streams.state.KeyValueStore;
 
-public class BestOverallSectorTransformer implements Transformer<String, Driver, KeyValue<Short, BestOverallSector>> {
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * First stage of the best overall sectors: the best times in the sectors of the drivers of the partitions
+ * assigned to the task, for each session.
+ * A local best is forwarded, keyed by (session, sector) as {@link #key(String, short)}, only when it improves,
+ * to be reduced to the global one by the {@link GlobalBestOverallSectorTransformer} after a repartition.
+ * The best times of a session are removed once no records are received for it within the session timeout (stream time),
+ * forwarding a tombstone (null value) for each sector so that the global stage removes them as well.
+ */
+public class BestOverallSectorTransformer implements Transformer<String, Driver, KeyValue<String, BestOverallSector>> {
+
+    public static final String STORE_NAME = "local-best-overall-sector-store";
+
+    // session of the records not carrying the session id header
+    private static final String UNKNOWN_SESSION = "unknown";
 
     private ProcessorContext context;
-    private KeyValueStore<Short, BestOverallSector> kvStore;
+    private KeyValueStore<String, BestOverallSector> kvStore;
+    // best times of the 3 sectors (0 if none yet) for each session, so the store is touched only on a change
+    private final Map<String, int[]> bestTimes = new HashMap<>();
+    private final SessionExpiry sessionExpiry;
+
+    /**
+     * Constructor
+     *
+     * @param sessionTimeoutMs time (stream time) after which the best times of a session not receiving records anymore are removed
+     */
+    public BestOverallSectorTransformer(long sessionTimeoutMs) {
+        this.sessionExpiry = new SessionExpiry(sessionTimeoutMs);
+    }
+
+    /**
+     * @param sessionId session id
+     * @param sector sector number, from 1 to 3
+     * @return key of the best time of a sector within a session
+     */
+    public static String key(String sessionId, short sector) {
+        return sessionId + "/" + sector;
+    }
 
     @Override
     public void init(ProcessorContext context) {
         this.context = context;
-        this.kvStore = context.getStateStore("best-overall-sector-store");
+        this.kvStore = context.getStateStore(STORE_NAME);
+        // the processors are initialized after the stores are restored from the changelog
+        try (KeyValueIterator<String, BestOverallSector> iterator = this.kvStore.all()) {
+            while (iterator.hasNext()) {
+                KeyValue<String, BestOverallSector> entry = iterator.next();
+                String sessionId = entry.key.substring(0, entry.key.lastIndexOf('/'));
+                this.bestTimes.computeIfAbsent(sessionId, s -> new int[3])[entry.value.getSector() - 1] = entry.value.getTimeInMs();
+                this.sessionExpiry.restored(sessionId);
+            }
+        }
+        this.context.schedule(Duration.ofMillis(SessionExpiry.CHECK_INTERVAL_MS), PunctuationType.STREAM_TIME, this::expire);
     }
 
     @Override
-    public KeyValue<Short, BestOverallSector> transform(String key, Driver record) {
-        BestOverallSector bestOverallSector = this.kvStore.get((short)1);
-        if (record.getLapData().getBestOverallSector1TimeInMS() != 0 &&
-                (bestOverallSector == null || record.getLapData().getBestOverallSector1TimeInMS() < bestOverallSector.getTimeInMs())) {
-            bestOverallSector = new BestOverallSector((short)1, key, record.getLapData().getBestOverallSector1TimeInMS(), record.getLapData().getBestOverallSector1LapNum());
-            this.storeAndForward((short)1, bestOverallSector);
-        }
+    public KeyValue<String, BestOverallSector> transform(String key, Driver record) {
+        Header header = this.context.headers().lastHeader(TelemetryHeaders.SESSION_ID);
+        String sessionId = header != null ? new String(header.value(), StandardCharsets.UTF_8) : UNKNOWN_SESSION;
+        int[] sessionBestTimes = this.bestTimes.computeIfAbsent(sessionId, s -> new int[3]);
+        this.sessionExpiry.seen(sessionId, this.context.timestamp());
+
+        LapData lapData = record.getLapData();
+        this.update(sessionId, sessionBestTimes, (short)1, key, lapData.getBestOverallSector1TimeInMS(), lapData.getBestOverallSector1LapNum());
+        this.update(sessionId, sessionBestTimes, (short)2, key, lapData.getBestOverallSector2TimeInMS(), lapData.getBestOverallSector2LapNum());
+        this.update(sessionId, sessionBestTimes, (short)3, key, lapData.getBestOverallSector3TimeInMS(), lapData.getBestOverallSector3LapNum());
+        return null;
+    }
 
-        bestOverallSector = this.kvStore.get((short)2);
-        if (record.getLapData().getBestOverallSector2TimeInMS() != 0 &&
-                (bestOverallSector == null || record.getLapData().getBestOverallSector2TimeInMS() < bestOverallSector.getTimeInMs())) {
-            bestOverallSector = new BestOverallSector((short)2, key, record.getLapData().getBestOverallSector2TimeInMS(), record.getLapData().getBestOverallSector2LapNum());
-            this.storeAndForward((short)2, bestOverallSector);
+    private void update(String sessionId, int[] sessionBestTimes, short sector, String driver, int timeInMs, short lapNum) {
+        int bestTimeInMs = sessionBestTimes[sector - 1];
+        if (timeInMs != 0 && (bestTimeInMs == 0 || timeInMs < bestTimeInMs)) {
+            sessionBestTimes[sector - 1] = timeInMs;
+            this.storeAndForward(key(sessionId, sector), new BestOverallSector(sector, driver, timeInMs, lapNum));
         }
+    }
+
+    private void storeAndForward(String sectorKey, BestOverallSector bestOverallSector) {
+        this.kvStore.put(sectorKey, bestOverallSector);
+        this.context.forward(sectorKey, bestOverallSector);
+    }
 
-        bestOverallSector = this.kvStore.get((short)3);
-        if (record.getLapData().getBestOverallSector3TimeInMS() != 0 &&
-                (bestOverallSector == null || record.getLapData().getBestOverallSector3TimeInMS() < bestOverallSector.getTimeInMs())) {
-            bestOverallSector = new BestOverallSector((short)3, key, record.getLapData().getBestOverallSector3TimeInMS(), record.getLapData().getBestOverallSector3LapNum());
-            this.storeAndForward((short)3, bestOverallSector);
+    private void expire(long streamTime) {
+        for (String sessionId : this.sessionExpiry.expire(streamTime)) {
+            this.bestTimes.remove(sessionId);
+            for (short sector = 1; sector <= 3; sector++) {
+                this.kvStore.delete(key(sessionId, sector));
+                this.context.forward(key(sessionId, sector), null);
+            }
         }
-        return null;
     }
 
-    private void storeAndForward(Short sector, BestOverallSector bestOverallSector) {
-        this.kvStore.put(sector, bestOverallSector);
-        this.context.forward(sector, bestOverallSector);
+    /**
+     * @return the number of sessions whose best times are kept
+     */
+    int getSessions() {
+        return this.bestTimes.size();
     }
 
     @Override
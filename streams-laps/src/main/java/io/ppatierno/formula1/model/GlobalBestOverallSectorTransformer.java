@@ -0,0 +1,50 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1.model;
+
+import io.ppatierno.formula1.BestOverallSector;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.kstream.Transformer;
+import org.apache.kafka.streams.processor.ProcessorContext;
+import org.apache.kafka.streams.state.KeyValueStore;
+
+/**
+ * Second stage of the best overall sectors: reduces the local bests, repartitioned by (session, sector),
+ * to the global best time of each sector within a session, forwarded only when it improves.
+ * The best times of a session are removed on the tombstones (null values) forwarded by the local stage when it expires the session,
+ * so a global best is never removed while the local stores still hold theirs (and would not forward them again).
+ * The tombstones are not forwarded downstream, where the last global best of a session stays as its final one.
+ */
+public class GlobalBestOverallSectorTransformer implements Transformer<String, BestOverallSector, KeyValue<String, BestOverallSector>> {
+
+    public static final String STORE_NAME = "global-best-overall-sector-store";
+
+    private KeyValueStore<String, BestOverallSector> kvStore;
+
+    @Override
+    public void init(ProcessorContext context) {
+        this.kvStore = context.getStateStore(STORE_NAME);
+    }
+
+    @Override
+    public KeyValue<String, BestOverallSector> transform(String sectorKey, BestOverallSector localBestOverallSector) {
+        if (localBestOverallSector == null) {
+            // session expired by the local stage
+            this.kvStore.delete(sectorKey);
+            return null;
+        }
+        BestOverallSector bestOverallSector = this.kvStore.get(sectorKey);
+        if (bestOverallSector == null || localBestOverallSector.getTimeInMs() < bestOverallSector.getTimeInMs()) {
+            this.kvStore.put(sectorKey, localBestOverallSector);
+            return KeyValue.pair(sectorKey, localBestOverallSector);
+        }
+        return null;
+    }
+
+    @Override
+    public void close() {
+
+    }
+}
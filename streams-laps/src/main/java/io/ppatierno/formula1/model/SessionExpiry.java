@@ -0,0 +1,74 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks the stream time each session was last seen at, for expiring the sessions which are over
+ * (i.e. the game moved to a new one) together with their best sector times.
+ */
+class SessionExpiry {
+
+    // how often (stream time) the expired sessions are looked for
+    static final long CHECK_INTERVAL_MS = 60_000;
+
+    // session loaded from a store, not seen yet
+    private static final long UNKNOWN = -1;
+
+    private final long timeoutMs;
+    private final Map<String, Long> lastSeen = new HashMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param timeoutMs time (stream time) after which a session not seen anymore is expired
+     */
+    SessionExpiry(long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Add a session restored from a store, its timeout starts on the next {@link #expire(long)}
+     *
+     * @param sessionId session id
+     */
+    void restored(String sessionId) {
+        this.lastSeen.putIfAbsent(sessionId, UNKNOWN);
+    }
+
+    /**
+     * @param sessionId session id
+     * @param timestamp timestamp of the record of the session
+     */
+    void seen(String sessionId, long timestamp) {
+        this.lastSeen.merge(sessionId, timestamp, Math::max);
+    }
+
+    /**
+     * Remove the sessions not seen for the timeout
+     *
+     * @param streamTime current stream time
+     * @return the expired sessions
+     */
+    List<String> expire(long streamTime) {
+        List<String> expired = new ArrayList<>();
+        Iterator<Map.Entry<String, Long>> iterator = this.lastSeen.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            if (entry.getValue() == UNKNOWN) {
+                entry.setValue(streamTime);
+            } else if (streamTime - entry.getValue() >= this.timeoutMs) {
+                expired.add(entry.getKey());
+                iterator.remove();
+            }
+        }
+        return expired;
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1.model;
+
+import io.ppatierno.formula1.BestOverallSector;
+import io.ppatierno.formula1.BestOverallSectorDeserializer;
+import io.ppatierno.formula1.BestOverallSectorSerializer;
+import io.ppatierno.formula1.Driver;
+import io.ppatierno.formula1.DriverDeserializer;
+import io.ppatierno.formula1.DriverFixtures;
+import io.ppatierno.formula1.DriverSerializer;
+import io.ppatierno.formula1.TelemetryHeaders;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.kstream.Repartitioned;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.Stores;
+import org.apache.kafka.streams.test.TestRecord;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BestOverallSectorTransformerTest {
+
+    private static final String INPUT_TOPIC = "drivers";
+    private static final String OUTPUT_TOPIC = "best-overall-sector";
+    private static final String SESSION_1 = "1@127.0.0.1:20777";
+    private static final String SESSION_2 = "2@127.0.0.1:20777";
+    private static final long SESSION_TIMEOUT_MS = 600_000;
+
+    private TopologyTestDriver driver;
+    private BestOverallSectorTransformer transformer;
+    private TestInputTopic<String, Driver> input;
+    private TestOutputTopic<String, BestOverallSector> output;
+
+    @Before
+    public void setup() {
+        Serde<BestOverallSector> bestOverallSectorSerde = Serdes.serdeFrom(new BestOverallSectorSerializer(), new BestOverallSectorDeserializer());
+        StreamsBuilder streamsBuilder = new StreamsBuilder();
+        streamsBuilder.addStateStore(Stores.keyValueStoreBuilder(
+                Stores.inMemoryKeyValueStore(BestOverallSectorTransformer.STORE_NAME), Serdes.String(), bestOverallSectorSerde));
+        streamsBuilder.addStateStore(Stores.keyValueStoreBuilder(
+                Stores.inMemoryKeyValueStore(GlobalBestOverallSectorTransformer.STORE_NAME), Serdes.String(), bestOverallSectorSerde));
+        streamsBuilder
+                .stream(INPUT_TOPIC, Consumed.with(Serdes.String(), Serdes.serdeFrom(new DriverSerializer(), new DriverDeserializer())))
+                .transform(() -> {
+                    this.transformer = new BestOverallSectorTransformer(SESSION_TIMEOUT_MS);
+                    return this.transformer;
+                }, BestOverallSectorTransformer.STORE_NAME)
+                .repartition(Repartitioned.with(Serdes.String(), bestOverallSectorSerde).withName("local-best-overall-sector"))
+                .transform(GlobalBestOverallSectorTransformer::new, GlobalBestOverallSectorTransformer.STORE_NAME)
+                .to(OUTPUT_TOPIC, Produced.with(Serdes.String(), bestOverallSectorSerde));
+
+        Properties props = new Properties();
+        props.setProperty(StreamsConfig.APPLICATION_ID_CONFIG, "best-overall-sector-transformer-test");
+        props.setProperty(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092");
+        this.driver = new TopologyTestDriver(streamsBuilder.build(), props);
+        this.input = this.driver.createInputTopic(INPUT_TOPIC, Serdes.String().serializer(), new DriverSerializer());
+        this.output = this.driver.createOutputTopic(OUTPUT_TOPIC, Serdes.String().deserializer(), bestOverallSectorSerde.deserializer());
+    }
+
+    @After
+    public void tearDown() {
+        this.driver.close();
+    }
+
+    @Test
+    public void testBestSectors() {
+        this.pipe(SESSION_1, "#A", 0, 30000, 40000, 0);
+
+        this.assertOutput(SESSION_1, 1, "#A", 30000);
+        this.assertOutput(SESSION_1, 2, "#A", 40000);
+        assertTrue(this.output.isEmpty());
+
+        this.pipe(SESSION_1, "#B", 1000, 31000, 39000, 35000);
+
+        this.assertOutput(SESSION_1, 2, "#B", 39000);
+        this.assertOutput(SESSION_1, 3, "#B", 35000);
+        assertTrue(this.output.isEmpty());
+
+        // no improvements
+        this.pipe(SESSION_1, "#A", 2000, 30000, 40000, 36000);
+        assertTrue(this.output.isEmpty());
+
+        // the best times are within a session
+        this.pipe(SESSION_2, "#A", 3000, 32000, 0, 0);
+
+        this.assertOutput(SESSION_2, 1, "#A", 32000);
+        assertTrue(this.output.isEmpty());
+        assertEquals(2, this.transformer.getSessions());
+    }
+
+    @Test
+    public void testSessionExpired() {
+        this.pipe(SESSION_1, "#A", 0, 30000, 40000, 35000);
+        this.output.readRecordsToList();
+
+        // the game moved to a new session, the first one is not receiving records anymore
+        long timestamp = SESSION_TIMEOUT_MS + SessionExpiry.CHECK_INTERVAL_MS;
+        this.pipe(SESSION_2, "#A", timestamp, 32000, 0, 0);
+        this.assertOutput(SESSION_2, 1, "#A", 32000);
+        // the tombstones of the expired session are not forwarded downstream
+        assertTrue(this.output.isEmpty());
+        assertEquals(1, this.transformer.getSessions());
+        for (short sector = 1; sector <= 3; sector++) {
+            assertNull(this.globalStore().get(BestOverallSectorTransformer.key(SESSION_1, sector)));
+        }
+
+        // the previous best times are gone from both the stages
+        this.pipe(SESSION_1, "#B", timestamp + 1000, 31000, 0, 0);
+        this.assertOutput(SESSION_1, 1, "#B", 31000);
+        assertTrue(this.output.isEmpty());
+    }
+
+    @Test
+    public void testSessionNotExpiredWhileActive() {
+        long timestamp = 0;
+        this.pipe(SESSION_1, "#A", timestamp, 30000, 0, 0);
+        for (int i = 0; i < 20; i++) {
+            timestamp += SessionExpiry.CHECK_INTERVAL_MS;
+            this.pipe(SESSION_1, "#A", timestamp, 30000, 0, 0);
+        }
+        this.output.readRecordsToList();
+
+        this.pipe(SESSION_1, "#B", timestamp, 31000, 0, 0);
+
+        assertTrue(this.output.isEmpty());
+        assertEquals(1, this.transformer.getSessions());
+    }
+
+    @Test
+    public void testGlobalBestNotExpiredWhileLocalActive() {
+        this.pipe(SESSION_1, "#A", 0, 30000, 0, 0);
+        this.output.readRecordsToList();
+
+        // the first session keeps receiving records with no improvements, while the second one improves
+        long timestamp = 0;
+        for (int i = 0; i < 20; i++) {
+            timestamp += SessionExpiry.CHECK_INTERVAL_MS;
+            this.pipe(SESSION_1, "#A", timestamp, 30000, 0, 0);
+            this.pipe(SESSION_2, "#A", timestamp, 40000 - i, 0, 0);
+        }
+        assertEquals(2, this.transformer.getSessions());
+
+        // the global best is kept as long as the local one
+        BestOverallSector bestOverallSector = this.globalStore().get(BestOverallSectorTransformer.key(SESSION_1, (short) 1));
+        assertEquals("#A", bestOverallSector.getDriver());
+        assertEquals(30000, bestOverallSector.getTimeInMs());
+    }
+
+    private KeyValueStore<String, BestOverallSector> globalStore() {
+        return this.driver.getKeyValueStore(GlobalBestOverallSectorTransformer.STORE_NAME);
+    }
+
+    private void pipe(String sessionId, String key, long timestamp, int sector1, int sector2, int sector3) {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(TelemetryHeaders.SESSION_ID, sessionId.getBytes(StandardCharsets.UTF_8));
+        Driver driver = DriverFixtures.driverWithBestSectors(7, sector1, sector2, sector3);
+        this.input.pipeInput(new TestRecord<>(key, driver, headers, Instant.ofEpochMilli(timestamp)));
+    }
+
+    private void assertOutput(String sessionId, int sector, String driver, int timeInMs) {
+        KeyValue<String, BestOverallSector> keyValue = this.output.readKeyValue();
+        assertEquals(BestOverallSectorTransformer.key(sessionId, (short) sector), keyValue.key);
+        assertEquals(sector, keyValue.value.getSector());
+        assertEquals(driver, keyValue.value.getDriver());
+        assertEquals(timeInMs, keyValue.value.getTimeInMs());
+    }
+}
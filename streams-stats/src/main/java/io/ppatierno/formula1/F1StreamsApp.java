@@ -0,0 +1,133 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.Topology;
+import org.apache.kafka.streams.kstream.Aggregator;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.Grouped;
+import org.apache.kafka.streams.kstream.KGroupedStream;
+import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.kstream.SlidingWindows;
+import org.apache.kafka.streams.kstream.Suppressed;
+import org.apache.kafka.streams.kstream.TimeWindowedKStream;
+import org.apache.kafka.streams.kstream.TimeWindows;
+import org.apache.kafka.streams.state.WindowStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+
+public class F1StreamsApp {
+
+    private static Logger log = LoggerFactory.getLogger(F1StreamsApp.class);
+
+    public static void main(String[] args) {
+        F1StreamsAppConfig config = F1StreamsAppConfig.fromEnv();
+
+        log.info("Config: {}", config);
+
+        Properties props = new Properties();
+        props.setProperty(StreamsConfig.APPLICATION_ID_CONFIG, "f1-telemetry-streams-stats");
+        props.setProperty(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, config.getKafkaBootstrapServers());
+        props.setProperty(StreamsConfig.CACHE_MAX_BYTES_BUFFERING_CONFIG, "0");
+
+        Topology topology = createTopology(config);
+        log.info("{}", topology.describe());
+
+        KafkaStreams kafkaStreams = new KafkaStreams(topology, props);
+
+        MetricsServer metricsServer = new MetricsServer(config.getMetricsPort());
+        new TelemetryMetrics(metricsServer.getRegistry()).bindConsumerLag();
+
+        CountDownLatch latch = new CountDownLatch(1);
+
+        Runtime.getRuntime().addShutdownHook(new Thread() {
+            @Override
+            public void run() {
+                metricsServer.stop();
+                kafkaStreams.close();
+                latch.countDown();
+            }
+        });
+
+        try {
+            kafkaStreams.start();
+            metricsServer.start();
+            latch.await();
+        } catch (Throwable e) {
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    static Topology createTopology(F1StreamsAppConfig config) {
+        StreamsBuilder streamsBuilder = new StreamsBuilder();
+        Serde<Driver> driverSerdes = Serdes.serdeFrom(new DriverSerializer(), new DriverDeserializer());
+        Serde<TelemetrySketches> telemetrySketchesSerde = Serdes.serdeFrom(new TelemetrySketchesSerializer(), new TelemetrySketchesDeserializer());
+        Serde<TelemetryStats> telemetryStatsSerde = Serdes.serdeFrom(new TelemetryStatsSerializer(), new TelemetryStatsDeserializer());
+
+        Duration windowSize = Duration.ofMillis(config.getF1StreamsWindowSizeMs());
+        Duration grace = Duration.ofMillis(config.getF1StreamsWindowGraceMs());
+
+        KGroupedStream<String, Driver> driverGroupedStream = streamsBuilder
+                .stream(config.getF1StreamsInputTopic(), Consumed.with(Serdes.String(), driverSerdes))
+                .filter((driverid, driver) -> driver.hasValidTelemetry())
+                // already keyed by driver id, so no repartition
+                .groupByKey(Grouped.with(Serdes.String(), driverSerdes));
+
+        TimeWindowedKStream<String, Driver> driverWindowedStream;
+        Aggregator<String, Driver, TelemetrySketches> aggregator;
+        switch (config.getF1StreamsWindowType()) {
+            case F1StreamsAppConfig.WINDOW_TYPE_HOPPING:
+                driverWindowedStream = driverGroupedStream.windowedBy(
+                        TimeWindows.of(windowSize).advanceBy(Duration.ofMillis(config.getF1StreamsWindowAdvanceMs())).grace(grace));
+                // the sketches of each window are read from the store for every record, so they are updated in place
+                aggregator = (driverid, driver, telemetrySketches) -> {
+                    telemetrySketches.add(driver.getCarTelemetryData());
+                    return telemetrySketches;
+                };
+                break;
+            case F1StreamsAppConfig.WINDOW_TYPE_SLIDING:
+                driverWindowedStream = driverGroupedStream.windowedBy(SlidingWindows.withTimeDifferenceAndGrace(windowSize, grace));
+                // the sketches of an existing window are also the starting point of the windows a record creates
+                // (i.e. its right window), so they are copied instead of counting the record in those as well
+                aggregator = (driverid, driver, telemetrySketches) -> {
+                    TelemetrySketches updated = new TelemetrySketches(telemetrySketches);
+                    updated.add(driver.getCarTelemetryData());
+                    return updated;
+                };
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown window type " + config.getF1StreamsWindowType());
+        }
+
+        driverWindowedStream
+                .aggregate(TelemetrySketches::new, aggregator,
+                        Materialized.<String, TelemetrySketches, WindowStore<Bytes, byte[]>>as("telemetry-sketches-store")
+                                .withKeySerde(Serdes.String())
+                                .withValueSerde(telemetrySketchesSerde)
+                                .withRetention(windowSize.plus(grace)))
+                // only the final statistics of a window
+                .suppress(Suppressed.untilWindowCloses(Suppressed.BufferConfig.unbounded()))
+                .toStream()
+                .map((windowedDriverid, telemetrySketches) -> new KeyValue<>(windowedDriverid.key(),
+                        telemetrySketches.toStats(windowedDriverid.window().start(), windowedDriverid.window().end())))
+                .to(config.getF1StreamsOutputTopic(), Produced.with(Serdes.String(), telemetryStatsSerde));
+                //.print(Printed.toSysOut());
+
+        return streamsBuilder.build();
+    }
+}
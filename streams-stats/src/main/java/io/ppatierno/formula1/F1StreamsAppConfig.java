@@ -0,0 +1,84 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import io.ppatierno.formula1.config.KafkaStreamsBaseConfig;
+
+public class F1StreamsAppConfig extends KafkaStreamsBaseConfig {
+
+    public static final String WINDOW_TYPE_HOPPING = "hopping";
+    public static final String WINDOW_TYPE_SLIDING = "sliding";
+
+    private static final String F1_STREAMS_WINDOW_TYPE_ENV = "F1_STREAMS_WINDOW_TYPE";
+    private static final String F1_STREAMS_WINDOW_SIZE_MS_ENV = "F1_STREAMS_WINDOW_SIZE_MS";
+    private static final String F1_STREAMS_WINDOW_ADVANCE_MS_ENV = "F1_STREAMS_WINDOW_ADVANCE_MS";
+    private static final String F1_STREAMS_WINDOW_GRACE_MS_ENV = "F1_STREAMS_WINDOW_GRACE_MS";
+
+    private static final String DEFAULT_F1_STREAMS_INPUT_TOPIC = "f1-telemetry-drivers";
+    private static final String DEFAULT_F1_STREAMS_OUTPUT_TOPIC = "f1-telemetry-drivers-stats";
+    private static final String DEFAULT_F1_STREAMS_WINDOW_TYPE = WINDOW_TYPE_HOPPING;
+    // size of the hopping windows, or max time difference between the records of a sliding window
+    private static final long DEFAULT_F1_STREAMS_WINDOW_SIZE_MS = 10000;
+    // used with hopping windows only, every record updates size / advance windows
+    private static final long DEFAULT_F1_STREAMS_WINDOW_ADVANCE_MS = 5000;
+    private static final long DEFAULT_F1_STREAMS_WINDOW_GRACE_MS = 1000;
+
+    private final String f1StreamsWindowType;
+    private final long f1StreamsWindowSizeMs;
+    private final long f1StreamsWindowAdvanceMs;
+    private final long f1StreamsWindowGraceMs;
+
+    F1StreamsAppConfig(String kafkaBootstrapServers, String f1StreamsInputTopic, String f1StreamsOutputTopic, int metricsPort,
+                       String f1StreamsWindowType, long f1StreamsWindowSizeMs, long f1StreamsWindowAdvanceMs, long f1StreamsWindowGraceMs) {
+        super(kafkaBootstrapServers, f1StreamsInputTopic, f1StreamsOutputTopic, metricsPort);
+        this.f1StreamsWindowType = f1StreamsWindowType;
+        this.f1StreamsWindowSizeMs = f1StreamsWindowSizeMs;
+        this.f1StreamsWindowAdvanceMs = f1StreamsWindowAdvanceMs;
+        this.f1StreamsWindowGraceMs = f1StreamsWindowGraceMs;
+    }
+
+    public static F1StreamsAppConfig fromEnv() {
+        String kafkaBootstrapServers = System.getenv(KAFKA_BOOTSTRAP_SERVERS_ENV) == null ? DEFAULT_KAFKA_BOOTSTRAP_SERVERS : System.getenv(KAFKA_BOOTSTRAP_SERVERS_ENV);
+        String f1StreamsInputTopic = System.getenv(F1_STREAMS_INPUT_TOPIC_ENV) == null ? DEFAULT_F1_STREAMS_INPUT_TOPIC : System.getenv(F1_STREAMS_INPUT_TOPIC_ENV);
+        String f1StreamsOutputTopic = System.getenv(F1_STREAMS_OUTPUT_TOPIC_ENV) == null ? DEFAULT_F1_STREAMS_OUTPUT_TOPIC : System.getenv(F1_STREAMS_OUTPUT_TOPIC_ENV);
+        int metricsPort = System.getenv(METRICS_PORT_ENV) == null ? DEFAULT_METRICS_PORT : Integer.parseInt(System.getenv(METRICS_PORT_ENV));
+        String f1StreamsWindowType = System.getenv(F1_STREAMS_WINDOW_TYPE_ENV) == null ? DEFAULT_F1_STREAMS_WINDOW_TYPE : System.getenv(F1_STREAMS_WINDOW_TYPE_ENV);
+        long f1StreamsWindowSizeMs = System.getenv(F1_STREAMS_WINDOW_SIZE_MS_ENV) == null ? DEFAULT_F1_STREAMS_WINDOW_SIZE_MS : Long.parseLong(System.getenv(F1_STREAMS_WINDOW_SIZE_MS_ENV));
+        long f1StreamsWindowAdvanceMs = System.getenv(F1_STREAMS_WINDOW_ADVANCE_MS_ENV) == null ? DEFAULT_F1_STREAMS_WINDOW_ADVANCE_MS : Long.parseLong(System.getenv(F1_STREAMS_WINDOW_ADVANCE_MS_ENV));
+        long f1StreamsWindowGraceMs = System.getenv(F1_STREAMS_WINDOW_GRACE_MS_ENV) == null ? DEFAULT_F1_STREAMS_WINDOW_GRACE_MS : Long.parseLong(System.getenv(F1_STREAMS_WINDOW_GRACE_MS_ENV));
+        return new F1StreamsAppConfig(kafkaBootstrapServers, f1StreamsInputTopic, f1StreamsOutputTopic, metricsPort,
+                f1StreamsWindowType, f1StreamsWindowSizeMs, f1StreamsWindowAdvanceMs, f1StreamsWindowGraceMs);
+    }
+
+    public String getF1StreamsWindowType() {
+        return f1StreamsWindowType;
+    }
+
+    public long getF1StreamsWindowSizeMs() {
+        return f1StreamsWindowSizeMs;
+    }
+
+    public long getF1StreamsWindowAdvanceMs() {
+        return f1StreamsWindowAdvanceMs;
+    }
+
+    public long getF1StreamsWindowGraceMs() {
+        return f1StreamsWindowGraceMs;
+    }
+
+    @Override
+    public String toString() {
+        return "F1StreamsAppConfig[" +
+                "kafkaBootstrapServers=" + this.kafkaBootstrapServers +
+                ", f1StreamsInputTopic=" + this.f1StreamsInputTopic +
+                ", f1StreamsOutputTopic=" + this.f1StreamsOutputTopic +
+                ", metricsPort=" + this.metricsPort +
+                ", f1StreamsWindowType=" + this.f1StreamsWindowType +
+                ", f1StreamsWindowSizeMs=" + this.f1StreamsWindowSizeMs +
+                ", f1StreamsWindowAdvanceMs=" + this.f1StreamsWindowAdvanceMs +
+                ", f1StreamsWindowGraceMs=" + this.f1StreamsWindowGraceMs +
+                "]";
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compact sketch of the values of a metric, for estimating the quantiles together with the exact
+ * count, min, max, mean and variance (Welford).
+ * The quantiles are estimated within a relative accuracy by counting the values into logarithmic buckets
+ * (as DDSketch does) over a fixed range: values out of the range are counted in the first or last bucket,
+ * values less or equal than zero in a dedicated one.
+ * The range and accuracy are fixed, so it's always written in the same number of bytes.
+ */
+public class QuantileSketch {
+
+    private final double minValue;
+    private final double logGamma;
+    private final double bucketValueFactor;
+    private final int[] buckets;
+
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private double mean;
+    // sum of the squared differences from the mean
+    private double m2;
+    private int zeroCount;
+
+    /**
+     * Constructor
+     *
+     * @param minValue minimum (positive) value of the range
+     * @param maxValue maximum value of the range
+     * @param relativeAccuracy relative accuracy of the estimated quantiles within the range
+     */
+    public QuantileSketch(double minValue, double maxValue, double relativeAccuracy) {
+        double gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.minValue = minValue;
+        this.logGamma = Math.log(gamma);
+        // a bucket value is the one with the same relative error from both its bounds
+        this.bucketValueFactor = 2 * minValue / (gamma + 1);
+        this.buckets = new int[(int) Math.ceil(Math.log(maxValue / minValue) / this.logGamma) + 1];
+    }
+
+    /**
+     * Copy constructor
+     *
+     * @param other sketch to copy, with its range, accuracy and values
+     */
+    public QuantileSketch(QuantileSketch other) {
+        this.minValue = other.minValue;
+        this.logGamma = other.logGamma;
+        this.bucketValueFactor = other.bucketValueFactor;
+        this.buckets = other.buckets.clone();
+        this.count = other.count;
+        this.min = other.min;
+        this.max = other.max;
+        this.mean = other.mean;
+        this.m2 = other.m2;
+        this.zeroCount = other.zeroCount;
+    }
+
+    public void add(double value) {
+        this.count++;
+        double delta = value - this.mean;
+        this.mean += delta / this.count;
+        this.m2 += delta * (value - this.mean);
+        this.min = Math.min(this.min, value);
+        this.max = Math.max(this.max, value);
+
+        if (value <= 0) {
+            this.zeroCount++;
+        } else {
+            this.buckets[this.index(value)]++;
+        }
+    }
+
+    private int index(double value) {
+        int index = (int) Math.ceil(Math.log(value / this.minValue) / this.logGamma);
+        return Math.max(0, Math.min(this.buckets.length - 1, index));
+    }
+
+    /**
+     * @param q quantile to estimate, between 0 and 1
+     * @return estimated value at the quantile, 0 if there are no values
+     */
+    public double quantile(double q) {
+        if (this.count == 0) {
+            return 0;
+        }
+        long rank = (long) (q * (this.count - 1));
+        long seen = this.zeroCount;
+        double value = 0;
+        if (seen <= rank) {
+            for (int i = 0; i < this.buckets.length; i++) {
+                seen += this.buckets[i];
+                if (seen > rank) {
+                    value = this.bucketValueFactor * Math.exp(i * this.logGamma);
+                    break;
+                }
+            }
+        }
+        return Math.max(this.min, Math.min(this.max, value));
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMin() {
+        return this.count == 0 ? 0 : this.min;
+    }
+
+    public double getMax() {
+        return this.count == 0 ? 0 : this.max;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * @return sample standard deviation, 0 if there are less than 2 values
+     */
+    public double getStddev() {
+        return this.count < 2 ? 0 : Math.sqrt(this.m2 / (this.count - 1));
+    }
+
+    public TelemetryStats.Stats toStats() {
+        return new TelemetryStats.Stats(this.count, this.getMin(), this.getMax(), this.mean, this.getStddev(),
+                this.quantile(0.5), this.quantile(0.95), this.quantile(0.99));
+    }
+
+    /**
+     * @return number of bytes the sketch is written in
+     */
+    public int sizeInBytes() {
+        return 8 + 4 * 8 + 4 + 4 * this.buckets.length;
+    }
+
+    public void writeTo(ByteBuffer buffer) {
+        buffer.putLong(this.count);
+        buffer.putDouble(this.min);
+        buffer.putDouble(this.max);
+        buffer.putDouble(this.mean);
+        buffer.putDouble(this.m2);
+        buffer.putInt(this.zeroCount);
+        for (int bucket : this.buckets) {
+            buffer.putInt(bucket);
+        }
+    }
+
+    /**
+     * Read the sketch from a buffer written by a sketch with the same range and accuracy
+     *
+     * @param buffer buffer to read from
+     */
+    public void readFrom(ByteBuffer buffer) {
+        this.count = buffer.getLong();
+        this.min = buffer.getDouble();
+        this.max = buffer.getDouble();
+        this.mean = buffer.getDouble();
+        this.m2 = buffer.getDouble();
+        this.zeroCount = buffer.getInt();
+        for (int i = 0; i < this.buckets.length; i++) {
+            this.buckets[i] = buffer.getInt();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "QuantileSketch[" +
+                "count=" + this.count +
+                ", min=" + this.getMin() +
+                ", max=" + this.getMax() +
+                ", mean=" + this.mean +
+                ", stddev=" + this.getStddev() +
+                "]";
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import io.ppatierno.formula1.data.CarTelemetryData;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Sketches of the speed, engine RPM, throttle and brake of a driver within a window
+ */
+public class TelemetrySketches {
+
+    // relative accuracy of the percentiles
+    static final double RELATIVE_ACCURACY = 0.02;
+
+    private final QuantileSketch speed;
+    private final QuantileSketch engineRPM;
+    private final QuantileSketch throttle;
+    private final QuantileSketch brake;
+
+    public TelemetrySketches() {
+        // km/h
+        this.speed = new QuantileSketch(1, 512, RELATIVE_ACCURACY);
+        this.engineRPM = new QuantileSketch(100, 16384, RELATIVE_ACCURACY);
+        // from 0 to 1
+        this.throttle = new QuantileSketch(0.001, 1, RELATIVE_ACCURACY);
+        this.brake = new QuantileSketch(0.001, 1, RELATIVE_ACCURACY);
+    }
+
+    /**
+     * Copy constructor
+     *
+     * @param other sketches to copy
+     */
+    public TelemetrySketches(TelemetrySketches other) {
+        this.speed = new QuantileSketch(other.speed);
+        this.engineRPM = new QuantileSketch(other.engineRPM);
+        this.throttle = new QuantileSketch(other.throttle);
+        this.brake = new QuantileSketch(other.brake);
+    }
+
+    public void add(CarTelemetryData carTelemetryData) {
+        this.speed.add(carTelemetryData.getSpeed());
+        this.engineRPM.add(carTelemetryData.getEngineRPM());
+        this.throttle.add(carTelemetryData.getThrottle());
+        this.brake.add(carTelemetryData.getBrake());
+    }
+
+    public TelemetryStats toStats(long windowStart, long windowEnd) {
+        return new TelemetryStats(windowStart, windowEnd,
+                this.speed.toStats(), this.engineRPM.toStats(), this.throttle.toStats(), this.brake.toStats());
+    }
+
+    public int sizeInBytes() {
+        return this.speed.sizeInBytes() + this.engineRPM.sizeInBytes() + this.throttle.sizeInBytes() + this.brake.sizeInBytes();
+    }
+
+    public void writeTo(ByteBuffer buffer) {
+        this.speed.writeTo(buffer);
+        this.engineRPM.writeTo(buffer);
+        this.throttle.writeTo(buffer);
+        this.brake.writeTo(buffer);
+    }
+
+    public void readFrom(ByteBuffer buffer) {
+        this.speed.readFrom(buffer);
+        this.engineRPM.readFrom(buffer);
+        this.throttle.readFrom(buffer);
+        this.brake.readFrom(buffer);
+    }
+
+    @Override
+    public String toString() {
+        return "TelemetrySketches[" +
+                "speed=" + this.speed +
+                ", engineRPM=" + this.engineRPM +
+                ", throttle=" + this.throttle +
+                ", brake=" + this.brake +
+                "]";
+    }
+}
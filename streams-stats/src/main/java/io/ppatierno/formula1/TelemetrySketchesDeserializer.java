@@ -0,0 +1,39 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+public class TelemetrySketchesDeserializer implements Deserializer<TelemetrySketches> {
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+
+    }
+
+    @Override
+    public TelemetrySketches deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public TelemetrySketches deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        TelemetrySketches telemetrySketches = new TelemetrySketches();
+        telemetrySketches.readFrom(ByteBuffer.wrap(data));
+        return telemetrySketches;
+    }
+
+    @Override
+    public void close() {
+
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+public class TelemetrySketchesSerializer implements Serializer<TelemetrySketches> {
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+
+    }
+
+    @Override
+    public byte[] serialize(String topic, TelemetrySketches data) {
+        return serialize(topic, null, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, TelemetrySketches data) {
+        if (data == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(data.sizeInBytes());
+        data.writeTo(buffer);
+        return buffer.array();
+    }
+
+    @Override
+    public void close() {
+
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+
+public class F1StreamsAppTest {
+
+    private static final String INPUT_TOPIC = "drivers";
+    private static final String OUTPUT_TOPIC = "drivers-stats";
+    private static final String DRIVER = "#LH44";
+    private static final long WINDOW_SIZE_MS = 10000;
+    private static final long WINDOW_ADVANCE_MS = 5000;
+    private static final long GRACE_MS = 5000;
+
+    private TopologyTestDriver driver;
+    private TestInputTopic<String, Driver> input;
+    private TestOutputTopic<String, TelemetryStats> output;
+
+    @After
+    public void tearDown() {
+        if (this.driver != null) {
+            this.driver.close();
+        }
+    }
+
+    @Test
+    public void testHoppingWindows() {
+        this.start(F1StreamsAppConfig.WINDOW_TYPE_HOPPING);
+
+        this.pipe(100, 100000);
+        this.pipe(200, 102000);
+        // closes the windows
+        this.pipe(300, 200000);
+
+        Map<Long, TelemetryStats> stats = this.readStats();
+        assertEquals(2, stats.size());
+        for (long windowStart : new long[] { 95000, 100000 }) {
+            this.assertStats(stats.get(windowStart), windowStart + WINDOW_SIZE_MS, 2, 100, 200);
+        }
+    }
+
+    @Test
+    public void testSlidingWindows() {
+        this.start(F1StreamsAppConfig.WINDOW_TYPE_SLIDING);
+
+        this.pipe(100, 100000);
+        this.pipe(300, 105000);
+        // out of order, it's in existing windows and creates new ones from them
+        this.pipe(200, 102000);
+        // closes the windows
+        this.pipe(300, 200000);
+
+        Map<Long, TelemetryStats> stats = this.readStats();
+        assertEquals(5, stats.size());
+        this.assertStats(stats.get(90000L), 100000, 1, 100, 100);
+        this.assertStats(stats.get(92000L), 102000, 2, 100, 200);
+        this.assertStats(stats.get(95000L), 105000, 3, 100, 300);
+        this.assertStats(stats.get(100001L), 110001, 2, 200, 300);
+        // the right window of the out of order record, without the record itself
+        this.assertStats(stats.get(102001L), 112001, 1, 300, 300);
+    }
+
+    private void start(String windowType) {
+        F1StreamsAppConfig config = new F1StreamsAppConfig("dummy:9092", INPUT_TOPIC, OUTPUT_TOPIC, 9404,
+                windowType, WINDOW_SIZE_MS, WINDOW_ADVANCE_MS, GRACE_MS);
+
+        Properties props = new Properties();
+        props.setProperty(StreamsConfig.APPLICATION_ID_CONFIG, "f1-streams-stats-test");
+        props.setProperty(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092");
+        props.setProperty(StreamsConfig.CACHE_MAX_BYTES_BUFFERING_CONFIG, "0");
+        this.driver = new TopologyTestDriver(F1StreamsApp.createTopology(config), props);
+        this.input = this.driver.createInputTopic(INPUT_TOPIC, Serdes.String().serializer(), new DriverSerializer());
+        this.output = this.driver.createOutputTopic(OUTPUT_TOPIC, Serdes.String().deserializer(), new TelemetryStatsDeserializer());
+    }
+
+    private void pipe(int speed, long timestamp) {
+        this.input.pipeInput(DRIVER, DriverFixtures.driver(7, speed, 11000, 1.0f, 0.0f), Instant.ofEpochMilli(timestamp));
+    }
+
+    /**
+     * @return the statistics of the closed windows, by window start
+     */
+    private Map<Long, TelemetryStats> readStats() {
+        Map<Long, TelemetryStats> stats = new HashMap<>();
+        for (KeyValue<String, TelemetryStats> keyValue : this.output.readKeyValuesToList()) {
+            assertEquals(DRIVER, keyValue.key);
+            stats.put(keyValue.value.getWindowStart(), keyValue.value);
+        }
+        return stats;
+    }
+
+    private void assertStats(TelemetryStats stats, long windowEnd, long count, double minSpeed, double maxSpeed) {
+        assertEquals(windowEnd, stats.getWindowEnd());
+        assertEquals(count, stats.getSpeed().getCount());
+        assertEquals(minSpeed, stats.getSpeed().getMin(), 0);
+        assertEquals(maxSpeed, stats.getSpeed().getMax(), 0);
+    }
+}
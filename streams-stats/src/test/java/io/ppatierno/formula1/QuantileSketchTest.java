@@ -0,0 +1,183 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class QuantileSketchTest {
+
+    private static final double RELATIVE_ACCURACY = TelemetrySketches.RELATIVE_ACCURACY;
+    private static final double[] QUANTILES = { 0, 0.1, 0.25, 0.5, 0.75, 0.9, 0.95, 0.99, 1 };
+
+    @Test
+    public void testUniform() {
+        double[] values = new double[10000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i + 1;
+        }
+        this.assertQuantiles(values);
+    }
+
+    @Test
+    public void testExponential() {
+        Random random = new Random(44);
+        double[] values = new double[10000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1 - 100 * Math.log(1 - random.nextDouble());
+        }
+        this.assertQuantiles(values);
+    }
+
+    @Test
+    public void testStats() {
+        QuantileSketch sketch = new QuantileSketch(1, 512, RELATIVE_ACCURACY);
+        for (double value : new double[] { 2, 4, 4, 4, 5, 5, 7, 9 }) {
+            sketch.add(value);
+        }
+
+        assertEquals(8, sketch.getCount());
+        assertEquals(2, sketch.getMin(), 0);
+        assertEquals(9, sketch.getMax(), 0);
+        assertEquals(5, sketch.getMean(), 1e-9);
+        assertEquals(Math.sqrt(32.0 / 7), sketch.getStddev(), 1e-9);
+    }
+
+    @Test
+    public void testEmpty() {
+        QuantileSketch sketch = new QuantileSketch(1, 512, RELATIVE_ACCURACY);
+
+        assertEquals(0, sketch.quantile(0.5), 0);
+        assertEquals(0, sketch.getMin(), 0);
+        assertEquals(0, sketch.getMax(), 0);
+        assertEquals(0, sketch.getStddev(), 0);
+    }
+
+    @Test
+    public void testOutOfRange() {
+        QuantileSketch sketch = new QuantileSketch(1, 512, RELATIVE_ACCURACY);
+        sketch.add(0.5);
+        for (int i = 0; i < 10; i++) {
+            sketch.add(100);
+        }
+        sketch.add(1000);
+        sketch.add(2000);
+
+        // counted in the first and last buckets, so estimated as the bounds of the range
+        assertEquals(1, sketch.quantile(0), RELATIVE_ACCURACY + 1e-9);
+        assertEquals(512, sketch.quantile(1), 512 * RELATIVE_ACCURACY + 1e-9);
+        assertEquals(100, sketch.quantile(0.5), 100 * RELATIVE_ACCURACY);
+        // while min and max are exact
+        assertEquals(0.5, sketch.getMin(), 0);
+        assertEquals(2000, sketch.getMax(), 0);
+    }
+
+    @Test
+    public void testOutOfRangeClampedToMinMax() {
+        QuantileSketch below = new QuantileSketch(1, 512, RELATIVE_ACCURACY);
+        below.add(0.5);
+        QuantileSketch above = new QuantileSketch(1, 512, RELATIVE_ACCURACY);
+        above.add(600);
+        above.add(700);
+
+        // not greater than the max, or less than the min, actually added
+        assertEquals(0.5, below.quantile(0.5), 0);
+        assertEquals(600, above.quantile(0), 0);
+        assertEquals(600, above.quantile(1), 0);
+    }
+
+    @Test
+    public void testZeroBucket() {
+        QuantileSketch sketch = new QuantileSketch(0.001, 1, RELATIVE_ACCURACY);
+        // i.e. throttle released
+        sketch.add(0);
+        sketch.add(0);
+        sketch.add(-0.1);
+        sketch.add(0);
+        sketch.add(0.5);
+        sketch.add(1);
+
+        // the negative values are counted as zeros
+        assertEquals(0, sketch.quantile(0), 0);
+        assertEquals(0, sketch.quantile(0.5), 0);
+        assertEquals(0.5, sketch.quantile(0.8), 0.5 * RELATIVE_ACCURACY + 1e-9);
+        assertEquals(1, sketch.quantile(1), RELATIVE_ACCURACY + 1e-9);
+        assertEquals(-0.1, sketch.getMin(), 0);
+    }
+
+    @Test
+    public void testWriteAndRead() {
+        QuantileSketch sketch = new QuantileSketch(1, 512, RELATIVE_ACCURACY);
+        Random random = new Random(44);
+        sketch.add(0);
+        for (int i = 0; i < 1000; i++) {
+            sketch.add(random.nextInt(350));
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(sketch.sizeInBytes());
+        sketch.writeTo(buffer);
+        assertEquals(0, buffer.remaining());
+        buffer.flip();
+        QuantileSketch read = new QuantileSketch(1, 512, RELATIVE_ACCURACY);
+        read.readFrom(buffer);
+
+        assertEquals(0, buffer.remaining());
+        assertEquals(sketch.getCount(), read.getCount());
+        assertEquals(sketch.getMin(), read.getMin(), 0);
+        assertEquals(sketch.getMax(), read.getMax(), 0);
+        assertEquals(sketch.getMean(), read.getMean(), 0);
+        assertEquals(sketch.getStddev(), read.getStddev(), 0);
+        for (double q : QUANTILES) {
+            assertEquals(sketch.quantile(q), read.quantile(q), 0);
+        }
+        // and it keeps counting from where it was
+        sketch.add(200);
+        read.add(200);
+        assertEquals(sketch.getMean(), read.getMean(), 0);
+        assertEquals(sketch.quantile(0.99), read.quantile(0.99), 0);
+    }
+
+    @Test
+    public void testCopy() {
+        QuantileSketch sketch = new QuantileSketch(1, 512, RELATIVE_ACCURACY);
+        for (int i = 1; i <= 100; i++) {
+            sketch.add(i);
+        }
+
+        QuantileSketch copy = new QuantileSketch(sketch);
+        copy.add(500);
+
+        // the copy is updated on its own
+        assertEquals(100, sketch.getCount());
+        assertEquals(100, sketch.getMax(), 0);
+        assertEquals(100, sketch.quantile(1), 100 * RELATIVE_ACCURACY);
+        assertEquals(101, copy.getCount());
+        assertEquals(500, copy.getMax(), 0);
+        assertEquals(500, copy.quantile(1), 500 * RELATIVE_ACCURACY);
+        assertEquals(sketch.quantile(0.5), copy.quantile(0.5), 0);
+    }
+
+    /**
+     * Assert the estimated quantiles of the values are within the relative accuracy of the exact ones
+     */
+    private void assertQuantiles(double[] values) {
+        QuantileSketch sketch = new QuantileSketch(1, 16384, RELATIVE_ACCURACY);
+        for (double value : values) {
+            sketch.add(value);
+        }
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        for (double q : QUANTILES) {
+            double expected = sorted[(int) (q * (sorted.length - 1))];
+            // a bit more for the rounding of the bucket bounds
+            assertEquals("quantile " + q, expected, sketch.quantile(q), expected * RELATIVE_ACCURACY + 1e-9);
+        }
+    }
+}
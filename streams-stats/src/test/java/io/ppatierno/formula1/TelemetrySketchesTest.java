@@ -0,0 +1,90 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class TelemetrySketchesTest {
+
+    private static final double RELATIVE_ACCURACY = TelemetrySketches.RELATIVE_ACCURACY;
+
+    @Test
+    public void testStats() {
+        TelemetrySketches sketches = this.sketches();
+
+        TelemetryStats stats = sketches.toStats(0, 10000);
+
+        assertEquals(0, stats.getWindowStart());
+        assertEquals(10000, stats.getWindowEnd());
+        assertEquals(100, stats.getSpeed().getCount());
+        assertEquals(200, stats.getSpeed().getMin(), 0);
+        assertEquals(299, stats.getSpeed().getMax(), 0);
+        assertEquals(249.5, stats.getSpeed().getMean(), 1e-9);
+        assertEquals(249, stats.getSpeed().getP50(), 249 * RELATIVE_ACCURACY);
+        assertEquals(294, stats.getSpeed().getP95(), 294 * RELATIVE_ACCURACY);
+        assertEquals(10049, stats.getEngineRPM().getP50(), 10049 * RELATIVE_ACCURACY);
+        // full throttle and no brake for most of the window
+        assertEquals(1, stats.getThrottle().getP50(), RELATIVE_ACCURACY);
+        assertEquals(0, stats.getBrake().getP50(), 0);
+        assertEquals(0.8, stats.getBrake().getP99(), 0.8 * RELATIVE_ACCURACY);
+    }
+
+    @Test
+    public void testSerde() {
+        TelemetrySketches sketches = this.sketches();
+        TelemetrySketchesSerializer serializer = new TelemetrySketchesSerializer();
+        TelemetrySketchesDeserializer deserializer = new TelemetrySketchesDeserializer();
+
+        byte[] data = serializer.serialize("topic", sketches);
+        TelemetrySketches deserialized = deserializer.deserialize("topic", data);
+
+        assertEquals(sketches.sizeInBytes(), data.length);
+        TelemetryStats expected = sketches.toStats(0, 10000);
+        TelemetryStats actual = deserialized.toStats(0, 10000);
+        assertStats(expected.getSpeed(), actual.getSpeed());
+        assertStats(expected.getEngineRPM(), actual.getEngineRPM());
+        assertStats(expected.getThrottle(), actual.getThrottle());
+        assertStats(expected.getBrake(), actual.getBrake());
+        assertNull(serializer.serialize("topic", null));
+        assertNull(deserializer.deserialize("topic", null));
+    }
+
+    @Test
+    public void testCopy() {
+        TelemetrySketches sketches = this.sketches();
+
+        TelemetrySketches copy = new TelemetrySketches(sketches);
+        copy.add(DriverFixtures.carTelemetryData(350, 12000, 1, 0));
+
+        assertEquals(100, sketches.toStats(0, 10000).getSpeed().getCount());
+        assertEquals(299, sketches.toStats(0, 10000).getSpeed().getMax(), 0);
+        assertEquals(101, copy.toStats(0, 10000).getSpeed().getCount());
+        assertEquals(350, copy.toStats(0, 10000).getSpeed().getMax(), 0);
+        assertEquals(12000, copy.toStats(0, 10000).getEngineRPM().getMax(), 0);
+    }
+
+    private TelemetrySketches sketches() {
+        TelemetrySketches sketches = new TelemetrySketches();
+        for (int i = 0; i < 100; i++) {
+            boolean braking = i % 10 == 0;
+            sketches.add(DriverFixtures.carTelemetryData(200 + i, 10000 + i, braking ? 0 : 1, braking ? 0.8f : 0));
+        }
+        return sketches;
+    }
+
+    private static void assertStats(TelemetryStats.Stats expected, TelemetryStats.Stats actual) {
+        assertEquals(expected.getCount(), actual.getCount());
+        assertEquals(expected.getMin(), actual.getMin(), 0);
+        assertEquals(expected.getMax(), actual.getMax(), 0);
+        assertEquals(expected.getMean(), actual.getMean(), 0);
+        assertEquals(expected.getStddev(), actual.getStddev(), 0);
+        assertEquals(expected.getP50(), actual.getP50(), 0);
+        assertEquals(expected.getP95(), actual.getP95(), 0);
+        assertEquals(expected.getP99(), actual.getP99(), 0);
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import org.apache.camel.AsyncCallback;
+import org.apache.camel.AsyncProcessor;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Endpoint;
+import org.apache.camel.Exchange;
+import org.apache.camel.Producer;
+import org.apache.camel.component.kafka.KafkaConstants;
+import org.apache.camel.support.AsyncProcessorConverterHelper;
+import org.apache.camel.support.EventHelper;
+import org.apache.camel.support.service.ServiceHelper;
+import org.apache.camel.support.service.ServiceSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Keeps only the latest value not sent yet for each key (i.e. the session and driver id), sending them to Kafka
+ * from its own thread at the pace the producer can go.
+ * The values are sent asynchronously, up to a maximum number in flight (sent and not acknowledged yet).
+ * When the Kafka cluster slows down and the maximum is reached, a new value overwrites the stale one
+ * of the same key instead of queueing, so memory and latency stay bounded and the consumers get the latest state.
+ * The values are already serialized, because the data they come from (i.e. pooled packets) can change in the meantime.
+ */
+public class Conflator extends ServiceSupport {
+
+    private static Logger log = LoggerFactory.getLogger(Conflator.class);
+
+    private final CamelContext camelContext;
+    private final String toUri;
+    private final String name;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+
+    // insertion ordered, an overwritten value keeps the position of the stale one so every key gets its turn
+    private final Map<String, Pending> pending = new LinkedHashMap<>();
+    private long offered;
+    private long conflated;
+    private long sent;
+
+    private Endpoint endpoint;
+    private Producer producer;
+    private AsyncProcessor processor;
+    private Thread thread;
+    private volatile boolean running;
+
+    /**
+     * Constructor
+     *
+     * @param camelContext CamelContext to get the Kafka endpoint from
+     * @param toUri Kafka endpoint URI, with a byte array serializer
+     * @param name name of the conflation stage, used for the thread name
+     * @param maxInFlight maximum number of values sent and not acknowledged yet
+     */
+    public Conflator(CamelContext camelContext, String toUri, String name, int maxInFlight) {
+        this.camelContext = camelContext;
+        this.toUri = toUri;
+        this.name = name;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Offer a value to send, overwriting the one of the same key if not sent yet
+     *
+     * @param key record key
+     * @param sessionId session the value belongs to, it's part of the conflation key as well
+     * @param receivedAt when the packets the value comes from were received, as defined by {@link TelemetryHeaders#RECEIVED_AT}
+     * @param value serialized value
+     */
+    public synchronized void offer(String key, String sessionId, long receivedAt, byte[] value) {
+        this.offered++;
+        Pending stale = this.pending.get(sessionId + "/" + key);
+        if (stale != null) {
+            this.conflated++;
+            stale.receivedAt = receivedAt;
+            stale.value = value;
+            return;
+        }
+        this.pending.put(sessionId + "/" + key, new Pending(key, sessionId, receivedAt, value));
+        this.notifyAll();
+    }
+
+    private synchronized Pending take() throws InterruptedException {
+        while (this.pending.isEmpty()) {
+            this.wait();
+        }
+        Iterator<Pending> iterator = this.pending.values().iterator();
+        Pending next = iterator.next();
+        iterator.remove();
+        return next;
+    }
+
+    private void drain() {
+        while (this.running) {
+            Pending next;
+            try {
+                // the values offered while waiting for a send to be acknowledged are conflated
+                this.inFlight.acquire();
+                next = this.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            Exchange exchange = this.endpoint.createExchange();
+            exchange.getIn().setHeader(KafkaConstants.KEY, next.key);
+            exchange.getIn().setHeader(TelemetryHeaders.SESSION_ID, next.sessionId);
+            exchange.getIn().setHeader(TelemetryHeaders.RECEIVED_AT, next.receivedAt);
+            exchange.getIn().setBody(next.value);
+            long start = System.currentTimeMillis();
+            // called on the producer I/O thread when the send is acknowledged (or failed)
+            AsyncCallback callback = doneSync -> {
+                // as a route sending to the endpoint would do, so the event notifiers (i.e. KafkaSendNotifier) get it
+                EventHelper.notifyExchangeSent(this.camelContext, exchange, this.endpoint, System.currentTimeMillis() - start);
+                if (exchange.getException() != null) {
+                    log.error("Error sending to {}", this.toUri, exchange.getException());
+                }
+                synchronized (this) {
+                    this.sent++;
+                }
+                this.inFlight.release();
+            };
+            try {
+                this.processor.process(exchange, callback);
+            } catch (Throwable e) {
+                exchange.setException(e);
+                callback.done(true);
+            }
+        }
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        this.endpoint = this.camelContext.getEndpoint(this.toUri);
+        this.producer = this.endpoint.createProducer();
+        this.processor = AsyncProcessorConverterHelper.convert(this.producer);
+        ServiceHelper.startService(this.producer);
+        this.running = true;
+        this.thread = new Thread(this::drain, "f1-conflator-" + this.name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        this.running = false;
+        if (this.thread != null) {
+            this.thread.interrupt();
+            this.thread.join();
+        }
+        ServiceHelper.stopService(this.producer);
+    }
+
+    /**
+     * @return number of values offered
+     */
+    public synchronized long getOffered() {
+        return offered;
+    }
+
+    /**
+     * @return number of values overwritten before being sent
+     */
+    public synchronized long getConflated() {
+        return conflated;
+    }
+
+    /**
+     * @return number of values sent, and acknowledged or failed
+     */
+    public synchronized long getSent() {
+        return sent;
+    }
+
+    /**
+     * @return number of values sent and not acknowledged yet
+     */
+    public int getInFlight() {
+        return this.maxInFlight - this.inFlight.availablePermits();
+    }
+
+    /**
+     * @return number of values waiting to be sent, at most one per key
+     */
+    public synchronized int getPending() {
+        return this.pending.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "Conflator[" +
+                "name=" + this.name +
+                ", offered=" + this.offered +
+                ", conflated=" + this.conflated +
+                ", sent=" + this.sent +
+                ", pending=" + this.pending.size() +
+                ", inFlight=" + this.getInFlight() +
+                "]";
+    }
+
+    private static class Pending {
+        private final String key;
+        private final String sessionId;
+        private long receivedAt;
+        private byte[] value;
+
+        Pending(String key, String sessionId, long receivedAt, byte[] value) {
+            this.key = key;
+            this.sessionId = sessionId;
+            this.receivedAt = receivedAt;
+            this.value = value;
+        }
+    }
+}
@@ -5,25 +5,117 @@
 package io.ppatierno.formula1;
 
 import org.apache.camel.builder.RouteBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * Route getting raw packets from UDP decoding them as Packet instances and multicasting
- * them to multiple destinations for different processing.
+ * Route getting raw packets from UDP decoding them as Packet instances and dispatching
+ * them to multiple destinations for different processing, together with the session id as exchange property.
+ * The dispatching can be done through a Camel multicast, running the destinations in parallel on a thread pool,
+ * or through a {@link PacketDispatcher}, running the destinations in order on a single thread via a ring buffer.
+ * With more UDP readers configured, the packets are read and decoded by the {@link UdpReaders} channels
+ * and get into the route through a direct endpoint.
+ * The ReceivedPacket is released when all the destinations are done, so it can be recycled if pooled.
  */
 public class DispatchRouteBuilder extends RouteBuilder {
 
-    private final F1UdpKafkaAppConfig config;
+    private static Logger log = LoggerFactory.getLogger(DispatchRouteBuilder.class);
 
-    public DispatchRouteBuilder(F1UdpKafkaAppConfig config) {
-        this.config = config;
+    public static final String MULTICAST_MODE = "multicast";
+    public static final String DISRUPTOR_MODE = "disruptor";
+    public static final String UDP_READERS_URI = "direct:udp-readers";
+
+    private static final String[] STAGES = { "direct:raw-packets", "direct:events", "direct:drivers" };
+
+    private final String fromUri;
+    private final String mode;
+    private final int ringSize;
+    private final String waitStrategy;
+    private final PacketPool packetPool;
+    private final long packetPoolStatsPeriodMs;
+
+    /**
+     * Constructor
+     *
+     * @param config application configuration
+     * @param packetPool pool the decoder gets the packets from, null if the packets are not pooled
+     */
+    public DispatchRouteBuilder(F1UdpKafkaAppConfig config, PacketPool packetPool) {
+        this(config.getUdpReaders() > 1 ? UDP_READERS_URI : "netty:udp://0.0.0.0:" + config.getUdpPort() + "?decoders=#packet-decoder&sync=false",
+                config.getF1DispatchMode(), config.getF1DispatchRingSize(), config.getF1DispatchWaitStrategy(),
+                packetPool, config.getF1PacketPoolStatsPeriodMs());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param fromUri endpoint URI providing the ReceivedPacket instances (as body)
+     * @param mode dispatching mode, multicast or disruptor
+     * @param ringSize number of slots in the ring buffer, used with the disruptor mode only
+     * @param waitStrategy how the dispatcher waits for packets, used with the disruptor mode only
+     */
+    public DispatchRouteBuilder(String fromUri, String mode, int ringSize, String waitStrategy) {
+        this(fromUri, mode, ringSize, waitStrategy, null, 0);
+    }
+
+    private DispatchRouteBuilder(String fromUri, String mode, int ringSize, String waitStrategy,
+                                 PacketPool packetPool, long packetPoolStatsPeriodMs) {
+        this.fromUri = fromUri;
+        this.mode = mode;
+        this.ringSize = ringSize;
+        this.waitStrategy = waitStrategy;
+        this.packetPool = packetPool;
+        this.packetPoolStatsPeriodMs = packetPoolStatsPeriodMs;
     }
 
     @Override
     public void configure() throws Exception {
-        from("netty:udp://0.0.0.0:" + this.config.getUdpPort() + "?decoders=#packet-decoder&sync=false")
-                .multicast()
-                .parallelProcessing()
-                .to("direct:raw-packets", "direct:events", "direct:drivers")
-                .routeId("udp-multicast-dispatcher");
+        switch (this.mode) {
+            case MULTICAST_MODE:
+                from(this.fromUri)
+                        .process(exchange -> {
+                            ReceivedPacket receivedPacket = (ReceivedPacket) exchange.getIn().getBody();
+                            exchange.setProperty(TelemetryHeaders.SESSION_ID, receivedPacket.getSessionId());
+                            exchange.setProperty(TelemetryHeaders.RECEIVED_AT, receivedPacket.getReceivedAt());
+                            exchange.setProperty(ReceivedPacket.EXCHANGE_PROPERTY, receivedPacket);
+                            exchange.getIn().setBody(receivedPacket.getPacket());
+                        })
+                        .doTry()
+                            .multicast()
+                            .parallelProcessing()
+                            .to(STAGES)
+                            .end()
+                        .doFinally()
+                            // the destinations are done, even with errors, the ones still needing the packet took their own reference
+                            .process(exchange -> exchange.getProperty(ReceivedPacket.EXCHANGE_PROPERTY, ReceivedPacket.class).release())
+                        .end()
+                        .routeId("udp-multicast-dispatcher");
+                break;
+            case DISRUPTOR_MODE:
+                PacketDispatcher dispatcher = new PacketDispatcher(getContext(), this.ringSize, this.waitStrategy, STAGES);
+                // started with the CamelContext, before the routes, and stopped with it
+                getContext().addService(dispatcher);
+                from(this.fromUri)
+                        .process(exchange -> dispatcher.dispatch((ReceivedPacket) exchange.getIn().getBody()))
+                        .routeId("udp-disruptor-dispatcher");
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown dispatch mode " + this.mode);
+        }
+
+        if (this.packetPool != null && this.packetPoolStatsPeriodMs > 0) {
+            long[] last = new long[2];
+            from("timer:packet-pool-stats?period=" + this.packetPoolStatsPeriodMs)
+                    .process(exchange -> {
+                        long allocated = this.packetPool.getAllocated();
+                        long reused = this.packetPool.getReused();
+                        double seconds = this.packetPoolStatsPeriodMs / 1000.0;
+                        log.info("Packets allocated/s = {}, reused/s = {}, {}",
+                                (allocated - last[0]) / seconds, (reused - last[1]) / seconds, this.packetPool);
+                        last[0] = allocated;
+                        last[1] = reused;
+                    })
+                    .routeId("packet-pool-stats");
+        }
     }
 }
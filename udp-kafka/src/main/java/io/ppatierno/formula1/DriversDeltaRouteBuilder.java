@@ -0,0 +1,65 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import org.apache.camel.LoggingLevel;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.kafka.KafkaConstants;
+
+/**
+ * Route getting Driver instances (as body) from the "drivers" route and sending them to Kafka
+ * delta encoded, as a keyframe every N frames and changed sections only in between.
+ * The encoding of a session starts again from keyframes when drivers join or leave it, and it's dropped
+ * when the session is evicted.
+ */
+public class DriversDeltaRouteBuilder extends RouteBuilder {
+
+    private final F1UdpKafkaAppConfig config;
+    private final DriverDeltaEncoder encoder;
+    private KafkaEndpoint kafkaEndpoint;
+
+    public DriversDeltaRouteBuilder(F1UdpKafkaAppConfig config, SessionRegistry sessionRegistry) {
+        this.config = config;
+        this.encoder = new DriverDeltaEncoder(this.config.getF1DriversKeyframeInterval());
+        sessionRegistry.addSessionListener(new SessionRegistry.SessionListener() {
+            @Override
+            public void onParticipantsChanged(String sessionId) {
+                encoder.resetSession(sessionId);
+            }
+
+            @Override
+            public void onEvicted(String sessionId) {
+                encoder.resetSession(sessionId);
+            }
+        });
+        this.kafkaEndpoint = new KafkaEndpoint.KafkaEndpointBuilder()
+                .withBootstrapServers(this.config.getKafkaBootstrapServers())
+                .withTopic(this.config.getF1DriversDeltaTopic())
+                .withClientId("drivers-delta")
+                .withValueSerializer("org.apache.kafka.common.serialization.ByteArraySerializer")
+                // a delta depends on the previous record, so a retried batch must not be reordered with the next ones
+                .withProducerProfile(this.config.getF1DriversProducerProfile().withMaxInFlightRequests(1))
+                .withTruststoreLocation(this.config.getKafkaTruststoreLocation())
+                .withTruststorePassword(this.config.getKafkaTruststorePassword())
+                .build();
+        log.info("KafkaEndpoint = {}", this.kafkaEndpoint);
+    }
+
+    @Override
+    public void configure() throws Exception {
+        // get Driver instances (as body) with the driver id as key and the session id header, already set by the "drivers" route
+        from("direct:drivers-delta")
+                .process(exchange -> {
+                    Driver driver = (Driver) exchange.getIn().getBody();
+                    String key = exchange.getIn().getHeader(KafkaConstants.KEY, String.class);
+                    String sessionId = exchange.getIn().getHeader(TelemetryHeaders.SESSION_ID, String.class);
+                    // the same driver can be in more sessions
+                    exchange.getIn().setBody(this.encoder.encode(DriverDeltaEncoder.key(sessionId, key), driver));
+                })
+                .to(this.kafkaEndpoint.toString())
+                .routeId("udp-kafka-drivers-delta")
+                .log(LoggingLevel.DEBUG, "DriverDelta[key = ${header." + KafkaConstants.KEY + "}]");
+    }
+}
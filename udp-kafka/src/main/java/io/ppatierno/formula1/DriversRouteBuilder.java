@@ -5,83 +5,180 @@
 package io.ppatierno.formula1;
 
 import io.ppatierno.formula1.packets.Packet;
-import org.apache.camel.Exchange;
-import org.apache.camel.Expression;
 import org.apache.camel.LoggingLevel;
+import org.apache.camel.ProducerTemplate;
 import org.apache.camel.builder.RouteBuilder;
 import org.apache.camel.component.kafka.KafkaConstants;
+import org.apache.camel.model.ProcessorDefinition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Route getting raw Packet instances (as body) from the "udp-multicast-dispatcher" route thanks to multicast.
- * It aggregates the packets with the same frameId (as correlation key) and uses them to update drivers data to send to Kafka.
+ * It assembles the packets with the same frameId, within each session, through a {@link FrameAssembler}
+ * and uses them to update drivers data to send to Kafka, with the session id as header.
+ * The drivers are sent as one record per driver or, with the frame records enabled, as one {@link DriversFrame}
+ * record per frame, keyed by the session id.
+ * With the conflation enabled, the records are sent through a {@link Conflator} so that, when Kafka slows down,
+ * only the latest record not sent yet for each driver (or session, with the frame records) is kept.
  */
 public class DriversRouteBuilder extends RouteBuilder {
 
     private static Logger log = LoggerFactory.getLogger(DriversRouteBuilder.class);
 
-    private static int AGGREGATION_COMPLETION_TIMEOUT = 10000;
+    private static final long CONFLATION_STATS_PERIOD_MS = 60000;
 
     private final F1UdpKafkaAppConfig config;
+    private final SessionRegistry sessionRegistry;
     private KafkaEndpoint kafkaEndpoint;
+    private KafkaEndpoint frameKafkaEndpoint;
+    private Conflator conflator;
 
-    public DriversRouteBuilder(F1UdpKafkaAppConfig config) {
+    public DriversRouteBuilder(F1UdpKafkaAppConfig config, SessionRegistry sessionRegistry) {
         this.config = config;
+        this.sessionRegistry = sessionRegistry;
         this.kafkaEndpoint = new KafkaEndpoint.KafkaEndpointBuilder()
                 .withBootstrapServers(this.config.getKafkaBootstrapServers())
                 .withTopic(this.config.getF1DriversTopic())
                 .withClientId("drivers")
-                .withValueSerializer("io.ppatierno.formula1.DriverSerializer")
+                // the conflator holds the records already serialized
+                .withValueSerializer(this.config.getF1DriversConflation() ?
+                        "org.apache.kafka.common.serialization.ByteArraySerializer" : "io.ppatierno.formula1.DriverSerializer")
+                // the KafkaProducer copies the serialized bytes into the batch within the send, so they can be reused
+                .withAdditionalProperty(DriverSerializer.REUSE_BUFFER_CONFIG, "true")
+                .withProducerProfile(this.config.getF1DriversProducerProfile())
                 .withTruststoreLocation(this.config.getKafkaTruststoreLocation())
                 .withTruststorePassword(this.config.getKafkaTruststorePassword())
                 .build();
         log.info("KafkaEndpoint = {}", this.kafkaEndpoint);
+        if (this.config.getF1DriversFrameRecords()) {
+            this.frameKafkaEndpoint = new KafkaEndpoint.KafkaEndpointBuilder()
+                    .withBootstrapServers(this.config.getKafkaBootstrapServers())
+                    .withTopic(this.config.getF1DriversFrameTopic())
+                    .withClientId("drivers-frame")
+                    .withValueSerializer(this.config.getF1DriversConflation() ?
+                            "org.apache.kafka.common.serialization.ByteArraySerializer" : "io.ppatierno.formula1.DriversFrameSerializer")
+                    .withProducerProfile(this.config.getF1DriversProducerProfile())
+                    .withTruststoreLocation(this.config.getKafkaTruststoreLocation())
+                    .withTruststorePassword(this.config.getKafkaTruststorePassword())
+                    .build();
+            log.info("KafkaEndpoint = {}", this.frameKafkaEndpoint);
+        }
     }
 
     @Override
     public void configure() throws Exception {
+        ProducerTemplate producerTemplate = getContext().createProducerTemplate();
+        DriversSplitter driversSplitter = getContext().getRegistry().lookupByNameAndType("drivers-splitter", DriversSplitter.class);
+        // going to group all packets by frameId, within each session, so that we can update the drivers info
+        // (lap, motion, ...) in one step and sending driver messages with all data
+        this.sessionRegistry.setFrameListener((sessionId, frame, receivedAt) ->
+                producerTemplate.send("direct:drivers-frame", exchange -> {
+                    exchange.getIn().setBody(frame);
+                    exchange.setProperty(TelemetryHeaders.SESSION_ID, sessionId);
+                    exchange.setProperty(TelemetryHeaders.RECEIVED_AT, receivedAt);
+                }));
+
+        if (this.config.getF1DriversConflation()) {
+            this.conflator = new Conflator(getContext(), this.config.getF1DriversFrameRecords() ?
+                    this.frameKafkaEndpoint.toString() : this.kafkaEndpoint.toString(), "drivers",
+                    this.config.getF1DriversConflationMaxInFlight());
+            getContext().addService(this.conflator);
+
+            from("timer:drivers-conflation-stats?period=" + CONFLATION_STATS_PERIOD_MS)
+                    .process(exchange -> log.info("{}", this.conflator));
+        }
+
         // get raw Packet instances (as body) from the "udp-multicast-dispatcher" route thanks to multicast
         from("direct:drivers")
-                // going to group all packets by frameId (it's the correlation key) so that
-                // we can update the drivers info (lap, motion, ...) in one step and sending
-                // driver messages with all data
-                .aggregate(new Expression() {
-                    @Override
-                    public <T> T evaluate(Exchange exchange, Class<T> type) {
-                        Packet packet = (Packet) exchange.getIn().getBody();
-                        T frameId = exchange.getContext().getTypeConverter().convertTo(type, packet.getHeader().getFrameIdentifier());
-                        log.debug("Packet FrameId = {}", frameId);
-                        return frameId;
-                    }
-                }, (oldExchange, newExchange) -> {
-                    // a new group is started
-                    if (oldExchange == null) {
-                        List<Packet> list = new ArrayList<>();
-                        // grouping packets within same frame (same frameId) as a list
-                        list.add((Packet) newExchange.getIn().getBody());
-                        newExchange.getIn().setBody(list);
-                        return newExchange;
-                    } else {
-                        List<Packet> list = (List<Packet>) oldExchange.getIn().getBody();
-                        // adding new packet as part of the same frame to the current list
-                        list.add((Packet) newExchange.getIn().getBody());
-                        oldExchange.getIn().setBody(list);
+                .process(exchange -> {
+                    SessionRegistry.SessionContext context = this.sessionRegistry.getOrCreate(exchange.getProperty(TelemetryHeaders.SESSION_ID, String.class));
+                    if (context != null) {
+                        // the ReceivedPacket (instead of the Packet body) so that the assembler can retain it
+                        context.getFrameAssembler().add(exchange.getProperty(ReceivedPacket.EXCHANGE_PROPERTY, ReceivedPacket.class));
                     }
-                    return oldExchange;
+                });
+
+        // provide the frames in progress when their deadline expires, even if no more packets arrive,
+        // and evict the sessions not receiving packets anymore
+        from("timer:drivers-frame-deadline?period=" + Math.max(1, this.config.getF1FrameDeadlineMs() / 2))
+                .process(exchange -> {
+                    this.sessionRegistry.expireFrames();
+                    this.sessionRegistry.evictIdle();
+                });
+
+        if (this.config.getF1DriversFrameRecords()) {
+            DriversFrameSerializer driversFrameSerializer = new DriversFrameSerializer();
+            // get the packets within the same frame (as body), and the session id, from the frame assembler
+            ProcessorDefinition<?> driversFrame = from("direct:drivers-frame")
+                    .process(exchange -> {
+                        List<Packet> frame = (List<Packet>) exchange.getIn().getBody();
+                        String sessionId = exchange.getProperty(TelemetryHeaders.SESSION_ID, String.class);
+                        List<Driver> drivers = driversSplitter.splitDrivers(sessionId, frame);
+                        // no drivers until the participants are received
+                        exchange.getIn().setBody(drivers.isEmpty() ? null : new DriversFrame(frame.get(0).getHeader().getFrameIdentifier(), drivers));
+                        exchange.getIn().setHeader(KafkaConstants.KEY, sessionId);
+                        exchange.getIn().setHeader(TelemetryHeaders.SESSION_ID, sessionId);
+                        exchange.getIn().setHeader(TelemetryHeaders.RECEIVED_AT, exchange.getProperty(TelemetryHeaders.RECEIVED_AT));
+                    })
+                    .filter(body().isNotNull());
+            if (this.conflator != null) {
+                driversFrame = driversFrame.process(exchange -> {
+                    DriversFrame frame = exchange.getIn().getBody(DriversFrame.class);
+                    String sessionId = exchange.getIn().getHeader(TelemetryHeaders.SESSION_ID, String.class);
+                    this.conflator.offer(sessionId, sessionId, exchange.getIn().getHeader(TelemetryHeaders.RECEIVED_AT, Long.class),
+                            driversFrameSerializer.serialize(null, frame));
+                });
+            } else {
+                driversFrame = driversFrame.to(this.frameKafkaEndpoint.toString());
+            }
+            driversFrame = driversFrame.log(LoggingLevel.DEBUG, "DriversFrame[frameIdentifier = ${body.frameIdentifier}]");
+            if (this.config.getF1DriversKeyframeInterval() > 0) {
+                // each Driver (as body) of the frame, keyed by the driver id, delta encoded on its own topic
+                driversFrame.split(simple("${body.drivers}"))
+                        .process(exchange -> {
+                            Driver driver = (Driver) exchange.getIn().getBody();
+                            exchange.getIn().setHeader(KafkaConstants.KEY, driver.getParticipantData().getDriverId().name());
+                        })
+                        .to("direct:drivers-delta")
+                        .end();
+            }
+            return;
+        }
+
+        // not reusing the buffer, the conflator holds the serialized records until sent
+        DriverSerializer driverSerializer = new DriverSerializer();
+        // get the packets within the same frame (as body), and the session id, from the frame assembler
+        ProcessorDefinition<?> drivers = from("direct:drivers-frame")
+                .process(exchange -> {
+                    List<Packet> frame = (List<Packet>) exchange.getIn().getBody();
+                    exchange.getIn().setBody(driversSplitter.splitDrivers(exchange.getProperty(TelemetryHeaders.SESSION_ID, String.class), frame));
                 })
-                .completionOnNewCorrelationGroup()
-                .completionTimeout(AGGREGATION_COMPLETION_TIMEOUT)
-                .split().method("drivers-splitter", "splitDrivers")
+                .split(body())
                 .process(exchange -> {
                     Driver driver = (Driver) exchange.getIn().getBody();
                     exchange.getIn().setHeader(KafkaConstants.KEY, driver.getParticipantData().getDriverId().name());
-                })
-                .to(this.kafkaEndpoint.toString())
-                .log(LoggingLevel.TRACE, "${body}")
+                    exchange.getIn().setHeader(TelemetryHeaders.SESSION_ID, exchange.getProperty(TelemetryHeaders.SESSION_ID, String.class));
+                    exchange.getIn().setHeader(TelemetryHeaders.RECEIVED_AT, exchange.getProperty(TelemetryHeaders.RECEIVED_AT));
+                });
+        if (this.conflator != null) {
+            drivers = drivers.process(exchange -> {
+                // the delta encoding (if enabled) still gets every update, it can't miss any of them
+                this.conflator.offer(exchange.getIn().getHeader(KafkaConstants.KEY, String.class),
+                        exchange.getIn().getHeader(TelemetryHeaders.SESSION_ID, String.class),
+                        exchange.getIn().getHeader(TelemetryHeaders.RECEIVED_AT, Long.class),
+                        driverSerializer.serialize(null, exchange.getIn().getBody(Driver.class)));
+            });
+        } else {
+            drivers = drivers.to(this.kafkaEndpoint.toString());
+        }
+        if (this.config.getF1DriversKeyframeInterval() > 0) {
+            // same Driver (as body), key and session id, delta encoded on its own topic
+            drivers = drivers.to("direct:drivers-delta");
+        }
+        drivers.log(LoggingLevel.TRACE, "${body}")
                 .log(LoggingLevel.DEBUG, "Driver[id = ${body.participantData.driverId}, hashtag = ${body.hashtag}]");
     }
 }
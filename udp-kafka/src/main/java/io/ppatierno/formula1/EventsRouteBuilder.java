@@ -19,17 +19,18 @@ import org.apache.camel.component.kafka.KafkaConstants;
 public class EventsRouteBuilder extends RouteBuilder  {
 
     private final F1UdpKafkaAppConfig config;
-    private final Session session;
+    private final SessionRegistry sessionRegistry;
     private KafkaEndpoint kafkaEndpoint;
 
-    public EventsRouteBuilder(F1UdpKafkaAppConfig config, Session session) {
+    public EventsRouteBuilder(F1UdpKafkaAppConfig config, SessionRegistry sessionRegistry) {
         this.config = config;
-        this.session = session;
+        this.sessionRegistry = sessionRegistry;
         this.kafkaEndpoint = new KafkaEndpoint.KafkaEndpointBuilder()
                 .withBootstrapServers(this.config.getKafkaBootstrapServers())
                 .withTopic(this.config.getF1EventsTopic())
                 .withClientId("events")
                 .withValueSerializer("io.ppatierno.formula1.EventSerializer")
+                .withProducerProfile(this.config.getF1EventsProducerProfile())
                 .withTruststoreLocation(this.config.getKafkaTruststoreLocation())
                 .withTruststorePassword(this.config.getKafkaTruststorePassword())
                 .build();
@@ -46,17 +47,27 @@ public class EventsRouteBuilder extends RouteBuilder  {
         })
         .process(exchange -> {
             PacketEventData packetEventData = (PacketEventData) exchange.getIn().getBody();
-            this.session.updateEventData(packetEventData);
+            String sessionId = exchange.getProperty(TelemetryHeaders.SESSION_ID, String.class);
+            SessionRegistry.SessionContext context = this.sessionRegistry.getOrCreate(sessionId);
+            if (context == null) {
+                // maximum number of sessions reached, nothing to send
+                exchange.getIn().setBody(null);
+                return;
+            }
+            context.getSession().updateEventData(packetEventData);
             exchange.getIn().setHeader(KafkaConstants.KEY, packetEventData.getEventCode().name());
-            exchange.getIn().setBody(this.buildEvent(packetEventData));
+            exchange.getIn().setHeader(TelemetryHeaders.SESSION_ID, sessionId);
+            exchange.getIn().setHeader(TelemetryHeaders.RECEIVED_AT, exchange.getProperty(TelemetryHeaders.RECEIVED_AT));
+            exchange.getIn().setBody(this.buildEvent(context.getSession(), packetEventData));
         })
+        .filter(body().isNotNull())
         .to(this.kafkaEndpoint.toString())
         .routeId("udp-kafka-events")
         .log(LoggingLevel.TRACE, "${body}")
         .log(LoggingLevel.DEBUG, "Event[id = ${body?.participantData.driverId}, code = ${body.eventData.eventCode}]");
     }
 
-    private Event buildEvent(PacketEventData packetEventData) {
+    private Event buildEvent(Session session, PacketEventData packetEventData) {
         ParticipantData participantData = null;
         switch (packetEventData.getEventCode()) {
             case SESSION_STARTED:
@@ -67,27 +78,27 @@ public class EventsRouteBuilder extends RouteBuilder  {
                 break;
             case FASTEST_LAP:
                 FastestLap fastestLap = packetEventData.getEventDataDetails().getFastestLap();
-                participantData = this.session.getDrivers().get(fastestLap.getVehicleIdx()).getParticipantData();
+                participantData = session.getParticipantData(fastestLap.getVehicleIdx());
                 break;
             case RETIREMENT:
                 Retirement retirement = packetEventData.getEventDataDetails().getRetirement();
-                participantData = this.session.getDrivers().get(retirement.getVehicleIdx()).getParticipantData();
+                participantData = session.getParticipantData(retirement.getVehicleIdx());
                 break;
             case TEAM_MATE_IN_PITS:
                 TeamMateInPits teamMateInPits = packetEventData.getEventDataDetails().getTeamMateInPits();
-                participantData = this.session.getDrivers().get(teamMateInPits.getVehicleIdx()).getParticipantData();
+                participantData = session.getParticipantData(teamMateInPits.getVehicleIdx());
                 break;
             case RACE_WINNER:
                 RaceWinner raceWinner = packetEventData.getEventDataDetails().getRaceWinner();
-                participantData = this.session.getDrivers().get(raceWinner.getVehicleIdx()).getParticipantData();
+                participantData = session.getParticipantData(raceWinner.getVehicleIdx());
                 break;
             case PENALTY_ISSUED:
                 Penalty penalty = packetEventData.getEventDataDetails().getPenalty();
-                participantData = this.session.getDrivers().get(penalty.getVehicleIdx()).getParticipantData();
+                participantData = session.getParticipantData(penalty.getVehicleIdx());
                 break;
             case SPEED_TRAP_TRIGGERED:
                 SpeedTrap speedTrap = packetEventData.getEventDataDetails().getSpeedTrap();
-                participantData = this.session.getDrivers().get(speedTrap.getVehicleIdx()).getParticipantData();
+                participantData = session.getParticipantData(speedTrap.getVehicleIdx());
                 break;
         }
         return new Event(participantData, packetEventData);
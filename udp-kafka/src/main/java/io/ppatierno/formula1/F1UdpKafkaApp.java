@@ -5,6 +5,7 @@
 package io.ppatierno.formula1;
 
 import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
 
 import org.apache.camel.CamelContext;
 import org.apache.camel.impl.DefaultCamelContext;
@@ -17,18 +18,33 @@ public class F1UdpKafkaApp {
 
     public static void main(String[] args) throws Exception {
         F1UdpKafkaAppConfig config = F1UdpKafkaAppConfig.fromEnv();
-        Session session = new Session();
+        MetricsServer metricsServer = new MetricsServer(config.getMetricsPort());
+        TelemetryMetrics metrics = new TelemetryMetrics(metricsServer.getRegistry());
+        SessionRegistry sessionRegistry = new SessionRegistry(config, metrics);
         CamelContext camelContext = new DefaultCamelContext();
+        camelContext.getManagementStrategy().addEventNotifier(new KafkaSendNotifier(metrics));
 
         log.info("Config: {}", config);
 
-        camelContext.getRegistry().bind("packet-decoder", new PacketEventDecoder());
-        camelContext.getRegistry().bind("drivers-splitter", new DriversSplitter(session));
+        PacketPool packetPool = config.getF1PacketPoolTypes().isBlank() ? null :
+                new PacketPool(FrameAssembler.parsePacketIds(config.getF1PacketPoolTypes()), config.getF1PacketPoolSize());
 
-        camelContext.addRoutes(new DispatchRouteBuilder(config));
+        Supplier<PacketEventDecoder> decoderFactory = () -> new PacketEventDecoder(packetPool, config.getF1RawPacketsPassthrough(), metrics);
+
+        camelContext.getRegistry().bind("packet-decoder", decoderFactory.get());
+        camelContext.getRegistry().bind("drivers-splitter", new DriversSplitter(sessionRegistry));
+
+        camelContext.addRoutes(new DispatchRouteBuilder(config, packetPool));
         camelContext.addRoutes(new RawPacketsRouteBuilder(config));
-        camelContext.addRoutes(new EventsRouteBuilder(config, session));
-        camelContext.addRoutes(new DriversRouteBuilder(config));
+        camelContext.addRoutes(new EventsRouteBuilder(config, sessionRegistry));
+        camelContext.addRoutes(new DriversRouteBuilder(config, sessionRegistry));
+        if (config.getF1DriversKeyframeInterval() > 0) {
+            camelContext.addRoutes(new DriversDeltaRouteBuilder(config, sessionRegistry));
+        }
+
+        // the readers are started after the CamelContext, when the dispatcher route is consuming
+        UdpReaders udpReaders = config.getUdpReaders() > 1 ?
+                new UdpReaders(camelContext, config.getUdpPort(), config.getUdpReaders(), DispatchRouteBuilder.UDP_READERS_URI, decoderFactory) : null;
 
         CountDownLatch latch = new CountDownLatch(1);
 
@@ -36,6 +52,10 @@ public class F1UdpKafkaApp {
             @Override
             public void run() {
                 try {
+                    if (udpReaders != null) {
+                        udpReaders.stop();
+                    }
+                    metricsServer.stop();
                     camelContext.close();
                 } catch (Exception e) {
                     log.error("Error closing CamelContext", e);
@@ -47,6 +67,10 @@ public class F1UdpKafkaApp {
 
         try {
             camelContext.start();
+            if (udpReaders != null) {
+                udpReaders.start();
+            }
+            metricsServer.start();
             latch.await();
         } catch (Throwable e) {
             log.error("Error starting CamelContext", e);
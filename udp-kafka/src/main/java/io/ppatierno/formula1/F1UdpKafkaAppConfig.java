@@ -12,24 +12,132 @@ public class F1UdpKafkaAppConfig extends KafkaBaseConfig {
     private static final String F1_DRIVERS_TOPIC_ENV = "F1_DRIVERS_TOPIC";
     private static final String F1_EVENTS_TOPIC_ENV = "F1_EVENTS_TOPIC";
     private static final String F1_RAW_PACKETS_TOPIC_ENV = "F1_RAW_PACKETS_TOPIC";
+    private static final String F1_DRIVERS_DELTA_TOPIC_ENV = "F1_DRIVERS_DELTA_TOPIC";
+    private static final String F1_DRIVERS_KEYFRAME_INTERVAL_ENV = "F1_DRIVERS_KEYFRAME_INTERVAL";
+    private static final String F1_DISPATCH_MODE_ENV = "F1_DISPATCH_MODE";
+    private static final String F1_DISPATCH_RING_SIZE_ENV = "F1_DISPATCH_RING_SIZE";
+    private static final String F1_DISPATCH_WAIT_STRATEGY_ENV = "F1_DISPATCH_WAIT_STRATEGY";
+    private static final String F1_FRAME_EXPECTED_PACKETS_ENV = "F1_FRAME_EXPECTED_PACKETS";
+    private static final String F1_FRAME_DEADLINE_MS_ENV = "F1_FRAME_DEADLINE_MS";
+    private static final String F1_MAX_SESSIONS_ENV = "F1_MAX_SESSIONS";
+    private static final String F1_SESSION_IDLE_TIMEOUT_MS_ENV = "F1_SESSION_IDLE_TIMEOUT_MS";
+    private static final String UDP_READERS_ENV = "UDP_READERS";
+    private static final String F1_PACKET_POOL_TYPES_ENV = "F1_PACKET_POOL_TYPES";
+    private static final String F1_PACKET_POOL_SIZE_ENV = "F1_PACKET_POOL_SIZE";
+    private static final String F1_PACKET_POOL_STATS_PERIOD_MS_ENV = "F1_PACKET_POOL_STATS_PERIOD_MS";
+    private static final String F1_RAW_PACKETS_PASSTHROUGH_ENV = "F1_RAW_PACKETS_PASSTHROUGH";
+    private static final String F1_DRIVERS_FRAME_RECORDS_ENV = "F1_DRIVERS_FRAME_RECORDS";
+    private static final String F1_DRIVERS_FRAME_TOPIC_ENV = "F1_DRIVERS_FRAME_TOPIC";
+    private static final String F1_DRIVERS_CONFLATION_ENV = "F1_DRIVERS_CONFLATION";
+    private static final String F1_DRIVERS_CONFLATION_MAX_IN_FLIGHT_ENV = "F1_DRIVERS_CONFLATION_MAX_IN_FLIGHT";
+    private static final String F1_SESSION_COLUMNAR_ENV = "F1_SESSION_COLUMNAR";
+    private static final String METRICS_PORT_ENV = "METRICS_PORT";
 
     private static final int DEFAULT_UDP_PORT = 20777;
     private static final String DEFAULT_F1_DRIVERS_TOPIC = "f1-telemetry-drivers";
     private static final String DEFAULT_F1_EVENTS_TOPIC = "f1-telemetry-events";
     private static final String DEFAULT_F1_RAW_PACKETS_TOPIC = "f1-telemetry-packets";
+    private static final String DEFAULT_F1_DRIVERS_DELTA_TOPIC = "f1-telemetry-drivers-delta";
+    // delta encoded drivers disabled by default
+    private static final int DEFAULT_F1_DRIVERS_KEYFRAME_INTERVAL = 0;
+    private static final String DEFAULT_F1_DISPATCH_MODE = DispatchRouteBuilder.MULTICAST_MODE;
+    private static final int DEFAULT_F1_DISPATCH_RING_SIZE = 4096;
+    private static final String DEFAULT_F1_DISPATCH_WAIT_STRATEGY = "blocking";
+    // packets sent by the game at the same (configured) rate, for every frame
+    private static final String DEFAULT_F1_FRAME_EXPECTED_PACKETS = "MOTION,LAP_DATA,CAR_TELEMETRY,CAR_STATUS";
+    private static final long DEFAULT_F1_FRAME_DEADLINE_MS = 100;
+    private static final int DEFAULT_F1_MAX_SESSIONS = 32;
+    private static final long DEFAULT_F1_SESSION_IDLE_TIMEOUT_MS = 60000;
+    // more than one reader opens SO_REUSEPORT channels, Linux (epoll) only
+    private static final int DEFAULT_UDP_READERS = 1;
+    // packet types filled into recycled instances, pooling disabled by default
+    private static final String DEFAULT_F1_PACKET_POOL_TYPES = "";
+    private static final int DEFAULT_F1_PACKET_POOL_SIZE = 256;
+    private static final long DEFAULT_F1_PACKET_POOL_STATS_PERIOD_MS = 60000;
+    // raw packets decoded and encoded again by default
+    private static final boolean DEFAULT_F1_RAW_PACKETS_PASSTHROUGH = false;
+    // one record per driver by default, one record per frame otherwise
+    private static final boolean DEFAULT_F1_DRIVERS_FRAME_RECORDS = false;
+    private static final String DEFAULT_F1_DRIVERS_FRAME_TOPIC = "f1-telemetry-drivers-frame";
+    // every driver update is sent by default, only the latest one not sent yet for each driver otherwise
+    private static final boolean DEFAULT_F1_DRIVERS_CONFLATION = false;
+    // records sent and not acknowledged yet, beyond it the new ones are conflated (about a couple of frames of drivers)
+    private static final int DEFAULT_F1_DRIVERS_CONFLATION_MAX_IN_FLIGHT = 64;
+    // drivers data stored as objects only by default, in columns as well otherwise
+    private static final boolean DEFAULT_F1_SESSION_COLUMNAR = false;
+    // port of the "/metrics" endpoint
+    private static final int DEFAULT_METRICS_PORT = 9404;
 
     private final int udpPort;
     private final String f1DriversTopic;
     private final String f1EventsTopic;
     private final String f1RawPacketsTopic;
+    private final String f1DriversDeltaTopic;
+    private final int f1DriversKeyframeInterval;
+    private final String f1DispatchMode;
+    private final int f1DispatchRingSize;
+    private final String f1DispatchWaitStrategy;
+    private final String f1FrameExpectedPackets;
+    private final long f1FrameDeadlineMs;
+    private final int f1MaxSessions;
+    private final long f1SessionIdleTimeoutMs;
+    private final int udpReaders;
+    private final String f1PacketPoolTypes;
+    private final int f1PacketPoolSize;
+    private final long f1PacketPoolStatsPeriodMs;
+    private final boolean f1RawPacketsPassthrough;
+    private final ProducerProfile f1DriversProducerProfile;
+    private final ProducerProfile f1EventsProducerProfile;
+    private final ProducerProfile f1RawPacketsProducerProfile;
+    private final boolean f1DriversFrameRecords;
+    private final String f1DriversFrameTopic;
+    private final boolean f1DriversConflation;
+    private final int f1DriversConflationMaxInFlight;
+    private final boolean f1SessionColumnar;
+    private final int metricsPort;
 
     private F1UdpKafkaAppConfig(String kafkaBootstrapServers, String kafkaTruststoreLocation, String kafkaTruststorePassword,
-                                int udpPort, String f1DriversTopic, String f1EventsTopic, String f1RawPacketsTopic) {
+                                int udpPort, String f1DriversTopic, String f1EventsTopic, String f1RawPacketsTopic,
+                                String f1DriversDeltaTopic, int f1DriversKeyframeInterval,
+                                String f1DispatchMode, int f1DispatchRingSize, String f1DispatchWaitStrategy,
+                                String f1FrameExpectedPackets, long f1FrameDeadlineMs,
+                                int f1MaxSessions, long f1SessionIdleTimeoutMs,
+                                int udpReaders,
+                                String f1PacketPoolTypes, int f1PacketPoolSize, long f1PacketPoolStatsPeriodMs,
+                                boolean f1RawPacketsPassthrough,
+                                ProducerProfile f1DriversProducerProfile, ProducerProfile f1EventsProducerProfile, ProducerProfile f1RawPacketsProducerProfile,
+                                boolean f1DriversFrameRecords, String f1DriversFrameTopic,
+                                boolean f1DriversConflation, int f1DriversConflationMaxInFlight,
+                                boolean f1SessionColumnar,
+                                int metricsPort) {
         super(kafkaBootstrapServers, kafkaTruststoreLocation, kafkaTruststorePassword);
         this.udpPort = udpPort;
         this.f1DriversTopic = f1DriversTopic;
         this.f1EventsTopic = f1EventsTopic;
         this.f1RawPacketsTopic = f1RawPacketsTopic;
+        this.f1DriversDeltaTopic = f1DriversDeltaTopic;
+        this.f1DriversKeyframeInterval = f1DriversKeyframeInterval;
+        this.f1DispatchMode = f1DispatchMode;
+        this.f1DispatchRingSize = f1DispatchRingSize;
+        this.f1DispatchWaitStrategy = f1DispatchWaitStrategy;
+        this.f1FrameExpectedPackets = f1FrameExpectedPackets;
+        this.f1FrameDeadlineMs = f1FrameDeadlineMs;
+        this.f1MaxSessions = f1MaxSessions;
+        this.f1SessionIdleTimeoutMs = f1SessionIdleTimeoutMs;
+        this.udpReaders = udpReaders;
+        this.f1PacketPoolTypes = f1PacketPoolTypes;
+        this.f1PacketPoolSize = f1PacketPoolSize;
+        this.f1PacketPoolStatsPeriodMs = f1PacketPoolStatsPeriodMs;
+        this.f1RawPacketsPassthrough = f1RawPacketsPassthrough;
+        this.f1DriversProducerProfile = f1DriversProducerProfile;
+        this.f1EventsProducerProfile = f1EventsProducerProfile;
+        this.f1RawPacketsProducerProfile = f1RawPacketsProducerProfile;
+        this.f1DriversFrameRecords = f1DriversFrameRecords;
+        this.f1DriversFrameTopic = f1DriversFrameTopic;
+        this.f1DriversConflation = f1DriversConflation;
+        this.f1DriversConflationMaxInFlight = f1DriversConflationMaxInFlight;
+        this.f1SessionColumnar = f1SessionColumnar;
+        this.metricsPort = metricsPort;
     }
 
     public static F1UdpKafkaAppConfig fromEnv() {
@@ -40,7 +148,43 @@ public class F1UdpKafkaAppConfig extends KafkaBaseConfig {
         String f1DriversTopic = System.getenv(F1_DRIVERS_TOPIC_ENV) == null ? DEFAULT_F1_DRIVERS_TOPIC : System.getenv(F1_DRIVERS_TOPIC_ENV);
         String f1EventsTopic = System.getenv(F1_EVENTS_TOPIC_ENV) == null ? DEFAULT_F1_EVENTS_TOPIC : System.getenv(F1_EVENTS_TOPIC_ENV);
         String f1RawPacketsTopic = System.getenv(F1_RAW_PACKETS_TOPIC_ENV) == null ? DEFAULT_F1_RAW_PACKETS_TOPIC : System.getenv(F1_RAW_PACKETS_TOPIC_ENV);
-        return new F1UdpKafkaAppConfig(kafkaBootstrapServers, kafkaTruststoreLocation, kafkaTruststorePassword, udpPort, f1DriversTopic, f1EventsTopic, f1RawPacketsTopic);
+        String f1DriversDeltaTopic = System.getenv(F1_DRIVERS_DELTA_TOPIC_ENV) == null ? DEFAULT_F1_DRIVERS_DELTA_TOPIC : System.getenv(F1_DRIVERS_DELTA_TOPIC_ENV);
+        int f1DriversKeyframeInterval = System.getenv(F1_DRIVERS_KEYFRAME_INTERVAL_ENV) == null ? DEFAULT_F1_DRIVERS_KEYFRAME_INTERVAL : Integer.parseInt(System.getenv(F1_DRIVERS_KEYFRAME_INTERVAL_ENV));
+        String f1DispatchMode = System.getenv(F1_DISPATCH_MODE_ENV) == null ? DEFAULT_F1_DISPATCH_MODE : System.getenv(F1_DISPATCH_MODE_ENV);
+        int f1DispatchRingSize = System.getenv(F1_DISPATCH_RING_SIZE_ENV) == null ? DEFAULT_F1_DISPATCH_RING_SIZE : Integer.parseInt(System.getenv(F1_DISPATCH_RING_SIZE_ENV));
+        String f1DispatchWaitStrategy = System.getenv(F1_DISPATCH_WAIT_STRATEGY_ENV) == null ? DEFAULT_F1_DISPATCH_WAIT_STRATEGY : System.getenv(F1_DISPATCH_WAIT_STRATEGY_ENV);
+        String f1FrameExpectedPackets = System.getenv(F1_FRAME_EXPECTED_PACKETS_ENV) == null ? DEFAULT_F1_FRAME_EXPECTED_PACKETS : System.getenv(F1_FRAME_EXPECTED_PACKETS_ENV);
+        long f1FrameDeadlineMs = System.getenv(F1_FRAME_DEADLINE_MS_ENV) == null ? DEFAULT_F1_FRAME_DEADLINE_MS : Long.parseLong(System.getenv(F1_FRAME_DEADLINE_MS_ENV));
+        int f1MaxSessions = System.getenv(F1_MAX_SESSIONS_ENV) == null ? DEFAULT_F1_MAX_SESSIONS : Integer.parseInt(System.getenv(F1_MAX_SESSIONS_ENV));
+        long f1SessionIdleTimeoutMs = System.getenv(F1_SESSION_IDLE_TIMEOUT_MS_ENV) == null ? DEFAULT_F1_SESSION_IDLE_TIMEOUT_MS : Long.parseLong(System.getenv(F1_SESSION_IDLE_TIMEOUT_MS_ENV));
+        int udpReaders = System.getenv(UDP_READERS_ENV) == null ? DEFAULT_UDP_READERS : Integer.parseInt(System.getenv(UDP_READERS_ENV));
+        String f1PacketPoolTypes = System.getenv(F1_PACKET_POOL_TYPES_ENV) == null ? DEFAULT_F1_PACKET_POOL_TYPES : System.getenv(F1_PACKET_POOL_TYPES_ENV);
+        int f1PacketPoolSize = System.getenv(F1_PACKET_POOL_SIZE_ENV) == null ? DEFAULT_F1_PACKET_POOL_SIZE : Integer.parseInt(System.getenv(F1_PACKET_POOL_SIZE_ENV));
+        long f1PacketPoolStatsPeriodMs = System.getenv(F1_PACKET_POOL_STATS_PERIOD_MS_ENV) == null ? DEFAULT_F1_PACKET_POOL_STATS_PERIOD_MS : Long.parseLong(System.getenv(F1_PACKET_POOL_STATS_PERIOD_MS_ENV));
+        boolean f1RawPacketsPassthrough = System.getenv(F1_RAW_PACKETS_PASSTHROUGH_ENV) == null ? DEFAULT_F1_RAW_PACKETS_PASSTHROUGH : Boolean.parseBoolean(System.getenv(F1_RAW_PACKETS_PASSTHROUGH_ENV));
+        // latency for the events, throughput for the raw packets, the Kafka producer defaults for the drivers
+        ProducerProfile f1DriversProducerProfile = ProducerProfile.fromEnv("F1_DRIVERS", ProducerProfile.DEFAULT);
+        ProducerProfile f1EventsProducerProfile = ProducerProfile.fromEnv("F1_EVENTS", ProducerProfile.LATENCY);
+        ProducerProfile f1RawPacketsProducerProfile = ProducerProfile.fromEnv("F1_RAW_PACKETS", ProducerProfile.THROUGHPUT);
+        boolean f1DriversFrameRecords = System.getenv(F1_DRIVERS_FRAME_RECORDS_ENV) == null ? DEFAULT_F1_DRIVERS_FRAME_RECORDS : Boolean.parseBoolean(System.getenv(F1_DRIVERS_FRAME_RECORDS_ENV));
+        String f1DriversFrameTopic = System.getenv(F1_DRIVERS_FRAME_TOPIC_ENV) == null ? DEFAULT_F1_DRIVERS_FRAME_TOPIC : System.getenv(F1_DRIVERS_FRAME_TOPIC_ENV);
+        boolean f1DriversConflation = System.getenv(F1_DRIVERS_CONFLATION_ENV) == null ? DEFAULT_F1_DRIVERS_CONFLATION : Boolean.parseBoolean(System.getenv(F1_DRIVERS_CONFLATION_ENV));
+        int f1DriversConflationMaxInFlight = System.getenv(F1_DRIVERS_CONFLATION_MAX_IN_FLIGHT_ENV) == null ? DEFAULT_F1_DRIVERS_CONFLATION_MAX_IN_FLIGHT : Integer.parseInt(System.getenv(F1_DRIVERS_CONFLATION_MAX_IN_FLIGHT_ENV));
+        boolean f1SessionColumnar = System.getenv(F1_SESSION_COLUMNAR_ENV) == null ? DEFAULT_F1_SESSION_COLUMNAR : Boolean.parseBoolean(System.getenv(F1_SESSION_COLUMNAR_ENV));
+        int metricsPort = System.getenv(METRICS_PORT_ENV) == null ? DEFAULT_METRICS_PORT : Integer.parseInt(System.getenv(METRICS_PORT_ENV));
+        return new F1UdpKafkaAppConfig(kafkaBootstrapServers, kafkaTruststoreLocation, kafkaTruststorePassword, udpPort, f1DriversTopic, f1EventsTopic, f1RawPacketsTopic,
+                f1DriversDeltaTopic, f1DriversKeyframeInterval,
+                f1DispatchMode, f1DispatchRingSize, f1DispatchWaitStrategy,
+                f1FrameExpectedPackets, f1FrameDeadlineMs,
+                f1MaxSessions, f1SessionIdleTimeoutMs,
+                udpReaders,
+                f1PacketPoolTypes, f1PacketPoolSize, f1PacketPoolStatsPeriodMs,
+                f1RawPacketsPassthrough,
+                f1DriversProducerProfile, f1EventsProducerProfile, f1RawPacketsProducerProfile,
+                f1DriversFrameRecords, f1DriversFrameTopic,
+                f1DriversConflation, f1DriversConflationMaxInFlight,
+                f1SessionColumnar,
+                metricsPort);
     }
 
     public int getUdpPort() {
@@ -59,6 +203,98 @@ public class F1UdpKafkaAppConfig extends KafkaBaseConfig {
         return f1RawPacketsTopic;
     }
 
+    public String getF1DriversDeltaTopic() {
+        return f1DriversDeltaTopic;
+    }
+
+    public int getF1DriversKeyframeInterval() {
+        return f1DriversKeyframeInterval;
+    }
+
+    public String getF1DispatchMode() {
+        return f1DispatchMode;
+    }
+
+    public int getF1DispatchRingSize() {
+        return f1DispatchRingSize;
+    }
+
+    public String getF1DispatchWaitStrategy() {
+        return f1DispatchWaitStrategy;
+    }
+
+    public String getF1FrameExpectedPackets() {
+        return f1FrameExpectedPackets;
+    }
+
+    public long getF1FrameDeadlineMs() {
+        return f1FrameDeadlineMs;
+    }
+
+    public int getF1MaxSessions() {
+        return f1MaxSessions;
+    }
+
+    public long getF1SessionIdleTimeoutMs() {
+        return f1SessionIdleTimeoutMs;
+    }
+
+    public int getUdpReaders() {
+        return udpReaders;
+    }
+
+    public String getF1PacketPoolTypes() {
+        return f1PacketPoolTypes;
+    }
+
+    public int getF1PacketPoolSize() {
+        return f1PacketPoolSize;
+    }
+
+    public long getF1PacketPoolStatsPeriodMs() {
+        return f1PacketPoolStatsPeriodMs;
+    }
+
+    public boolean getF1RawPacketsPassthrough() {
+        return f1RawPacketsPassthrough;
+    }
+
+    public ProducerProfile getF1DriversProducerProfile() {
+        return f1DriversProducerProfile;
+    }
+
+    public ProducerProfile getF1EventsProducerProfile() {
+        return f1EventsProducerProfile;
+    }
+
+    public ProducerProfile getF1RawPacketsProducerProfile() {
+        return f1RawPacketsProducerProfile;
+    }
+
+    public boolean getF1DriversFrameRecords() {
+        return f1DriversFrameRecords;
+    }
+
+    public String getF1DriversFrameTopic() {
+        return f1DriversFrameTopic;
+    }
+
+    public boolean getF1DriversConflation() {
+        return f1DriversConflation;
+    }
+
+    public int getF1DriversConflationMaxInFlight() {
+        return f1DriversConflationMaxInFlight;
+    }
+
+    public boolean getF1SessionColumnar() {
+        return f1SessionColumnar;
+    }
+
+    public int getMetricsPort() {
+        return metricsPort;
+    }
+
     @Override
     public String toString() {
         return "F1UdpKafkaAppConfig[" +
@@ -69,6 +305,29 @@ public class F1UdpKafkaAppConfig extends KafkaBaseConfig {
                 ", f1DriversTopic=" + this.f1DriversTopic +
                 ", f1EventsTopic=" + this.f1EventsTopic +
                 ", f1RawPacketsTopic=" + this.f1RawPacketsTopic +
+                ", f1DriversDeltaTopic=" + this.f1DriversDeltaTopic +
+                ", f1DriversKeyframeInterval=" + this.f1DriversKeyframeInterval +
+                ", f1DispatchMode=" + this.f1DispatchMode +
+                ", f1DispatchRingSize=" + this.f1DispatchRingSize +
+                ", f1DispatchWaitStrategy=" + this.f1DispatchWaitStrategy +
+                ", f1FrameExpectedPackets=" + this.f1FrameExpectedPackets +
+                ", f1FrameDeadlineMs=" + this.f1FrameDeadlineMs +
+                ", f1MaxSessions=" + this.f1MaxSessions +
+                ", f1SessionIdleTimeoutMs=" + this.f1SessionIdleTimeoutMs +
+                ", udpReaders=" + this.udpReaders +
+                ", f1PacketPoolTypes=" + this.f1PacketPoolTypes +
+                ", f1PacketPoolSize=" + this.f1PacketPoolSize +
+                ", f1PacketPoolStatsPeriodMs=" + this.f1PacketPoolStatsPeriodMs +
+                ", f1RawPacketsPassthrough=" + this.f1RawPacketsPassthrough +
+                ", f1DriversProducerProfile=" + this.f1DriversProducerProfile +
+                ", f1EventsProducerProfile=" + this.f1EventsProducerProfile +
+                ", f1RawPacketsProducerProfile=" + this.f1RawPacketsProducerProfile +
+                ", f1DriversFrameRecords=" + this.f1DriversFrameRecords +
+                ", f1DriversFrameTopic=" + this.f1DriversFrameTopic +
+                ", f1DriversConflation=" + this.f1DriversConflation +
+                ", f1DriversConflationMaxInFlight=" + this.f1DriversConflationMaxInFlight +
+                ", f1SessionColumnar=" + this.f1SessionColumnar +
+                ", metricsPort=" + this.metricsPort +
                 "]";
     }
 }
@@ -0,0 +1,282 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import io.micrometer.core.instrument.Counter;
+import io.ppatierno.formula1.enums.PacketId;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Groups the Packet instances with the same frameId, in a fixed-size array indexed by PacketId, and provides them
+ * as a frame to the listener as soon as all the expected packet types are arrived.
+ * A frame is provided incomplete when a packet of a newer frame arrives or when the deadline since its first packet
+ * expires, so a lost packet doesn't hold the drivers data back.
+ * Packets arriving late (for a frame already provided) are carried into the next frame; when two packets of the same
+ * type meet in a frame, the newer one is kept.
+ * A frameId going back by more than a few frames is not a late packet but the game restarting the frames
+ * (i.e. a flashback or a restart of the session with the same sessionUID), so the assembler starts over from it.
+ * The assembler takes a reference on the ReceivedPacket instances it holds, handing it over to the listener with
+ * the frame, and releases the ones it drops.
+ * The provided frames are counted on the {@link TelemetryMetrics} as well, by how they were provided.
+ */
+public class FrameAssembler {
+
+    private static final PacketId[] PACKET_IDS = PacketId.values();
+    // participants first so that drivers joining in the frame get the other data as well
+    private static final PacketId[] FRAME_ORDER = frameOrder();
+    // how far back (in frames) a packet can arrive late, beyond it the frames are restarted
+    static final long LATE_WINDOW = 30;
+
+    private final Consumer<List<ReceivedPacket>> listener;
+    private final int expected;
+    private final long deadlineNanos;
+    private final Counter framesCompleted;
+    private final Counter framesIncomplete;
+    private final Counter framesTimedOut;
+
+    private final ReceivedPacket[] slots = new ReceivedPacket[PACKET_IDS.length];
+    // bitmap (by PacketId ordinal) of the packets in the slots
+    private int received;
+    // frameId of the frame in progress, -1 if no packet of a new frame is arrived yet
+    private long frameId = -1;
+    private long startNanos;
+    private long lastFrameId = -1;
+
+    private long completed;
+    private long incomplete;
+    private long timedOut;
+    private long outOfOrder;
+    private long duplicated;
+    private long dropped;
+    private long restarted;
+
+    /**
+     * Constructor
+     *
+     * @param expected packet types making a frame complete
+     * @param deadlineMs milliseconds since the first packet of a frame after which it's provided anyway
+     * @param listener listener getting the frames, owning a reference on each ReceivedPacket
+     * @param metrics metrics to count the provided frames on
+     */
+    public FrameAssembler(EnumSet<PacketId> expected, long deadlineMs, Consumer<List<ReceivedPacket>> listener, TelemetryMetrics metrics) {
+        int mask = 0;
+        for (PacketId packetId : expected) {
+            mask |= 1 << packetId.ordinal();
+        }
+        this.expected = mask;
+        this.deadlineNanos = TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        this.listener = listener;
+        this.framesCompleted = metrics.frames(TelemetryMetrics.FRAME_COMPLETED);
+        this.framesIncomplete = metrics.frames(TelemetryMetrics.FRAME_INCOMPLETE);
+        this.framesTimedOut = metrics.frames(TelemetryMetrics.FRAME_TIMED_OUT);
+    }
+
+    /**
+     * Add a Packet to the frame it belongs to, providing the frame to the listener if complete
+     *
+     * @param packet ReceivedPacket instance to add
+     */
+    public synchronized void add(ReceivedPacket packet) {
+        long now = System.nanoTime();
+        this.expire(now);
+        long packetFrameId = frameId(packet);
+        if (packetFrameId < this.lastFrameId - LATE_WINDOW) {
+            this.restart();
+        }
+        if (packetFrameId <= this.lastFrameId) {
+            this.outOfOrder++;
+            this.place(packet);
+        } else {
+            if (this.frameId != -1 && packetFrameId != this.frameId) {
+                // a newer frame is started so the one in progress is not going to be completed
+                this.incomplete++;
+                this.framesIncomplete.increment();
+                this.emit();
+            }
+            if (this.frameId == -1) {
+                this.frameId = packetFrameId;
+                this.startNanos = now;
+            }
+            this.place(packet);
+        }
+        if (this.frameId != -1 && (this.received & this.expected) == this.expected) {
+            this.completed++;
+            this.framesCompleted.increment();
+            this.emit();
+        }
+    }
+
+    /**
+     * Provide the frame in progress to the listener if its deadline is expired
+     */
+    public synchronized void expire() {
+        this.expire(System.nanoTime());
+    }
+
+    private void expire(long now) {
+        if (this.frameId != -1 && now - this.startNanos >= this.deadlineNanos) {
+            this.timedOut++;
+            this.framesTimedOut.increment();
+            this.emit();
+        }
+    }
+
+    private void restart() {
+        this.restarted++;
+        if (this.frameId != -1) {
+            this.incomplete++;
+            this.framesIncomplete.increment();
+            this.emit();
+        } else {
+            // late packets waiting for the next frame, which is not coming anymore
+            for (int i = 0; i < this.slots.length; i++) {
+                if (this.slots[i] != null) {
+                    this.dropped++;
+                    this.slots[i].release();
+                    this.slots[i] = null;
+                }
+            }
+            this.received = 0;
+        }
+        this.lastFrameId = -1;
+    }
+
+    private void place(ReceivedPacket packet) {
+        int index = packet.getPacket().getHeader().getPacketId().ordinal();
+        ReceivedPacket current = this.slots[index];
+        if (current != null) {
+            long packetFrameId = frameId(packet);
+            long currentFrameId = frameId(current);
+            if (packetFrameId < currentFrameId) {
+                // keep the newer one
+                this.dropped++;
+                return;
+            }
+            if (packetFrameId == currentFrameId) {
+                this.duplicated++;
+            } else {
+                this.dropped++;
+            }
+            current.release();
+        }
+        this.slots[index] = packet.retain();
+        this.received |= 1 << index;
+    }
+
+    private static long frameId(ReceivedPacket packet) {
+        return packet.getPacket().getHeader().getFrameIdentifier();
+    }
+
+    private void emit() {
+        List<ReceivedPacket> frame = new ArrayList<>(Integer.bitCount(this.received));
+        for (PacketId packetId : FRAME_ORDER) {
+            int index = packetId.ordinal();
+            if (this.slots[index] != null) {
+                frame.add(this.slots[index]);
+                this.slots[index] = null;
+            }
+        }
+        this.lastFrameId = this.frameId;
+        this.frameId = -1;
+        this.received = 0;
+        this.listener.accept(frame);
+    }
+
+    private static PacketId[] frameOrder() {
+        PacketId[] order = new PacketId[PACKET_IDS.length];
+        order[0] = PacketId.PARTICIPANTS;
+        int i = 1;
+        for (PacketId packetId : PACKET_IDS) {
+            if (packetId != PacketId.PARTICIPANTS) {
+                order[i++] = packetId;
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Parse a comma separated list of PacketId names (i.e. MOTION,LAP_DATA)
+     *
+     * @param packetIds comma separated list of PacketId names
+     * @return the corresponding set of PacketId
+     */
+    public static EnumSet<PacketId> parsePacketIds(String packetIds) {
+        EnumSet<PacketId> set = EnumSet.noneOf(PacketId.class);
+        for (String packetId : packetIds.split(",")) {
+            if (!packetId.isBlank()) {
+                set.add(PacketId.valueOf(packetId.trim()));
+            }
+        }
+        return set;
+    }
+
+    /**
+     * @return number of frames provided with all the expected packets
+     */
+    public synchronized long getCompleted() {
+        return completed;
+    }
+
+    /**
+     * @return number of frames provided without all the expected packets because a newer frame started
+     */
+    public synchronized long getIncomplete() {
+        return incomplete;
+    }
+
+    /**
+     * @return number of frames provided without all the expected packets because the deadline expired
+     */
+    public synchronized long getTimedOut() {
+        return timedOut;
+    }
+
+    /**
+     * @return number of packets arrived after their frame was provided
+     */
+    public synchronized long getOutOfOrder() {
+        return outOfOrder;
+    }
+
+    /**
+     * @return number of packets replacing one of the same type in the same frame
+     */
+    public synchronized long getDuplicated() {
+        return duplicated;
+    }
+
+    /**
+     * @return number of packets dropped because a newer one of the same type was in the frame,
+     * or because the frames were restarted while they were waiting for the next frame
+     */
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * @return number of times the frames were restarted because the frameId went back
+     */
+    public synchronized long getRestarted() {
+        return restarted;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "FrameAssembler[" +
+                "completed=" + this.completed +
+                ", incomplete=" + this.incomplete +
+                ", timedOut=" + this.timedOut +
+                ", outOfOrder=" + this.outOfOrder +
+                ", duplicated=" + this.duplicated +
+                ", dropped=" + this.dropped +
+                ", restarted=" + this.restarted +
+                "]";
+    }
+}
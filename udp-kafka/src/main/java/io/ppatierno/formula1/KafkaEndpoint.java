@@ -4,6 +4,9 @@
  */
 package io.ppatierno.formula1;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 public class KafkaEndpoint {
 
     private final String bootstrapServers;
@@ -12,15 +15,20 @@ public class KafkaEndpoint {
     private final String valueSerializer;
     private final String truststoreLocation;
     private final String truststorePassword;
+    private final Map<String, String> additionalProperties;
+    private final ProducerProfile producerProfile;
 
     private KafkaEndpoint(String bootstrapServers, String clientId, String topic,
-                          String valueSerializer, String truststoreLocation, String truststorePassword) {
+                          String valueSerializer, String truststoreLocation, String truststorePassword,
+                          Map<String, String> additionalProperties, ProducerProfile producerProfile) {
         this.bootstrapServers = bootstrapServers;
         this.clientId = clientId;
         this.topic = topic;
         this.valueSerializer = valueSerializer;
         this.truststoreLocation = truststoreLocation;
         this.truststorePassword = truststorePassword;
+        this.additionalProperties = additionalProperties;
+        this.producerProfile = producerProfile;
     }
 
     @Override
@@ -36,6 +44,15 @@ public class KafkaEndpoint {
             sb.append("&sslTruststorePassword=" + this.truststorePassword);
             sb.append("&sslTruststoreType=PKCS12&securityProtocol=SSL");
         }
+        if (this.producerProfile != null) {
+            for (Map.Entry<String, String> option : this.producerProfile.toEndpointOptions().entrySet()) {
+                sb.append("&" + option.getKey() + "=" + option.getValue());
+            }
+        }
+        // properties not mapped by the Camel Kafka component (i.e. custom serializer configuration)
+        for (Map.Entry<String, String> property : this.additionalProperties.entrySet()) {
+            sb.append("&additionalProperties." + property.getKey() + "=" + property.getValue());
+        }
         return sb.toString();
     }
 
@@ -46,6 +63,8 @@ public class KafkaEndpoint {
         private String valueSerializer;
         private String truststoreLocation;
         private String truststorePassword;
+        private Map<String, String> additionalProperties = new LinkedHashMap<>();
+        private ProducerProfile producerProfile;
 
         public KafkaEndpointBuilder withBootstrapServers(String bootstrapServers) {
             this.bootstrapServers = bootstrapServers;
@@ -77,9 +96,20 @@ public class KafkaEndpoint {
             return this;
         }
 
+        public KafkaEndpointBuilder withAdditionalProperty(String name, String value) {
+            this.additionalProperties.put(name, value);
+            return this;
+        }
+
+        public KafkaEndpointBuilder withProducerProfile(ProducerProfile producerProfile) {
+            this.producerProfile = producerProfile;
+            return this;
+        }
+
         public KafkaEndpoint build() {
             return new KafkaEndpoint(this.bootstrapServers, this.clientId, this.topic,
-                    this.valueSerializer, this.truststoreLocation, this.truststorePassword);
+                    this.valueSerializer, this.truststoreLocation, this.truststorePassword,
+                    this.additionalProperties, this.producerProfile);
         }
     }
 }
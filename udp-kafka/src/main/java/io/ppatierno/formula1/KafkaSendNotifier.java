@@ -0,0 +1,46 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import io.micrometer.core.instrument.Timer;
+import org.apache.camel.spi.CamelEvent;
+import org.apache.camel.support.EventNotifierSupport;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the time taken by every exchange sent to a Kafka endpoint, so until the record is acknowledged,
+ * on the {@link TelemetryMetrics} timer of the endpoint topic.
+ * It gets the sent events from all the routes (and the {@link Conflator}) without instrumenting each of them.
+ */
+public class KafkaSendNotifier extends EventNotifierSupport {
+
+    private final TelemetryMetrics metrics;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param metrics metrics to record the Kafka sends on
+     */
+    public KafkaSendNotifier(TelemetryMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public boolean isEnabled(CamelEvent event) {
+        return event instanceof CamelEvent.ExchangeSentEvent &&
+                ((CamelEvent.ExchangeSentEvent) event).getEndpoint() instanceof org.apache.camel.component.kafka.KafkaEndpoint;
+    }
+
+    @Override
+    public void notify(CamelEvent event) throws Exception {
+        CamelEvent.ExchangeSentEvent sent = (CamelEvent.ExchangeSentEvent) event;
+        String topic = ((org.apache.camel.component.kafka.KafkaEndpoint) sent.getEndpoint()).getConfiguration().getTopic();
+        this.timers.computeIfAbsent(topic, this.metrics::kafkaSend).record(sent.getTimeTaken(), TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.EventTranslatorOneArg;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import org.apache.camel.AsyncCallback;
+import org.apache.camel.AsyncProcessor;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Endpoint;
+import org.apache.camel.Exchange;
+import org.apache.camel.Producer;
+import org.apache.camel.support.AsyncProcessorConverterHelper;
+import org.apache.camel.support.service.ServiceHelper;
+import org.apache.camel.support.service.ServiceSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dispatches the decoded Packet instances to the processing stages (raw packets, events and drivers routes)
+ * through a ring buffer with pre-allocated slots.
+ * A single consumer thread starts all the stages, one after the other in the provided order, for each packet
+ * so there is no thread pool handoff and no Exchange copy as with the Camel multicast.
+ * The stages are processed asynchronously, so the consumer thread doesn't wait for the Kafka producers to get
+ * the broker acknowledgements, and the packet is released when all of them are completed.
+ */
+public class PacketDispatcher extends ServiceSupport implements EventHandler<PacketDispatcher.PacketSlot> {
+
+    private static Logger log = LoggerFactory.getLogger(PacketDispatcher.class);
+
+    private static final EventTranslatorOneArg<PacketSlot, ReceivedPacket> TRANSLATOR = (slot, sequence, receivedPacket) ->
+            slot.receivedPacket = receivedPacket;
+
+    private final CamelContext camelContext;
+    private final int ringSize;
+    private final String waitStrategy;
+    private final String[] stages;
+
+    private Disruptor<PacketSlot> disruptor;
+    private RingBuffer<PacketSlot> ringBuffer;
+    private Endpoint[] endpoints;
+    private Producer[] producers;
+    private AsyncProcessor[] processors;
+
+    /**
+     * Constructor
+     *
+     * @param camelContext CamelContext where the stages routes are running
+     * @param ringSize number of slots in the ring buffer, it has to be a power of 2
+     * @param waitStrategy how the consumer thread waits for packets: blocking, yielding or busy-spin
+     * @param stages endpoints URIs of the stages (i.e. direct:raw-packets) in the order they have to run
+     */
+    public PacketDispatcher(CamelContext camelContext, int ringSize, String waitStrategy, String... stages) {
+        this.camelContext = camelContext;
+        this.ringSize = ringSize;
+        this.waitStrategy = waitStrategy;
+        this.stages = stages;
+    }
+
+    /**
+     * Publish the Packet to the ring buffer, waiting for a free slot if the consumer is behind
+     *
+     * @param receivedPacket Packet instance to dispatch, with the session it belongs to
+     */
+    public void dispatch(ReceivedPacket receivedPacket) {
+        this.ringBuffer.publishEvent(TRANSLATOR, receivedPacket);
+    }
+
+    @Override
+    public void onEvent(PacketSlot slot, long sequence, boolean endOfBatch) {
+        ReceivedPacket receivedPacket = slot.receivedPacket;
+        // release the reference, the slot is going to be reused
+        slot.receivedPacket = null;
+        AtomicInteger pending = new AtomicInteger(this.processors.length);
+        for (int i = 0; i < this.processors.length; i++) {
+            Exchange exchange = this.endpoints[i].createExchange();
+            exchange.setProperty(TelemetryHeaders.SESSION_ID, receivedPacket.getSessionId());
+            exchange.setProperty(TelemetryHeaders.RECEIVED_AT, receivedPacket.getReceivedAt());
+            exchange.setProperty(ReceivedPacket.EXCHANGE_PROPERTY, receivedPacket);
+            exchange.getIn().setBody(receivedPacket.getPacket());
+            String stage = this.stages[i];
+            // called on this thread or, when the stage ends with a Kafka send, on the producer I/O thread
+            AsyncCallback callback = doneSync -> {
+                if (exchange.getException() != null) {
+                    log.error("Error dispatching packet to {}", stage, exchange.getException());
+                }
+                // the stages are all done, the ones still needing the packet took their own reference
+                if (pending.decrementAndGet() == 0) {
+                    receivedPacket.release();
+                }
+            };
+            try {
+                this.processors[i].process(exchange, callback);
+            } catch (Throwable e) {
+                exchange.setException(e);
+                callback.done(true);
+            }
+        }
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        this.endpoints = new Endpoint[this.stages.length];
+        this.producers = new Producer[this.stages.length];
+        this.processors = new AsyncProcessor[this.stages.length];
+        for (int i = 0; i < this.stages.length; i++) {
+            this.endpoints[i] = this.camelContext.getEndpoint(this.stages[i]);
+            this.producers[i] = this.endpoints[i].createProducer();
+            this.processors[i] = AsyncProcessorConverterHelper.convert(this.producers[i]);
+            ServiceHelper.startService(this.producers[i]);
+        }
+        // packets can be published by more than one UDP reader thread
+        this.disruptor = new Disruptor<>(PacketSlot::new, this.ringSize,
+                r -> new Thread(r, "f1-packet-dispatcher"), ProducerType.MULTI, waitStrategy(this.waitStrategy));
+        this.disruptor.handleEventsWith(this);
+        this.ringBuffer = this.disruptor.start();
+        log.info("PacketDispatcher started with ringSize = {}, waitStrategy = {}", this.ringSize, this.waitStrategy);
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        if (this.disruptor != null) {
+            // waits for the packets already published to be processed
+            this.disruptor.shutdown();
+        }
+        if (this.producers != null) {
+            ServiceHelper.stopService((Object[]) this.producers);
+        }
+    }
+
+    private static WaitStrategy waitStrategy(String waitStrategy) {
+        switch (waitStrategy) {
+            case "blocking":
+                return new BlockingWaitStrategy();
+            case "yielding":
+                return new YieldingWaitStrategy();
+            case "busy-spin":
+                return new BusySpinWaitStrategy();
+            default:
+                throw new IllegalArgumentException("Unknown wait strategy " + waitStrategy);
+        }
+    }
+
+    /**
+     * Pre-allocated slot in the ring buffer
+     */
+    public static class PacketSlot {
+        private ReceivedPacket receivedPacket;
+    }
+}
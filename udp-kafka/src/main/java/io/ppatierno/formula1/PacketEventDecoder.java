@@ -4,22 +4,116 @@
  */
 package io.ppatierno.formula1;
 
+import io.micrometer.core.instrument.Counter;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.socket.DatagramPacket;
 import io.netty.handler.codec.MessageToMessageDecoder;
 import io.ppatierno.formula1.packets.Packet;
 
+import java.net.InetSocketAddress;
 import java.util.List;
 
+/**
+ * Decodes the datagrams as Packet instances, providing them as ReceivedPacket together with the game session
+ * they belong to, identified by the sessionUID in the packet header and the address of the sender.
+ * With a {@link PacketPool}, the pooled packet types are filled into recycled instances instead of new ones.
+ * With the raw passthrough, the datagram bytes are provided as well, to be sent as they are on the raw packets topic.
+ * The received packets (by type) and the datagrams failing to be decoded are counted on the {@link TelemetryMetrics}.
+ */
 public class PacketEventDecoder extends MessageToMessageDecoder<DatagramPacket> {
 
+    // offsets of the packetId and sessionUID in the packet header
+    private static final int PACKET_ID_OFFSET = 5;
+    private static final int SESSION_UID_OFFSET = 6;
+
     PacketDecoder packetDecoder = new PacketDecoder();
+    private final PacketPool packetPool;
+    private final boolean rawPassthrough;
+    private final Counter[] packetsReceived;
+    private final Counter decodeErrors;
+
+    // the last session id is cached because packets usually come from the same sender and session
+    private long lastSessionUid;
+    private InetSocketAddress lastSender;
+    private String lastSessionId;
+
+    public PacketEventDecoder() {
+        this(null);
+    }
+
+    public PacketEventDecoder(PacketPool packetPool) {
+        this(packetPool, false);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param packetPool pool to get the instances of the pooled packet types from, null to always decode new ones
+     * @param rawPassthrough if the datagram bytes have to be copied into the ReceivedPacket
+     */
+    public PacketEventDecoder(PacketPool packetPool, boolean rawPassthrough) {
+        this(packetPool, rawPassthrough, TelemetryMetrics.noop());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param packetPool pool to get the instances of the pooled packet types from, null to always decode new ones
+     * @param rawPassthrough if the datagram bytes have to be copied into the ReceivedPacket
+     * @param metrics metrics to count the received packets and the decoding errors on
+     */
+    public PacketEventDecoder(PacketPool packetPool, boolean rawPassthrough, TelemetryMetrics metrics) {
+        this.packetPool = packetPool;
+        this.rawPassthrough = rawPassthrough;
+        this.packetsReceived = metrics.packetsReceived();
+        this.decodeErrors = metrics.decodeErrors();
+    }
 
     @Override
     protected void decode(ChannelHandlerContext channelHandlerContext, DatagramPacket datagramPacket, List<Object> list) throws Exception {
-        ByteBuf buffer = datagramPacket.content();
-        Packet packet = packetDecoder.decode(buffer);
-        list.add(packet);
+        list.add(this.decode(datagramPacket.content(), datagramPacket.sender()));
+    }
+
+    /**
+     * Decode a datagram
+     *
+     * @param buffer datagram content
+     * @param sender address of the datagram sender
+     * @return the ReceivedPacket, to release when done if it's pooled
+     */
+    public ReceivedPacket decode(ByteBuf buffer, InetSocketAddress sender) {
+        int start = buffer.readerIndex();
+        ReceivedPacket receivedPacket;
+        try {
+            int packetId = buffer.getUnsignedByte(start + PACKET_ID_OFFSET);
+            long sessionUid = buffer.getLongLE(start + SESSION_UID_OFFSET);
+            String sessionId = this.sessionId(sessionUid, sender);
+            if (this.packetPool != null && this.packetPool.isPooled(packetId)) {
+                receivedPacket = this.packetPool.acquire(packetId, sessionId);
+                receivedPacket.getPacket().fill(buffer);
+            } else {
+                Packet packet = packetDecoder.decode(buffer);
+                receivedPacket = new ReceivedPacket(packet, sessionId);
+            }
+        } catch (RuntimeException e) {
+            this.decodeErrors.increment();
+            throw e;
+        }
+        this.packetsReceived[receivedPacket.getPacket().getHeader().getPacketId().ordinal()].increment();
+        if (this.rawPassthrough) {
+            // the decoding moved the reader index, the datagram bytes are from the start
+            receivedPacket.copyRaw(buffer, start);
+        }
+        return receivedPacket;
+    }
+
+    private String sessionId(long sessionUid, InetSocketAddress sender) {
+        if (this.lastSessionId == null || sessionUid != this.lastSessionUid || !sender.equals(this.lastSender)) {
+            this.lastSessionUid = sessionUid;
+            this.lastSender = sender;
+            this.lastSessionId = Long.toHexString(sessionUid) + "@" + sender.getAddress().getHostAddress() + ":" + sender.getPort();
+        }
+        return this.lastSessionId;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import io.ppatierno.formula1.enums.PacketId;
+import io.ppatierno.formula1.packets.Packet;
+import io.ppatierno.formula1.packets.PacketCarSetupData;
+import io.ppatierno.formula1.packets.PacketCarStatusData;
+import io.ppatierno.formula1.packets.PacketCarTelemetryData;
+import io.ppatierno.formula1.packets.PacketLapData;
+import io.ppatierno.formula1.packets.PacketMotionData;
+
+import java.util.EnumSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per packet type pools of ReceivedPacket instances, whose Packet is filled again with every datagram instead of
+ * decoding a new Packet (and all its cars data) each time.
+ * A pooled ReceivedPacket is reference counted and gets back to the pool when the last holder releases it.
+ * Only the packet types carrying per frame cars data can be pooled, because the Session references their data
+ * just until the packet of the same type in the next frame replaces it.
+ * The SessionRegistry holds a reference on the last packet of each type applied to the Session, and the drivers
+ * records are serialized before the next frame is applied, so no snapshot is read after its packets are recycled.
+ * Filling a recycled Packet replaces all its cars data, as a newly decoded one.
+ */
+public class PacketPool {
+
+    public static final EnumSet<PacketId> POOLABLE = EnumSet.of(PacketId.MOTION, PacketId.LAP_DATA, PacketId.CAR_SETUPS,
+            PacketId.CAR_TELEMETRY, PacketId.CAR_STATUS);
+
+    private static final PacketId[] PACKET_IDS = PacketId.values();
+
+    // pools indexed by PacketId ordinal, null for the packet types which are not pooled
+    private final ArrayBlockingQueue<ReceivedPacket>[] pools;
+
+    private final AtomicLong allocated = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+
+    /**
+     * Constructor
+     *
+     * @param packetIds packet types to pool
+     * @param capacity maximum number of free instances kept for each packet type
+     */
+    @SuppressWarnings("unchecked")
+    public PacketPool(EnumSet<PacketId> packetIds, int capacity) {
+        this.pools = new ArrayBlockingQueue[PACKET_IDS.length];
+        for (PacketId packetId : packetIds) {
+            if (!POOLABLE.contains(packetId)) {
+                throw new IllegalArgumentException("Packet type " + packetId + " can't be pooled, allowed types are " + POOLABLE);
+            }
+            this.pools[packetId.ordinal()] = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+
+    /**
+     * @param packetId PacketId ordinal, as in the packet header
+     * @return if the packet type is pooled
+     */
+    public boolean isPooled(int packetId) {
+        return packetId < this.pools.length && this.pools[packetId] != null;
+    }
+
+    /**
+     * Get a free ReceivedPacket for the packet type, allocating a new one if the pool is empty.
+     * The returned instance has a reference count of 1 and its Packet has to be filled by the caller.
+     *
+     * @param packetId PacketId ordinal, as in the packet header, of a pooled packet type
+     * @param sessionId game session the packet belongs to
+     * @return the ReceivedPacket
+     */
+    public ReceivedPacket acquire(int packetId, String sessionId) {
+        ReceivedPacket receivedPacket = this.pools[packetId].poll();
+        if (receivedPacket == null) {
+            this.allocated.incrementAndGet();
+            receivedPacket = new ReceivedPacket(newPacket(PACKET_IDS[packetId]), this);
+        } else {
+            this.reused.incrementAndGet();
+        }
+        receivedPacket.reset(sessionId);
+        return receivedPacket;
+    }
+
+    void recycle(ReceivedPacket receivedPacket) {
+        if (!this.pools[receivedPacket.getPacket().getHeader().getPacketId().ordinal()].offer(receivedPacket)) {
+            // the pool is full, the instance is left to the GC
+            this.discarded.incrementAndGet();
+        }
+    }
+
+    private static Packet newPacket(PacketId packetId) {
+        switch (packetId) {
+            case MOTION:
+                return new PacketMotionData();
+            case LAP_DATA:
+                return new PacketLapData();
+            case CAR_SETUPS:
+                return new PacketCarSetupData();
+            case CAR_TELEMETRY:
+                return new PacketCarTelemetryData();
+            case CAR_STATUS:
+                return new PacketCarStatusData();
+            default:
+                throw new IllegalArgumentException("Packet type " + packetId + " can't be pooled");
+        }
+    }
+
+    /**
+     * @return number of Packet instances allocated because the pool was empty
+     */
+    public long getAllocated() {
+        return allocated.get();
+    }
+
+    /**
+     * @return number of Packet instances taken from the pool and filled again
+     */
+    public long getReused() {
+        return reused.get();
+    }
+
+    /**
+     * @return number of released Packet instances not getting back to the pool because it was full
+     */
+    public long getDiscarded() {
+        return discarded.get();
+    }
+
+    @Override
+    public String toString() {
+        return "PacketPool[" +
+                "allocated=" + this.allocated +
+                ", reused=" + this.reused +
+                ", discarded=" + this.discarded +
+                "]";
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Batching, compression and acknowledgement settings of a Kafka producer.
+ * The "latency" profile sends each record as soon as possible, the "throughput" one lingers to fill bigger
+ * compressed batches, the "default" one leaves the Kafka producer defaults.
+ * Each setting of a profile can be overridden through the environment, with a per route prefix (i.e. F1_EVENTS).
+ * The settings not set (null) are not provided to the producer, which uses its own defaults.
+ */
+public class ProducerProfile {
+
+    public static final String DEFAULT = "default";
+    public static final String LATENCY = "latency";
+    public static final String THROUGHPUT = "throughput";
+
+    private static final String PROFILE_ENV = "_PRODUCER_PROFILE";
+    private static final String LINGER_MS_ENV = "_PRODUCER_LINGER_MS";
+    private static final String BATCH_SIZE_ENV = "_PRODUCER_BATCH_SIZE";
+    private static final String COMPRESSION_TYPE_ENV = "_PRODUCER_COMPRESSION_TYPE";
+    private static final String ACKS_ENV = "_PRODUCER_ACKS";
+    private static final String BUFFER_MEMORY_ENV = "_PRODUCER_BUFFER_MEMORY";
+    private static final String MAX_IN_FLIGHT_REQUESTS_ENV = "_PRODUCER_MAX_IN_FLIGHT_REQUESTS";
+
+    private final String name;
+    private final Integer lingerMs;
+    private final Integer batchSize;
+    private final String compressionType;
+    private final String acks;
+    private final Integer bufferMemory;
+    private final Integer maxInFlightRequests;
+
+    private ProducerProfile(String name, Integer lingerMs, Integer batchSize, String compressionType, String acks,
+                            Integer bufferMemory, Integer maxInFlightRequests) {
+        this.name = name;
+        this.lingerMs = lingerMs;
+        this.batchSize = batchSize;
+        this.compressionType = compressionType;
+        this.acks = acks;
+        this.bufferMemory = bufferMemory;
+        this.maxInFlightRequests = maxInFlightRequests;
+    }
+
+    /**
+     * Get one of the predefined profiles
+     *
+     * @param name profile name, default, latency or throughput
+     * @return the profile
+     */
+    public static ProducerProfile of(String name) {
+        switch (name) {
+            case DEFAULT:
+                return new ProducerProfile(DEFAULT, null, null, null, null, null, null);
+            case LATENCY:
+                // no waiting for more records, a single request in flight keeps the records in order on retries
+                return new ProducerProfile(LATENCY, 0, 16384, "none", "1", null, 1);
+            case THROUGHPUT:
+                // batches up to 256 KB, or 20 ms, compressed as a whole
+                return new ProducerProfile(THROUGHPUT, 20, 262144, "lz4", "1", 67108864, 5);
+            default:
+                throw new IllegalArgumentException("Unknown producer profile " + name);
+        }
+    }
+
+    /**
+     * Get the profile from the environment, as the predefined profile in the PREFIX_PRODUCER_PROFILE variable
+     * with the settings overridden by the PREFIX_PRODUCER_* variables
+     *
+     * @param prefix prefix of the environment variables (i.e. F1_EVENTS)
+     * @param defaultProfile predefined profile to use if there is no PREFIX_PRODUCER_PROFILE variable
+     * @return the profile
+     */
+    public static ProducerProfile fromEnv(String prefix, String defaultProfile) {
+        ProducerProfile profile = of(System.getenv(prefix + PROFILE_ENV) == null ? defaultProfile : System.getenv(prefix + PROFILE_ENV));
+        Integer lingerMs = System.getenv(prefix + LINGER_MS_ENV) == null ? profile.lingerMs : Integer.valueOf(System.getenv(prefix + LINGER_MS_ENV));
+        Integer batchSize = System.getenv(prefix + BATCH_SIZE_ENV) == null ? profile.batchSize : Integer.valueOf(System.getenv(prefix + BATCH_SIZE_ENV));
+        String compressionType = System.getenv(prefix + COMPRESSION_TYPE_ENV) == null ? profile.compressionType : System.getenv(prefix + COMPRESSION_TYPE_ENV);
+        String acks = System.getenv(prefix + ACKS_ENV) == null ? profile.acks : System.getenv(prefix + ACKS_ENV);
+        Integer bufferMemory = System.getenv(prefix + BUFFER_MEMORY_ENV) == null ? profile.bufferMemory : Integer.valueOf(System.getenv(prefix + BUFFER_MEMORY_ENV));
+        Integer maxInFlightRequests = System.getenv(prefix + MAX_IN_FLIGHT_REQUESTS_ENV) == null ? profile.maxInFlightRequests : Integer.valueOf(System.getenv(prefix + MAX_IN_FLIGHT_REQUESTS_ENV));
+        return new ProducerProfile(profile.name, lingerMs, batchSize, compressionType, acks, bufferMemory, maxInFlightRequests);
+    }
+
+    /**
+     * Get a copy of the profile with a different number of requests in flight, i.e. 1 for keeping the records
+     * in order on retries
+     *
+     * @param maxInFlightRequests max number of unacknowledged requests per connection
+     * @return the profile with the provided number of requests in flight
+     */
+    public ProducerProfile withMaxInFlightRequests(int maxInFlightRequests) {
+        return new ProducerProfile(this.name, this.lingerMs, this.batchSize, this.compressionType, this.acks,
+                this.bufferMemory, maxInFlightRequests);
+    }
+
+    /**
+     * @return the settings as Camel Kafka endpoint options
+     */
+    public Map<String, String> toEndpointOptions() {
+        Map<String, String> options = new LinkedHashMap<>();
+        put(options, "lingerMs", this.lingerMs);
+        put(options, "producerBatchSize", this.batchSize);
+        put(options, "compressionCodec", this.compressionType);
+        put(options, "requestRequiredAcks", this.acks);
+        put(options, "bufferMemorySize", this.bufferMemory);
+        put(options, "maxInFlightRequest", this.maxInFlightRequests);
+        return options;
+    }
+
+    /**
+     * @return the settings as Kafka producer configuration
+     */
+    public Map<String, Object> toProducerConfig() {
+        Map<String, Object> config = new LinkedHashMap<>();
+        put(config, "linger.ms", this.lingerMs);
+        put(config, "batch.size", this.batchSize);
+        put(config, "compression.type", this.compressionType);
+        put(config, "acks", this.acks);
+        put(config, "buffer.memory", this.bufferMemory);
+        put(config, "max.in.flight.requests.per.connection", this.maxInFlightRequests);
+        return config;
+    }
+
+    private static void put(Map<String, ? super String> map, String key, Object value) {
+        if (value != null) {
+            map.put(key, value.toString());
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Integer getLingerMs() {
+        return lingerMs;
+    }
+
+    public Integer getBatchSize() {
+        return batchSize;
+    }
+
+    public String getCompressionType() {
+        return compressionType;
+    }
+
+    public String getAcks() {
+        return acks;
+    }
+
+    public Integer getBufferMemory() {
+        return bufferMemory;
+    }
+
+    public Integer getMaxInFlightRequests() {
+        return maxInFlightRequests;
+    }
+
+    @Override
+    public String toString() {
+        return "ProducerProfile[" +
+                "name=" + this.name +
+                ", lingerMs=" + this.lingerMs +
+                ", batchSize=" + this.batchSize +
+                ", compressionType=" + this.compressionType +
+                ", acks=" + this.acks +
+                ", bufferMemory=" + this.bufferMemory +
+                ", maxInFlightRequests=" + this.maxInFlightRequests +
+                "]";
+    }
+}
@@ -4,12 +4,15 @@
  */
 package io.ppatierno.formula1;
 
+import io.ppatierno.formula1.packets.Packet;
 import org.apache.camel.LoggingLevel;
 import org.apache.camel.builder.RouteBuilder;
 
 /**
  * Route getting raw Packet instances (as body) from the "udp-multicast-dispatcher" route thanks to multicast
- * and sending them to Kafka
+ * and sending them to Kafka.
+ * With the raw passthrough, the datagram bytes are sent as they are, with the packet id and frame id as headers,
+ * instead of encoding the Packet again.
  */
 public class RawPacketsRouteBuilder extends RouteBuilder {
 
@@ -22,6 +25,8 @@ public class RawPacketsRouteBuilder extends RouteBuilder {
                 .withBootstrapServers(this.config.getKafkaBootstrapServers())
                 .withTopic(this.config.getF1RawPacketsTopic())
                 .withClientId("raw-packets")
+                .withValueSerializer(this.config.getF1RawPacketsPassthrough() ? "org.apache.kafka.common.serialization.ByteArraySerializer" : null)
+                .withProducerProfile(this.config.getF1RawPacketsProducerProfile())
                 .withTruststoreLocation(this.config.getKafkaTruststoreLocation())
                 .withTruststorePassword(this.config.getKafkaTruststorePassword())
                 .build();
@@ -30,11 +35,30 @@ public class RawPacketsRouteBuilder extends RouteBuilder {
 
     @Override
     public void configure() throws Exception {
-        // get raw Packet instances (as body) from the "udp-multicast-dispatcher" route thanks to multicast
-        from("direct:raw-packets")
-        .to(this.kafkaEndpoint.toString())
-        .routeId("udp-kafka-raw-packets")
-        .log(LoggingLevel.TRACE, "${body}")
-        .log(LoggingLevel.DEBUG, "Packet[frameId = ${body.header.frameIdentifier}, packetId = ${body.header.packetId}]");
+        if (this.config.getF1RawPacketsPassthrough()) {
+            // get raw Packet instances (as body), and the ReceivedPacket with the datagram bytes as property
+            from("direct:raw-packets")
+            .process(exchange -> {
+                ReceivedPacket receivedPacket = exchange.getProperty(ReceivedPacket.EXCHANGE_PROPERTY, ReceivedPacket.class);
+                Packet packet = receivedPacket.getPacket();
+                exchange.getIn().setHeader(TelemetryHeaders.SESSION_ID, receivedPacket.getSessionId());
+                exchange.getIn().setHeader(TelemetryHeaders.PACKET_ID, packet.getHeader().getPacketId().name());
+                exchange.getIn().setHeader(TelemetryHeaders.FRAME_ID, packet.getHeader().getFrameIdentifier());
+                exchange.getIn().setHeader(TelemetryHeaders.RECEIVED_AT, receivedPacket.getReceivedAt());
+                exchange.getIn().setBody(receivedPacket.getRaw());
+            })
+            .to(this.kafkaEndpoint.toString())
+            .routeId("udp-kafka-raw-packets")
+            .log(LoggingLevel.DEBUG, "Packet[frameId = ${header[" + TelemetryHeaders.FRAME_ID + "]}, packetId = ${header[" + TelemetryHeaders.PACKET_ID + "]}]");
+        } else {
+            // get raw Packet instances (as body) from the "udp-multicast-dispatcher" route thanks to multicast
+            from("direct:raw-packets")
+            .setHeader(TelemetryHeaders.SESSION_ID, exchangeProperty(TelemetryHeaders.SESSION_ID))
+            .setHeader(TelemetryHeaders.RECEIVED_AT, exchangeProperty(TelemetryHeaders.RECEIVED_AT))
+            .to(this.kafkaEndpoint.toString())
+            .routeId("udp-kafka-raw-packets")
+            .log(LoggingLevel.TRACE, "${body}")
+            .log(LoggingLevel.DEBUG, "Packet[frameId = ${body.header.frameIdentifier}, packetId = ${body.header.packetId}]");
+        }
     }
 }
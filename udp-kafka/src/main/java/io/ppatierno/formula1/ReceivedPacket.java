@@ -0,0 +1,113 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import io.netty.buffer.ByteBuf;
+import io.ppatierno.formula1.packets.Packet;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decoded Packet together with the information about the datagram it was received with.
+ * When it comes from a {@link PacketPool}, it's reference counted and the Packet can't be used anymore
+ * after the last {@link #release()} because it's going to be filled with another datagram.
+ */
+public class ReceivedPacket {
+
+    // exchange property carrying the ReceivedPacket to the processing stages, which get the Packet as body
+    public static final String EXCHANGE_PROPERTY = "f1.received.packet";
+
+    private final Packet packet;
+    private final PacketPool pool;
+    private final AtomicInteger refCnt = new AtomicInteger(1);
+    private String sessionId;
+    // wall clock time (epoch milliseconds) when the datagram was received and decoded
+    private long receivedAt;
+    // datagram bytes, only with the raw passthrough
+    private byte[] raw;
+
+    /**
+     * Constructor
+     *
+     * @param packet decoded Packet
+     * @param sessionId game session the packet belongs to, as defined by {@link TelemetryHeaders#SESSION_ID}
+     */
+    public ReceivedPacket(Packet packet, String sessionId) {
+        this.packet = packet;
+        this.sessionId = sessionId;
+        this.pool = null;
+        this.receivedAt = System.currentTimeMillis();
+    }
+
+    ReceivedPacket(Packet packet, PacketPool pool) {
+        this.packet = packet;
+        this.pool = pool;
+    }
+
+    void reset(String sessionId) {
+        this.sessionId = sessionId;
+        this.receivedAt = System.currentTimeMillis();
+        this.refCnt.set(1);
+    }
+
+    void copyRaw(ByteBuf buffer, int start) {
+        int length = buffer.writerIndex() - start;
+        // packets of the same type have the same size, so a pooled instance reuses the array
+        if (this.raw == null || this.raw.length != length) {
+            this.raw = new byte[length];
+        }
+        buffer.getBytes(start, this.raw);
+    }
+
+    /**
+     * Take one more reference, the Packet is not recycled until it's released
+     *
+     * @return this ReceivedPacket
+     */
+    public ReceivedPacket retain() {
+        if (this.pool != null) {
+            this.refCnt.incrementAndGet();
+        }
+        return this;
+    }
+
+    /**
+     * Release one reference, giving the ReceivedPacket back to the pool with the last one
+     */
+    public void release() {
+        if (this.pool != null && this.refCnt.decrementAndGet() == 0) {
+            this.pool.recycle(this);
+        }
+    }
+
+    public Packet getPacket() {
+        return packet;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * @return wall clock time (epoch milliseconds) when the datagram was received, as defined by {@link TelemetryHeaders#RECEIVED_AT}
+     */
+    public long getReceivedAt() {
+        return receivedAt;
+    }
+
+    /**
+     * @return the datagram bytes, null if the raw passthrough is not enabled
+     */
+    public byte[] getRaw() {
+        return raw;
+    }
+
+    @Override
+    public String toString() {
+        return "ReceivedPacket[packet=" + this.packet +
+                ",sessionId=" + this.sessionId +
+                "]";
+    }
+}
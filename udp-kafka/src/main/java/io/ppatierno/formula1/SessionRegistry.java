@@ -0,0 +1,246 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import io.ppatierno.formula1.enums.PacketId;
+import io.ppatierno.formula1.packets.Packet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the state of each game session (as defined by {@link TelemetryHeaders#SESSION_ID}) received by the application,
+ * so that more rigs can send packets to the same UDP port.
+ * Sessions not receiving packets for a while are evicted and the number of sessions is bounded.
+ */
+public class SessionRegistry {
+
+    private static Logger log = LoggerFactory.getLogger(SessionRegistry.class);
+
+    private final int maxSessions;
+    private final long idleTimeoutNanos;
+    private final EnumSet<PacketId> frameExpectedPackets;
+    private final long frameDeadlineMs;
+    private final boolean sessionColumnar;
+    private final TelemetryMetrics metrics;
+    private final Map<String, SessionContext> sessions = new ConcurrentHashMap<>();
+
+    private volatile FrameListener frameListener = (sessionId, frame, receivedAt) -> { };
+    private final List<SessionListener> sessionListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructor
+     *
+     * @param config application configuration
+     * @param metrics metrics to count the frames assembled in all the sessions on
+     */
+    public SessionRegistry(F1UdpKafkaAppConfig config, TelemetryMetrics metrics) {
+        this.maxSessions = config.getF1MaxSessions();
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(config.getF1SessionIdleTimeoutMs());
+        this.frameExpectedPackets = FrameAssembler.parsePacketIds(config.getF1FrameExpectedPackets());
+        this.frameDeadlineMs = config.getF1FrameDeadlineMs();
+        this.sessionColumnar = config.getF1SessionColumnar();
+        this.metrics = metrics;
+    }
+
+    /**
+     * Set the listener getting the frames assembled for each session
+     *
+     * @param frameListener listener getting the session id and the packets within the same frame
+     */
+    public void setFrameListener(FrameListener frameListener) {
+        this.frameListener = frameListener;
+    }
+
+    /**
+     * Add a listener getting the changes of the participants and the eviction of the sessions
+     *
+     * @param sessionListener listener to add
+     */
+    public void addSessionListener(SessionListener sessionListener) {
+        this.sessionListeners.add(sessionListener);
+    }
+
+    /**
+     * Notify the listeners that drivers joined or left a session
+     *
+     * @param sessionId session id
+     */
+    public void participantsChanged(String sessionId) {
+        for (SessionListener sessionListener : this.sessionListeners) {
+            sessionListener.onParticipantsChanged(sessionId);
+        }
+    }
+
+    /**
+     * Get the context of a session, creating it on the first packet, and mark the session as active
+     *
+     * @param sessionId session id
+     * @return the session context or null if the maximum number of sessions is reached
+     */
+    public SessionContext getOrCreate(String sessionId) {
+        SessionContext context = this.sessions.get(sessionId);
+        if (context == null) {
+            if (this.sessions.size() >= this.maxSessions) {
+                // it would be logged for every packet of the session
+                log.debug("Maximum number of sessions {} reached, session {} ignored", this.maxSessions, sessionId);
+                return null;
+            }
+            context = this.sessions.computeIfAbsent(sessionId, id -> {
+                log.info("Session {} started", id);
+                return new SessionContext(id, new Session(this.sessionColumnar), this.frameExpectedPackets, this.frameDeadlineMs,
+                        (contextId, frame, receivedAt) -> this.frameListener.onFrame(contextId, frame, receivedAt), this.metrics);
+            });
+        }
+        context.lastSeenNanos = System.nanoTime();
+        return context;
+    }
+
+    /**
+     * Get the context of a session, without creating it
+     *
+     * @param sessionId session id
+     * @return the session context or null if there is no such session (i.e. evicted)
+     */
+    public SessionContext get(String sessionId) {
+        return this.sessions.get(sessionId);
+    }
+
+    /**
+     * Provide the frames in progress, in all the sessions, whose deadline is expired
+     */
+    public void expireFrames() {
+        for (SessionContext context : this.sessions.values()) {
+            context.getFrameAssembler().expire();
+        }
+    }
+
+    /**
+     * Evict the sessions not receiving packets since the idle timeout
+     */
+    public void evictIdle() {
+        long now = System.nanoTime();
+        Iterator<SessionContext> iterator = this.sessions.values().iterator();
+        while (iterator.hasNext()) {
+            SessionContext context = iterator.next();
+            if (now - context.lastSeenNanos >= this.idleTimeoutNanos) {
+                iterator.remove();
+                context.close();
+                for (SessionListener sessionListener : this.sessionListeners) {
+                    sessionListener.onEvicted(context.getId());
+                }
+                log.info("Session {} evicted, {}", context.getId(), context.getFrameAssembler());
+            }
+        }
+    }
+
+    public int size() {
+        return this.sessions.size();
+    }
+
+    /**
+     * Listener getting the frames assembled for each session
+     */
+    @FunctionalInterface
+    public interface FrameListener {
+
+        /**
+         * @param sessionId session id
+         * @param frame packets within the same frame
+         * @param receivedAt wall clock time (epoch milliseconds) when the first packet of the frame was received
+         */
+        void onFrame(String sessionId, List<Packet> frame, long receivedAt);
+    }
+
+    /**
+     * Listener getting the changes of the participants and the eviction of the sessions
+     */
+    public interface SessionListener {
+
+        /**
+         * @param sessionId session id in which drivers joined or left
+         */
+        default void onParticipantsChanged(String sessionId) {
+        }
+
+        /**
+         * @param sessionId session id evicted, not receiving packets since the idle timeout
+         */
+        default void onEvicted(String sessionId) {
+        }
+    }
+
+    /**
+     * State of a single game session
+     */
+    public static class SessionContext {
+
+        private static final int PACKET_TYPES = PacketId.values().length;
+
+        private final String id;
+        private final Session session;
+        private final FrameAssembler frameAssembler;
+        private final FrameListener frameListener;
+        // last packet of each type applied to the Session, which references its data until the next one
+        private final ReceivedPacket[] applied = new ReceivedPacket[PACKET_TYPES];
+        private volatile long lastSeenNanos;
+
+        SessionContext(String id, Session session, EnumSet<PacketId> frameExpectedPackets, long frameDeadlineMs,
+                       FrameListener frameListener, TelemetryMetrics metrics) {
+            this.id = id;
+            this.session = session;
+            this.frameListener = frameListener;
+            this.frameAssembler = new FrameAssembler(frameExpectedPackets, frameDeadlineMs, this::onFrame, metrics);
+            this.lastSeenNanos = System.nanoTime();
+        }
+
+        private synchronized void onFrame(List<ReceivedPacket> frame) {
+            List<Packet> packets = new ArrayList<>(frame.size());
+            long receivedAt = Long.MAX_VALUE;
+            for (ReceivedPacket receivedPacket : frame) {
+                packets.add(receivedPacket.getPacket());
+                receivedAt = Math.min(receivedAt, receivedPacket.getReceivedAt());
+            }
+            this.frameListener.onFrame(this.id, packets, receivedAt);
+            // the Session doesn't reference the previous packets of the same types anymore
+            for (ReceivedPacket receivedPacket : frame) {
+                int index = receivedPacket.getPacket().getHeader().getPacketId().ordinal();
+                if (this.applied[index] != null) {
+                    this.applied[index].release();
+                }
+                this.applied[index] = receivedPacket;
+            }
+        }
+
+        private synchronized void close() {
+            for (int i = 0; i < this.applied.length; i++) {
+                if (this.applied[i] != null) {
+                    this.applied[i].release();
+                    this.applied[i] = null;
+                }
+            }
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public Session getSession() {
+            return session;
+        }
+
+        public FrameAssembler getFrameAssembler() {
+            return frameAssembler;
+        }
+    }
+}
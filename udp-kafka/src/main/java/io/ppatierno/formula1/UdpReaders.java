@@ -0,0 +1,130 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollDatagramChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.apache.camel.CamelContext;
+import org.apache.camel.ProducerTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Reads the datagrams on the UDP port through more epoll datagram channels bound with SO_REUSEPORT,
+ * each one with its own single threaded event loop and PacketEventDecoder, so that the decoding scales with the cores.
+ * The kernel spreads the datagrams across the channels hashing the source address, so all the packets
+ * from the same rig are read, in order, by the same channel.
+ * The decoded ReceivedPacket instances are sent to a Camel endpoint (i.e. the one the dispatcher route consumes from).
+ */
+public class UdpReaders {
+
+    private static Logger log = LoggerFactory.getLogger(UdpReaders.class);
+
+    private final CamelContext camelContext;
+    private final int port;
+    private final int readers;
+    private final String toUri;
+    private final Supplier<PacketEventDecoder> decoderFactory;
+
+    private final List<EventLoopGroup> groups = new ArrayList<>();
+    private final List<Channel> channels = new ArrayList<>();
+    private ProducerTemplate producerTemplate;
+
+    /**
+     * Constructor
+     *
+     * @param camelContext CamelContext where the route consuming the ReceivedPacket instances is running
+     * @param port UDP port to bind
+     * @param readers number of channels (and event loop threads) reading on the port
+     * @param toUri endpoint URI to send the ReceivedPacket instances to
+     * @param decoderFactory factory for the decoders, one for each channel
+     */
+    public UdpReaders(CamelContext camelContext, int port, int readers, String toUri, Supplier<PacketEventDecoder> decoderFactory) {
+        this.camelContext = camelContext;
+        this.port = port;
+        this.readers = readers;
+        this.toUri = toUri;
+        this.decoderFactory = decoderFactory;
+    }
+
+    /**
+     * Bind all the channels on the UDP port
+     *
+     * @throws InterruptedException if interrupted while binding
+     */
+    public void start() throws InterruptedException {
+        if (!Epoll.isAvailable()) {
+            throw new IllegalStateException("More UDP readers need SO_REUSEPORT, not available without epoll", Epoll.unavailabilityCause());
+        }
+        this.producerTemplate = this.camelContext.createProducerTemplate();
+        for (int i = 0; i < this.readers; i++) {
+            // one thread per channel, there is no handoff between the reading and the decoding
+            EventLoopGroup group = new EpollEventLoopGroup(1, new DefaultThreadFactory("f1-udp-reader-" + i));
+            this.groups.add(group);
+            Bootstrap bootstrap = new Bootstrap()
+                    .group(group)
+                    .channel(EpollDatagramChannel.class)
+                    .option(EpollChannelOption.SO_REUSEPORT, true)
+                    .handler(new ChannelInitializer<EpollDatagramChannel>() {
+                        @Override
+                        protected void initChannel(EpollDatagramChannel channel) {
+                            // PacketEventDecoder caches the last session, it can't be shared across channels
+                            channel.pipeline().addLast(decoderFactory.get(), new ReceivedPacketHandler());
+                        }
+                    });
+            this.channels.add(bootstrap.bind(this.port).sync().channel());
+        }
+        log.info("UdpReaders started with {} channels on port {}", this.readers, this.port);
+    }
+
+    /**
+     * Close all the channels and shutdown the event loops
+     */
+    public void stop() {
+        for (Channel channel : this.channels) {
+            channel.close().syncUninterruptibly();
+        }
+        for (EventLoopGroup group : this.groups) {
+            group.shutdownGracefully().syncUninterruptibly();
+        }
+        this.channels.clear();
+        this.groups.clear();
+        if (this.producerTemplate != null) {
+            try {
+                this.producerTemplate.stop();
+            } catch (Exception e) {
+                log.warn("Error stopping the producer template", e);
+            }
+        }
+        log.info("UdpReaders stopped");
+    }
+
+    private class ReceivedPacketHandler extends SimpleChannelInboundHandler<ReceivedPacket> {
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, ReceivedPacket receivedPacket) {
+            producerTemplate.sendBody(toUri, receivedPacket);
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            // a malformed datagram doesn't have to close the channel
+            log.error("Error reading on {}", ctx.channel(), cause);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import org.apache.camel.AsyncCallback;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.kafka.KafkaConstants;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.AsyncProcessorSupport;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class ConflatorTest {
+
+    private static final String TO_URI = "direct:kafka";
+    private static final long TIMEOUT_MS = 5000;
+
+    private CamelContext camelContext;
+    private Conflator conflator;
+    // the sends not acknowledged yet, as by a Kafka producer waiting for the broker
+    private final BlockingQueue<Send> sends = new LinkedBlockingQueue<>();
+
+    @Before
+    public void setup() throws Exception {
+        this.camelContext = new DefaultCamelContext();
+        this.camelContext.addRoutes(new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from(TO_URI).process(new AsyncProcessorSupport() {
+                    @Override
+                    public boolean process(Exchange exchange, AsyncCallback callback) {
+                        sends.add(new Send(exchange, callback));
+                        return false;
+                    }
+                });
+            }
+        });
+        this.camelContext.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (this.conflator != null) {
+            this.conflator.stop();
+        }
+        this.camelContext.stop();
+    }
+
+    @Test
+    public void testLatestWinsUnderBackpressure() throws Exception {
+        this.start(1);
+
+        this.conflator.offer("HAMILTON", "session", 1, bytes("v1"));
+        Send first = this.next();
+        assertEquals("v1", first.value());
+        assertEquals(1, this.conflator.getInFlight());
+
+        // no more permits, so the values of the same key overwrite each other
+        this.conflator.offer("HAMILTON", "session", 2, bytes("v2"));
+        this.conflator.offer("HAMILTON", "session", 3, bytes("v3"));
+        this.conflator.offer("BOTTAS", "session", 3, bytes("w1"));
+        assertNull(this.sends.poll(100, TimeUnit.MILLISECONDS));
+        assertEquals(2, this.conflator.getPending());
+        assertEquals(1, this.conflator.getConflated());
+
+        first.ack();
+        Send second = this.next();
+        assertEquals("v3", second.value());
+        assertEquals("HAMILTON", second.exchange.getIn().getHeader(KafkaConstants.KEY));
+        assertEquals(3L, second.exchange.getIn().getHeader(TelemetryHeaders.RECEIVED_AT));
+        second.ack();
+        Send third = this.next();
+        assertEquals("w1", third.value());
+        assertEquals("BOTTAS", third.exchange.getIn().getHeader(KafkaConstants.KEY));
+        third.ack();
+
+        assertEquals(4, this.conflator.getOffered());
+        assertEquals(1, this.conflator.getConflated());
+        this.awaitSent(3);
+    }
+
+    @Test
+    public void testNothingLostWithoutBackpressure() throws Exception {
+        int values = 10;
+        this.start(values);
+
+        for (int i = 0; i < values; i++) {
+            this.conflator.offer("HAMILTON", "session", i, bytes("v" + i));
+            // sent without waiting for the previous ones to be acknowledged
+            assertEquals("v" + i, this.next().value());
+        }
+
+        assertEquals(values, this.conflator.getInFlight());
+        assertEquals(0, this.conflator.getConflated());
+        assertEquals(0, this.conflator.getPending());
+    }
+
+    @Test
+    public void testFailedSendReleasesThePermit() throws Exception {
+        this.start(1);
+
+        this.conflator.offer("HAMILTON", "session", 1, bytes("v1"));
+        Send first = this.next();
+        first.exchange.setException(new IllegalStateException("broker not available"));
+        first.ack();
+
+        this.conflator.offer("HAMILTON", "session", 2, bytes("v2"));
+        Send second = this.next();
+        assertEquals("v2", second.value());
+        second.ack();
+        this.awaitSent(2);
+    }
+
+    private void start(int maxInFlight) throws Exception {
+        this.conflator = new Conflator(this.camelContext, TO_URI, "test", maxInFlight);
+        this.conflator.start();
+    }
+
+    private Send next() throws InterruptedException {
+        Send send = this.sends.poll(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertNotNull(send);
+        return send;
+    }
+
+    private void awaitSent(long sent) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (this.conflator.getSent() < sent && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(sent, this.conflator.getSent());
+        assertEquals(0, this.conflator.getInFlight());
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static class Send {
+        private final Exchange exchange;
+        private final AsyncCallback callback;
+
+        Send(Exchange exchange, AsyncCallback callback) {
+            this.exchange = exchange;
+            this.callback = callback;
+        }
+
+        String value() {
+            return new String(this.exchange.getIn().getBody(byte[].class), StandardCharsets.UTF_8);
+        }
+
+        void ack() {
+            this.callback.done(false);
+        }
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import io.ppatierno.formula1.enums.PacketId;
+import io.ppatierno.formula1.packets.Packet;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class FrameAssemblerTest {
+
+    private static final EnumSet<PacketId> EXPECTED = EnumSet.of(PacketId.LAP_DATA, PacketId.CAR_TELEMETRY, PacketId.CAR_STATUS);
+    private static final long NO_DEADLINE = 3_600_000;
+
+    private final List<List<ReceivedPacket>> frames = new ArrayList<>();
+
+    @Test
+    public void testInOrder() {
+        FrameAssembler assembler = this.assembler(NO_DEADLINE);
+        for (int frameId = 1; frameId <= 2; frameId++) {
+            this.add(assembler, PacketFixtures.lapDataPacket(frameId));
+            this.add(assembler, PacketFixtures.carTelemetryPacket(frameId));
+            assertEquals(frameId - 1, this.frames.size());
+            this.add(assembler, PacketFixtures.carStatusPacket(frameId));
+        }
+
+        assertEquals(2, this.frames.size());
+        this.assertFrame(this.frames.get(0), 1, 1, 1);
+        this.assertFrame(this.frames.get(1), 2, 2, 2);
+        assertEquals(2, assembler.getCompleted());
+        assertEquals(0, assembler.getIncomplete());
+    }
+
+    @Test
+    public void testParticipantsFirst() {
+        FrameAssembler assembler = this.assembler(NO_DEADLINE);
+        this.add(assembler, PacketFixtures.lapDataPacket(1));
+        this.add(assembler, PacketFixtures.participantsPacket(1, PacketFixtures.NUM_CARS));
+        this.add(assembler, PacketFixtures.carTelemetryPacket(1));
+        this.add(assembler, PacketFixtures.carStatusPacket(1));
+
+        assertEquals(1, this.frames.size());
+        assertEquals(4, this.frames.get(0).size());
+        assertEquals(PacketId.PARTICIPANTS, this.frames.get(0).get(0).getPacket().getHeader().getPacketId());
+    }
+
+    @Test
+    public void testIncompleteOnNewerFrame() {
+        FrameAssembler assembler = this.assembler(NO_DEADLINE);
+        this.add(assembler, PacketFixtures.lapDataPacket(1));
+        this.add(assembler, PacketFixtures.carTelemetryPacket(1));
+        this.add(assembler, PacketFixtures.lapDataPacket(2));
+
+        assertEquals(1, this.frames.size());
+        this.assertFrame(this.frames.get(0), 1, 1, -1);
+        assertEquals(1, assembler.getIncomplete());
+    }
+
+    @Test
+    public void testDeadline() throws InterruptedException {
+        FrameAssembler assembler = this.assembler(10);
+        this.add(assembler, PacketFixtures.lapDataPacket(1));
+        assembler.expire();
+        assertEquals(0, this.frames.size());
+
+        Thread.sleep(20);
+        assembler.expire();
+
+        assertEquals(1, this.frames.size());
+        this.assertFrame(this.frames.get(0), 1, -1, -1);
+        assertEquals(1, assembler.getTimedOut());
+    }
+
+    @Test
+    public void testLatePacketCarriedIntoNextFrame() {
+        FrameAssembler assembler = this.assembler(NO_DEADLINE);
+        this.add(assembler, PacketFixtures.lapDataPacket(1));
+        this.add(assembler, PacketFixtures.carTelemetryPacket(1));
+        this.add(assembler, PacketFixtures.lapDataPacket(2));
+        // frame 1 already provided
+        this.add(assembler, PacketFixtures.carStatusPacket(1));
+        this.add(assembler, PacketFixtures.carTelemetryPacket(2));
+
+        assertEquals(2, this.frames.size());
+        this.assertFrame(this.frames.get(1), 2, 2, 1);
+        assertEquals(1, assembler.getOutOfOrder());
+    }
+
+    @Test
+    public void testNewerLatePacketKept() {
+        FrameAssembler assembler = this.assembler(NO_DEADLINE);
+        this.completeFrame(assembler, 5);
+
+        CountedPacket status3 = this.add(assembler, PacketFixtures.carStatusPacket(3));
+        CountedPacket status4 = this.add(assembler, PacketFixtures.carStatusPacket(4));
+        CountedPacket status2 = this.add(assembler, PacketFixtures.carStatusPacket(2));
+        // the newer late packet replaced the older one, which is released, while the oldest one is not taken at all
+        assertEquals(0, status3.refCnt);
+        assertEquals(1, status4.refCnt);
+        assertEquals(0, status2.refCnt);
+
+        this.add(assembler, PacketFixtures.lapDataPacket(6));
+        this.add(assembler, PacketFixtures.carTelemetryPacket(6));
+
+        assertEquals(2, this.frames.size());
+        this.assertFrame(this.frames.get(1), 6, 6, 4);
+        assertEquals(3, assembler.getOutOfOrder());
+        assertEquals(2, assembler.getDropped());
+    }
+
+    @Test
+    public void testNewerPacketReplacesLateOne() {
+        FrameAssembler assembler = this.assembler(NO_DEADLINE);
+        this.completeFrame(assembler, 5);
+
+        CountedPacket late = this.add(assembler, PacketFixtures.carStatusPacket(4));
+        this.add(assembler, PacketFixtures.lapDataPacket(6));
+        this.add(assembler, PacketFixtures.carStatusPacket(6));
+        assertEquals(0, late.refCnt);
+        this.add(assembler, PacketFixtures.carTelemetryPacket(6));
+
+        this.assertFrame(this.frames.get(1), 6, 6, 6);
+        assertEquals(1, assembler.getDropped());
+        assertEquals(0, assembler.getDuplicated());
+    }
+
+    @Test
+    public void testDuplicated() {
+        FrameAssembler assembler = this.assembler(NO_DEADLINE);
+        CountedPacket first = this.add(assembler, PacketFixtures.lapDataPacket(1));
+        CountedPacket second = this.add(assembler, PacketFixtures.lapDataPacket(1));
+
+        assertEquals(0, first.refCnt);
+        assertEquals(1, second.refCnt);
+        assertEquals(1, assembler.getDuplicated());
+    }
+
+    @Test
+    public void testFrameIdRegression() {
+        FrameAssembler assembler = this.assembler(NO_DEADLINE);
+        this.completeFrame(assembler, 1000);
+        this.completeFrame(assembler, 1001);
+
+        // flashback, the frames restart from an older frameId
+        this.completeFrame(assembler, 500);
+        this.completeFrame(assembler, 501);
+
+        assertEquals(4, this.frames.size());
+        this.assertFrame(this.frames.get(2), 500, 500, 500);
+        this.assertFrame(this.frames.get(3), 501, 501, 501);
+        assertEquals(4, assembler.getCompleted());
+        assertEquals(0, assembler.getOutOfOrder());
+        assertEquals(1, assembler.getRestarted());
+    }
+
+    @Test
+    public void testFrameIdWithinLateWindow() {
+        FrameAssembler assembler = this.assembler(NO_DEADLINE);
+        this.completeFrame(assembler, 1000);
+
+        this.add(assembler, PacketFixtures.lapDataPacket((int) (1000 - FrameAssembler.LATE_WINDOW)));
+
+        assertEquals(1, assembler.getOutOfOrder());
+        assertEquals(0, assembler.getRestarted());
+    }
+
+    @Test
+    public void testFrameIdRegressionWithFrameInProgress() {
+        FrameAssembler assembler = this.assembler(NO_DEADLINE);
+        this.completeFrame(assembler, 1000);
+        this.add(assembler, PacketFixtures.lapDataPacket(1001));
+        // late packet waiting for the next frame
+        CountedPacket late = this.add(assembler, PacketFixtures.carStatusPacket(999));
+
+        this.add(assembler, PacketFixtures.lapDataPacket(10));
+
+        // the frame in progress is provided, with the late packet
+        assertEquals(2, this.frames.size());
+        this.assertFrame(this.frames.get(1), 1001, -1, 999);
+        assertEquals(1, late.refCnt);
+        assertEquals(1, assembler.getIncomplete());
+
+        this.add(assembler, PacketFixtures.carTelemetryPacket(10));
+        this.add(assembler, PacketFixtures.carStatusPacket(10));
+        this.assertFrame(this.frames.get(2), 10, 10, 10);
+    }
+
+    @Test
+    public void testFrameIdRegressionReleasesLatePackets() {
+        FrameAssembler assembler = this.assembler(NO_DEADLINE);
+        this.completeFrame(assembler, 1000);
+        CountedPacket late = this.add(assembler, PacketFixtures.carStatusPacket(999));
+
+        this.add(assembler, PacketFixtures.lapDataPacket(10));
+        this.add(assembler, PacketFixtures.carTelemetryPacket(10));
+
+        // the late packet of the frames before the restart is not carried into the new ones
+        assertEquals(0, late.refCnt);
+        assertEquals(1, this.frames.size());
+        this.add(assembler, PacketFixtures.carStatusPacket(10));
+        this.assertFrame(this.frames.get(1), 10, 10, 10);
+        assertEquals(1, assembler.getDropped());
+    }
+
+    private FrameAssembler assembler(long deadlineMs) {
+        return new FrameAssembler(EXPECTED, deadlineMs, this.frames::add, TelemetryMetrics.noop());
+    }
+
+    private void completeFrame(FrameAssembler assembler, int frameId) {
+        this.add(assembler, PacketFixtures.lapDataPacket(frameId));
+        this.add(assembler, PacketFixtures.carTelemetryPacket(frameId));
+        this.add(assembler, PacketFixtures.carStatusPacket(frameId));
+    }
+
+    /**
+     * Add the packet as the drivers route does, releasing its own reference right after
+     */
+    private CountedPacket add(FrameAssembler assembler, Packet packet) {
+        CountedPacket receivedPacket = new CountedPacket(packet);
+        assembler.add(receivedPacket);
+        receivedPacket.release();
+        return receivedPacket;
+    }
+
+    /**
+     * Assert the frameId of the lap data, car telemetry and car status packets in the frame, -1 if missing
+     */
+    private void assertFrame(List<ReceivedPacket> frame, long lapData, long carTelemetry, long carStatus) {
+        assertEquals(lapData, frameId(frame, PacketId.LAP_DATA));
+        assertEquals(carTelemetry, frameId(frame, PacketId.CAR_TELEMETRY));
+        assertEquals(carStatus, frameId(frame, PacketId.CAR_STATUS));
+    }
+
+    private static long frameId(List<ReceivedPacket> frame, PacketId packetId) {
+        for (ReceivedPacket receivedPacket : frame) {
+            if (receivedPacket.getPacket().getHeader().getPacketId() == packetId) {
+                return receivedPacket.getPacket().getHeader().getFrameIdentifier();
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * ReceivedPacket tracking the references taken on it, as a pooled one
+     */
+    private static class CountedPacket extends ReceivedPacket {
+
+        private int refCnt = 1;
+
+        CountedPacket(Packet packet) {
+            super(packet, "session");
+        }
+
+        @Override
+        public ReceivedPacket retain() {
+            this.refCnt++;
+            return this;
+        }
+
+        @Override
+        public void release() {
+            this.refCnt--;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright Paolo Patierno.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.ppatierno.formula1;
+
+import io.netty.buffer.ByteBuf;
+import io.ppatierno.formula1.data.CarTelemetryData;
+import io.ppatierno.formula1.data.LapData;
+import io.ppatierno.formula1.enums.PacketId;
+import io.ppatierno.formula1.packets.PacketCarTelemetryData;
+import io.ppatierno.formula1.packets.PacketLapData;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class PacketEventDecoderTest {
+
+    private static final InetSocketAddress SENDER = new InetSocketAddress("127.0.0.1", 20777);
+    private static final int NUM_CARS = PacketFixtures.NUM_CARS;
+
+    private final PacketPool pool = new PacketPool(EnumSet.of(PacketId.LAP_DATA, PacketId.CAR_TELEMETRY), 4);
+    private final PacketEventDecoder decoder = new PacketEventDecoder(this.pool);
+
+    @Test
+    public void testPooledRefill() {
+        ReceivedPacket first = this.decoder.decode(PacketFixtures.carTelemetryDatagram(1), SENDER);
+        this.assertCarTelemetry(first, 1);
+        first.release();
+
+        ReceivedPacket second = this.decoder.decode(PacketFixtures.carTelemetryDatagram(2), SENDER);
+
+        // same instance filled again, with the cars data replaced and not appended
+        assertSame(first, second);
+        assertEquals(1, this.pool.getReused());
+        this.assertCarTelemetry(second, 2);
+        this.assertSameCarTelemetry((PacketCarTelemetryData) PacketFixtures.carTelemetryPacket(2), (PacketCarTelemetryData) second.getPacket());
+    }
+
+    @Test
+    public void testPooledRefillDifferentTypes() {
+        ReceivedPacket lapData = this.decoder.decode(PacketFixtures.lapDataDatagram(1), SENDER);
+        ReceivedPacket carTelemetry = this.decoder.decode(PacketFixtures.carTelemetryDatagram(1), SENDER);
+        lapData.release();
+        carTelemetry.release();
+
+        ReceivedPacket refilledCarTelemetry = this.decoder.decode(PacketFixtures.carTelemetryDatagram(5), SENDER);
+        ReceivedPacket refilledLapData = this.decoder.decode(PacketFixtures.lapDataDatagram(5), SENDER);
+
+        // each packet type gets its own instances back
+        assertSame(carTelemetry, refilledCarTelemetry);
+        assertSame(lapData, refilledLapData);
+        this.assertCarTelemetry(refilledCarTelemetry, 5);
+        List<LapData> laps = ((PacketLapData) refilledLapData.getPacket()).getLapData();
+        List<LapData> expected = ((PacketLapData) PacketFixtures.lapDataPacket(5)).getLapData();
+        assertEquals(expected.size(), laps.size());
+        for (int i = 0; i < laps.size(); i++) {
+            assertEquals(expected.get(i).getLastLapTime(), laps.get(i).getLastLapTime(), 0);
+        }
+        assertEquals(95.0f, laps.get(0).getLastLapTime(), 0);
+    }
+
+    @Test
+    public void testNotReusedWhileReferenced() {
+        ReceivedPacket first = this.decoder.decode(PacketFixtures.carTelemetryDatagram(1), SENDER);
+        // i.e. the frame assembler holding it
+        first.retain();
+        first.release();
+
+        ReceivedPacket second = this.decoder.decode(PacketFixtures.carTelemetryDatagram(2), SENDER);
+
+        assertNotSame(first, second);
+        assertEquals(2, this.pool.getAllocated());
+        // the first one is untouched
+        this.assertCarTelemetry(first, 1);
+        this.assertCarTelemetry(second, 2);
+    }
+
+    @Test
+    public void testNotPooled() {
+        ReceivedPacket first = this.decoder.decode(PacketFixtures.carStatusDatagram(1), SENDER);
+        first.release();
+        ReceivedPacket second = this.decoder.decode(PacketFixtures.carStatusDatagram(2), SENDER);
+
+        assertNotSame(first, second);
+        assertEquals(0, this.pool.getAllocated());
+        assertEquals(PacketId.CAR_STATUS, second.getPacket().getHeader().getPacketId());
+    }
+
+    @Test
+    public void testRawPassthrough() {
+        PacketEventDecoder rawDecoder = new PacketEventDecoder(this.pool, true);
+        ByteBuf datagram = PacketFixtures.carTelemetryDatagram(1);
+        byte[] bytes = new byte[datagram.readableBytes()];
+        datagram.getBytes(0, bytes);
+
+        ReceivedPacket receivedPacket = rawDecoder.decode(datagram, SENDER);
+
+        assertArrayEquals(bytes, receivedPacket.getRaw());
+        assertNull(this.decoder.decode(PacketFixtures.carTelemetryDatagram(1), SENDER).getRaw());
+    }
+
+    @Test
+    public void testSessionId() {
+        ReceivedPacket receivedPacket = this.decoder.decode(PacketFixtures.carTelemetryDatagram(1), SENDER);
+
+        assertEquals(Long.toHexString(PacketFixtures.SESSION_UID) + "@127.0.0.1:20777", receivedPacket.getSessionId());
+        assertEquals(1, receivedPacket.getPacket().getHeader().getFrameIdentifier());
+    }
+
+    private void assertCarTelemetry(ReceivedPacket receivedPacket, int frameId) {
+        assertEquals(frameId, receivedPacket.getPacket().getHeader().getFrameIdentifier());
+        List<CarTelemetryData> cars = ((PacketCarTelemetryData) receivedPacket.getPacket()).getCarTelemetryData();
+        assertEquals(NUM_CARS, cars.size());
+        for (int i = 0; i < NUM_CARS; i++) {
+            assertEquals(PacketFixtures.speed(frameId, i), cars.get(i).getSpeed());
+        }
+    }
+
+    private void assertSameCarTelemetry(PacketCarTelemetryData expected, PacketCarTelemetryData actual) {
+        assertEquals(expected.getCarTelemetryData().size(), actual.getCarTelemetryData().size());
+        for (int i = 0; i < expected.getCarTelemetryData().size(); i++) {
+            CarTelemetryData expectedCar = expected.getCarTelemetryData().get(i);
+            CarTelemetryData actualCar = actual.getCarTelemetryData().get(i);
+            assertEquals(expectedCar.getSpeed(), actualCar.getSpeed());
+            assertEquals(expectedCar.getEngineRPM(), actualCar.getEngineRPM());
+            assertEquals(expectedCar.getThrottle(), actualCar.getThrottle(), 0);
+            assertEquals(expectedCar.getBrake(), actualCar.getBrake(), 0);
+        }
+    }
+}
@@ -4,6 +4,7 @@
  */
 package io.ppatierno.formula1;
 
+import io.micrometer.core.instrument.Counter;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
 import io.vertx.kafka.client.consumer.KafkaConsumer;
@@ -21,10 +22,14 @@ public class F1WebConsumer {
     private Vertx vertx;
     private KafkaConsumer<String, Driver> consumer;
     private F1WebUIAppConfig config;
+    private LatencyRecorder latencyRecorder;
+    private Counter published;
 
-    public F1WebConsumer(Vertx vertx, F1WebUIAppConfig config) {
+    public F1WebConsumer(Vertx vertx, F1WebUIAppConfig config, LatencyRecorder latencyRecorder, TelemetryMetrics metrics) {
         this.vertx = vertx;
         this.config = config;
+        this.latencyRecorder = latencyRecorder;
+        this.published = metrics.eventBusPublished("f1-race-ranking");
         Properties props = new Properties();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, this.config.getKafkaBootstrapServers());
         props.put(ConsumerConfig.GROUP_ID_CONFIG, this.config.getF1DriversGroupId());
@@ -35,6 +40,9 @@ public class F1WebConsumer {
         this.consumer.handler(record -> {
             log.trace("record = {}", record);
             this.vertx.eventBus().publish("f1-race-ranking", driverToJson(record.value()));
+            this.published.increment();
+            // from the UDP packets being received to the driver published to the web UI
+            this.latencyRecorder.record(TelemetryHeaders.receivedAt(record.record().headers()));
         });
         this.consumer.subscribe(this.config.getF1DriversTopic(), done -> {
             if (done.succeeded()) {
@@ -19,9 +19,13 @@ public class F1WebServer extends AbstractVerticle {
     private static Logger log = LoggerFactory.getLogger(F1WebServer.class);
 
     private F1WebUIAppConfig config;
+    private LatencyRecorder latencyRecorder;
+    private TelemetryMetrics metrics;
 
-    public F1WebServer(F1WebUIAppConfig config) {
+    public F1WebServer(F1WebUIAppConfig config, LatencyRecorder latencyRecorder, TelemetryMetrics metrics) {
         this.config = config;
+        this.latencyRecorder = latencyRecorder;
+        this.metrics = metrics;
     }
 
     @Override
@@ -43,7 +47,7 @@ public class F1WebServer extends AbstractVerticle {
                     if (done.succeeded()) {
                         log.info("F1 Telemetry Web Server started successfully");
                         // create and start the consumer for Drivers
-                        F1WebConsumer consumer = new F1WebConsumer(vertx, config);
+                        F1WebConsumer consumer = new F1WebConsumer(vertx, config, latencyRecorder, metrics);
                         consumer.start();
                         startPromise.complete();
                     } else {
@@ -8,6 +8,8 @@ import io.vertx.core.Vertx;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+
 public class F1WebUIApp {
 
     private static Logger log = LoggerFactory.getLogger(F1WebUIApp.class);
@@ -16,8 +18,19 @@ public class F1WebUIApp {
         F1WebUIAppConfig config = F1WebUIAppConfig.fromEnv();
         log.info("Config: {}", config);
 
+        MetricsServer metricsServer = new MetricsServer(config.getMetricsPort());
+        TelemetryMetrics metrics = new TelemetryMetrics(metricsServer.getRegistry());
+        LatencyRecorder latencyRecorder = metrics.latency("webui-eventbus");
+        metrics.bindConsumerLag();
+        try {
+            metricsServer.start();
+        } catch (IOException e) {
+            log.error("Error starting the metrics server", e);
+            System.exit(1);
+        }
+
         Vertx vertx = Vertx.vertx();
-        F1WebServer f1WebServer = new F1WebServer(config);
+        F1WebServer f1WebServer = new F1WebServer(config, latencyRecorder, metrics);
         vertx.deployVerticle(f1WebServer, done -> {
             if (!done.succeeded()) {
                 System.exit(1);
@@ -6,24 +6,30 @@ public class F1WebUIAppConfig extends KafkaBaseConfig {
 
     private static final String F1_DRIVERS_GROUP_ID_ENV = "F1_DRIVERS_GROUP_ID";
     private static final String F1_DRIVERS_TOPIC_ENV = "F1_DRIVERS_TOPIC";
+    private static final String METRICS_PORT_ENV = "METRICS_PORT";
 
     private static final String DEFAULT_F1_DRIVERS_GROUP_ID = "f1-drivers-webgroup";
     private static final String DEFAULT_F1_DRIVERS_TOPIC = "f1-telemetry-drivers";
+    // port of the "/metrics" endpoint
+    private static final int DEFAULT_METRICS_PORT = 9404;
 
     private final String f1DriversGroupId;
     private final String f1DriversTopic;
+    private final int metricsPort;
 
-    private F1WebUIAppConfig(String kafkaBootstrapServers, String f1DriversGroupId, String f1DriversTopic) {
+    private F1WebUIAppConfig(String kafkaBootstrapServers, String f1DriversGroupId, String f1DriversTopic, int metricsPort) {
         super(kafkaBootstrapServers, null, null);
         this.f1DriversGroupId = f1DriversGroupId;
         this.f1DriversTopic = f1DriversTopic;
+        this.metricsPort = metricsPort;
     }
 
     public static F1WebUIAppConfig fromEnv() {
         String kafkaBootstrapServers = System.getenv(KAFKA_BOOTSTRAP_SERVERS_ENV) == null ? DEFAULT_KAFKA_BOOTSTRAP_SERVERS : System.getenv(KAFKA_BOOTSTRAP_SERVERS_ENV);
         String f1DriversGroupId = System.getenv(F1_DRIVERS_GROUP_ID_ENV) == null ? DEFAULT_F1_DRIVERS_GROUP_ID : System.getenv(F1_DRIVERS_GROUP_ID_ENV);
         String f1DriversTopic = System.getenv(F1_DRIVERS_TOPIC_ENV) == null ? DEFAULT_F1_DRIVERS_TOPIC : System.getenv(F1_DRIVERS_TOPIC_ENV);
-        return new F1WebUIAppConfig(kafkaBootstrapServers, f1DriversGroupId, f1DriversTopic);
+        int metricsPort = System.getenv(METRICS_PORT_ENV) == null ? DEFAULT_METRICS_PORT : Integer.parseInt(System.getenv(METRICS_PORT_ENV));
+        return new F1WebUIAppConfig(kafkaBootstrapServers, f1DriversGroupId, f1DriversTopic, metricsPort);
     }
 
     public String getF1DriversGroupId() {
@@ -34,12 +40,17 @@ public class F1WebUIAppConfig extends KafkaBaseConfig {
         return f1DriversTopic;
     }
 
+    public int getMetricsPort() {
+        return metricsPort;
+    }
+
     @Override
     public String toString() {
         return "F1WebUIAppConfig[" +
                 "kafkaBootstrapServers=" + this.kafkaBootstrapServers +
                 ", f1DriversGroupId=" + this.f1DriversGroupId +
                 ", f1DriversTopic=" + this.f1DriversTopic +
+                ", metricsPort=" + this.metricsPort +
                 "]";
     }
 }